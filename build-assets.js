@@ -0,0 +1,144 @@
+/*
+ * Static asset pipeline, run by the buildAssets Gradle task once webpack and copyDevToDist have filled the dist folder.
+ *
+ * Every script and stylesheet in dist is minified (unless webpack already built it, which it marks with a source map,
+ * or it is already .min), then written again under a name carrying a hash of its content, with .gz and .br copies
+ * alongside.  Webpack's chunks (dist/chunks) are already named for their content, so only get the copies.
+ * dist/asset-manifest.json maps each original path to its hashed path and the precompressed copies that exist, lists
+ * the hashed scripts of each webpack entry point in load order, and is read by index.jsp and the StaticAssetFilter.  A
+ * changed file gets a new name, so browsers can keep every hashed file forever.
+ *
+ * Usage: node build-assets.js <webapp directory>
+ */
+const crypto = require('crypto');
+const fs = require('fs');
+const path = require('path');
+const zlib = require('zlib');
+const { minify } = require('terser');
+
+const webappDir = path.resolve(process.argv[2] || 'src/main/webapp');
+const distDir = path.join(webappDir, 'dist');
+const chunksDir = path.join(distDir, 'chunks');
+const MANIFEST_FILE = 'asset-manifest.json';
+// Written by the BundleReportPlugin in webpack.config.js.
+const ENTRYPOINTS_FILE = 'entrypoints.json';
+
+// Hashed names look like science_portal.0123456789.js.
+const HASHED_NAME = /\.[0-9a-f]{10}\.(js|css)$/;
+const ASSET_NAME = /\.(js|css)$/;
+
+// Below this, compression saves less than the extra request headers cost.
+const MIN_COMPRESS_BYTES = 1024;
+
+function listFiles(dir) {
+  return fs.readdirSync(dir, { withFileTypes: true }).flatMap((entry) => {
+    const entryPath = path.join(dir, entry.name);
+    return entry.isDirectory() ? listFiles(entryPath) : [entryPath];
+  });
+}
+
+function toWebPath(file) {
+  return path.relative(webappDir, file).split(path.sep).join('/');
+}
+
+function isChunk(file) {
+  return file.startsWith(chunksDir + path.sep);
+}
+
+// Remove the output of a previous run, so that stale hashed files are not packaged.  Webpack cleans its own chunks.
+function clean(files) {
+  return files.filter((file) => {
+    const stale = (HASHED_NAME.test(file) && !isChunk(file)) || file.endsWith('.gz') || file.endsWith('.br')
+        || path.basename(file) === MANIFEST_FILE;
+    if (stale) {
+      fs.unlinkSync(file);
+    }
+    return !stale;
+  });
+}
+
+async function minifyAsset(file, content) {
+  if (!file.endsWith('.js') || file.endsWith('.min.js') || fs.existsSync(file + '.map')) {
+    return content;
+  }
+
+  const result = await minify(content.toString('utf8'), { compress: true, mangle: true });
+  return Buffer.from(result.code, 'utf8');
+}
+
+function writeCompressed(file, content) {
+  const encodings = [];
+  if (content.length < MIN_COMPRESS_BYTES) {
+    return encodings;
+  }
+
+  const brotli = zlib.brotliCompressSync(content, {
+    params: {
+      [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY,
+      [zlib.constants.BROTLI_PARAM_SIZE_HINT]: content.length
+    }
+  });
+  if (brotli.length < content.length) {
+    fs.writeFileSync(file + '.br', brotli);
+    encodings.push('br');
+  }
+
+  const gzip = zlib.gzipSync(content, { level: zlib.constants.Z_BEST_COMPRESSION });
+  if (gzip.length < content.length) {
+    fs.writeFileSync(file + '.gz', gzip);
+    encodings.push('gzip');
+  }
+
+  return encodings;
+}
+
+async function main() {
+  if (!fs.existsSync(distDir)) {
+    throw new Error('No dist folder in ' + webappDir + '.  Run buildReactApp and copyDevToDist first.');
+  }
+
+  const files = {};
+  const assets = clean(listFiles(distDir)).filter((file) => ASSET_NAME.test(file)).sort();
+
+  for (const file of assets) {
+    if (isChunk(file)) {
+      files[toWebPath(file)] = { path: toWebPath(file), encodings: writeCompressed(file, fs.readFileSync(file)) };
+      continue;
+    }
+
+    const content = await minifyAsset(file, fs.readFileSync(file));
+    const hash = crypto.createHash('sha256').update(content).digest('hex').substring(0, 10);
+    const extension = path.extname(file);
+    const hashedFile = file.substring(0, file.length - extension.length) + '.' + hash + extension;
+
+    fs.writeFileSync(hashedFile, content);
+    files[toWebPath(file)] = {
+      path: toWebPath(hashedFile),
+      encodings: writeCompressed(hashedFile, content)
+    };
+  }
+
+  const entrypoints = {};
+  const entrypointsFile = path.join(distDir, ENTRYPOINTS_FILE);
+  if (fs.existsSync(entrypointsFile)) {
+    const entryFiles = JSON.parse(fs.readFileSync(entrypointsFile, 'utf8'));
+    for (const [name, scripts] of Object.entries(entryFiles)) {
+      entrypoints[name] = scripts.map((script) => {
+        const asset = files['dist/' + script];
+        if (asset === undefined) {
+          throw new Error('Entry point ' + name + ' script ' + script + ' is not in ' + toWebPath(distDir));
+        }
+        return asset.path;
+      });
+    }
+  }
+
+  const manifest = { files: files, entrypoints: entrypoints };
+  fs.writeFileSync(path.join(distDir, MANIFEST_FILE), JSON.stringify(manifest, null, 2) + '\n');
+  console.log('Fingerprinted ' + assets.length + ' assets into ' + toWebPath(path.join(distDir, MANIFEST_FILE)));
+}
+
+main().catch((error) => {
+  console.error(error);
+  process.exit(1);
+});
@@ -167,8 +167,8 @@
           // Any changes in session list will be picked up by the single polling instance
           _selfPortalApp.isPolling = true
 
-          // If everything is stable, stop. If no, kick off polling
-          portalSessions.pollSessionList(8000)
+          // If everything is stable, stop. If no, follow changes until it is
+          portalSessions.watchSessionList(8000)
             .then(function (finalState) {
               if (finalState == "done") {
                 // Grab new session list
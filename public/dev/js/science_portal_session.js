@@ -509,10 +509,27 @@
         // resources forever
         interval = interval || 200
 
+        // Each poll asks only for the changes since the previous one.  The first poll, or
+        // one whose version the portal no longer has, gets the full list.
+        var sessionsByID = {}
+        var version = "none"
+
         var checkCondition = function (resolve, reject) {
-          _getAjaxData(`${_selfPortalSess.sessionServiceURL}?view=interactive`, {})
-            .then(function (sessionList) {
-              _selfPortalSess.setSessionList(sessionList)
+          _getAjaxData(
+            `${_selfPortalSess.sessionServiceURL}?view=interactive&since=${encodeURIComponent(version)}`, {})
+            .then(function (changes) {
+              if (changes.full) {
+                sessionsByID = {}
+              }
+              changes.sessions.forEach(function (session) {
+                sessionsByID[session.id] = session
+              })
+              changes.removed.forEach(function (sessionID) {
+                delete sessionsByID[sessionID]
+              })
+              version = changes.version
+
+              _selfPortalSess.setSessionList(Object.values(sessionsByID))
               if (_selfPortalSess.isAllSessionsStable()) {
                 resolve("done")
               } else {
@@ -530,6 +547,65 @@
         return new Promise(checkCondition)
     }
 
+    /**
+     * Follow session list changes pushed by the server until all sessions are stable.
+     * Resolves like pollSessionList, and falls back to it where EventSource is not
+     * available or the event stream cannot be opened.
+     */
+    function watchSessionList(interval) {
+      if (typeof window.EventSource === "undefined") {
+        return pollSessionList(interval)
+      }
+
+      return new Promise(function (resolve, reject) {
+        var sessionsByID = {}
+        var opened = false
+        var eventSource = new EventSource(
+          `${_selfPortalSess.sessionServiceURL}/events?view=interactive`, {withCredentials: true})
+
+        var update = function () {
+          setSessionList(Object.values(sessionsByID))
+          if (isAllSessionsStable()) {
+            eventSource.close()
+            resolve("done")
+          } else {
+            trigger(_selfPortalSess, cadc.web.science.portal.session.events.onPollingContinue)
+          }
+        }
+
+        var putSession = function (e) {
+          var session = JSON.parse(e.data)
+          sessionsByID[session.id] = session
+          update()
+        }
+
+        // Sent first on every (re)connection, so replace what is known.
+        eventSource.addEventListener("sessions", function (e) {
+          opened = true
+          sessionsByID = {}
+          JSON.parse(e.data).forEach(function (session) {
+            sessionsByID[session.id] = session
+          })
+          update()
+        })
+        eventSource.addEventListener("session-added", putSession)
+        eventSource.addEventListener("session-changed", putSession)
+        eventSource.addEventListener("session-removed", function (e) {
+          delete sessionsByID[JSON.parse(e.data).id]
+          update()
+        })
+
+        eventSource.onerror = function () {
+          // EventSource reconnects by itself after a dropped stream.  Give up only if the
+          // stream never opened or the server refused it.
+          if (!opened || eventSource.readyState === EventSource.CLOSED) {
+            eventSource.close()
+            pollSessionList(interval).then(resolve, reject)
+          }
+        }
+      })
+    }
+
     // ---------- Event Handling Functions ----------
 
     function subscribe(target, event, eHandler) {
@@ -568,6 +644,7 @@
         isSessionStatusByID: isSessionStatusByID,
         isSessionListEmpty : isSessionListEmpty,
         pollSessionList: pollSessionList,
+        watchSessionList: watchSessionList,
         deleteSession: deleteSession,
         renewSession: renewSession,
         sortSessions: sortSessions
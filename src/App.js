@@ -1,4 +1,4 @@
-import React from "react";
+import React, { Suspense } from "react";
 import ReactDOM from "react-dom/client";
 
 import CanfarLoginModal from "./react/canfar/CanfarLoginModal";
@@ -7,8 +7,6 @@ import CanfarNavbar from "./react/canfar/CanfarNavbar";
 import SRCNavbar from "./react/src/SRCNavbar";
 import SessionItem from "./react/SessionItem";
 import SciencePortalConfirm from "./react/SciencePortalConfirm";
-import SciencePortalForm from "./react/SciencePortalForm";
-import SciencePortalPrivateForm from "./react/SciencePortalPrivateForm";
 import SciencePortalModal from "./react/SciencePortalModal";
 import SciencePortalPlatformLoad from "./react/SciencePortalPlatformLoad";
 
@@ -16,6 +14,7 @@ import Button from "react-bootstrap/Button";
 import Col from "react-bootstrap/Col";
 import Container from "react-bootstrap/Container";
 import OverlayTrigger from "react-bootstrap/OverlayTrigger";
+import Placeholder from "react-bootstrap/Placeholder";
 import ProgressBar from "react-bootstrap/ProgressBar";
 import Row from "react-bootstrap/Row";
 
@@ -38,7 +37,25 @@ import "react-tabs/style/react-tabs.css";
 import "./react/sp-session-list.css";
 import Alert from "react-bootstrap/Alert";
 import Card from "react-bootstrap/Card";
-import SciencePortalUserStorage from "./react/SciencePortalUserStorage";
+
+// The launch forms and the storage widget are loaded in their own chunks once the page has rendered, so that they do
+// not delay it.
+const SciencePortalForm = React.lazy(() =>
+  import(/* webpackChunkName: "launch-form" */ "./react/SciencePortalForm"),
+);
+const SciencePortalPrivateForm = React.lazy(() =>
+  import(/* webpackChunkName: "launch-form" */ "./react/SciencePortalPrivateForm"),
+);
+const SciencePortalUserStorage = React.lazy(() =>
+  import(/* webpackChunkName: "user-storage" */ "./react/SciencePortalUserStorage"),
+);
+
+// Shown while a lazily loaded component's chunk is fetched.
+const LAZY_PLACEHOLDER = (
+  <Placeholder as="p" animation="glow">
+    <Placeholder bg="secondary" xs={12} />
+  </Placeholder>
+);
 
 const MODAL_DATA = {
   title: "Initializing Portal",
@@ -295,12 +312,18 @@ class SciencePortalApp extends React.Component {
     }
 
     const authModal = isAuthenticated ? "" : authModalImplementation;
-    const publicImageForm = <SciencePortalForm fData={this.state.fData} />;
+    const publicImageForm = (
+      <Suspense fallback={LAZY_PLACEHOLDER}>
+        <SciencePortalForm fData={this.state.fData} />
+      </Suspense>
+    );
     const unlistedImageForm = (
-      <SciencePortalPrivateForm
-        fData={this.state.fData}
-        authenticatedUsername={name}
-      />
+      <Suspense fallback={LAZY_PLACEHOLDER}>
+        <SciencePortalPrivateForm
+          fData={this.state.fData}
+          authenticatedUsername={name}
+        />
+      </Suspense>
     );
 
     return (
@@ -406,11 +429,13 @@ class SciencePortalApp extends React.Component {
                 <Col sm={1} className={"sp-card-container ms-auto"}>
                   <Card>
                     <Card.Body>
-                      <SciencePortalUserStorage
-                        isAuthenticated={true}
-                        name={name}
-                        storageUrl={this.state.storageUrl}
-                      />
+                      <Suspense fallback={LAZY_PLACEHOLDER}>
+                        <SciencePortalUserStorage
+                          isAuthenticated={true}
+                          name={name}
+                          storageUrl={this.state.storageUrl}
+                        />
+                      </Suspense>
                     </Card.Body>
                   </Card>
                 </Col>
@@ -0,0 +1,138 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Loading a configuration snapshot from a properties file, as the Watcher does when the file changes, against the
+ * lookups every request makes on the shared snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ApplicationConfigurationBenchmark {
+    private static final String PROPERTIES = String.join(
+            "\n",
+            "org.opencadc.science-portal.sessions.resourceID = ivo://cadc.nrc.ca/skaha",
+            "org.opencadc.science-portal.sessions.standard = vos://cadc.nrc.ca~vospace/CADC/std/Proc#sessions-1.0",
+            "org.opencadc.science-portal.theme.name = canfar",
+            "org.opencadc.science-portal.tabLabels = Public, Advanced",
+            "org.opencadc.science-portal.oidc.clientID = science-portal",
+            "org.opencadc.science-portal.oidc.clientSecret = secret",
+            "org.opencadc.science-portal.oidc.callbackURI = https://example.com/callback",
+            "org.opencadc.science-portal.oidc.redirectURI = https://example.com/redirect",
+            "org.opencadc.science-portal.oidc.scope = openid profile email",
+            "org.opencadc.science-portal.tokenCache.url = redis://localhost:6379",
+            "org.opencadc.science-portal.storageXmlInfoUrl = https://ws-uv.canfar.net/arc/nodes/home/",
+            "org.opencadc.science-portal.proxy.maxConcurrentRequestsPerHost = 64",
+            "");
+
+    private Path configFilePath;
+    private ApplicationConfiguration applicationConfiguration;
+
+    @Setup
+    public void setup() throws IOException {
+        this.configFilePath = Files.createTempFile("org.opencadc.science-portal", ".properties");
+        Files.write(this.configFilePath, ApplicationConfigurationBenchmark.PROPERTIES.getBytes(StandardCharsets.UTF_8));
+        this.applicationConfiguration = ApplicationConfiguration.load(this.configFilePath);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.configFilePath);
+    }
+
+    @Benchmark
+    public ApplicationConfiguration load() {
+        return ApplicationConfiguration.load(this.configFilePath);
+    }
+
+    @Benchmark
+    public int lookup() {
+        final ApplicationConfiguration snapshot = this.applicationConfiguration;
+        int result = snapshot.getResourceID().length();
+        result += snapshot.isOIDCConfigured() ? 1 : 0;
+        result += snapshot.getProxyMaxConcurrentRequestsPerHost();
+        result += snapshot.getTokenCacheLocalMaxAgeSeconds() > 0L ? 1 : 0;
+        result += snapshot.isProxyAsyncEnabled() ? 1 : 0;
+        return result;
+    }
+}
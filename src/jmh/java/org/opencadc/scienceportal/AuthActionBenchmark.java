@@ -0,0 +1,175 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import javax.security.auth.Subject;
+import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-request work in the proxy actions before anything is sent upstream: finding the first-party cookie in the Cookie
+ * header and exchanging it (from the in-process token cache) for upstream credentials, and rebuilding the upstream
+ * query string.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AuthActionBenchmark {
+    private static final String ENCRYPTED_COOKIE_VALUE = "c2NpZW5jZS1wb3J0YWwtYXV0aC1lbmNyeXB0ZWQtYXNzZXRzLWtleQ";
+
+    // Number of other cookies the browser sends alongside the first-party cookie.
+    @Param({"0", "12"})
+    public int otherCookieCount;
+
+    private String cookieHeader;
+    private URL apiURL;
+    private ApplicationConfiguration applicationConfiguration;
+    private BenchmarkGetAction getAction;
+
+    @Setup
+    public void setup() throws Exception {
+        // Keep the token cached for the whole run, as the OIDC client is not available to reload it.
+        System.setProperty("org.opencadc.science-portal.tokenCache.localMaxAgeSeconds", "86400");
+
+        final PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.setProperty("org.opencadc.science-portal.oidc.clientID", "science-portal");
+        configuration.setProperty("org.opencadc.science-portal.oidc.clientSecret", "secret");
+        configuration.setProperty("org.opencadc.science-portal.oidc.callbackURI", "https://example.com/callback");
+        configuration.setProperty("org.opencadc.science-portal.oidc.redirectURI", "https://example.com/redirect");
+        configuration.setProperty("org.opencadc.science-portal.oidc.scope", "openid profile email");
+        configuration.setProperty("org.opencadc.science-portal.tokenCache.url", "redis://localhost:6379");
+        this.applicationConfiguration = new ApplicationConfiguration(configuration);
+
+        final StringBuilder cookieHeaderBuilder = new StringBuilder();
+        for (int i = 0; i < this.otherCookieCount; i++) {
+            cookieHeaderBuilder
+                    .append("_ga_")
+                    .append(i)
+                    .append("=GA1.1.")
+                    .append(1700000000 + i)
+                    .append("; ");
+        }
+        this.cookieHeader = cookieHeaderBuilder
+                .append(ApplicationConfiguration.FIRST_PARTY_COOKIE_NAME)
+                .append("=\"")
+                .append(AuthActionBenchmark.ENCRYPTED_COOKIE_VALUE)
+                .append("\"")
+                .toString();
+
+        SciencePortalAuthAction.getAccessTokenCache()
+                .getAccessToken(AuthActionBenchmark.ENCRYPTED_COOKIE_VALUE, () -> "eyJhbGciOiJSUzI1NiJ9.e30.c2ln");
+
+        this.apiURL = new URL("https://ws-uv.canfar.net/skaha/v1/session");
+        this.getAction = new BenchmarkGetAction(new FixtureSyncInput("https://example.com/science-portal/session", null)
+                .parameter("view", "all")
+                .parameter("type", "notebook")
+                .parameter("status", "Running"));
+    }
+
+    // Allocation per call (gc.alloc.rate.norm) should be the returned value alone, whatever the number of other
+    // cookies.
+    @Benchmark
+    public String scanCookies() {
+        final CookieScanner cookieScanner =
+                new CookieScanner(this.cookieHeader, ApplicationConfiguration.FIRST_PARTY_COOKIE_NAME);
+        return cookieScanner.next() ? cookieScanner.value() : null;
+    }
+
+    @Benchmark
+    public Subject resolveSubject() throws Exception {
+        return SciencePortalAuthAction.resolveSubject(
+                this.cookieHeader, new Subject(), this.apiURL, this.applicationConfiguration);
+    }
+
+    @Benchmark
+    public ProxyRequest rebuildQuery() throws IOException {
+        return this.getAction.createProxyRequest(this.apiURL);
+    }
+
+    private static final class BenchmarkGetAction extends SciencePortalAuthGetAction {
+        BenchmarkGetAction(final FixtureSyncInput syncInput) {
+            this.syncInput = syncInput;
+        }
+
+        @Override
+        protected URL getAPIURL() {
+            throw new UnsupportedOperationException("Not used by the benchmark.");
+        }
+    }
+}
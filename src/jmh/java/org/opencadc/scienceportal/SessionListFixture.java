@@ -0,0 +1,129 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal;
+
+import java.nio.charset.StandardCharsets;
+
+/** Builds Skaha-like session list payloads for benchmarks. */
+public final class SessionListFixture {
+    private SessionListFixture() {}
+
+    /**
+     * Build a pretty-printed JSON array of sessions, one field per line, as Skaha returns them.
+     *
+     * @param sessionCount Number of sessions in the list.
+     * @return UTF-8 encoded JSON.
+     */
+    public static byte[] sessionListJSON(final int sessionCount) {
+        final StringBuilder builder = new StringBuilder("[\n");
+        for (int i = 0; i < sessionCount; i++) {
+            builder.append("  {\n")
+                    .append("    \"id\": \"s")
+                    .append(i)
+                    .append("xk4m2\",\n")
+                    .append("    \"userid\": \"user")
+                    .append(i % 17)
+                    .append("\",\n")
+                    .append("    \"runAsUID\": \"")
+                    .append(20000 + i)
+                    .append("\",\n")
+                    .append("    \"runAsGID\": \"")
+                    .append(20000 + i)
+                    .append("\",\n")
+                    .append("    \"supplementalGroups\": [1001, 1002, 1003],\n")
+                    .append("    \"appid\": \"<none>\",\n")
+                    .append("    \"image\": \"images.canfar.net/skaha/astroml-notebook:24.07\",\n")
+                    .append("    \"type\": \"")
+                    .append(i % 3 == 0 ? "desktop" : "notebook")
+                    .append("\",\n")
+                    .append("    \"status\": \"")
+                    .append(i % 5 == 0 ? "Pending" : "Running")
+                    .append("\",\n")
+                    .append("    \"name\": \"session-")
+                    .append(i)
+                    .append("\",\n")
+                    .append("    \"startTime\": \"2026-10-01T12:00:00Z\",\n")
+                    .append("    \"expiryTime\": \"2026-10-05T12:00:00Z\",\n")
+                    .append("    \"connectURL\": \"https://ws-uv.canfar.net/session/notebook/s")
+                    .append(i)
+                    .append("xk4m2/lab/tree/arc/home/user?token=s")
+                    .append(i)
+                    .append("xk4m2\",\n")
+                    .append("    \"requestedRAM\": \"8G\",\n")
+                    .append("    \"requestedCPUCores\": \"2\",\n")
+                    .append("    \"requestedGPUCores\": \"0\",\n")
+                    .append("    \"ramInUse\": \"1.2G\",\n")
+                    .append("    \"gpuRAMInUse\": \"<none>\",\n")
+                    .append("    \"cpuCoresInUse\": \"0.013\",\n")
+                    .append("    \"gpuUtilization\": \"<none>\"\n")
+                    .append(i == sessionCount - 1 ? "  }\n" : "  },\n");
+        }
+        return builder.append("]\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,152 @@
+package org.opencadc.scienceportal.proxy;
+
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.opencadc.scienceportal.SessionListFixture;
+import org.opencadc.scienceportal.VirtualThreads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares how many slow upstream calls can be in flight with the blocking, asynchronous and virtual thread proxy
+ * paths. A local stub upstream answers every request after a fixed delay. Each operation proxies a batch of requests:
+ * the blocking path waits for each in turn, as a request thread does; the platform pool path spreads them over a small
+ * fixed pool, as a bounded connector does; the asynchronous path waits on none of them; and the virtual thread path
+ * blocks one virtual thread per request. The virtual thread benchmark requires Java 21 or later.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProxyTransportBenchmark {
+    @Param({"20"})
+    public long upstreamDelayMilliseconds;
+
+    @Param({"16"})
+    public int batchSize;
+
+    // Stands in for a connector's worker pool.
+    @Param({"4"})
+    public int platformThreads;
+
+    private HttpServer stubServer;
+    private ExecutorService stubExecutor;
+    private ExecutorService platformExecutor;
+    private ExecutorService virtualThreadExecutor;
+    private ProxyTransport proxyTransport;
+    private ProxyRequest proxyRequest;
+
+    @Setup
+    public void setup() throws Exception {
+        final byte[] body = SessionListFixture.sessionListJSON(50);
+
+        this.stubExecutor = Executors.newCachedThreadPool();
+        this.stubServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.stubServer.setExecutor(this.stubExecutor);
+        this.stubServer.createContext("/skaha/v1/repository", exchange -> {
+            try {
+                Thread.sleep(this.upstreamDelayMilliseconds);
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("content-type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        this.stubServer.start();
+
+        this.platformExecutor = Executors.newFixedThreadPool(this.platformThreads);
+        this.virtualThreadExecutor = VirtualThreads.isSupported()
+                ? (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor")
+                        .invoke(null)
+                : null;
+
+        this.proxyTransport = new ProxyTransport(
+                HttpClient.Version.HTTP_1_1, Duration.ofSeconds(10L), Duration.ofSeconds(10L), this.batchSize);
+        this.proxyRequest = new ProxyRequest(
+                ProxyRequest.GET,
+                new URL("http://127.0.0.1:" + this.stubServer.getAddress().getPort() + "/skaha/v1/repository"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.stubServer.stop(0);
+        this.stubExecutor.shutdownNow();
+        this.platformExecutor.shutdownNow();
+        if (this.virtualThreadExecutor != null) {
+            this.virtualThreadExecutor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public long blocking() throws Exception {
+        long total = 0L;
+        for (int i = 0; i < this.batchSize; i++) {
+            total += this.proxyTransport.fetch(this.proxyRequest, null).length;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long async() throws Exception {
+        final List<CompletableFuture<byte[]>> bodies = new ArrayList<>(this.batchSize);
+        for (int i = 0; i < this.batchSize; i++) {
+            bodies.add(this.proxyTransport.sendAsync(this.proxyRequest, null).thenCompose(proxyResponse -> {
+                final HttpResponse.BodySubscriber<byte[]> bodySubscriber = HttpResponse.BodySubscribers.ofByteArray();
+                proxyResponse.getBody().subscribe(bodySubscriber);
+                return bodySubscriber.getBody().whenComplete((body, throwable) -> proxyResponse.release());
+            }));
+        }
+
+        long total = 0L;
+        for (final CompletableFuture<byte[]> body : bodies) {
+            total += body.get().length;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long platformPool() throws Exception {
+        return blockingOn(this.platformExecutor);
+    }
+
+    @Benchmark
+    public long virtualThreads() throws Exception {
+        if (this.virtualThreadExecutor == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later.");
+        }
+        return blockingOn(this.virtualThreadExecutor);
+    }
+
+    private long blockingOn(final ExecutorService executorService) throws Exception {
+        final List<Future<byte[]>> bodies = new ArrayList<>(this.batchSize);
+        for (int i = 0; i < this.batchSize; i++) {
+            bodies.add(executorService.submit(() -> this.proxyTransport.fetch(this.proxyRequest, null)));
+        }
+
+        long total = 0L;
+        for (final Future<byte[]> body : bodies) {
+            total += body.get().length;
+        }
+        return total;
+    }
+}
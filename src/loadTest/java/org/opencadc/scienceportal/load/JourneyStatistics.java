@@ -0,0 +1,186 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal.load;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/** Latency histograms and error counts per journey step, recorded concurrently by all virtual users. */
+class JourneyStatistics {
+    // Track latencies from one microsecond to one minute with three significant digits.
+    private static final long MAX_LATENCY_MICROSECONDS = TimeUnit.MINUTES.toMicros(1L);
+
+    private final Map<String, StepStatistics> steps = new ConcurrentHashMap<>();
+    private volatile boolean recording = false;
+
+    /** Start counting. Steps completed before this, during ramp up, are not reported. */
+    void startRecording() {
+        this.recording = true;
+    }
+
+    void stopRecording() {
+        this.recording = false;
+    }
+
+    /**
+     * Record one successful step.
+     *
+     * @param step The step name.
+     * @param nanoseconds Time taken.
+     */
+    void record(final String step, final long nanoseconds) {
+        if (this.recording) {
+            this.steps
+                    .computeIfAbsent(step, k -> new StepStatistics())
+                    .latencies
+                    .recordValue(Math.min(
+                            JourneyStatistics.MAX_LATENCY_MICROSECONDS,
+                            Math.max(1L, TimeUnit.NANOSECONDS.toMicros(nanoseconds))));
+        }
+    }
+
+    /**
+     * Record one failed step. The first failure of each step is kept for the report.
+     *
+     * @param step The step name.
+     * @param message What went wrong.
+     */
+    void recordFailure(final String step, final String message) {
+        final StepStatistics stepStatistics = this.steps.computeIfAbsent(step, k -> new StepStatistics());
+        stepStatistics.firstError.compareAndSet(null, message);
+        if (this.recording) {
+            stepStatistics.errors.increment();
+        }
+    }
+
+    /**
+     * Print throughput and latency percentiles per step.
+     *
+     * @param printStream Where to print.
+     * @param elapsed The measured duration.
+     */
+    void report(final PrintStream printStream, final Duration elapsed) {
+        final double seconds = elapsed.toMillis() / 1000.0D;
+        printStream.printf(
+                "%-16s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+                "step", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        final Histogram total = new Histogram(JourneyStatistics.MAX_LATENCY_MICROSECONDS, 3);
+        long totalErrors = 0L;
+        for (final String step : LoadTest.STEPS) {
+            final StepStatistics stepStatistics = this.steps.get(step);
+            if (stepStatistics != null) {
+                final Histogram latencies = stepStatistics.latencies.copy();
+                total.add(latencies);
+                totalErrors += stepStatistics.errors.sum();
+                JourneyStatistics.printRow(printStream, step, latencies, stepStatistics.errors.sum(), seconds);
+            }
+        }
+        JourneyStatistics.printRow(printStream, "all", total, totalErrors, seconds);
+
+        for (final String step : LoadTest.STEPS) {
+            final StepStatistics stepStatistics = this.steps.get(step);
+            if (stepStatistics != null && stepStatistics.firstError.get() != null) {
+                printStream.println("First " + step + " failure: " + stepStatistics.firstError.get());
+            }
+        }
+    }
+
+    private static void printRow(
+            final PrintStream printStream,
+            final String step,
+            final Histogram latencies,
+            final long errors,
+            final double seconds) {
+        printStream.printf(
+                "%-16s %9d %7d %10.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                step,
+                latencies.getTotalCount(),
+                errors,
+                (latencies.getTotalCount() + errors) / seconds,
+                latencies.getValueAtPercentile(50.0D) / 1000.0D,
+                latencies.getValueAtPercentile(90.0D) / 1000.0D,
+                latencies.getValueAtPercentile(99.0D) / 1000.0D,
+                latencies.getValueAtPercentile(99.9D) / 1000.0D,
+                latencies.getMaxValue() / 1000.0D);
+    }
+
+    private static final class StepStatistics {
+        private final ConcurrentHistogram latencies =
+                new ConcurrentHistogram(JourneyStatistics.MAX_LATENCY_MICROSECONDS, 3);
+        private final LongAdder errors = new LongAdder();
+        private final AtomicReference<String> firstError = new AtomicReference<>();
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal.load;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.catalina.Context;
+import org.apache.catalina.WebResourceRoot;
+import org.apache.catalina.WebResourceSet;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.webresources.DirResourceSet;
+import org.apache.catalina.webresources.JarResourceSet;
+import org.apache.catalina.webresources.StandardRoot;
+
+/**
+ * End-to-end load test. Starts the SkahaSimulator, deploys the portal WAR in embedded Tomcat configured against it, and
+ * runs the configured number of virtual users through the UserJourney. Throughput and latency percentiles per journey
+ * step are printed at the end. Run with ./gradlew loadTest, passing settings as -PloadTest.name=value (see
+ * LoadTestOptions).
+ *
+ * <p>The portal is configured for OpenID Connect against the simulator's provider and token cache, so users log in
+ * through the portal's own /oidc-login and /oidc-callback and each request resolves the first-party cookie through the
+ * AccessTokenCache. The SimulatedIdentityManager stands in for the login service the IdentityManager would call.
+ *
+ * <p>Event stream users hold /session/events open alongside the others. Compare runs with -PloadTest.virtualThreads and
+ * -PloadTest.async set to true and false, which set the portal's proxy.virtualThreads and proxy.async, at a
+ * -PloadTest.maxThreads low enough for request threads to run out. Virtual users run on virtual threads when the JVM
+ * supports them (Java 21 or later), so that thousands can be simulated.
+ */
+public class LoadTest {
+    static final String LOGIN = "login";
+    static final String LOGIN_START = "login:start";
+    static final String LOGIN_PROVIDER = "login:provider";
+    static final String LOGIN_CALLBACK = "login:callback";
+    static final String USER_INFO = "userinfo";
+    static final String FORM_CONTEXT = "form:context";
+    static final String FORM_IMAGES = "form:images";
+    static final String FORM_REPOSITORY = "form:repository";
+    static final String LAUNCH = "launch";
+    static final String POLL = "poll";
+    static final String SESSION = "session";
+    static final String DELETE = "delete";
+    static final String EVENTS_OPEN = "events:open";
+    static final String EVENTS_ADDED = "events:added";
+    static final String EVENTS_REMOVED = "events:removed";
+
+    // Report order.
+    static final List<String> STEPS = List.of(
+            LoadTest.LOGIN,
+            LoadTest.LOGIN_START,
+            LoadTest.LOGIN_PROVIDER,
+            LoadTest.LOGIN_CALLBACK,
+            LoadTest.USER_INFO,
+            LoadTest.FORM_CONTEXT,
+            LoadTest.FORM_IMAGES,
+            LoadTest.FORM_REPOSITORY,
+            LoadTest.LAUNCH,
+            LoadTest.POLL,
+            LoadTest.SESSION,
+            LoadTest.DELETE,
+            LoadTest.EVENTS_OPEN,
+            LoadTest.EVENTS_ADDED,
+            LoadTest.EVENTS_REMOVED);
+
+    private static final String CONTEXT_PATH = "/science-portal";
+
+    // Named rather than referenced, as it must be loaded by the web application's class loader.
+    private static final String IDENTITY_MANAGER_CLASS_NAME =
+            "org.opencadc.scienceportal.load.SimulatedIdentityManager";
+
+    private volatile boolean running = true;
+
+    public static void main(final String[] args) throws Exception {
+        final LoadTestOptions options = LoadTestOptions.fromSystemProperties();
+        System.out.println("Load test: " + options);
+        new LoadTest().run(options);
+    }
+
+    void run(final LoadTestOptions options) throws Exception {
+        final SkahaSimulator skahaSimulator = new SkahaSimulator(options);
+        skahaSimulator.start();
+
+        // The OIDC redirect URIs are configured before deployment, so the port is chosen up front.
+        final int port;
+        try (final ServerSocket serverSocket = new ServerSocket(0, 0, InetAddress.getLoopbackAddress())) {
+            port = serverSocket.getLocalPort();
+        }
+        final String portalURL = "http://127.0.0.1:" + port + LoadTest.CONTEXT_PATH;
+        final Tomcat tomcat = startPortal(options, skahaSimulator, port, portalURL);
+        System.out.println("Portal deployed at " + portalURL);
+
+        final JourneyStatistics statistics = new JourneyStatistics();
+        final HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10L))
+                .build();
+        final ExecutorService users = LoadTest.newUserExecutorService();
+
+        try {
+            final int userCount = options.users + options.streams;
+            final long rampUpStepMillis = options.rampUp.toMillis() / Math.max(1, userCount);
+            for (int i = 0, streams = 0; i < userCount; i++) {
+                // Spread the event stream users evenly among the others, so that both kinds ramp up together.
+                final boolean eventStream = (i + 1L) * options.streams / userCount > streams;
+                users.execute(new UserJourney(
+                        eventStream ? "stream" + streams++ : "user" + (i - streams),
+                        httpClient,
+                        portalURL,
+                        URI.create(skahaSimulator.getLoginURL()),
+                        options,
+                        statistics,
+                        () -> this.running,
+                        eventStream));
+                Thread.sleep(rampUpStepMillis);
+            }
+
+            final long upstreamRequestsBefore = skahaSimulator.getRequestCount();
+            final long tokenCacheCommandsBefore = skahaSimulator.getTokenCacheCommandCount();
+            statistics.startRecording();
+            final long startNanos = System.nanoTime();
+            Thread.sleep(options.duration.toMillis());
+            statistics.stopRecording();
+            final Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+            final long upstreamRequests = skahaSimulator.getRequestCount() - upstreamRequestsBefore;
+            final long tokenCacheCommands = skahaSimulator.getTokenCacheCommandCount() - tokenCacheCommandsBefore;
+
+            this.running = false;
+            users.shutdown();
+            users.awaitTermination(options.pollInterval.toMillis() + 60_000L, TimeUnit.MILLISECONDS);
+
+            System.out.println();
+            statistics.report(System.out, elapsed);
+            System.out.printf(
+                    "%nUpstream requests: %d (%.1f/s)%n",
+                    upstreamRequests, upstreamRequests / (elapsed.toMillis() / 1000.0D));
+            System.out.printf(
+                    "Token cache commands: %d (%.1f/s)%n",
+                    tokenCacheCommands, tokenCacheCommands / (elapsed.toMillis() / 1000.0D));
+        } finally {
+            this.running = false;
+            users.shutdownNow();
+            tomcat.stop();
+            tomcat.destroy();
+            skahaSimulator.stop();
+        }
+    }
+
+    /**
+     * Run each virtual user on its own thread: a virtual thread where the JVM supports them, and otherwise a platform
+     * thread. The build targets Java 11, so virtual threads are obtained reflectively.
+     */
+    private static ExecutorService newUserExecutorService() {
+        try {
+            final ExecutorService executorService = (ExecutorService)
+                    Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            System.out.println("Virtual users run on virtual threads.");
+            return executorService;
+        } catch (ReflectiveOperationException reflectiveOperationException) {
+            System.out.println("Virtual users run on platform threads, as this JVM has no virtual threads.");
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Configure the portal and the Registry client against the simulator, then deploy the WAR. Configuration is read
+     * from the working directory, never from the developer's own home directory. The OIDC client finds its provider
+     * through the Registry's local authority entries.
+     */
+    private static Tomcat startPortal(
+            final LoadTestOptions options, final SkahaSimulator skahaSimulator, final int port, final String portalURL)
+            throws Exception {
+        final Path workDirectory = options.workDirectory.toAbsolutePath();
+        final Path configDirectory = Files.createDirectories(workDirectory.resolve("config"));
+        final Path tmpDirectory = Files.createDirectories(workDirectory.resolve("tmp"));
+
+        System.setProperty("user.home", workDirectory.toString());
+        System.setProperty("ca.nrc.cadc.util.PropertiesReader.dir", configDirectory.toString());
+        // The Registry client caches capabilities under the temporary directory.  Keep them per run.
+        System.setProperty("java.io.tmpdir", tmpDirectory.toString());
+        System.setProperty("ca.nrc.cadc.auth.IdentityManager", LoadTest.IDENTITY_MANAGER_CLASS_NAME);
+
+        LoadTest.write(
+                configDirectory.resolve("cadc-registry.properties"),
+                "ca.nrc.cadc.reg.client.RegistryClient.baseURL = " + skahaSimulator.getRegistryURL() + "\n"
+                        + "ivo://ivoa.net/sso#OpenID = " + skahaSimulator.getIssuerURL() + "\n"
+                        + "ivo://ivoa.net/sso#OAuth = " + skahaSimulator.getIssuerURL() + "\n");
+
+        // The OIDC settings are always written, so that the sso login option measures the same deployment.
+        LoadTest.write(
+                configDirectory.resolve("org.opencadc.science-portal.properties"),
+                "org.opencadc.science-portal.sessions.resourceID = " + SkahaSimulator.RESOURCE_ID + "\n"
+                        + "org.opencadc.science-portal.sessions.standard = "
+                        + "vos://cadc.nrc.ca~vospace/CADC/std/Proc#sessions-1.0\n"
+                        + "org.opencadc.science-portal.theme.name = canfar\n"
+                        + "org.opencadc.science-portal.tabLabels = Public, Advanced\n"
+                        + "org.opencadc.science-portal.proxy.virtualThreads = " + options.virtualThreads + "\n"
+                        + "org.opencadc.science-portal.proxy.async = " + options.async + "\n"
+                        + "org.opencadc.science-portal.oidc.clientID = science-portal\n"
+                        + "org.opencadc.science-portal.oidc.clientSecret = load-test\n"
+                        + "org.opencadc.science-portal.oidc.callbackURI = " + portalURL + "/\n"
+                        + "org.opencadc.science-portal.oidc.redirectURI = " + portalURL + "/oidc-callback\n"
+                        + "org.opencadc.science-portal.oidc.scope = openid profile\n"
+                        + "org.opencadc.science-portal.tokenCache.url = " + skahaSimulator.getTokenCacheURL() + "\n");
+
+        final Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(
+                Files.createDirectories(workDirectory.resolve("tomcat")).toString());
+        tomcat.setHostname("127.0.0.1");
+        tomcat.setPort(port);
+        tomcat.getConnector().setProperty("maxThreads", String.valueOf(options.maxThreads));
+        final Context context = tomcat.addWebapp(
+                LoadTest.CONTEXT_PATH, options.warFile.toAbsolutePath().toString());
+
+        // Overlay the load test classes on WEB-INF/classes so that the portal can load the SimulatedIdentityManager.
+        final WebResourceRoot webResourceRoot = new StandardRoot(context);
+        final Path loadTestClasses = Path.of(LoadTest.class
+                .getProtectionDomain()
+                .getCodeSource()
+                .getLocation()
+                .toURI());
+        final WebResourceSet loadTestResourceSet = Files.isDirectory(loadTestClasses)
+                ? new DirResourceSet(webResourceRoot, "/WEB-INF/classes", loadTestClasses.toString(), "/")
+                : new JarResourceSet(webResourceRoot, "/WEB-INF/classes", loadTestClasses.toString(), "/");
+        webResourceRoot.addPostResources(loadTestResourceSet);
+        context.setResources(webResourceRoot);
+
+        tomcat.start();
+        return tomcat;
+    }
+
+    private static void write(final Path path, final String content) throws IOException {
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Load test settings, read from System properties prefixed with "loadTest." (for example -PloadTest.users=50 through
+ * Gradle). Every setting has a default suitable for a quick run on a workstation.
+ */
+public final class LoadTestOptions {
+    static final String PREFIX = "loadTest.";
+    static final String OIDC_LOGIN = "oidc";
+    static final String SSO_LOGIN = "sso";
+
+    // Concurrent virtual users, each repeating the journey until the run ends.
+    final int users;
+
+    // Time over which the virtual users are started.
+    final Duration rampUp;
+
+    // Length of the measured run, after ramp up.
+    final Duration duration;
+
+    // Session list polls per journey, and the pause between them.
+    final int pollCount;
+    final Duration pollInterval;
+
+    // Concurrent event stream users, in addition to the others, and how long each holds /session/events open per pass.
+    final int streams;
+    final Duration streamHold;
+
+    // Portal settings under test: proxy.virtualThreads and proxy.async, and the Tomcat request thread limit.
+    final boolean virtualThreads;
+    final boolean async;
+    final int maxThreads;
+
+    // Simulated upstream latency: a fixed part plus a uniformly distributed random part.
+    final Duration upstreamLatency;
+    final Duration upstreamLatencyJitter;
+
+    // Simulated payload sizes.
+    final int imageCount;
+    final int sessionCount;
+
+    // How users log in: "oidc" through the portal's own OpenID Connect login and first-party cookie, or "sso" with an
+    // SSO cookie from the login service.
+    final String login;
+
+    // Lifetime of the access tokens the simulated OpenID Connect provider issues, and the token cache latency.
+    final Duration tokenLifetime;
+    final Duration tokenCacheLatency;
+
+    // The WAR to deploy, and the working directory for configuration, caches and Tomcat.
+    final Path warFile;
+    final Path workDirectory;
+
+    private LoadTestOptions(
+            final int users,
+            final Duration rampUp,
+            final Duration duration,
+            final int pollCount,
+            final Duration pollInterval,
+            final int streams,
+            final Duration streamHold,
+            final boolean virtualThreads,
+            final boolean async,
+            final int maxThreads,
+            final Duration upstreamLatency,
+            final Duration upstreamLatencyJitter,
+            final int imageCount,
+            final int sessionCount,
+            final String login,
+            final Duration tokenLifetime,
+            final Duration tokenCacheLatency,
+            final Path warFile,
+            final Path workDirectory) {
+        this.users = users;
+        this.rampUp = rampUp;
+        this.duration = duration;
+        this.pollCount = pollCount;
+        this.pollInterval = pollInterval;
+        this.streams = streams;
+        this.streamHold = streamHold;
+        this.virtualThreads = virtualThreads;
+        this.async = async;
+        this.maxThreads = maxThreads;
+        this.upstreamLatency = upstreamLatency;
+        this.upstreamLatencyJitter = upstreamLatencyJitter;
+        this.imageCount = imageCount;
+        this.sessionCount = sessionCount;
+        this.login = login;
+        this.tokenLifetime = tokenLifetime;
+        this.tokenCacheLatency = tokenCacheLatency;
+        this.warFile = warFile;
+        this.workDirectory = workDirectory;
+    }
+
+    static LoadTestOptions fromSystemProperties() {
+        final String warFile = System.getProperty(LoadTestOptions.PREFIX + "war");
+        if (warFile == null) {
+            throw new IllegalArgumentException("Set " + LoadTestOptions.PREFIX + "war to the WAR file to deploy.");
+        }
+
+        final String login = System.getProperty(LoadTestOptions.PREFIX + "login", LoadTestOptions.OIDC_LOGIN);
+        if (!LoadTestOptions.OIDC_LOGIN.equals(login) && !LoadTestOptions.SSO_LOGIN.equals(login)) {
+            throw new IllegalArgumentException("Expected " + LoadTestOptions.OIDC_LOGIN + " or "
+                    + LoadTestOptions.SSO_LOGIN + " for " + LoadTestOptions.PREFIX + "login, but got " + login + ".");
+        }
+
+        return new LoadTestOptions(
+                LoadTestOptions.intValue("users", 20),
+                Duration.ofSeconds(LoadTestOptions.intValue("rampUpSeconds", 10)),
+                Duration.ofSeconds(LoadTestOptions.intValue("durationSeconds", 60)),
+                LoadTestOptions.intValue("pollCount", 10),
+                Duration.ofMillis(LoadTestOptions.intValue("pollIntervalMilliseconds", 1000)),
+                LoadTestOptions.intValue("streams", 100),
+                Duration.ofSeconds(LoadTestOptions.intValue("streamHoldSeconds", 30)),
+                LoadTestOptions.booleanValue("virtualThreads"),
+                LoadTestOptions.booleanValue("async"),
+                LoadTestOptions.intValue("maxThreads", 200),
+                Duration.ofMillis(LoadTestOptions.intValue("upstreamLatencyMilliseconds", 50)),
+                Duration.ofMillis(LoadTestOptions.intValue("upstreamLatencyJitterMilliseconds", 25)),
+                LoadTestOptions.intValue("imageCount", 200),
+                LoadTestOptions.intValue("sessionCount", 3),
+                login,
+                Duration.ofSeconds(LoadTestOptions.intValue("tokenLifetimeSeconds", 3600)),
+                Duration.ofMillis(LoadTestOptions.intValue("tokenCacheLatencyMilliseconds", 1)),
+                Path.of(warFile),
+                Path.of(System.getProperty(LoadTestOptions.PREFIX + "workDir", "build/loadTest")));
+    }
+
+    private static int intValue(final String name, final int defaultValue) {
+        final String value = System.getProperty(LoadTestOptions.PREFIX + name);
+        try {
+            return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+        } catch (NumberFormatException numberFormatException) {
+            throw new IllegalArgumentException(
+                    "Expected a whole number for " + LoadTestOptions.PREFIX + name + ", but got " + value + ".");
+        }
+    }
+
+    private static boolean booleanValue(final String name) {
+        final String value = System.getProperty(LoadTestOptions.PREFIX + name);
+        if (value == null || value.isBlank() || "false".equalsIgnoreCase(value.trim())) {
+            return false;
+        } else if ("true".equalsIgnoreCase(value.trim())) {
+            return true;
+        } else {
+            throw new IllegalArgumentException(
+                    "Expected true or false for " + LoadTestOptions.PREFIX + name + ", but got " + value + ".");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "users=" + this.users + ", rampUp=" + this.rampUp.toSeconds() + "s, duration="
+                + this.duration.toSeconds() + "s, polls=" + this.pollCount + " every "
+                + this.pollInterval.toMillis() + "ms, streams=" + this.streams + " held "
+                + this.streamHold.toSeconds() + "s, virtualThreads=" + this.virtualThreads + ", async=" + this.async
+                + ", maxThreads=" + this.maxThreads + ", upstream latency=" + this.upstreamLatency.toMillis()
+                + "ms (+0-"
+                + this.upstreamLatencyJitter.toMillis() + "ms), images=" + this.imageCount + ", sessions="
+                + this.sessionCount + ", login=" + this.login + ", token lifetime=" + this.tokenLifetime.toSeconds()
+                + "s, token cache latency=" + this.tokenCacheLatency.toMillis() + "ms";
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal.load;
+
+import ca.nrc.cadc.auth.AuthMethod;
+import ca.nrc.cadc.auth.AuthenticationUtil;
+import ca.nrc.cadc.auth.AuthorizationTokenPrincipal;
+import ca.nrc.cadc.auth.CookiePrincipal;
+import ca.nrc.cadc.auth.HttpPrincipal;
+import ca.nrc.cadc.auth.IdentityManager;
+import ca.nrc.cadc.auth.NotAuthenticatedException;
+import ca.nrc.cadc.auth.SSOCookieCredential;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.security.auth.Subject;
+
+/**
+ * Stands in for the production IdentityManager inside the deployed portal. SSO cookies issued by the SkahaSimulator
+ * ("sso-&lt;username&gt;-&lt;uuid&gt;") are accepted without a call to a login service, and become the HttpPrincipal
+ * and SSOCookieCredential that the portal forwards upstream. Bearer tokens the portal has taken from the token cache
+ * for a first-party cookie are read for their subject, without verification. Loaded by the web application's class
+ * loader, so it must not reference any other load test class.
+ */
+public class SimulatedIdentityManager implements IdentityManager {
+    private static final String COOKIE_NAME = "CADC_SSO";
+    private static final String COOKIE_VALUE_PREFIX = "sso-";
+    private static final Pattern SUBJECT_CLAIM = Pattern.compile("\"sub\"\\s*:\\s*\"([^\"]+)\"");
+
+    @Override
+    public Set<URI> getSecurityMethods() {
+        return Set.of(URI.create("ivo://ivoa.net/sso#cookie"), URI.create("ivo://ivoa.net/sso#token"));
+    }
+
+    @Override
+    public Subject validate(final Subject subject) throws NotAuthenticatedException {
+        if (subject != null) {
+            for (final CookiePrincipal cookiePrincipal : subject.getPrincipals(CookiePrincipal.class)) {
+                final String value = cookiePrincipal.getValue().replace("\"", "");
+                if (SimulatedIdentityManager.COOKIE_NAME.equals(cookiePrincipal.getKey())) {
+                    final int end = value.indexOf('-', SimulatedIdentityManager.COOKIE_VALUE_PREFIX.length());
+                    if (!value.startsWith(SimulatedIdentityManager.COOKIE_VALUE_PREFIX)
+                            || end <= SimulatedIdentityManager.COOKIE_VALUE_PREFIX.length()) {
+                        throw new NotAuthenticatedException("Invalid SSO cookie.");
+                    }
+
+                    subject.getPrincipals()
+                            .add(new HttpPrincipal(
+                                    value.substring(SimulatedIdentityManager.COOKIE_VALUE_PREFIX.length(), end)));
+                    subject.getPublicCredentials().add(new SSOCookieCredential(value, "127.0.0.1"));
+                    subject.getPublicCredentials().add(AuthMethod.COOKIE);
+                }
+            }
+
+            for (final AuthorizationTokenPrincipal tokenPrincipal :
+                    subject.getPrincipals(AuthorizationTokenPrincipal.class)) {
+                final String value = tokenPrincipal.getHeaderValue();
+                final String prefix = AuthenticationUtil.CHALLENGE_TYPE_BEARER + " ";
+                if (value != null && value.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    subject.getPrincipals()
+                            .add(new HttpPrincipal(
+                                    SimulatedIdentityManager.subjectOf(value.substring(prefix.length()))));
+                    subject.getPublicCredentials().add(AuthMethod.TOKEN);
+                }
+            }
+        }
+
+        return subject;
+    }
+
+    private static String subjectOf(final String jwt) throws NotAuthenticatedException {
+        final String[] parts = jwt.trim().split("\\.");
+        if (parts.length == 3) {
+            try {
+                final Matcher matcher = SimulatedIdentityManager.SUBJECT_CLAIM.matcher(
+                        new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+                if (matcher.find()) {
+                    return matcher.group(1);
+                }
+            } catch (IllegalArgumentException illegalArgumentException) {
+                // Not base64url.  Refused below.
+            }
+        }
+
+        throw new NotAuthenticatedException("Invalid bearer token.");
+    }
+
+    @Override
+    public Subject augment(final Subject subject) {
+        return subject;
+    }
+
+    @Override
+    public Subject toSubject(final Object owner) {
+        return null;
+    }
+
+    @Override
+    public Object toOwner(final Subject subject) {
+        return null;
+    }
+
+    @Override
+    public String toDisplayString(final Subject subject) {
+        if (subject != null) {
+            for (final HttpPrincipal httpPrincipal : subject.getPrincipals(HttpPrincipal.class)) {
+                return httpPrincipal.getName();
+            }
+        }
+
+        return null;
+    }
+}
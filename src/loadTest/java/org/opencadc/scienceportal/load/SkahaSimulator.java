@@ -0,0 +1,611 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for the services the portal calls: the Registry (resource-caps and the Skaha capabilities), the
+ * Skaha session, image, context and repository APIs, the login service that issues SSO cookies, an OpenID Connect
+ * provider, and the token cache (see TokenCacheSimulator). Each user has their own session list, seeded on first use.
+ * Every upstream call waits for the configured latency before answering.
+ *
+ * <p>The OpenID Connect provider signs in whoever is named by the login_hint parameter of the authorization request,
+ * without a password, and issues RS256 signed JWT access tokens. The Skaha APIs accept those tokens until they expire,
+ * as they accept the SSO cookies.
+ */
+public class SkahaSimulator {
+    static final String RESOURCE_ID = "ivo://cadc.nrc.ca/skaha";
+    static final String SSO_COOKIE_NAME = "CADC_SSO";
+
+    private static final String SESSION_PATH = "/skaha/v1/session";
+    private static final String OIDC_PATH = "/oidc";
+    private static final String OIDC_KEY_ID = "load-test";
+
+    private static final Pattern SUBJECT_CLAIM = Pattern.compile("\"sub\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern EXPIRY_CLAIM = Pattern.compile("\"exp\"\\s*:\\s*(\\d+)");
+
+    private static final String CONTEXT_JSON = "{\"cores\":{\"default\":2,\"defaultRequest\":1,\"defaultLimit\":4,"
+            + "\"options\":[1,2,4,8,16]},\"memoryGB\":{\"default\":8,\"defaultRequest\":4,\"defaultLimit\":16,"
+            + "\"options\":[1,2,4,8,16,32,64]},\"gpus\":{\"options\":[0,1,2]}}";
+
+    // A launched session reports Pending until it has been up this long.
+    private static final Duration PENDING_DURATION = Duration.ofSeconds(3L);
+
+    private final Duration latency;
+    private final Duration latencyJitter;
+    private final int sessionCount;
+    private final byte[] publicImages;
+    private final byte[] userImages;
+    private final Duration tokenLifetime;
+    private final TokenCacheSimulator tokenCacheSimulator;
+
+    private final Map<String, Map<String, SimulatedSession>> sessions = new ConcurrentHashMap<>();
+    // Issued authorization codes and refresh tokens, to the user (and, for codes, the nonce) they were issued for.
+    private final Map<String, String[]> authorizationCodes = new ConcurrentHashMap<>();
+    private final Map<String, String> refreshTokens = new ConcurrentHashMap<>();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final ExecutorService executorService = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "skaha-simulator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private HttpServer httpServer;
+    private String baseURL;
+    private KeyPair signingKeyPair;
+
+    SkahaSimulator(final LoadTestOptions options) {
+        this.latency = options.upstreamLatency;
+        this.latencyJitter = options.upstreamLatencyJitter;
+        this.sessionCount = options.sessionCount;
+        this.publicImages = SkahaSimulator.imageListJSON("skaha", options.imageCount);
+        // Each user sees the public images plus a few of their own project's.
+        this.userImages = SkahaSimulator.imageListJSON("skaha", options.imageCount, "myproject", 5);
+        this.tokenLifetime = options.tokenLifetime;
+        this.tokenCacheSimulator = new TokenCacheSimulator(options);
+    }
+
+    void start() throws IOException, GeneralSecurityException {
+        final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        this.signingKeyPair = keyPairGenerator.generateKeyPair();
+        this.tokenCacheSimulator.start();
+
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.baseURL = "http://127.0.0.1:" + this.httpServer.getAddress().getPort();
+
+        this.httpServer.createContext(
+                "/reg/resource-caps",
+                exchange -> send(
+                        exchange,
+                        200,
+                        "text/plain",
+                        SkahaSimulator.RESOURCE_ID + " = " + this.baseURL + "/skaha/capabilities\n"));
+        this.httpServer.createContext(
+                "/skaha/capabilities",
+                exchange ->
+                        send(exchange, 200, "text/xml", SkahaSimulator.capabilitiesXML(this.baseURL + "/skaha/v1")));
+        this.httpServer.createContext("/ac/login", this::login);
+        this.httpServer.createContext(
+                SkahaSimulator.OIDC_PATH + "/.well-known/openid-configuration",
+                exchange -> send(exchange, 200, "application/json", discoveryJSON()));
+        this.httpServer.createContext(SkahaSimulator.OIDC_PATH + "/authorize", this::authorize);
+        this.httpServer.createContext(SkahaSimulator.OIDC_PATH + "/token", this::token);
+        this.httpServer.createContext(
+                SkahaSimulator.OIDC_PATH + "/jwks", exchange -> send(exchange, 200, "application/json", jwksJSON()));
+        this.httpServer.createContext(SkahaSimulator.OIDC_PATH + "/userinfo", exchange -> {
+            final String user = userOf(exchange);
+            if (user == null) {
+                send(exchange, 401, "text/plain", "Bearer token required.");
+            } else {
+                send(
+                        exchange,
+                        200,
+                        "application/json",
+                        "{\"sub\":\"" + user + "\",\"preferred_username\":\"" + user + "\"}");
+            }
+        });
+        this.httpServer.createContext(SkahaSimulator.SESSION_PATH, this::session);
+        this.httpServer.createContext("/skaha/v1/image", exchange -> {
+            delay();
+            send(exchange, 200, "application/json", userOf(exchange) == null ? this.publicImages : this.userImages);
+        });
+        this.httpServer.createContext("/skaha/v1/context", exchange -> {
+            delay();
+            send(exchange, 200, "application/json", SkahaSimulator.CONTEXT_JSON);
+        });
+        this.httpServer.createContext("/skaha/v1/repository", exchange -> {
+            delay();
+            send(exchange, 200, "application/json", "[\"images.canfar.net\",\"images-rc.canfar.net\"]");
+        });
+
+        this.httpServer.setExecutor(this.executorService);
+        this.httpServer.start();
+    }
+
+    void stop() throws IOException {
+        this.httpServer.stop(0);
+        this.executorService.shutdownNow();
+        this.tokenCacheSimulator.stop();
+    }
+
+    /**
+     * Base URL of the Registry, for the cadc-registry configuration.
+     *
+     * @return String URL. Never null once started.
+     */
+    String getRegistryURL() {
+        return this.baseURL + "/reg";
+    }
+
+    String getLoginURL() {
+        return this.baseURL + "/ac/login";
+    }
+
+    /**
+     * Issuer URL of the OpenID Connect provider, under which its discovery document is served.
+     *
+     * @return String URL. Never null once started.
+     */
+    String getIssuerURL() {
+        return this.baseURL + SkahaSimulator.OIDC_PATH;
+    }
+
+    String getTokenCacheURL() {
+        return this.tokenCacheSimulator.getURL();
+    }
+
+    long getRequestCount() {
+        return this.requestCount.get();
+    }
+
+    long getTokenCacheCommandCount() {
+        return this.tokenCacheSimulator.getCommandCount();
+    }
+
+    private void login(final HttpExchange exchange) throws IOException {
+        final String username = SkahaSimulator.formParameters(
+                        new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8))
+                .get("username");
+
+        delay();
+        if (username == null || username.isBlank()) {
+            send(exchange, 401, "text/plain", "Username and password required.");
+        } else {
+            send(exchange, 200, "text/plain", "sso-" + username + "-" + UUID.randomUUID());
+        }
+    }
+
+    private void authorize(final HttpExchange exchange) throws IOException {
+        final Map<String, String> parameters =
+                SkahaSimulator.formParameters(exchange.getRequestURI().getRawQuery());
+        final String redirectURI = parameters.get("redirect_uri");
+        final String user = parameters.get("login_hint");
+
+        delay();
+        if (redirectURI == null || user == null || user.isBlank()) {
+            send(exchange, 400, "text/plain", "redirect_uri and login_hint required.");
+            return;
+        }
+
+        final String code = UUID.randomUUID().toString();
+        this.authorizationCodes.put(code, new String[] {user, parameters.get("nonce")});
+        final String state = parameters.get("state");
+        exchange.getResponseHeaders()
+                .add(
+                        "location",
+                        redirectURI + (redirectURI.contains("?") ? "&" : "?") + "code=" + code
+                                + (state == null ? "" : "&state=" + URLEncoder.encode(state, StandardCharsets.UTF_8)));
+        send(exchange, 302, "text/plain", "");
+    }
+
+    private void token(final HttpExchange exchange) throws IOException {
+        final Map<String, String> parameters = SkahaSimulator.formParameters(
+                new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        final String grantType = parameters.get("grant_type");
+        final String user;
+        String nonce = null;
+        if ("authorization_code".equals(grantType)) {
+            final String[] userAndNonce = this.authorizationCodes.remove(parameters.getOrDefault("code", ""));
+            user = userAndNonce == null ? null : userAndNonce[0];
+            nonce = userAndNonce == null ? null : userAndNonce[1];
+        } else if ("refresh_token".equals(grantType)) {
+            user = this.refreshTokens.get(parameters.getOrDefault("refresh_token", ""));
+        } else {
+            user = null;
+        }
+
+        delay();
+        if (user == null) {
+            send(exchange, 400, "application/json", "{\"error\":\"invalid_grant\"}");
+            return;
+        }
+
+        final String clientID = SkahaSimulator.clientIDOf(exchange, parameters);
+        final String refreshToken = UUID.randomUUID().toString();
+        this.refreshTokens.put(refreshToken, user);
+        exchange.getResponseHeaders().add("cache-control", "no-store");
+        send(
+                exchange,
+                200,
+                "application/json",
+                "{\"access_token\":\"" + signedJWT(user, clientID, null) + "\",\"token_type\":\"Bearer\","
+                        + "\"expires_in\":" + this.tokenLifetime.toSeconds() + ",\"refresh_token\":\"" + refreshToken
+                        + "\",\"scope\":\"openid profile\",\"id_token\":\"" + signedJWT(user, clientID, nonce)
+                        + "\"}");
+    }
+
+    private String discoveryJSON() {
+        final String issuer = getIssuerURL();
+        return "{\"issuer\":\"" + issuer + "\",\"authorization_endpoint\":\"" + issuer + "/authorize\","
+                + "\"token_endpoint\":\"" + issuer + "/token\",\"userinfo_endpoint\":\"" + issuer + "/userinfo\","
+                + "\"jwks_uri\":\"" + issuer + "/jwks\",\"response_types_supported\":[\"code\"],"
+                + "\"subject_types_supported\":[\"public\"],\"id_token_signing_alg_values_supported\":[\"RS256\"],"
+                + "\"grant_types_supported\":[\"authorization_code\",\"refresh_token\"],"
+                + "\"token_endpoint_auth_methods_supported\":[\"client_secret_basic\",\"client_secret_post\"],"
+                + "\"scopes_supported\":[\"openid\",\"profile\",\"email\"]}";
+    }
+
+    private String jwksJSON() {
+        final RSAPublicKey publicKey = (RSAPublicKey) this.signingKeyPair.getPublic();
+        return "{\"keys\":[{\"kty\":\"RSA\",\"use\":\"sig\",\"alg\":\"RS256\",\"kid\":\""
+                + SkahaSimulator.OIDC_KEY_ID + "\",\"n\":\"" + SkahaSimulator.base64URL(publicKey.getModulus())
+                + "\",\"e\":\"" + SkahaSimulator.base64URL(publicKey.getPublicExponent()) + "\"}]}";
+    }
+
+    /**
+     * Issue a token for the given user. Access tokens carry no nonce; ID tokens carry the one from the authorization
+     * request, if any.
+     */
+    private String signedJWT(final String user, final String audience, final String nonce) {
+        final long now = Instant.now().getEpochSecond();
+        final String header = "{\"alg\":\"RS256\",\"typ\":\"JWT\",\"kid\":\"" + SkahaSimulator.OIDC_KEY_ID + "\"}";
+        final String claims = "{\"iss\":\"" + getIssuerURL() + "\",\"sub\":\"" + user + "\",\"aud\":\"" + audience
+                + "\",\"iat\":" + now + ",\"exp\":" + (now + this.tokenLifetime.toSeconds()) + ",\"jti\":\""
+                + UUID.randomUUID() + "\",\"preferred_username\":\"" + user + "\""
+                + (nonce == null ? "" : ",\"nonce\":\"" + nonce + "\"") + "}";
+        final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        final String signingInput = encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        try {
+            final Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(this.signingKeyPair.getPrivate());
+            signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + encoder.encodeToString(signature.sign());
+        } catch (GeneralSecurityException generalSecurityException) {
+            throw new IllegalStateException(generalSecurityException);
+        }
+    }
+
+    private void session(final HttpExchange exchange) throws IOException {
+        delay();
+
+        final String user = userOf(exchange);
+        if (user == null) {
+            send(exchange, 401, "text/plain", "Session listing requires authentication.");
+            return;
+        }
+
+        final Map<String, SimulatedSession> userSessions = this.sessions.computeIfAbsent(user, this::seedSessions);
+        final String path = exchange.getRequestURI().getPath().substring(SkahaSimulator.SESSION_PATH.length());
+        final String sessionID = path.startsWith("/") ? path.substring(1) : path;
+        final String method = exchange.getRequestMethod();
+
+        if (sessionID.isEmpty() && "GET".equals(method)) {
+            final StringBuilder sessionList = new StringBuilder("[");
+            for (final SimulatedSession simulatedSession : userSessions.values()) {
+                if (sessionList.length() > 1) {
+                    sessionList.append(',');
+                }
+                sessionList.append(simulatedSession.toJSON(user));
+            }
+            send(exchange, 200, "application/json", sessionList.append(']').toString());
+        } else if (sessionID.isEmpty() && "POST".equals(method)) {
+            exchange.getRequestBody().readAllBytes();
+            final SimulatedSession launched = new SimulatedSession("notebook", Instant.now());
+            userSessions.put(launched.id, launched);
+            send(exchange, 200, "text/plain", launched.id + "\n");
+        } else if ("GET".equals(method)) {
+            final SimulatedSession simulatedSession = userSessions.get(sessionID);
+            if (simulatedSession == null) {
+                send(exchange, 404, "text/plain", "Session " + sessionID + " not found.");
+            } else {
+                send(exchange, 200, "application/json", simulatedSession.toJSON(user));
+            }
+        } else if ("DELETE".equals(method)) {
+            if (userSessions.remove(sessionID) == null) {
+                send(exchange, 404, "text/plain", "Session " + sessionID + " not found.");
+            } else {
+                send(exchange, 200, "text/plain", "");
+            }
+        } else {
+            send(exchange, 405, "text/plain", "Method " + method + " not supported.");
+        }
+    }
+
+    private Map<String, SimulatedSession> seedSessions(final String user) {
+        final Map<String, SimulatedSession> userSessions = new ConcurrentHashMap<>();
+        final Instant startTime = Instant.now().minus(Duration.ofHours(1L));
+        for (int i = 0; i < this.sessionCount; i++) {
+            final SimulatedSession simulatedSession =
+                    new SimulatedSession(i % 3 == 0 ? "desktop" : "notebook", startTime);
+            userSessions.put(simulatedSession.id, simulatedSession);
+        }
+        return userSessions;
+    }
+
+    private void delay() {
+        final long latencyMillis = this.latency.toMillis()
+                + (this.latencyJitter.isZero()
+                        ? 0L
+                        : ThreadLocalRandom.current().nextLong(this.latencyJitter.toMillis()));
+        if (latencyMillis > 0L) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Identify the caller from the bearer token or SSO cookie the portal forwards. Tokens are not verified, but expired
+     * ones are refused.
+     *
+     * @param exchange The upstream request.
+     * @return The token subject or cookie value, which identifies the user, or null if anonymous.
+     */
+    private static String userOf(final HttpExchange exchange) {
+        final String authorization = exchange.getRequestHeaders().getFirst("authorization");
+        if (authorization != null && authorization.regionMatches(true, 0, "Bearer ", 0, "Bearer ".length())) {
+            final String[] parts =
+                    authorization.substring("Bearer ".length()).trim().split("\\.");
+            if (parts.length == 3) {
+                final String claims = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+                final Matcher subject = SkahaSimulator.SUBJECT_CLAIM.matcher(claims);
+                final Matcher expiry = SkahaSimulator.EXPIRY_CLAIM.matcher(claims);
+                if (subject.find()
+                        && expiry.find()
+                        && Long.parseLong(expiry.group(1)) > Instant.now().getEpochSecond()) {
+                    return subject.group(1);
+                }
+            }
+            return null;
+        }
+
+        final String cookieHeader = exchange.getRequestHeaders().getFirst("cookie");
+        if (cookieHeader != null) {
+            for (final String cookie : cookieHeader.split(";")) {
+                final String[] nameValue = cookie.trim().split("=", 2);
+                if (nameValue.length == 2 && SkahaSimulator.SSO_COOKIE_NAME.equals(nameValue[0])) {
+                    return nameValue[1].replace("\"", "");
+                }
+            }
+        }
+        return null;
+    }
+
+    private void send(final HttpExchange exchange, final int statusCode, final String contentType, final String body)
+            throws IOException {
+        send(exchange, statusCode, contentType, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void send(final HttpExchange exchange, final int statusCode, final String contentType, final byte[] body)
+            throws IOException {
+        this.requestCount.incrementAndGet();
+        try (final InputStream requestBody = exchange.getRequestBody()) {
+            requestBody.readAllBytes();
+            exchange.getResponseHeaders().add("content-type", contentType);
+            exchange.sendResponseHeaders(statusCode, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                exchange.getResponseBody().write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Identify the client at the token endpoint. It authenticates with either client_secret_basic or
+     * client_secret_post, but the secret is not checked.
+     */
+    private static String clientIDOf(final HttpExchange exchange, final Map<String, String> parameters) {
+        final String authorization = exchange.getRequestHeaders().getFirst("authorization");
+        if (authorization != null && authorization.startsWith("Basic ")) {
+            final String credentials = new String(
+                    Base64.getDecoder()
+                            .decode(authorization.substring("Basic ".length()).trim()),
+                    StandardCharsets.UTF_8);
+            return URLDecoder.decode(credentials.split(":", 2)[0], StandardCharsets.UTF_8);
+        }
+
+        return parameters.getOrDefault("client_id", "");
+    }
+
+    private static Map<String, String> formParameters(final String encoded) {
+        final Map<String, String> parameters = new HashMap<>();
+        if (encoded != null) {
+            for (final String parameter : encoded.split("&")) {
+                final String[] nameValue = parameter.split("=", 2);
+                if (nameValue.length == 2) {
+                    parameters.put(
+                            URLDecoder.decode(nameValue[0], StandardCharsets.UTF_8),
+                            URLDecoder.decode(nameValue[1], StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private static String base64URL(final BigInteger value) {
+        // Unsigned, big-endian, without the sign byte BigInteger adds to a value with its top bit set.
+        final byte[] bytes = value.toByteArray();
+        final int offset = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOfRange(bytes, offset, bytes.length));
+    }
+
+    private static String capabilitiesXML(final String apiBaseURL) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<vosi:capabilities xmlns:vosi=\"http://www.ivoa.net/xml/VOSICapabilities/v1.0\""
+                + " xmlns:vs=\"http://www.ivoa.net/xml/VODataService/v1.1\""
+                + " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">\n"
+                + SkahaSimulator.capability("http://www.opencadc.org/std/platform#session-1", apiBaseURL + "/session")
+                + SkahaSimulator.capability("http://www.opencadc.org/std/platform#image-1", apiBaseURL + "/image")
+                + SkahaSimulator.capability("http://www.opencadc.org/std/platform#context-1", apiBaseURL + "/context")
+                + SkahaSimulator.capability(
+                        "http://www.opencadc.org/std/platform#repository-1", apiBaseURL + "/repository")
+                + "</vosi:capabilities>\n";
+    }
+
+    private static String capability(final String standardID, final String accessURL) {
+        return "  <capability standardID=\"" + standardID + "\">\n"
+                + "    <interface xsi:type=\"vs:ParamHTTP\" role=\"std\" version=\"1.0\">\n"
+                + "      <accessURL use=\"base\">" + accessURL + "</accessURL>\n"
+                + "      <securityMethod standardID=\"ivo://ivoa.net/sso#token\"/>\n"
+                + "      <securityMethod standardID=\"ivo://ivoa.net/sso#cookie\"/>\n"
+                + "    </interface>\n"
+                + "  </capability>\n";
+    }
+
+    private static byte[] imageListJSON(final String project, final int imageCount) {
+        return SkahaSimulator.imageListJSON(project, imageCount, null, 0);
+    }
+
+    private static byte[] imageListJSON(
+            final String project, final int imageCount, final String privateProject, final int privateImageCount) {
+        final StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < imageCount + privateImageCount; i++) {
+            final String imageProject = i < imageCount ? project : privateProject;
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"id\":\"images.canfar.net/")
+                    .append(imageProject)
+                    .append("/image-")
+                    .append(i)
+                    .append(":24.")
+                    .append(i % 12 + 1)
+                    .append("\",\"types\":[\"")
+                    .append(i % 4 == 0 ? "desktop-app" : "notebook")
+                    .append("\"],\"digest\":\"sha256:")
+                    .append(String.format("%064x", i))
+                    .append("\"}");
+        }
+        return builder.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class SimulatedSession {
+        private final String id = UUID.randomUUID().toString().substring(0, 8);
+        private final String type;
+        private final Instant startTime;
+
+        SimulatedSession(final String type, final Instant startTime) {
+            this.type = type;
+            this.startTime = startTime;
+        }
+
+        String toJSON(final String user) {
+            final boolean pending = Instant.now().isBefore(this.startTime.plus(SkahaSimulator.PENDING_DURATION));
+            return "{\"id\":\"" + this.id + "\",\"userid\":\"" + user + "\",\"image\":"
+                    + "\"images.canfar.net/skaha/astroml-notebook:24.07\",\"type\":\"" + this.type
+                    + "\",\"status\":\"" + (pending ? "Pending" : "Running") + "\",\"name\":\"session-" + this.id
+                    + "\",\"startTime\":\"" + this.startTime + "\",\"connectURL\":\"https://example.com/session/"
+                    + this.type + "/" + this.id + "\",\"requestedRAM\":\"8G\",\"requestedCPUCores\":\"2\","
+                    + "\"requestedGPUCores\":\"0\",\"ramInUse\":\"1.2G\",\"cpuCoresInUse\":\"0.013\"}";
+        }
+    }
+}
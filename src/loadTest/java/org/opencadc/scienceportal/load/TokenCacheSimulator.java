@@ -0,0 +1,448 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal.load;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the Redis token cache the OIDC client stores the portal's access tokens in. Speaks enough of
+ * the Redis protocol (RESP2) for a Redis client: connection set up, strings and hashes with expiry, and JSON documents
+ * stored whole. Every command waits for the configured latency before answering.
+ */
+class TokenCacheSimulator {
+    private final Duration latency;
+    private final Map<String, StoredValue> values = new ConcurrentHashMap<>();
+    private final AtomicLong commandCount = new AtomicLong();
+    private final ExecutorService executorService = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "token-cache-simulator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ServerSocket serverSocket;
+
+    TokenCacheSimulator(final LoadTestOptions options) {
+        this.latency = options.tokenCacheLatency;
+    }
+
+    void start() throws IOException {
+        this.serverSocket = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+        this.executorService.execute(() -> {
+            while (!this.serverSocket.isClosed()) {
+                try {
+                    final Socket socket = this.serverSocket.accept();
+                    this.executorService.execute(() -> serve(socket));
+                } catch (IOException acceptException) {
+                    // Closed by stop().
+                }
+            }
+        });
+    }
+
+    void stop() throws IOException {
+        this.serverSocket.close();
+        this.executorService.shutdownNow();
+    }
+
+    /**
+     * URL of the token cache, for the portal's tokenCache.url setting.
+     *
+     * @return String URL. Never null once started.
+     */
+    String getURL() {
+        return "redis://127.0.0.1:" + this.serverSocket.getLocalPort();
+    }
+
+    long getCommandCount() {
+        return this.commandCount.get();
+    }
+
+    private void serve(final Socket socket) {
+        try (final Socket connection = socket;
+                final InputStream inputStream = new BufferedInputStream(connection.getInputStream());
+                final OutputStream outputStream = new BufferedOutputStream(connection.getOutputStream())) {
+            while (true) {
+                final List<String> command = TokenCacheSimulator.readCommand(inputStream);
+                if (command == null) {
+                    return;
+                } else if (command.isEmpty()) {
+                    continue;
+                }
+
+                this.commandCount.incrementAndGet();
+                delay();
+                final boolean quit = "QUIT".equalsIgnoreCase(command.get(0));
+                outputStream.write(execute(command));
+                outputStream.flush();
+                if (quit) {
+                    return;
+                }
+            }
+        } catch (IOException ioException) {
+            // Client went away.
+        }
+    }
+
+    private byte[] execute(final List<String> command) {
+        final String name = command.get(0).toUpperCase(Locale.ROOT);
+        final List<String> arguments = command.subList(1, command.size());
+        switch (name) {
+            case "PING":
+                return arguments.isEmpty()
+                        ? TokenCacheSimulator.simple("PONG")
+                        : TokenCacheSimulator.bulk(arguments.get(0));
+            case "AUTH":
+            case "SELECT":
+            case "CLIENT":
+            case "QUIT":
+                return TokenCacheSimulator.simple("OK");
+            case "GET":
+            case "JSON.GET":
+                return get(arguments, "JSON.GET".equals(name));
+            case "SET":
+                return set(arguments.get(0), arguments.get(1), arguments.subList(2, arguments.size()));
+            case "JSON.SET":
+                // Documents are stored and returned whole, at the root path.
+                return set(arguments.get(0), arguments.get(2), arguments.subList(3, arguments.size()));
+            case "SETEX":
+                return set(arguments.get(0), arguments.get(2), List.of("EX", arguments.get(1)));
+            case "PSETEX":
+                return set(arguments.get(0), arguments.get(2), List.of("PX", arguments.get(1)));
+            case "GETDEL":
+                final byte[] value = get(arguments, false);
+                this.values.remove(arguments.get(0));
+                return value;
+            case "DEL":
+            case "UNLINK":
+            case "JSON.DEL":
+                long removed = 0L;
+                for (final String key : arguments) {
+                    removed += this.values.remove(key) == null ? 0L : 1L;
+                }
+                return TokenCacheSimulator.integer(removed);
+            case "EXISTS":
+                long found = 0L;
+                for (final String key : arguments) {
+                    found += lookup(key) == null ? 0L : 1L;
+                }
+                return TokenCacheSimulator.integer(found);
+            case "EXPIRE":
+            case "PEXPIRE":
+                return expire(
+                        arguments.get(0), Long.parseLong(arguments.get(1)) * ("EXPIRE".equals(name) ? 1000L : 1L));
+            case "TTL":
+                final StoredValue storedValue = lookup(arguments.get(0));
+                return TokenCacheSimulator.integer(
+                        storedValue == null
+                                ? -2L
+                                : storedValue.expiresAtMillis == Long.MAX_VALUE
+                                        ? -1L
+                                        : (storedValue.expiresAtMillis - System.currentTimeMillis()) / 1000L);
+            case "HSET":
+            case "HMSET":
+                return hashSet(arguments, "HMSET".equals(name));
+            case "HGET":
+                final Map<String, String> hash = hashOf(arguments.get(0));
+                return TokenCacheSimulator.bulk(hash == null ? null : hash.get(arguments.get(1)));
+            case "HGETALL":
+                return hashGetAll(arguments.get(0));
+            case "HDEL":
+                return hashDelete(arguments);
+            default:
+                return TokenCacheSimulator.error("ERR unknown command '" + command.get(0) + "'");
+        }
+    }
+
+    private byte[] get(final List<String> arguments, final boolean json) {
+        final StoredValue storedValue = lookup(arguments.get(0));
+        if (storedValue == null || storedValue.value == null) {
+            return TokenCacheSimulator.bulk(null);
+        }
+
+        // A JSONPath query ($...) returns its matches as an array.  Only the root is supported.
+        final boolean jsonPath =
+                json && arguments.size() > 1 && arguments.get(1).startsWith("$");
+        return TokenCacheSimulator.bulk(jsonPath ? "[" + storedValue.value + "]" : storedValue.value);
+    }
+
+    private byte[] set(final String key, final String value, final List<String> options) {
+        long expiresAtMillis = Long.MAX_VALUE;
+        final StoredValue previous = lookup(key);
+        boolean returnPrevious = false;
+        for (int i = 0; i < options.size(); i++) {
+            final String option = options.get(i).toUpperCase(Locale.ROOT);
+            if ("EX".equals(option) || "PX".equals(option)) {
+                final long amount = Long.parseLong(options.get(++i));
+                expiresAtMillis = System.currentTimeMillis() + ("EX".equals(option) ? amount * 1000L : amount);
+            } else if ("KEEPTTL".equals(option) && previous != null) {
+                expiresAtMillis = previous.expiresAtMillis;
+            } else if ("NX".equals(option) && previous != null || "XX".equals(option) && previous == null) {
+                return TokenCacheSimulator.bulk(null);
+            } else if ("GET".equals(option)) {
+                returnPrevious = true;
+            }
+        }
+
+        this.values.put(key, new StoredValue(value, null, expiresAtMillis));
+        return returnPrevious
+                ? TokenCacheSimulator.bulk(previous == null ? null : previous.value)
+                : TokenCacheSimulator.simple("OK");
+    }
+
+    private byte[] expire(final String key, final long millis) {
+        final StoredValue storedValue = lookup(key);
+        if (storedValue == null) {
+            return TokenCacheSimulator.integer(0L);
+        }
+
+        this.values.put(key, new StoredValue(storedValue.value, storedValue.hash, System.currentTimeMillis() + millis));
+        return TokenCacheSimulator.integer(1L);
+    }
+
+    private byte[] hashSet(final List<String> arguments, final boolean legacy) {
+        final String key = arguments.get(0);
+        final StoredValue previous = lookup(key);
+        final Map<String, String> hash =
+                previous == null || previous.hash == null ? new ConcurrentHashMap<>() : previous.hash;
+        long added = 0L;
+        for (int i = 1; i + 1 < arguments.size(); i += 2) {
+            added += hash.put(arguments.get(i), arguments.get(i + 1)) == null ? 1L : 0L;
+        }
+
+        this.values.put(key, new StoredValue(null, hash, previous == null ? Long.MAX_VALUE : previous.expiresAtMillis));
+        return legacy ? TokenCacheSimulator.simple("OK") : TokenCacheSimulator.integer(added);
+    }
+
+    private byte[] hashGetAll(final String key) {
+        final Map<String, String> hash = hashOf(key);
+        final List<String> fieldsAndValues = new ArrayList<>();
+        if (hash != null) {
+            for (final Map.Entry<String, String> entry : new LinkedHashMap<>(hash).entrySet()) {
+                fieldsAndValues.add(entry.getKey());
+                fieldsAndValues.add(entry.getValue());
+            }
+        }
+
+        return TokenCacheSimulator.array(fieldsAndValues);
+    }
+
+    private byte[] hashDelete(final List<String> arguments) {
+        final Map<String, String> hash = hashOf(arguments.get(0));
+        long removed = 0L;
+        if (hash != null) {
+            for (final String field : arguments.subList(1, arguments.size())) {
+                removed += hash.remove(field) == null ? 0L : 1L;
+            }
+        }
+
+        return TokenCacheSimulator.integer(removed);
+    }
+
+    private Map<String, String> hashOf(final String key) {
+        final StoredValue storedValue = lookup(key);
+        return storedValue == null ? null : storedValue.hash;
+    }
+
+    private StoredValue lookup(final String key) {
+        final StoredValue storedValue = this.values.get(key);
+        if (storedValue != null && storedValue.expiresAtMillis <= System.currentTimeMillis()) {
+            this.values.remove(key, storedValue);
+            return null;
+        }
+
+        return storedValue;
+    }
+
+    private void delay() {
+        if (!this.latency.isZero()) {
+            try {
+                Thread.sleep(this.latency.toMillis());
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Read one command: an array of bulk strings, or an inline command.
+     *
+     * @param inputStream The connection.
+     * @return The command and its arguments, empty for a blank line, or null at the end of the stream.
+     * @throws IOException If the stream cannot be read.
+     */
+    static List<String> readCommand(final InputStream inputStream) throws IOException {
+        final String line = TokenCacheSimulator.readLine(inputStream);
+        if (line == null) {
+            return null;
+        } else if (!line.startsWith("*")) {
+            final List<String> inline = new ArrayList<>();
+            for (final String word : line.trim().split("\\s+")) {
+                if (!word.isEmpty()) {
+                    inline.add(word);
+                }
+            }
+            return inline;
+        }
+
+        final int count = Integer.parseInt(line.substring(1));
+        final List<String> command = new ArrayList<>(Math.max(0, count));
+        for (int i = 0; i < count; i++) {
+            final String header = TokenCacheSimulator.readLine(inputStream);
+            if (header == null || !header.startsWith("$")) {
+                throw new IOException("Expected a bulk string, but got " + header);
+            }
+
+            final byte[] data = inputStream.readNBytes(Integer.parseInt(header.substring(1)));
+            if (inputStream.read() != '\r' || inputStream.read() != '\n') {
+                throw new EOFException("Truncated bulk string.");
+            }
+            command.add(new String(data, StandardCharsets.ISO_8859_1));
+        }
+
+        return command;
+    }
+
+    private static String readLine(final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int next;
+        while ((next = inputStream.read()) != -1) {
+            if (next == '\n') {
+                final byte[] bytes = line.toByteArray();
+                final int length =
+                        bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+            }
+            line.write(next);
+        }
+
+        return null;
+    }
+
+    private static byte[] simple(final String message) {
+        return ("+" + message + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] error(final String message) {
+        return ("-" + message + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] integer(final long value) {
+        return (":" + value + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] bulk(final String value) {
+        return (value == null ? "$-1\r\n" : "$" + value.length() + "\r\n" + value + "\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] array(final List<String> values) {
+        final StringBuilder builder =
+                new StringBuilder("*").append(values.size()).append("\r\n");
+        for (final String value : values) {
+            builder.append('$')
+                    .append(value.length())
+                    .append("\r\n")
+                    .append(value)
+                    .append("\r\n");
+        }
+        return builder.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static final class StoredValue {
+        // Either a string (also used for JSON documents) or a hash.
+        private final String value;
+        private final Map<String, String> hash;
+        private final long expiresAtMillis;
+
+        StoredValue(final String value, final Map<String, String> hash, final long expiresAtMillis) {
+            this.value = value;
+            this.hash = hash;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,439 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * One virtual user, repeating the portal journey a browser makes until the run ends: log in, load the launch form,
+ * launch a session, poll the session list while it starts, open the session, and delete it. A failed step ends that
+ * pass of the journey.
+ *
+ * <p>Users log in as the portal's own users do, by following the redirects from /oidc-login through the OpenID Connect
+ * provider to /oidc-callback, and then present the first-party cookie it sets. The portal exchanges that cookie for the
+ * access token in the token cache. With the sso login option, they log in with an SSO cookie instead.
+ *
+ * <p>Event stream users hold /session/events open instead. Each pass opens the stream, launches a session and deletes
+ * it, timing how long the stream takes to report each change, then keeps the stream open for the rest of the hold time.
+ * Many of them measure how the portal copes with long-held requests.
+ */
+class UserJourney implements Runnable {
+    // Pause after a failed pass, so that a broken deployment is not hammered in a tight loop.
+    private static final Duration FAILURE_BACKOFF = Duration.ofSeconds(1L);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60L);
+
+    // Set by the portal's /oidc-callback.
+    private static final String FIRST_PARTY_COOKIE_NAME = "__Host-science-portal-auth";
+
+    private final String username;
+    private final HttpClient httpClient;
+    private final String portalURL;
+    private final URI loginURI;
+    private final LoadTestOptions options;
+    private final JourneyStatistics statistics;
+    private final BooleanSupplier running;
+    private final boolean eventStream;
+
+    // The name=value pair sent in the Cookie header.
+    private String cookie;
+    private String sessionListETag;
+
+    UserJourney(
+            final String username,
+            final HttpClient httpClient,
+            final String portalURL,
+            final URI loginURI,
+            final LoadTestOptions options,
+            final JourneyStatistics statistics,
+            final BooleanSupplier running,
+            final boolean eventStream) {
+        this.username = username;
+        this.httpClient = httpClient;
+        this.portalURL = portalURL;
+        this.loginURI = loginURI;
+        this.options = options;
+        this.statistics = statistics;
+        this.running = running;
+        this.eventStream = eventStream;
+    }
+
+    @Override
+    public void run() {
+        while (this.running.getAsBoolean()) {
+            try {
+                if (this.eventStream) {
+                    watchEventsOnce();
+                } else {
+                    runOnce();
+                }
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (JourneyFailedException | IOException exception) {
+                try {
+                    Thread.sleep(UserJourney.FAILURE_BACKOFF.toMillis());
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void runOnce() throws IOException, InterruptedException, JourneyFailedException {
+        logIn();
+        this.sessionListETag = null;
+
+        step(LoadTest.USER_INFO, portalRequest("/userinfo").GET(), 200, 304);
+
+        // The launch form loads these together.
+        step(LoadTest.FORM_CONTEXT, portalRequest("/context").GET(), 200, 304);
+        step(LoadTest.FORM_IMAGES, portalRequest("/image").GET(), 200, 304);
+        step(LoadTest.FORM_REPOSITORY, portalRequest("/repository").GET(), 200, 304);
+
+        final String sessionID = launch();
+
+        for (int i = 0; i < this.options.pollCount && this.running.getAsBoolean(); i++) {
+            // Revalidate as the browser does, as session list responses are marked no-cache.
+            final HttpRequest.Builder pollRequest = portalRequest("/session").GET();
+            if (this.sessionListETag != null) {
+                pollRequest.header("if-none-match", this.sessionListETag);
+            }
+            final HttpResponse<String> pollResponse = step(LoadTest.POLL, pollRequest, 200, 304);
+            this.sessionListETag = pollResponse.headers().firstValue("etag").orElse(this.sessionListETag);
+
+            Thread.sleep(this.options.pollInterval.toMillis());
+        }
+
+        step(LoadTest.SESSION, portalRequest("/session/" + sessionID).GET(), 200, 304);
+        step(LoadTest.DELETE, portalRequest("/session/" + sessionID).DELETE(), 200, 304);
+    }
+
+    private void watchEventsOnce() throws IOException, InterruptedException, JourneyFailedException {
+        logIn();
+
+        final EventQueue eventQueue = new EventQueue();
+        final AtomicInteger statusCode = new AtomicInteger();
+        final long startNanos = System.nanoTime();
+        final CompletableFuture<HttpResponse<Void>> stream = this.httpClient.sendAsync(
+                portalRequest("/session/events")
+                        .setHeader("accept", "text/event-stream")
+                        .GET()
+                        .build(),
+                responseInfo -> {
+                    statusCode.set(responseInfo.statusCode());
+                    return HttpResponse.BodySubscribers.fromLineSubscriber(eventQueue);
+                });
+
+        try {
+            awaitEvent(LoadTest.EVENTS_OPEN, eventQueue, statusCode, "sessions", startNanos);
+
+            final long launchNanos = System.nanoTime();
+            final String sessionID = launch();
+            awaitEvent(LoadTest.EVENTS_ADDED, eventQueue, statusCode, "session-added", launchNanos);
+
+            final long deleteNanos = System.nanoTime();
+            step(LoadTest.DELETE, portalRequest("/session/" + sessionID).DELETE(), 200, 304);
+            awaitEvent(LoadTest.EVENTS_REMOVED, eventQueue, statusCode, "session-removed", deleteNanos);
+
+            // Hold the stream open, idle, as a browser tab would.
+            final long holdEndNanos = startNanos + this.options.streamHold.toNanos();
+            while (this.running.getAsBoolean() && System.nanoTime() < holdEndNanos) {
+                Thread.sleep(Math.min(1000L, TimeUnit.NANOSECONDS.toMillis(holdEndNanos - System.nanoTime()) + 1L));
+            }
+        } finally {
+            eventQueue.cancel();
+            stream.cancel(true);
+        }
+    }
+
+    /**
+     * Wait for the next event of the given name on the stream, and record the time since the given start. Other events
+     * are skipped.
+     */
+    private void awaitEvent(
+            final String name,
+            final EventQueue eventQueue,
+            final AtomicInteger statusCode,
+            final String event,
+            final long startNanos)
+            throws InterruptedException, JourneyFailedException {
+        final long deadlineNanos = System.nanoTime() + UserJourney.REQUEST_TIMEOUT.toNanos();
+        while (true) {
+            final String next = eventQueue.poll(deadlineNanos - System.nanoTime());
+            if (event.equals(next)) {
+                this.statistics.record(name, System.nanoTime() - startNanos);
+                return;
+            } else if (next == null) {
+                throw fail(name, "no " + event + " event within " + UserJourney.REQUEST_TIMEOUT.toSeconds() + "s");
+            } else if (next == EventQueue.END) {
+                throw fail(
+                        name,
+                        statusCode.get() == 200 ? "stream closed" : "HTTP " + statusCode.get() + " opening stream");
+            }
+        }
+    }
+
+    private void logIn() throws IOException, InterruptedException, JourneyFailedException {
+        if (LoadTestOptions.SSO_LOGIN.equals(this.options.login)) {
+            final String ssoCookie = step(
+                            LoadTest.LOGIN,
+                            HttpRequest.newBuilder(this.loginURI)
+                                    .header("content-type", "application/x-www-form-urlencoded")
+                                    .POST(HttpRequest.BodyPublishers.ofString(
+                                            "username=" + this.username + "&password=load-test")),
+                            200)
+                    .body()
+                    .trim();
+            this.cookie = SkahaSimulator.SSO_COOKIE_NAME + "=\"" + ssoCookie + "\"";
+        } else {
+            this.cookie = null;
+            logInWithOIDC();
+        }
+    }
+
+    private String launch() throws IOException, InterruptedException, JourneyFailedException {
+        return step(
+                        LoadTest.LAUNCH,
+                        portalRequest("/session")
+                                .header("content-type", "application/x-www-form-urlencoded")
+                                .POST(HttpRequest.BodyPublishers.ofString("name=load-" + this.username
+                                        + "&image=images.canfar.net/skaha/astroml-notebook:24.07"
+                                        + "&type=notebook&cores=2&ram=8")),
+                        200,
+                        304)
+                .body()
+                .trim();
+    }
+
+    /**
+     * Follow the portal's OpenID Connect login as a browser would. The provider signs in the user named in the
+     * login_hint without a password, and the callback stores the access token in the token cache and sets the
+     * first-party cookie.
+     */
+    private void logInWithOIDC() throws IOException, InterruptedException, JourneyFailedException {
+        final String authorizationURL = location(
+                LoadTest.LOGIN_START,
+                step(LoadTest.LOGIN_START, portalRequest("/oidc-login").GET(), 302));
+        final String callbackURL = location(
+                LoadTest.LOGIN_PROVIDER,
+                step(
+                        LoadTest.LOGIN_PROVIDER,
+                        HttpRequest.newBuilder(URI.create(authorizationURL
+                                        + (authorizationURL.contains("?") ? "&" : "?") + "login_hint="
+                                        + this.username))
+                                .GET(),
+                        302));
+
+        final HttpResponse<String> callbackResponse = step(
+                LoadTest.LOGIN_CALLBACK,
+                HttpRequest.newBuilder(URI.create(callbackURL)).GET(),
+                302);
+        for (final String setCookie : callbackResponse.headers().allValues("set-cookie")) {
+            if (setCookie.startsWith(UserJourney.FIRST_PARTY_COOKIE_NAME + "=")) {
+                final int end = setCookie.indexOf(';');
+                this.cookie = end < 0 ? setCookie : setCookie.substring(0, end);
+            }
+        }
+
+        if (this.cookie == null) {
+            throw fail(LoadTest.LOGIN_CALLBACK, "no first-party cookie set");
+        }
+    }
+
+    private String location(final String name, final HttpResponse<String> httpResponse) throws JourneyFailedException {
+        final String location = httpResponse.headers().firstValue("location").orElse(null);
+        if (location == null) {
+            throw fail(name, "no location");
+        }
+        return location;
+    }
+
+    private HttpRequest.Builder portalRequest(final String path) {
+        final HttpRequest.Builder builder =
+                HttpRequest.newBuilder(URI.create(this.portalURL + path)).header("accept", "application/json");
+        return this.cookie == null ? builder : builder.header("cookie", this.cookie);
+    }
+
+    /**
+     * Send one request of the journey and record how long it took.
+     *
+     * @param name The step name.
+     * @param builder The request.
+     * @param statusCodes The status codes that mean success.
+     * @return The response. Never null.
+     */
+    private HttpResponse<String> step(final String name, final HttpRequest.Builder builder, final int... statusCodes)
+            throws IOException, InterruptedException, JourneyFailedException {
+        final HttpRequest httpRequest =
+                builder.timeout(UserJourney.REQUEST_TIMEOUT).build();
+        final long startNanos = System.nanoTime();
+        final HttpResponse<String> httpResponse;
+        try {
+            httpResponse =
+                    this.httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (IOException ioException) {
+            this.statistics.recordFailure(name, ioException.toString());
+            throw ioException;
+        }
+
+        final int statusCode = httpResponse.statusCode();
+        for (final int expected : statusCodes) {
+            if (statusCode == expected) {
+                this.statistics.record(name, System.nanoTime() - startNanos);
+                return httpResponse;
+            }
+        }
+
+        throw fail(name, "HTTP " + statusCode + ": " + httpResponse.body().trim());
+    }
+
+    private JourneyFailedException fail(final String name, final String message) {
+        this.statistics.recordFailure(name, message);
+        return new JourneyFailedException(name + " failed with " + message);
+    }
+
+    /** Receives a Server-Sent Events stream line by line, and queues the name of each complete event. */
+    private static final class EventQueue implements Flow.Subscriber<String> {
+        // Queued when the stream ends, for whatever reason.  Compared by identity, so no event name can match it.
+        private static final String END = new String("end");
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled = false;
+        private String eventName;
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (this.cancelled) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(final String line) {
+            if (line.startsWith("event:")) {
+                this.eventName = line.substring("event:".length()).trim();
+            } else if (line.isEmpty() && this.eventName != null) {
+                this.events.add(this.eventName);
+                this.eventName = null;
+            }
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            this.events.add(EventQueue.END);
+        }
+
+        @Override
+        public void onComplete() {
+            this.events.add(EventQueue.END);
+        }
+
+        /**
+         * Take the next event name.
+         *
+         * @param timeoutNanos How long to wait.
+         * @return The event name, END if the stream has ended, or null on timeout.
+         */
+        String poll(final long timeoutNanos) throws InterruptedException {
+            return this.events.poll(Math.max(0L, timeoutNanos), TimeUnit.NANOSECONDS);
+        }
+
+        void cancel() {
+            this.cancelled = true;
+            final Flow.Subscription current = this.subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+
+    private static final class JourneyFailedException extends Exception {
+        JourneyFailedException(final String message) {
+            super(message);
+        }
+    }
+}
@@ -8,16 +8,30 @@ import ca.nrc.cadc.util.StringUtil;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import org.apache.commons.configuration2.BaseConfiguration;
 import org.apache.commons.configuration2.CombinedConfiguration;
-import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.ConfigurationUtils;
+import org.apache.commons.configuration2.ImmutableConfiguration;
 import org.apache.commons.configuration2.PropertiesConfiguration;
 import org.apache.commons.configuration2.SystemConfiguration;
 import org.apache.commons.configuration2.builder.FileBasedConfigurationBuilder;
@@ -30,16 +44,49 @@ import org.opencadc.token.Client;
 
 public class ApplicationConfiguration {
 
-    // Included in the JSP
-    public static final long BUILD_TIME_MS = new Date().getTime();
-
     public static final String FIRST_PARTY_COOKIE_NAME = "__Host-science-portal-auth";
     private static final String CONFIG_FILE_PATH =
             System.getProperty("user.home") + "/config/org.opencadc.science-portal.properties";
     private static final Logger LOGGER = Logger.getLogger(ApplicationConfiguration.class);
-    private final Configuration configuration;
+    private final ImmutableConfiguration configuration;
+    private final HeaderURLLookup headerURLLookup;
+
+    // This snapshot's OIDC client, resolved on first use.
+    private final AtomicReference<Client> oidcClient = new AtomicReference<>();
+
+    /**
+     * Create an ApplicationConfiguration from a given Configuration. Mainly for testing.
+     *
+     * @param configuration Configuration to use.
+     */
+    ApplicationConfiguration(final ImmutableConfiguration configuration) {
+        this.configuration = configuration;
+        this.headerURLLookup = HeaderURLLookup.create(this);
+    }
+
+    /**
+     * Obtain the process-wide configuration. The returned snapshot is immutable and shared by all requests. It is
+     * replaced in the background when the configuration file changes on disk, so callers never touch the file system.
+     *
+     * @return The current ApplicationConfiguration snapshot. Never null.
+     */
+    public static ApplicationConfiguration getInstance() {
+        return Watcher.INSTANCE.current();
+    }
 
-    public ApplicationConfiguration() {
+    /** Stop watching the configuration file for changes. Called when the web application is shut down. */
+    public static void shutdown() {
+        Watcher.INSTANCE.stop();
+    }
+
+    /**
+     * Read the configuration file, preferring System properties, into an immutable snapshot. A missing file will
+     * produce a snapshot of the System properties only.
+     *
+     * @param configFilePath The Path to the properties file.
+     * @return ApplicationConfiguration snapshot. Never null.
+     */
+    static ApplicationConfiguration load(final Path configFilePath) {
         final CombinedConfiguration combinedConfiguration = new CombinedConfiguration(new MergeCombiner());
 
         // Prefer System properties.
@@ -48,25 +95,19 @@ public class ApplicationConfiguration {
         final Parameters parameters = new Parameters();
         final FileBasedConfigurationBuilder<PropertiesConfiguration> builder = new FileBasedConfigurationBuilder<>(
                         PropertiesConfiguration.class)
-                .configure(parameters.properties().setFileName(ApplicationConfiguration.CONFIG_FILE_PATH));
+                .configure(parameters.properties().setFile(configFilePath.toFile()));
 
         try {
             combinedConfiguration.addConfiguration(builder.getConfiguration());
         } catch (ConfigurationException exception) {
-            LOGGER.warn(String.format(
-                    "No configuration found at %s.\nUsing defaults.", ApplicationConfiguration.CONFIG_FILE_PATH));
+            LOGGER.warn(String.format("No configuration found at %s.\nUsing defaults.", configFilePath));
         }
 
-        this.configuration = combinedConfiguration;
-    }
+        // Copy into a detached snapshot so that lookups neither lock System properties nor re-read the file.
+        final BaseConfiguration snapshot = new BaseConfiguration();
+        ConfigurationUtils.copy(combinedConfiguration, snapshot);
 
-    /**
-     * Create an ApplicationConfiguration from a given PropertiesConfiguration. Mainly for testing.
-     *
-     * @param configuration Configuration to use.
-     */
-    ApplicationConfiguration(final Configuration configuration) {
-        this.configuration = configuration;
+        return new ApplicationConfiguration(ConfigurationUtils.unmodifiableConfiguration(snapshot));
     }
 
     public String getResourceID() {
@@ -111,41 +152,38 @@ public class ApplicationConfiguration {
     }
 
     /**
-     * Pull the /applications header URLs.
+     * Pull the /applications header URLs. The lookups run concurrently; any that fail or do not finish within the
+     * configured timeouts are left out.
      *
      * @return JSONObject of header URIs to URLs.
      */
     public JSONObject getHeaderURLs() {
         final RegistryClient registryClient = new RegistryClient();
-        final JSONObject jsonObject = new JSONObject();
+        final Map<String, Callable<URL>> lookups = new LinkedHashMap<>();
 
-        Arrays.stream(ApplicationStandards.values()).forEach(applicationStandard -> {
-            try {
-                jsonObject.put(
+        Arrays.stream(ApplicationStandards.values())
+                .forEach(applicationStandard -> lookups.put(
                         applicationStandard.standardID.toString(),
-                        registryClient.getAccessURL(RegistryClient.Query.APPLICATIONS, applicationStandard.standardID));
-            } catch (Exception e) {
-                LOGGER.warn("Unable to get Applications URL for " + applicationStandard.standardID, e);
-            }
-        });
+                        () -> registryClient.getAccessURL(
+                                RegistryClient.Query.APPLICATIONS, applicationStandard.standardID)));
 
-        final LocalAuthority localAuthority = new LocalAuthority();
-        try {
-            final Set<URI> credEndpoints = localAuthority.getResourceIDs(Standards.CRED_PROXY_10);
-            if (!credEndpoints.isEmpty()) {
-                final URI credServiceID = credEndpoints.stream().findFirst().orElseThrow(IllegalStateException::new);
-                final URL credServiceURL =
-                        registryClient.getServiceURL(credServiceID, Standards.CRED_PROXY_10, AuthMethod.CERT);
-
-                if (credServiceURL != null) {
-                    jsonObject.put("ivo://cadc.nrc.ca/cred", credServiceURL.toExternalForm());
+        lookups.put("ivo://cadc.nrc.ca/cred", () -> {
+            final LocalAuthority localAuthority = new LocalAuthority();
+            try {
+                final Set<URI> credEndpoints = localAuthority.getResourceIDs(Standards.CRED_PROXY_10);
+                if (!credEndpoints.isEmpty()) {
+                    final URI credServiceID =
+                            credEndpoints.stream().findFirst().orElseThrow(IllegalStateException::new);
+                    return registryClient.getServiceURL(credServiceID, Standards.CRED_PROXY_10, AuthMethod.CERT);
                 }
+            } catch (NoSuchElementException noSuchElementException) {
+                LOGGER.debug("Not using proxy certificates.  Skipping menu addition.");
             }
-        } catch (NoSuchElementException noSuchElementException) {
-            LOGGER.debug("Not using proxy certificates.  Skipping menu addition.");
-        }
 
-        return jsonObject;
+            return null;
+        });
+
+        return this.headerURLLookup.lookup(lookups);
     }
 
     String getStringValue(final String key, final boolean required) {
@@ -167,6 +205,211 @@ public class ApplicationConfiguration {
         return getStringValue(key.propertyName, key.required);
     }
 
+    long getLongValue(final ConfigurationKey key, final long defaultValue) {
+        try {
+            return this.configuration.getLong(key.propertyName, defaultValue);
+        } catch (RuntimeException conversionException) {
+            LOGGER.warn("Invalid number for " + key.propertyName + ".  Using default " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    boolean getBooleanValue(final ConfigurationKey key, final boolean defaultValue) {
+        try {
+            return this.configuration.getBoolean(key.propertyName, defaultValue);
+        } catch (RuntimeException conversionException) {
+            LOGGER.warn("Invalid boolean for " + key.propertyName + ".  Using default " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get how long, in seconds, a resolved Registry service URL is used before it is refreshed in the background.
+     *
+     * @return Time-to-live in seconds. Defaults to ten minutes.
+     */
+    public long getRegistryCacheTimeToLiveSeconds() {
+        return getLongValue(ConfigurationKey.REGISTRY_CACHE_TTL_SECONDS, 600L);
+    }
+
+    /**
+     * Get how long, in milliseconds, to wait for any one header URL lookup.
+     *
+     * @return Lookup timeout in milliseconds. Defaults to 5000.
+     */
+    public long getRegistryLookupTimeoutMilliseconds() {
+        return Math.max(0L, getLongValue(ConfigurationKey.REGISTRY_LOOKUP_TIMEOUT_MILLISECONDS, 5000L));
+    }
+
+    /**
+     * Get how long, in milliseconds, to wait for all header URL lookups together. Whatever has completed by then is
+     * used.
+     *
+     * @return Overall deadline in milliseconds. Defaults to 8000.
+     */
+    public long getRegistryLookupDeadlineMilliseconds() {
+        return Math.max(0L, getLongValue(ConfigurationKey.REGISTRY_LOOKUP_DEADLINE_MILLISECONDS, 8000L));
+    }
+
+    /**
+     * Get the maximum number of concurrent requests to a single upstream host.
+     *
+     * @return Maximum concurrent requests. Defaults to 64.
+     */
+    public int getProxyMaxConcurrentRequestsPerHost() {
+        return (int) Math.max(1L, getLongValue(ConfigurationKey.PROXY_MAX_CONCURRENT_REQUESTS_PER_HOST, 64L));
+    }
+
+    public long getProxyConnectTimeoutSeconds() {
+        return getLongValue(ConfigurationKey.PROXY_CONNECT_TIMEOUT_SECONDS, 10L);
+    }
+
+    /**
+     * Get how long, in seconds, to wait for an upstream service to start responding.
+     *
+     * @return Read timeout in seconds. Defaults to 60.
+     */
+    public long getProxyReadTimeoutSeconds() {
+        return getLongValue(ConfigurationKey.PROXY_READ_TIMEOUT_SECONDS, 60L);
+    }
+
+    public boolean isProxyHTTP2Enabled() {
+        return getBooleanValue(ConfigurationKey.PROXY_HTTP2_ENABLED, true);
+    }
+
+    /**
+     * Get whether plain proxied GET requests release their request thread while waiting on the upstream service, and
+     * copy the body with non-blocking I/O.
+     *
+     * @return True if asynchronous proxying is enabled. Defaults to false.
+     */
+    public boolean isProxyAsyncEnabled() {
+        return getBooleanValue(ConfigurationKey.PROXY_ASYNC_ENABLED, false);
+    }
+
+    /**
+     * Get whether proxied actions, and the upstream HTTP client, run on virtual threads. Requires Java 21 or later, and
+     * is ignored otherwise.
+     *
+     * @return True if virtual threads are enabled. Defaults to false.
+     */
+    public boolean isProxyVirtualThreadsEnabled() {
+        return getBooleanValue(ConfigurationKey.PROXY_VIRTUAL_THREADS_ENABLED, false);
+    }
+
+    /**
+     * Get whether proxied JSON responses are gzip encoded for browsers that accept it. Gzip encoded upstream responses
+     * are passed through as they are.
+     *
+     * @return True if compression is enabled. Defaults to true.
+     */
+    public boolean isProxyCompressionEnabled() {
+        return getBooleanValue(ConfigurationKey.PROXY_COMPRESSION_ENABLED, true);
+    }
+
+    /**
+     * Get the smallest response body, in bytes, that the portal compresses itself. Smaller bodies are sent as they are,
+     * as compressing them saves less than it costs.
+     *
+     * @return Threshold in bytes. Defaults to 1024.
+     */
+    public long getProxyCompressionThresholdBytes() {
+        return Math.max(0L, getLongValue(ConfigurationKey.PROXY_COMPRESSION_THRESHOLD_BYTES, 1024L));
+    }
+
+    /**
+     * Get how long, in seconds, an access token obtained from the token cache is reused in-process. A token is never
+     * reused past its own expiry. Zero disables in-process reuse.
+     *
+     * @return Maximum age in seconds. Defaults to 300.
+     */
+    public long getTokenCacheLocalMaxAgeSeconds() {
+        return getLongValue(ConfigurationKey.TOKEN_CACHE_LOCAL_MAX_AGE_SECONDS, 300L);
+    }
+
+    public int getTokenCacheLocalMaxEntries() {
+        return (int) Math.max(1L, getLongValue(ConfigurationKey.TOKEN_CACHE_LOCAL_MAX_ENTRIES, 10000L));
+    }
+
+    /**
+     * Get how often, in milliseconds, a user's session list is polled upstream while they are viewing it. All of that
+     * user's requests for the list are answered from the latest poll. Polling continues while a session event stream is
+     * open, or for two intervals after the last request. Zero disables sharing, so every request goes upstream.
+     *
+     * @return Poll interval in milliseconds. Defaults to 1000.
+     */
+    public long getSessionPollIntervalMilliseconds() {
+        return Math.max(0L, getLongValue(ConfigurationKey.SESSIONS_POLL_INTERVAL_MILLISECONDS, 1000L));
+    }
+
+    /**
+     * Get how long, in seconds, a user's recent session lists are kept after their last request, without polling, so
+     * that the changes since one of them can be answered.
+     *
+     * @return Idle timeout in seconds. Defaults to 30.
+     */
+    public long getSessionPollIdleTimeoutSeconds() {
+        return getLongValue(ConfigurationKey.SESSIONS_POLL_IDLE_TIMEOUT_SECONDS, 30L);
+    }
+
+    /**
+     * Get how long, in seconds, a session event stream stays open before the browser is made to reconnect. Reconnecting
+     * picks up the browser's current credentials.
+     *
+     * @return Stream timeout in seconds. Defaults to 600.
+     */
+    public long getSessionEventStreamTimeoutSeconds() {
+        return Math.max(1L, getLongValue(ConfigurationKey.SESSIONS_EVENT_STREAM_TIMEOUT_SECONDS, 600L));
+    }
+
+    /**
+     * Get how long, in seconds, the image list visible to everyone is reused before it is refreshed in the background.
+     *
+     * @return Time-to-live in seconds. Defaults to 600.
+     */
+    public long getPublicImageCacheTimeToLiveSeconds() {
+        return getLongValue(ConfigurationKey.IMAGES_PUBLIC_CACHE_TTL_SECONDS, 600L);
+    }
+
+    /**
+     * Get how long, in seconds, the images visible only to a given user are reused before they are refreshed in the
+     * background.
+     *
+     * @return Time-to-live in seconds. Defaults to 60.
+     */
+    public long getPrivateImageCacheTimeToLiveSeconds() {
+        return getLongValue(ConfigurationKey.IMAGES_PRIVATE_CACHE_TTL_SECONDS, 60L);
+    }
+
+    /**
+     * Get how long, in seconds, the platform context (resource limits) is reused before it is refreshed in the
+     * background.
+     *
+     * @return Time-to-live in seconds. Defaults to 300.
+     */
+    public long getContextCacheTimeToLiveSeconds() {
+        return getLongValue(ConfigurationKey.CONTEXT_CACHE_TTL_SECONDS, 300L);
+    }
+
+    /**
+     * Get the client addresses, or CIDR ranges, allowed to read the /metrics endpoint. The address is the one the
+     * container sees, so a scraper reaching the portal through the ingress appears as the ingress.
+     *
+     * @return List of addresses and ranges, never null. Defaults to the loopback addresses.
+     */
+    public List<String> getMetricsAllowedAddresses() {
+        final String configuredAddresses =
+                this.configuration.getString(ConfigurationKey.METRICS_ALLOWED_ADDRESSES.propertyName, "");
+        if (!StringUtil.hasText(configuredAddresses)) {
+            return List.of("127.0.0.1", "::1");
+        }
+
+        return Arrays.stream(configuredAddresses.split(","))
+                .map(String::trim)
+                .filter(StringUtil::hasText)
+                .collect(Collectors.toList());
+    }
+
     public String getOIDCClientID() {
         return getStringValue(ConfigurationKey.OIDC_CLIENT_ID);
     }
@@ -219,7 +462,32 @@ public class ApplicationConfiguration {
                 && StringUtil.hasText(getTokenCacheURLString());
     }
 
+    /**
+     * Obtain the OIDC client. One client is shared by all requests, and by successive configuration snapshots, until
+     * the OIDC configuration itself changes, so that whatever the client loads (provider metadata, keys, token cache
+     * connections) is reused rather than rebuilt on every call.
+     *
+     * @return The shared Client. Never null.
+     * @throws IOException If the configured callback or redirect URI is not a valid URL.
+     */
     public Client getOIDCClient() throws IOException {
+        final Client client = this.oidcClient.get();
+        if (client != null) {
+            return client;
+        }
+
+        final List<String> oidcSettings = List.of(
+                getOIDCClientID(),
+                getOIDCClientSecret(),
+                getOIDCCallbackURI(),
+                getOIDCRedirectURI(),
+                getOIDCScope(),
+                getTokenCacheURLString());
+        this.oidcClient.compareAndSet(null, SharedOIDCClient.get(oidcSettings, this));
+        return this.oidcClient.get();
+    }
+
+    private Client createOIDCClient() throws IOException {
         return new Client(
                 getOIDCClientID(),
                 getOIDCClientSecret(),
@@ -229,6 +497,111 @@ public class ApplicationConfiguration {
                 getTokenCacheURLString());
     }
 
+    /**
+     * Holds the one OIDC client in use, along with the settings it was built from. A snapshot whose settings match is
+     * given the same client; different settings replace it.
+     */
+    private static final class SharedOIDCClient {
+        private static List<String> settings;
+        private static Client client;
+
+        private static synchronized Client get(
+                final List<String> oidcSettings, final ApplicationConfiguration applicationConfiguration)
+                throws IOException {
+            if (!oidcSettings.equals(SharedOIDCClient.settings)) {
+                SharedOIDCClient.client = applicationConfiguration.createOIDCClient();
+                SharedOIDCClient.settings = oidcSettings;
+                LOGGER.info("Created OIDC client for " + applicationConfiguration.getOIDCClientID());
+            }
+
+            return SharedOIDCClient.client;
+        }
+    }
+
+    /**
+     * Holds the current configuration snapshot and swaps it atomically when the configuration file's modification time
+     * or size changes. Only the single background thread touches the file system.
+     */
+    static final class Watcher {
+        // How often, in seconds, to check the configuration file for changes.
+        private static final long CHECK_INTERVAL_SECONDS = 10L;
+
+        private static final Watcher INSTANCE = Watcher.start(Paths.get(ApplicationConfiguration.CONFIG_FILE_PATH));
+
+        private final Path configFilePath;
+        private final AtomicReference<ApplicationConfiguration> current = new AtomicReference<>();
+        private final ScheduledExecutorService executorService;
+        private String lastFileStamp;
+
+        Watcher(final Path configFilePath, final ScheduledExecutorService executorService) {
+            this.configFilePath = configFilePath;
+            this.executorService = executorService;
+            this.lastFileStamp = readFileStamp();
+            this.current.set(ApplicationConfiguration.load(configFilePath));
+        }
+
+        private static Watcher start(final Path configFilePath) {
+            final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "science-portal-config-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            final Watcher watcher = new Watcher(configFilePath, executorService);
+            executorService.scheduleWithFixedDelay(
+                    watcher::checkForUpdate,
+                    Watcher.CHECK_INTERVAL_SECONDS,
+                    Watcher.CHECK_INTERVAL_SECONDS,
+                    TimeUnit.SECONDS);
+            return watcher;
+        }
+
+        ApplicationConfiguration current() {
+            return this.current.get();
+        }
+
+        /**
+         * Reload the snapshot if the file has changed since the last check. The file stamp is read before loading so
+         * that a write racing with the load is picked up by the next check.
+         *
+         * @return True if a new snapshot was published, False otherwise.
+         */
+        boolean checkForUpdate() {
+            try {
+                final String fileStamp = readFileStamp();
+                if (!Objects.equals(fileStamp, this.lastFileStamp)) {
+                    this.lastFileStamp = fileStamp;
+                    this.current.set(ApplicationConfiguration.load(this.configFilePath));
+                    LOGGER.info("Reloaded configuration from " + this.configFilePath);
+                    return true;
+                }
+            } catch (Exception exception) {
+                // Keep serving the previous snapshot.
+                LOGGER.error("Unable to reload configuration from " + this.configFilePath, exception);
+            }
+
+            return false;
+        }
+
+        void stop() {
+            if (this.executorService != null) {
+                this.executorService.shutdownNow();
+            }
+        }
+
+        private String readFileStamp() {
+            try {
+                final BasicFileAttributes attributes =
+                        Files.readAttributes(this.configFilePath, BasicFileAttributes.class);
+                return attributes.lastModifiedTime().toMillis() + ":" + attributes.size();
+            } catch (NoSuchFileException noSuchFileException) {
+                return null;
+            } catch (IOException ioException) {
+                LOGGER.warn("Unable to read attributes of " + this.configFilePath + ": " + ioException.getMessage());
+                return this.lastFileStamp;
+            }
+        }
+    }
+
     private enum ApplicationStandards {
         PASSWORD_CHANGE(URI.create("ivo://cadc.nrc.ca/passchg")),
         PASSWORD_RESET(URI.create("ivo://cadc.nrc.ca/passreset")),
@@ -256,7 +629,27 @@ public class ApplicationConfiguration {
         OIDC_CALLBACK_URI("org.opencadc.science-portal.oidc.callbackURI", false),
         OIDC_SCOPE("org.opencadc.science-portal.oidc.scope", false),
         STORAGE_XML_INFO_URL("org.opencadc.science-portal.storageXmlInfoUrl", false),
-        DEFAULT_PROJECT_NAME("org.opencadc.science-portal.defaultProjectName", false);
+        DEFAULT_PROJECT_NAME("org.opencadc.science-portal.defaultProjectName", false),
+        REGISTRY_CACHE_TTL_SECONDS("org.opencadc.science-portal.registry.cacheTTLSeconds", false),
+        REGISTRY_LOOKUP_TIMEOUT_MILLISECONDS("org.opencadc.science-portal.registry.lookupTimeoutMilliseconds", false),
+        REGISTRY_LOOKUP_DEADLINE_MILLISECONDS("org.opencadc.science-portal.registry.lookupDeadlineMilliseconds", false),
+        PROXY_MAX_CONCURRENT_REQUESTS_PER_HOST("org.opencadc.science-portal.proxy.maxConcurrentRequestsPerHost", false),
+        PROXY_CONNECT_TIMEOUT_SECONDS("org.opencadc.science-portal.proxy.connectTimeoutSeconds", false),
+        PROXY_READ_TIMEOUT_SECONDS("org.opencadc.science-portal.proxy.readTimeoutSeconds", false),
+        PROXY_HTTP2_ENABLED("org.opencadc.science-portal.proxy.http2", false),
+        PROXY_ASYNC_ENABLED("org.opencadc.science-portal.proxy.async", false),
+        PROXY_VIRTUAL_THREADS_ENABLED("org.opencadc.science-portal.proxy.virtualThreads", false),
+        PROXY_COMPRESSION_ENABLED("org.opencadc.science-portal.proxy.compression", false),
+        PROXY_COMPRESSION_THRESHOLD_BYTES("org.opencadc.science-portal.proxy.compressionThresholdBytes", false),
+        TOKEN_CACHE_LOCAL_MAX_AGE_SECONDS("org.opencadc.science-portal.tokenCache.localMaxAgeSeconds", false),
+        TOKEN_CACHE_LOCAL_MAX_ENTRIES("org.opencadc.science-portal.tokenCache.localMaxEntries", false),
+        SESSIONS_POLL_INTERVAL_MILLISECONDS("org.opencadc.science-portal.sessions.pollIntervalMilliseconds", false),
+        SESSIONS_POLL_IDLE_TIMEOUT_SECONDS("org.opencadc.science-portal.sessions.pollIdleTimeoutSeconds", false),
+        SESSIONS_EVENT_STREAM_TIMEOUT_SECONDS("org.opencadc.science-portal.sessions.eventStreamTimeoutSeconds", false),
+        IMAGES_PUBLIC_CACHE_TTL_SECONDS("org.opencadc.science-portal.images.publicCacheTTLSeconds", false),
+        IMAGES_PRIVATE_CACHE_TTL_SECONDS("org.opencadc.science-portal.images.privateCacheTTLSeconds", false),
+        CONTEXT_CACHE_TTL_SECONDS("org.opencadc.science-portal.context.cacheTTLSeconds", false),
+        METRICS_ALLOWED_ADDRESSES("org.opencadc.science-portal.metrics.allowedAddresses", false);
 
         private final String propertyName;
         private final boolean required;
@@ -288,7 +681,7 @@ public class ApplicationConfiguration {
                     .toString();
         }
 
-        public static Theme fromConfiguration(final Configuration configuration) {
+        public static Theme fromConfiguration(final ImmutableConfiguration configuration) {
             final String configuredLogoURIString = configuration.getString(Theme.THEME_LOGO_URL, "");
 
             return new Theme(
@@ -320,7 +713,7 @@ public class ApplicationConfiguration {
             }
         }
 
-        private static ExperimentalFeatures fromConfiguration(final Configuration configuration) {
+        private static ExperimentalFeatures fromConfiguration(final ImmutableConfiguration configuration) {
             final Map<String, Boolean> configuredFeatureGates = new HashMap<>();
             Objects.requireNonNullElse(
                             configuration.getKeys(ExperimentalFeatures.NAMESPACE, "."),
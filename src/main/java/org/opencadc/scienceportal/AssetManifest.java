@@ -0,0 +1,233 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.servlet.ServletContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The static asset manifest written by build-assets.js. It maps each script and stylesheet under dist to a copy whose
+ * name carries a hash of its content, and lists the precompressed (.br, .gz) copies of each. A hashed file never
+ * changes, so it can be cached by browsers indefinitely. It also lists, in load order, the scripts of each webpack
+ * entry point, as the React app is split into vendor and app chunks.
+ *
+ * <p>Development builds have no manifest, in which case every asset is served under its own name.
+ */
+public final class AssetManifest {
+    private static final Logger LOGGER = LogManager.getLogger(AssetManifest.class);
+
+    public static final String MANIFEST_PATH = "/dist/asset-manifest.json";
+
+    private static final String CONTEXT_ATTRIBUTE = AssetManifest.class.getName();
+
+    // Original path to hashed path, and hashed path to its precompressed content codings, all without a leading slash.
+    private final Map<String, String> hashedPaths;
+    private final Map<String, List<String>> encodings;
+    // Entry point name to its hashed scripts, in load order.
+    private final Map<String, List<String>> entrypoints;
+
+    AssetManifest(
+            final Map<String, String> hashedPaths,
+            final Map<String, List<String>> encodings,
+            final Map<String, List<String>> entrypoints) {
+        this.hashedPaths = hashedPaths;
+        this.encodings = encodings;
+        this.entrypoints = entrypoints;
+    }
+
+    /**
+     * Get the manifest of the given web application, read once and kept for the life of the deployment.
+     *
+     * @param servletContext The web application's context.
+     * @return AssetManifest. Never null, but empty if the build produced none.
+     */
+    public static AssetManifest getInstance(final ServletContext servletContext) {
+        final Object current = servletContext.getAttribute(AssetManifest.CONTEXT_ATTRIBUTE);
+        if (current instanceof AssetManifest) {
+            return (AssetManifest) current;
+        }
+
+        AssetManifest assetManifest;
+        try (final InputStream inputStream = servletContext.getResourceAsStream(AssetManifest.MANIFEST_PATH)) {
+            if (inputStream == null) {
+                LOGGER.info("No " + AssetManifest.MANIFEST_PATH + ".  Assets are served under their own names.");
+                assetManifest = AssetManifest.empty();
+            } else {
+                assetManifest = AssetManifest.parse(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        } catch (IOException | JSONException exception) {
+            LOGGER.error(
+                    "Unable to read " + AssetManifest.MANIFEST_PATH + ".  Assets are served under their own names.",
+                    exception);
+            assetManifest = AssetManifest.empty();
+        }
+
+        // Concurrent first requests may each read it, which is harmless.
+        servletContext.setAttribute(AssetManifest.CONTEXT_ATTRIBUTE, assetManifest);
+        return assetManifest;
+    }
+
+    /**
+     * Parse the manifest document.
+     *
+     * @param json The manifest, as written by build-assets.js.
+     * @return AssetManifest. Never null.
+     * @throws JSONException If the document is malformed.
+     */
+    static AssetManifest parse(final String json) {
+        final JSONObject document = new JSONObject(json);
+        final JSONObject files = document.getJSONObject("files");
+        final JSONObject entrypointScripts = document.optJSONObject("entrypoints");
+        final Map<String, String> hashedPaths = new HashMap<>();
+        final Map<String, List<String>> encodings = new HashMap<>();
+        final Map<String, List<String>> entrypoints = new HashMap<>();
+
+        for (final String originalPath : files.keySet()) {
+            final JSONObject asset = files.getJSONObject(originalPath);
+            final String hashedPath = asset.getString("path");
+
+            hashedPaths.put(originalPath, hashedPath);
+            encodings.put(hashedPath, AssetManifest.toList(asset.optJSONArray("encodings")));
+        }
+
+        if (entrypointScripts != null) {
+            for (final String name : entrypointScripts.keySet()) {
+                entrypoints.put(name, AssetManifest.toList(entrypointScripts.getJSONArray(name)));
+            }
+        }
+
+        return new AssetManifest(
+                Collections.unmodifiableMap(hashedPaths),
+                Collections.unmodifiableMap(encodings),
+                Collections.unmodifiableMap(entrypoints));
+    }
+
+    private static AssetManifest empty() {
+        return new AssetManifest(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    private static List<String> toList(final JSONArray jsonArray) {
+        return jsonArray == null
+                ? Collections.emptyList()
+                : jsonArray.toList().stream().map(Object::toString).collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Get the path to reference an asset by in the page.
+     *
+     * @param path The asset's path relative to the web application, e.g. dist/js/science_portal.js.
+     * @return The hashed path if the asset is in the manifest, otherwise the given path.
+     */
+    public String resolve(final String path) {
+        return this.hashedPaths.getOrDefault(path, path);
+    }
+
+    /**
+     * Get the scripts to load, in order, for the given webpack entry point.
+     *
+     * @param name The entry point name, e.g. react-app.
+     * @param path The entry script's own path, used when the manifest lists no such entry point.
+     * @return Paths relative to the web application. Never null.
+     */
+    public List<String> getEntrypoint(final String name, final String path) {
+        return this.entrypoints.getOrDefault(name, List.of(resolve(path)));
+    }
+
+    /**
+     * Determine whether the given path names a hashed asset, whose content never changes.
+     *
+     * @param path The path relative to the web application, without a leading slash.
+     * @return True if the path is a hashed asset, False otherwise.
+     */
+    public boolean isImmutable(final String path) {
+        return this.encodings.containsKey(path);
+    }
+
+    /**
+     * Get the content codings the given hashed asset was precompressed in, in order of preference.
+     *
+     * @param path The hashed path relative to the web application, without a leading slash.
+     * @return Content codings, such as "br" and "gzip". Never null.
+     */
+    public List<String> getEncodings(final String path) {
+        return this.encodings.getOrDefault(path, Collections.emptyList());
+    }
+}
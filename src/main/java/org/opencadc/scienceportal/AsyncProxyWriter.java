@@ -0,0 +1,509 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal;
+
+import ca.nrc.cadc.util.StringUtil;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.zip.GZIPInputStream;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opencadc.scienceportal.proxy.AsyncProxyResponse;
+import org.opencadc.scienceportal.proxy.ProxyTransport;
+
+/**
+ * Copies one asynchronous upstream response to the client. Upstream chunks are requested one at a time, and only once
+ * the previous chunk has been handed to the container without blocking, so a slow client slows the upstream read rather
+ * than filling memory. No thread is held while waiting on either side.
+ *
+ * <p>Entity tags are handled as the blocking SciencePortalAuthGetAction does: the upstream tag is passed through, or a
+ * strong tag is computed for bodies small enough to hold in memory. Upstream errors are reported with the status code
+ * RestAction would use.
+ *
+ * <p>So is compression: a gzip encoded upstream body is passed through, and otherwise, for clients that accept gzip,
+ * held bodies of at least the threshold are compressed whole and streamed bodies are compressed chunk by chunk.
+ */
+class AsyncProxyWriter implements WriteListener, AsyncListener {
+    private static final Logger LOGGER = LogManager.getLogger(AsyncProxyWriter.class);
+
+    private final AsyncContext asyncContext;
+    private final HttpServletResponse response;
+    private final String ifNoneMatch;
+    private final AsyncProxyResponse proxyResponse;
+    private final boolean acceptsGzip;
+    private final long compressionThresholdBytes;
+    private final boolean upstreamGzip;
+    private final Queue<byte[]> pending = new ConcurrentLinkedQueue<>();
+
+    // All guarded by this.
+    private ServletOutputStream outputStream;
+    private Flow.Subscription subscription;
+    // Holds the body while its entity tag or error message is computed.  Null once streaming.
+    private ByteArrayOutputStream heldBody;
+    // Compresses streamed chunks into compressedChunk.  Null unless compressing a streamed body.
+    private OutputStream gzipOutputStream;
+    private ByteArrayOutputStream compressedChunk;
+    private boolean error;
+    private boolean discardBody;
+    private boolean requested;
+    private boolean upstreamComplete;
+    private boolean draining;
+    private boolean closed;
+
+    AsyncProxyWriter(
+            final AsyncContext asyncContext,
+            final HttpServletResponse response,
+            final String ifNoneMatch,
+            final AsyncProxyResponse proxyResponse,
+            final boolean acceptsGzip,
+            final long compressionThresholdBytes) {
+        this.asyncContext = asyncContext;
+        this.response = response;
+        this.ifNoneMatch = ifNoneMatch;
+        this.proxyResponse = proxyResponse;
+        this.acceptsGzip = acceptsGzip;
+        this.compressionThresholdBytes = compressionThresholdBytes;
+        this.upstreamGzip = GzipCompression.isGzip(proxyResponse.getHeader("content-encoding"));
+    }
+
+    /** Decide how the body is handled, then start reading it. */
+    synchronized void start() {
+        try {
+            this.outputStream = this.response.getOutputStream();
+        } catch (IOException ioException) {
+            LOGGER.debug("Proxied response abandoned: " + ioException.getMessage());
+            this.discardBody = true;
+            this.proxyResponse.getBody().subscribe(new UpstreamSubscriber());
+            close();
+            return;
+        }
+
+        final String upstreamETag = this.proxyResponse.getHeader("etag");
+        if (this.proxyResponse.getStatusCode() >= 400) {
+            this.error = true;
+            this.heldBody = new ByteArrayOutputStream();
+        } else if (StringUtil.hasText(upstreamETag)) {
+            final boolean compress = this.acceptsGzip && !this.upstreamGzip && isOverThreshold();
+            if (isNotModified(compress ? GzipCompression.weakETag(upstreamETag) : upstreamETag)) {
+                this.discardBody = true;
+            } else {
+                this.response.setContentType("application/json");
+                if (compress) {
+                    startCompressing();
+                } else if (this.upstreamGzip) {
+                    this.response.setHeader("content-encoding", GzipCompression.GZIP);
+                }
+            }
+        } else {
+            this.heldBody = new ByteArrayOutputStream();
+        }
+
+        this.outputStream.setWriteListener(this);
+        this.proxyResponse.getBody().subscribe(new UpstreamSubscriber());
+    }
+
+    private synchronized void onUpstreamSubscribe(final Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (this.discardBody) {
+            subscription.cancel();
+            this.upstreamComplete = true;
+            this.proxyResponse.release();
+            drain();
+        } else if (this.heldBody != null) {
+            requestNext();
+        } else {
+            drain();
+        }
+    }
+
+    private synchronized void onUpstreamNext(final List<ByteBuffer> buffers) {
+        this.requested = false;
+        if (this.closed) {
+            return;
+        }
+
+        if (this.heldBody == null) {
+            buffers.forEach(buffer -> enqueue(AsyncProxyWriter.toBytes(buffer)));
+            drain();
+        } else {
+            for (final ByteBuffer buffer : buffers) {
+                if (!this.error || this.heldBody.size() < ProxyTransport.MAX_ERROR_MESSAGE_LENGTH) {
+                    this.heldBody.writeBytes(AsyncProxyWriter.toBytes(buffer));
+                }
+            }
+
+            if (!this.error && this.heldBody.size() > ETags.MAX_HASHED_BODY_BYTES) {
+                // Too large to hash in memory, so send it without an entity tag.
+                this.response.setContentType("application/json");
+                if (this.upstreamGzip) {
+                    this.response.setHeader("content-encoding", GzipCompression.GZIP);
+                } else if (this.acceptsGzip && this.heldBody.size() >= this.compressionThresholdBytes) {
+                    startCompressing();
+                }
+                final byte[] head = this.heldBody.toByteArray();
+                this.heldBody = null;
+                enqueue(head);
+                drain();
+            } else {
+                requestNext();
+            }
+        }
+    }
+
+    private synchronized void onUpstreamComplete() {
+        this.upstreamComplete = true;
+        this.proxyResponse.release();
+        if (this.closed) {
+            return;
+        }
+
+        if (this.heldBody != null) {
+            final byte[] body = this.heldBody.toByteArray();
+            this.heldBody = null;
+
+            if (this.error) {
+                final String message = new String(decodeErrorBody(body), StandardCharsets.UTF_8).trim();
+                // Only the exception's type is used, to pick the status code.
+                this.response.setStatus(ProxyServlet.statusCode(
+                        ProxyTransport.upstreamException(null, this.proxyResponse.getStatusCode(), message)));
+                this.response.setContentType("text/plain");
+                this.pending.add(message.getBytes(StandardCharsets.UTF_8));
+            } else if (this.upstreamGzip) {
+                // The tag is of the encoded bytes as sent.
+                if (!isNotModified(ETags.strongETag(body))) {
+                    this.response.setContentType("application/json");
+                    this.response.setHeader("content-encoding", GzipCompression.GZIP);
+                    this.pending.add(body);
+                }
+            } else if (this.acceptsGzip && body.length >= this.compressionThresholdBytes) {
+                if (!isNotModified(GzipCompression.weakETag(ETags.strongETag(body)))) {
+                    this.response.setContentType("application/json");
+                    this.response.setHeader("content-encoding", GzipCompression.GZIP);
+                    this.pending.add(GzipCompression.compress(body));
+                }
+            } else if (!isNotModified(ETags.strongETag(body))) {
+                this.response.setContentType("application/json");
+                this.pending.add(body);
+            }
+        } else if (this.gzipOutputStream != null) {
+            finishCompressing();
+        }
+
+        drain();
+    }
+
+    private synchronized void onUpstreamError(final Throwable throwable) {
+        this.upstreamComplete = true;
+        this.proxyResponse.release();
+        LOGGER.debug("Upstream body failed: " + throwable.getMessage());
+
+        if (!this.closed && !this.response.isCommitted()) {
+            this.response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            this.pending.clear();
+            this.heldBody = null;
+            drain();
+        } else {
+            // Part of the body was sent.  Ending the response early tells the client it is incomplete.
+            close();
+        }
+    }
+
+    @Override
+    public void onWritePossible() {
+        drain();
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        LOGGER.debug("Proxied response write failed: " + throwable.getMessage());
+        close();
+    }
+
+    @Override
+    public void onComplete(final AsyncEvent asyncEvent) {
+        close();
+    }
+
+    @Override
+    public void onTimeout(final AsyncEvent asyncEvent) {
+        LOGGER.debug("Proxied response timed out.");
+        close();
+    }
+
+    @Override
+    public void onError(final AsyncEvent asyncEvent) {
+        close();
+    }
+
+    @Override
+    public void onStartAsync(final AsyncEvent asyncEvent) {
+        // Not restarted.
+    }
+
+    /**
+     * Write queued chunks until the queue is empty or the output would block, asking upstream for the next chunk only
+     * once the queue is empty. In the blocking case the container calls onWritePossible once it can accept more.
+     */
+    private synchronized void drain() {
+        // Requesting more may deliver it on this thread, which re-enters here.
+        if (this.closed || this.draining || this.subscription == null || this.outputStream == null) {
+            return;
+        }
+
+        this.draining = true;
+        try {
+            while (!this.closed && this.outputStream.isReady()) {
+                final byte[] next = this.pending.poll();
+                if (next != null) {
+                    this.outputStream.write(next);
+                } else if (this.upstreamComplete) {
+                    if (this.heldBody == null) {
+                        close();
+                    }
+                    return;
+                } else if (this.heldBody == null && !this.requested) {
+                    requestNext();
+                    if (this.pending.isEmpty() && !this.upstreamComplete) {
+                        return;
+                    }
+                } else {
+                    return;
+                }
+            }
+        } catch (IOException | IllegalStateException writeException) {
+            LOGGER.debug("Proxied response closed by client: " + writeException.getMessage());
+            close();
+        } finally {
+            this.draining = false;
+        }
+    }
+
+    private boolean isOverThreshold() {
+        final String contentLength = this.proxyResponse.getHeader("content-length");
+        try {
+            return !StringUtil.hasText(contentLength)
+                    || Long.parseLong(contentLength.trim()) >= this.compressionThresholdBytes;
+        } catch (NumberFormatException numberFormatException) {
+            return true;
+        }
+    }
+
+    private void startCompressing() {
+        this.response.setHeader("content-encoding", GzipCompression.GZIP);
+        this.compressedChunk = new ByteArrayOutputStream();
+        try {
+            // Flush after each chunk so that the client receives it without waiting for the Deflater to fill.
+            this.gzipOutputStream = GzipCompression.wrap(this.compressedChunk, true);
+        } catch (IOException ioException) {
+            // Not thrown by ByteArrayOutputStream.
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    /** Queue a chunk of the streamed body, compressing it first if need be. */
+    private void enqueue(final byte[] chunk) {
+        if (this.gzipOutputStream == null) {
+            this.pending.add(chunk);
+        } else {
+            try {
+                this.gzipOutputStream.write(chunk);
+                this.gzipOutputStream.flush();
+            } catch (IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+            this.pending.add(this.compressedChunk.toByteArray());
+            this.compressedChunk.reset();
+        }
+    }
+
+    private void finishCompressing() {
+        try {
+            this.gzipOutputStream.close();
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+        this.gzipOutputStream = null;
+        this.pending.add(this.compressedChunk.toByteArray());
+        this.compressedChunk = null;
+    }
+
+    private byte[] decodeErrorBody(final byte[] body) {
+        if (this.upstreamGzip) {
+            try {
+                return new GZIPInputStream(new ByteArrayInputStream(body))
+                        .readNBytes(ProxyTransport.MAX_ERROR_MESSAGE_LENGTH);
+            } catch (IOException ioException) {
+                // Truncated at the maximum message length.
+                LOGGER.debug("Unable to decode upstream error: " + ioException.getMessage());
+                return new byte[0];
+            }
+        } else {
+            return body;
+        }
+    }
+
+    private void requestNext() {
+        this.requested = true;
+        this.subscription.request(1L);
+    }
+
+    /**
+     * Set the validator headers for the given entity tag and, if the client's copy is current, the 304 status.
+     *
+     * @param etag The current entity tag.
+     * @return True if 304 Not Modified was set and no body must follow, False otherwise.
+     */
+    private boolean isNotModified(final String etag) {
+        this.response.setHeader("etag", etag);
+        // Responses are per user.  Browsers may keep them, but must revalidate before each use.
+        this.response.setHeader("cache-control", "private, no-cache");
+
+        if (ETags.matches(this.ifNoneMatch, etag)) {
+            this.response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    private synchronized void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.pending.clear();
+
+        if (this.gzipOutputStream != null) {
+            // Returns the Deflater to the pool.  The remaining output is discarded.
+            try {
+                this.gzipOutputStream.close();
+            } catch (IOException ioException) {
+                LOGGER.debug("Unable to release compressor: " + ioException.getMessage());
+            }
+            this.gzipOutputStream = null;
+        }
+
+        if (!this.upstreamComplete && this.subscription != null) {
+            this.subscription.cancel();
+        }
+        this.proxyResponse.release();
+
+        try {
+            this.asyncContext.complete();
+        } catch (IllegalStateException alreadyCompleteException) {
+            // Completed by the container.
+        }
+    }
+
+    private static byte[] toBytes(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /** Receives the upstream body on the HTTP client's threads. */
+    private final class UpstreamSubscriber implements Flow.Subscriber<List<ByteBuffer>> {
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            onUpstreamSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(final List<ByteBuffer> buffers) {
+            for (final ByteBuffer buffer : buffers) {
+                AsyncProxyWriter.this.proxyResponse.countBodyBytes(buffer.remaining());
+            }
+            onUpstreamNext(buffers);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            onUpstreamError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            onUpstreamComplete();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Everything index.jsp needs to start the Portal application, serialized ahead of time so that rendering the page makes
+ * no Registry calls. The header URLs are looked up at startup and then periodically in the background, keeping the last
+ * known URL for any lookup that fails. The configuration-derived values are rebuilt whenever the configuration snapshot
+ * is replaced.
+ */
+public final class BootstrapBundle {
+    private static final Logger LOGGER = LogManager.getLogger(BootstrapBundle.class);
+
+    // Empty until the first lookup completes, so that the page never waits on the Registry.
+    private static final AtomicReference<JSONObject> HEADER_URLS = new AtomicReference<>(new JSONObject());
+    private static volatile BootstrapBundle current;
+
+    private final ApplicationConfiguration configuration;
+    private final JSONObject headerURLs;
+    private final String themeName;
+    private final String portalOptionsJSON;
+
+    BootstrapBundle(final ApplicationConfiguration configuration, final JSONObject headerURLs) {
+        this.configuration = configuration;
+        this.headerURLs = headerURLs;
+
+        final ApplicationConfiguration.Theme theme = configuration.getTheme();
+        final String defaultProjectName = configuration.getDefaultProjectName();
+
+        this.themeName = theme.name;
+        this.portalOptionsJSON = new JSONObject()
+                .put("sessionsResourceID", configuration.getResourceID())
+                .put("sessionsStandardID", configuration.getStandardID())
+                .put("theme", new JSONObject(theme.toJSONString()))
+                .put("tabLabels", new JSONArray(Arrays.asList(configuration.getTabLabels())))
+                .put("bannerText", configuration.getBannerMessage())
+                .put("headerURLs", headerURLs)
+                .put("storageXmlInfoUrl", configuration.getStorageXmlInfoUrl())
+                .put(
+                        "defaultProjectName",
+                        defaultProjectName == null || defaultProjectName.isEmpty() ? "skaha" : defaultProjectName)
+                .put(
+                        "experimentalFeatures",
+                        new JSONObject(configuration.getExperimentalFeatures().toJSONString()))
+                .toString()
+                // Safe to embed in a script element.
+                .replace("</", "<\\/");
+    }
+
+    /**
+     * Obtain the bundle for the current configuration and the most recently looked up header URLs.
+     *
+     * @return BootstrapBundle. Never null.
+     */
+    public static BootstrapBundle getInstance() {
+        final ApplicationConfiguration configuration = ApplicationConfiguration.getInstance();
+        final JSONObject headerURLs = BootstrapBundle.HEADER_URLS.get();
+        BootstrapBundle bundle = BootstrapBundle.current;
+
+        if (bundle == null || bundle.configuration != configuration || bundle.headerURLs != headerURLs) {
+            bundle = new BootstrapBundle(configuration, headerURLs);
+            BootstrapBundle.current = bundle;
+        }
+
+        return bundle;
+    }
+
+    /** Look up the header URLs now, and again every Registry cache time-to-live thereafter, on the background pool. */
+    static void start() {
+        BackgroundTasks.scheduler()
+                .scheduleWithFixedDelay(
+                        BootstrapBundle::refreshHeaderURLs,
+                        0L,
+                        ApplicationConfiguration.getInstance().getRegistryCacheTimeToLiveSeconds(),
+                        TimeUnit.SECONDS);
+    }
+
+    static void refreshHeaderURLs() {
+        try {
+            final long start = System.currentTimeMillis();
+            final JSONObject previous = BootstrapBundle.HEADER_URLS.get();
+            final JSONObject latest = ApplicationConfiguration.getInstance().getHeaderURLs();
+
+            // Keep the last known URL for anything the Registry did not answer this time.
+            for (final String key : previous.keySet()) {
+                if (!latest.has(key)) {
+                    latest.put(key, previous.get(key));
+                }
+            }
+
+            BootstrapBundle.HEADER_URLS.set(latest);
+            LOGGER.debug("Header URLs refreshed in " + (System.currentTimeMillis() - start) + "ms.");
+        } catch (RuntimeException runtimeException) {
+            // Must not escape, or the scheduled refresh stops.
+            LOGGER.warn("Unable to refresh header URLs: " + runtimeException.getMessage(), runtimeException);
+        }
+    }
+
+    public String getThemeName() {
+        return this.themeName;
+    }
+
+    /**
+     * Obtain the Portal application options as a JSON object literal, ready to print into a script element.
+     *
+     * @return JSON String. Never null.
+     */
+    public String getPortalOptionsJSON() {
+        return this.portalOptionsJSON;
+    }
+}
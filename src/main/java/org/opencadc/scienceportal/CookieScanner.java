@@ -0,0 +1,166 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal;
+
+/**
+ * Finds the values of one named cookie in a Cookie request header in a single pass, without regular expressions or
+ * intermediate arrays. Only the returned values are allocated, so browsers sending many unrelated (analytics) cookies
+ * cost a scan of the header and nothing more.
+ *
+ * <pre>
+ * final CookieScanner cookieScanner = new CookieScanner(cookieHeader, "name");
+ * while (cookieScanner.next()) {
+ *     use(cookieScanner.value());
+ * }
+ * </pre>
+ *
+ * <p>Not thread safe; scanners are created per header.
+ */
+public final class CookieScanner {
+    private final String cookieHeader;
+    private final String cookieName;
+
+    private int position;
+    private int valueStart;
+    private int valueEnd;
+
+    /**
+     * Constructor.
+     *
+     * @param cookieHeader The Cookie request header. May be null.
+     * @param cookieName The exact (case-sensitive) name of the cookie to find.
+     */
+    public CookieScanner(final String cookieHeader, final String cookieName) {
+        this.cookieHeader = cookieHeader == null ? "" : cookieHeader;
+        this.cookieName = cookieName;
+    }
+
+    /**
+     * Advance to the next cookie with a non-empty value and the given name.
+     *
+     * @return True if one was found, False once the header is exhausted.
+     */
+    public boolean next() {
+        final String header = this.cookieHeader;
+        final int headerLength = header.length();
+        final int nameLength = this.cookieName.length();
+
+        while (this.position < headerLength) {
+            int start = this.position;
+            while (start < headerLength && CookieScanner.isWhitespace(header.charAt(start))) {
+                start++;
+            }
+
+            int end = header.indexOf(';', start);
+            if (end < 0) {
+                end = headerLength;
+            }
+            this.position = end + 1;
+
+            final int nameEnd = start + nameLength;
+            if (nameEnd < end
+                    && header.charAt(nameEnd) == '='
+                    && header.regionMatches(start, this.cookieName, 0, nameLength)) {
+                int valueStart = nameEnd + 1;
+                int valueEnd = end;
+                while (valueEnd > valueStart && CookieScanner.isWhitespace(header.charAt(valueEnd - 1))) {
+                    valueEnd--;
+                }
+
+                // RFC 6265 allows the value to be wrapped in double quotes, which are not part of it.
+                if (valueEnd - valueStart >= 2
+                        && header.charAt(valueStart) == '"'
+                        && header.charAt(valueEnd - 1) == '"') {
+                    valueStart++;
+                    valueEnd--;
+                }
+
+                if (valueEnd > valueStart) {
+                    this.valueStart = valueStart;
+                    this.valueEnd = valueEnd;
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * The value of the cookie found by the last successful call to next(), without any wrapping double quotes.
+     *
+     * @return The cookie value. Never empty.
+     */
+    public String value() {
+        return this.cookieHeader.substring(this.valueStart, this.valueEnd);
+    }
+
+    private static boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t';
+    }
+}
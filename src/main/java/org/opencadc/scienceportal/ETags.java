@@ -0,0 +1,125 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal;
+
+import ca.nrc.cadc.util.StringUtil;
+import org.opencadc.scienceportal.cache.CacheKeys;
+
+/**
+ * Entity tag support for proxied responses. Strong entity tags are a digest of the response body, so identical bodies
+ * always have the same tag regardless of which node or upstream call produced them.
+ */
+public final class ETags {
+    // Larger bodies are streamed without an entity tag rather than held in memory to be hashed.
+    public static final int MAX_HASHED_BODY_BYTES = 1024 * 1024;
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETags() {}
+
+    /**
+     * Compute a strong entity tag for the given body.
+     *
+     * @param body The complete response body.
+     * @return Quoted entity tag. Never null.
+     */
+    public static String strongETag(final byte[] body) {
+        return "\"" + CacheKeys.sha256(body) + "\"";
+    }
+
+    /**
+     * Determine whether an If-None-Match header matches the given entity tag. As RFC 9110 requires for If-None-Match,
+     * the weak comparison is used, so a weak tag matches its strong equivalent.
+     *
+     * @param ifNoneMatch The If-None-Match request header. May be null.
+     * @param etag The current entity tag.
+     * @return True if the client's representation is current, False otherwise.
+     */
+    public static boolean matches(final String ifNoneMatch, final String etag) {
+        if (!StringUtil.hasText(ifNoneMatch) || !StringUtil.hasText(etag)) {
+            return false;
+        } else if ("*".equals(ifNoneMatch.trim())) {
+            return true;
+        }
+
+        final String opaqueTag = ETags.opaqueTag(etag);
+        for (final String candidate : ifNoneMatch.split(",")) {
+            if (ETags.opaqueTag(candidate).equals(opaqueTag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static String opaqueTag(final String etag) {
+        final String trimmed = etag.trim();
+        return trimmed.startsWith(ETags.WEAK_PREFIX) ? trimmed.substring(ETags.WEAK_PREFIX.length()) : trimmed;
+    }
+}
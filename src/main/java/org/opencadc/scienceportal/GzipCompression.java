@@ -0,0 +1,277 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal;
+
+import ca.nrc.cadc.util.StringUtil;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Gzip content coding for proxied responses. Deflater instances hold native memory and are costly to create, so they
+ * are pooled and reset between responses rather than created for each one.
+ *
+ * <p>Only gzip is offered. Brotli has no implementation in the JDK, and upstream brotli is never requested.
+ */
+public final class GzipCompression {
+    public static final String GZIP = "gzip";
+
+    // JSON compresses well even at the fastest level, which keeps the cost per response low.
+    private static final int LEVEL = Deflater.BEST_SPEED;
+    // As for StreamCopier's buffers.  Beyond this, Deflaters are created and ended.
+    private static final int MAX_POOLED_DEFLATERS = 64;
+
+    private static final BlockingQueue<Deflater> DEFLATER_POOL =
+            new ArrayBlockingQueue<>(GzipCompression.MAX_POOLED_DEFLATERS);
+
+    private GzipCompression() {}
+
+    /**
+     * Determine whether an Accept-Encoding request header allows gzip. A q-value of zero refuses it, including through
+     * the wildcard.
+     *
+     * @param acceptEncoding The Accept-Encoding request header. May be null.
+     * @return True if a gzip response is acceptable, False otherwise.
+     */
+    public static boolean accepts(final String acceptEncoding) {
+        return GzipCompression.accepts(acceptEncoding, GzipCompression.GZIP);
+    }
+
+    /**
+     * Determine whether an Accept-Encoding request header allows the given content coding, such as "br" for
+     * precompressed static assets. A q-value of zero refuses it, including through the wildcard.
+     *
+     * @param acceptEncoding The Accept-Encoding request header. May be null.
+     * @param contentCoding The lower case content coding.
+     * @return True if a response in that coding is acceptable, False otherwise.
+     */
+    public static boolean accepts(final String acceptEncoding, final String contentCoding) {
+        if (!StringUtil.hasText(acceptEncoding)) {
+            return false;
+        }
+
+        Boolean wildcard = null;
+        for (final String coding : acceptEncoding.split(",")) {
+            final String[] parts = coding.split(";");
+            final String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            final boolean accepted = GzipCompression.qualityOf(parts) > 0.0D;
+
+            if (contentCoding.equals(name) || (GzipCompression.GZIP.equals(contentCoding) && "x-gzip".equals(name))) {
+                return accepted;
+            } else if ("*".equals(name)) {
+                wildcard = accepted;
+            }
+        }
+
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    /**
+     * Determine whether a Content-Encoding header names gzip.
+     *
+     * @param contentEncoding The Content-Encoding response header. May be null.
+     * @return True if the body is gzip encoded, False otherwise.
+     */
+    public static boolean isGzip(final String contentEncoding) {
+        return StringUtil.hasText(contentEncoding)
+                && (GzipCompression.GZIP.equalsIgnoreCase(contentEncoding.trim())
+                        || "x-gzip".equalsIgnoreCase(contentEncoding.trim()));
+    }
+
+    /**
+     * Wrap the given stream so that everything written to it is gzip encoded. Closing the returned stream writes the
+     * gzip trailer and returns its Deflater to the pool, but leaves the given stream open.
+     *
+     * @param outputStream The stream to write the encoded bytes to.
+     * @param syncFlush Whether flush() emits everything written so far, for bodies sent in pieces.
+     * @return OutputStream. Never null.
+     * @throws IOException If the gzip header cannot be written.
+     */
+    public static OutputStream wrap(final OutputStream outputStream, final boolean syncFlush) throws IOException {
+        return new PooledGzipOutputStream(outputStream, syncFlush);
+    }
+
+    /**
+     * Gzip encode a complete body.
+     *
+     * @param body The body to encode.
+     * @return The encoded body. Never null.
+     */
+    public static byte[] compress(final byte[] body) {
+        final ByteArrayOutputStream encoded = new ByteArrayOutputStream(Math.max(64, body.length / 8));
+        try (final OutputStream gzipOutputStream = GzipCompression.wrap(encoded, false)) {
+            gzipOutputStream.write(body);
+        } catch (IOException ioException) {
+            // Not thrown by ByteArrayOutputStream.
+            throw new IllegalStateException(ioException.getMessage(), ioException);
+        }
+        return encoded.toByteArray();
+    }
+
+    /**
+     * The weak form of the given entity tag, for a gzip encoded representation. Its bytes differ from the identity
+     * representation, so the strong tag no longer applies, but If-None-Match uses the weak comparison and matches it
+     * with either.
+     *
+     * @param etag The entity tag of the identity representation.
+     * @return Weak entity tag. Never null.
+     */
+    public static String weakETag(final String etag) {
+        return etag.startsWith("W/") ? etag : "W/" + etag;
+    }
+
+    private static double qualityOf(final String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            final String parameter = parts[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException numberFormatException) {
+                    return 0.0D;
+                }
+            }
+        }
+        return 1.0D;
+    }
+
+    private static Deflater borrowDeflater() {
+        final Deflater pooled = GzipCompression.DEFLATER_POOL.poll();
+        return pooled == null ? new Deflater(GzipCompression.LEVEL, true) : pooled;
+    }
+
+    private static void returnDeflater(final Deflater deflater) {
+        deflater.reset();
+        if (!GzipCompression.DEFLATER_POOL.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /** A gzip stream (RFC 1952) over a pooled raw Deflater. */
+    private static final class PooledGzipOutputStream extends DeflaterOutputStream {
+        private static final byte[] HEADER = {(byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+        };
+
+        private final CRC32 crc = new CRC32();
+        private boolean closed;
+
+        PooledGzipOutputStream(final OutputStream outputStream, final boolean syncFlush) throws IOException {
+            super(outputStream, GzipCompression.borrowDeflater(), 8192, syncFlush);
+            try {
+                outputStream.write(PooledGzipOutputStream.HEADER);
+            } catch (IOException ioException) {
+                GzipCompression.returnDeflater(this.def);
+                this.closed = true;
+                throw ioException;
+            }
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            if (this.closed) {
+                // The Deflater may already belong to another response.
+                throw new IOException("Stream closed");
+            }
+            super.write(bytes, offset, length);
+            this.crc.update(bytes, offset, length);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!this.closed && !this.def.finished()) {
+                super.finish();
+                final long checksum = this.crc.getValue();
+                final long size = this.def.getBytesRead();
+                this.out.write(new byte[] {
+                    (byte) checksum, (byte) (checksum >> 8), (byte) (checksum >> 16), (byte) (checksum >> 24),
+                    (byte) size, (byte) (size >> 8), (byte) (size >> 16), (byte) (size >> 24)
+                });
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.closed) {
+                return;
+            }
+            try {
+                finish();
+                this.out.flush();
+            } finally {
+                this.closed = true;
+                GzipCompression.returnDeflater(this.def);
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+
+/**
+ * Runs the header URL lookups concurrently so that resolving all of them costs about one Registry round trip rather
+ * than one per application. Each lookup is bounded by its own timeout and all of them by an overall deadline; lookups
+ * that do not finish in time are cancelled and left out of the result. The latency of the most recent lookup for each
+ * key is kept for diagnostics.
+ */
+final class HeaderURLLookup {
+    private static final Logger LOGGER = LogManager.getLogger(HeaderURLLookup.class);
+
+    // One thread per lookup (six applications plus the credential service), so no lookup waits for another.  Kept apart
+    // from BackgroundTasks, whose threads may be the ones waiting on these lookups.
+    private static final int POOL_SIZE = 7;
+
+    private static final ExecutorService EXECUTOR_SERVICE =
+            Executors.newFixedThreadPool(HeaderURLLookup.POOL_SIZE, new DaemonThreadFactory());
+
+    private final ExecutorService executorService;
+    private final long lookupTimeoutMilliseconds;
+    private final long deadlineMilliseconds;
+    private final Map<String, Long> latencies = new ConcurrentHashMap<>();
+
+    HeaderURLLookup(
+            final ExecutorService executorService,
+            final long lookupTimeoutMilliseconds,
+            final long deadlineMilliseconds) {
+        this.executorService = executorService;
+        this.lookupTimeoutMilliseconds = lookupTimeoutMilliseconds;
+        this.deadlineMilliseconds = deadlineMilliseconds;
+    }
+
+    static HeaderURLLookup create(final ApplicationConfiguration configuration) {
+        return new HeaderURLLookup(
+                HeaderURLLookup.EXECUTOR_SERVICE,
+                configuration.getRegistryLookupTimeoutMilliseconds(),
+                configuration.getRegistryLookupDeadlineMilliseconds());
+    }
+
+    static void shutdown() {
+        HeaderURLLookup.EXECUTOR_SERVICE.shutdownNow();
+    }
+
+    /**
+     * Run the given lookups concurrently and collect whatever completes in time.
+     *
+     * @param lookups Lookups keyed by the JSON key their URL is reported under. A lookup returning null is omitted.
+     * @return JSONObject of keys to URLs. Never null, but missing any lookup that failed or timed out.
+     */
+    JSONObject lookup(final Map<String, Callable<URL>> lookups) {
+        final long start = System.nanoTime();
+        final long deadline = start + TimeUnit.MILLISECONDS.toNanos(this.deadlineMilliseconds);
+        final long lookupDeadline = start + TimeUnit.MILLISECONDS.toNanos(this.lookupTimeoutMilliseconds);
+        final Map<String, Future<URL>> futures = new LinkedHashMap<>();
+
+        lookups.forEach((key, lookup) -> futures.put(key, this.executorService.submit(() -> {
+            final long lookupStart = System.nanoTime();
+            try {
+                return lookup.call();
+            } finally {
+                this.latencies.put(key, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lookupStart));
+            }
+        })));
+
+        final JSONObject jsonObject = new JSONObject();
+        futures.forEach((key, future) -> {
+            try {
+                final long remaining = Math.min(deadline, lookupDeadline) - System.nanoTime();
+                final URL url = future.get(Math.max(0L, remaining), TimeUnit.NANOSECONDS);
+                if (url != null) {
+                    jsonObject.put(key, url.toExternalForm());
+                }
+            } catch (TimeoutException timeoutException) {
+                future.cancel(true);
+                LOGGER.warn("Timed out looking up header URL for " + key);
+            } catch (ExecutionException executionException) {
+                LOGGER.warn("Unable to get header URL for " + key, executionException.getCause());
+            } catch (InterruptedException interruptedException) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        LOGGER.debug("Header URL lookups completed in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                + "ms: " + this.latencies);
+
+        return jsonObject;
+    }
+
+    /**
+     * Obtain the latency, in milliseconds, of the most recent lookup for each key. A cancelled lookup reports the time
+     * until it was interrupted.
+     *
+     * @return Unmodifiable Map of keys to milliseconds. Never null.
+     */
+    Map<String, Long> getLatencies() {
+        return Collections.unmodifiableMap(this.latencies);
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "science-portal-header-lookup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal;
+
+import ca.nrc.cadc.auth.AuthMethod;
+import ca.nrc.cadc.auth.AuthenticationUtil;
+import ca.nrc.cadc.auth.NotAuthenticatedException;
+import ca.nrc.cadc.auth.ServletPrincipalExtractor;
+import ca.nrc.cadc.net.PreconditionFailedException;
+import ca.nrc.cadc.net.ResourceAlreadyExistsException;
+import ca.nrc.cadc.net.ResourceNotFoundException;
+import ca.nrc.cadc.net.TransientException;
+import ca.nrc.cadc.reg.Standards;
+import ca.nrc.cadc.rest.RestServlet;
+import ca.nrc.cadc.util.StringUtil;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.security.AccessControlException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.security.auth.Subject;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opencadc.scienceportal.metrics.EndpointMetrics;
+import org.opencadc.scienceportal.metrics.PortalMetrics;
+import org.opencadc.scienceportal.proxy.AsyncProxyResponse;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
+import org.opencadc.scienceportal.proxy.ProxyTransport;
+
+/**
+ * RestServlet that, when asynchronous proxying is enabled, answers plain pass-through GET requests without holding a
+ * request thread. The upstream call is made with the shared ProxyTransport's asynchronous API, and the body is copied
+ * to the client with non-blocking I/O as the client accepts it. Everything else, including GET requests answered from
+ * the session, image and context caches, goes to the configured actions as usual.
+ *
+ * <p>When virtual threads are enabled, all other requests are handed to a virtual thread to run the configured action,
+ * releasing the request thread for the duration.
+ *
+ * <p>The asyncEndpoint init parameter names the AsyncEndpoint served. Without it, and with virtual threads disabled,
+ * this behaves as a plain RestServlet.
+ */
+public class ProxyServlet extends RestServlet {
+    private static final Logger LOGGER = LogManager.getLogger(ProxyServlet.class);
+
+    static final String ASYNC_ENDPOINT_PARAMETER = "asyncEndpoint";
+
+    private AsyncEndpoint asyncEndpoint;
+
+    @Override
+    public void init(final ServletConfig config) throws ServletException {
+        super.init(config);
+
+        final String asyncEndpointName = config.getInitParameter(ProxyServlet.ASYNC_ENDPOINT_PARAMETER);
+        if (StringUtil.hasText(asyncEndpointName)) {
+            this.asyncEndpoint = AsyncEndpoint.valueOf(asyncEndpointName.trim());
+        }
+    }
+
+    @Override
+    protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        if (this.asyncEndpoint != null
+                && request.isAsyncSupported()
+                && this.asyncEndpoint.handles(request.getPathInfo())
+                && ApplicationConfiguration.getInstance().isProxyAsyncEnabled()) {
+            doAsyncGet(request, response);
+        } else {
+            dispatch(request, response, super::doGet);
+        }
+    }
+
+    @Override
+    protected void doPost(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        dispatch(request, response, super::doPost);
+    }
+
+    @Override
+    protected void doDelete(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        dispatch(request, response, super::doDelete);
+    }
+
+    /**
+     * Run the action on a virtual thread if enabled, otherwise on this request thread.
+     *
+     * @param request The request.
+     * @param response The response.
+     * @param handler The RestServlet method that runs the action.
+     * @throws IOException If the action fails on this thread.
+     */
+    private void dispatch(
+            final HttpServletRequest request, final HttpServletResponse response, final RequestHandler handler)
+            throws IOException {
+        final ExecutorService virtualThreadExecutor =
+                request.isAsyncSupported() ? VirtualThreads.executor(ApplicationConfiguration.getInstance()) : null;
+        if (virtualThreadExecutor == null) {
+            handler.handle(request, response);
+            return;
+        }
+
+        final AsyncContext asyncContext = request.startAsync();
+        // As on a request thread, the action is bounded only by its upstream timeouts.
+        asyncContext.setTimeout(0L);
+
+        final Runnable action = () -> {
+            try {
+                ProxyServlet.handleOrReport(request, response, handler);
+            } finally {
+                asyncContext.complete();
+            }
+        };
+
+        try {
+            virtualThreadExecutor.execute(action);
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            // Shutting down.
+            action.run();
+        }
+    }
+
+    /**
+     * Run the action where nothing above it will report a failure, as on a virtual thread. A failure is logged and, if
+     * the response is not yet committed, answered with its status code, rather than leaving an empty 200.
+     *
+     * @param request The request.
+     * @param response The response.
+     * @param handler The RestServlet method that runs the action.
+     */
+    static void handleOrReport(
+            final HttpServletRequest request, final HttpServletResponse response, final RequestHandler handler) {
+        try {
+            handler.handle(request, response);
+        } catch (IOException | RuntimeException exception) {
+            LOGGER.warn("Action failed on virtual thread: " + exception.getMessage(), exception);
+            if (!response.isCommitted()) {
+                try {
+                    response.sendError(ProxyServlet.statusCode(exception), exception.getMessage());
+                } catch (IOException | IllegalStateException writeException) {
+                    LOGGER.warn("Unable to report action failure: " + writeException.getMessage());
+                }
+            }
+        }
+    }
+
+    private void doAsyncGet(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        final ApplicationConfiguration applicationConfiguration = ApplicationConfiguration.getInstance();
+        final EndpointMetrics endpointMetrics = PortalMetrics.forEndpoint(this.asyncEndpoint.endpoint);
+        final CompletableFuture<AsyncProxyResponse> responseFuture;
+        final boolean compressionEnabled = applicationConfiguration.isProxyCompressionEnabled();
+        final boolean acceptsGzip = compressionEnabled && GzipCompression.accepts(request.getHeader("accept-encoding"));
+        try {
+            final long lookupNanos = System.nanoTime();
+            final URL serviceURL = ServiceURLResolver.getInstance()
+                    .getServiceURL(
+                            URI.create(applicationConfiguration.getResourceID()),
+                            this.asyncEndpoint.standardID,
+                            AuthMethod.TOKEN);
+            endpointMetrics.recordPhase(EndpointMetrics.Phase.REGISTRY_LOOKUP, System.nanoTime() - lookupNanos);
+            if (serviceURL == null) {
+                throw new TransientException(
+                        "Service " + this.asyncEndpoint.standardID + " not found in the Registry.");
+            }
+
+            final String pathInfo = request.getPathInfo();
+            final String queryString = request.getQueryString();
+            final ProxyRequest proxyRequest = new ProxyRequest(
+                    ProxyRequest.GET,
+                    new URL(serviceURL.toExternalForm()
+                            + (this.asyncEndpoint.appendPath && pathInfo != null ? pathInfo.trim() : "")
+                            + (StringUtil.hasText(queryString) ? "?" + queryString : "")));
+            proxyRequest.setRequestProperty("accept", "application/json");
+            proxyRequest.setEndpoint(this.asyncEndpoint.endpoint);
+            if (acceptsGzip) {
+                proxyRequest.setRequestProperty("accept-encoding", GzipCompression.GZIP);
+            }
+
+            final long resolveNanos = System.nanoTime();
+            final Subject subject = SciencePortalAuthAction.resolveSubject(
+                    request.getHeader("cookie"),
+                    AuthenticationUtil.getSubject(new ServletPrincipalExtractor(request)),
+                    serviceURL,
+                    applicationConfiguration);
+            endpointMetrics.recordPhase(EndpointMetrics.Phase.TOKEN_RESOLUTION, System.nanoTime() - resolveNanos);
+
+            responseFuture = ProxyTransport.getInstance().sendAsync(proxyRequest, subject);
+        } catch (Exception exception) {
+            ProxyServlet.sendError(response, exception);
+            return;
+        }
+
+        // Read before the request thread is released.
+        final String ifNoneMatch = request.getHeader("if-none-match");
+        final AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(TimeUnit.SECONDS.toMillis(applicationConfiguration.getProxyReadTimeoutSeconds()));
+
+        responseFuture.whenComplete((proxyResponse, throwable) -> {
+            if (throwable == null) {
+                if (compressionEnabled) {
+                    response.setHeader("vary", "accept-encoding");
+                }
+                final AsyncProxyWriter asyncProxyWriter = new AsyncProxyWriter(
+                        asyncContext,
+                        response,
+                        ifNoneMatch,
+                        proxyResponse,
+                        acceptsGzip,
+                        applicationConfiguration.getProxyCompressionThresholdBytes());
+                asyncContext.addListener(asyncProxyWriter);
+                asyncProxyWriter.start();
+            } else {
+                try {
+                    ProxyServlet.sendError(
+                            response,
+                            throwable instanceof CompletionException && throwable.getCause() instanceof Exception
+                                    ? (Exception) throwable.getCause()
+                                    : new IOException(throwable.getMessage(), throwable));
+                } catch (IOException | IllegalStateException writeException) {
+                    LOGGER.debug("Unable to report upstream failure: " + writeException.getMessage());
+                } finally {
+                    asyncContext.complete();
+                }
+            }
+        });
+    }
+
+    /**
+     * Map an exception to the status code RestAction would report it with.
+     *
+     * @param exception The failure.
+     * @return HTTP status code.
+     */
+    public static int statusCode(final Exception exception) {
+        if (exception instanceof IllegalArgumentException) {
+            return HttpServletResponse.SC_BAD_REQUEST;
+        } else if (exception instanceof NotAuthenticatedException) {
+            return HttpServletResponse.SC_UNAUTHORIZED;
+        } else if (exception instanceof AccessControlException) {
+            return HttpServletResponse.SC_FORBIDDEN;
+        } else if (exception instanceof ResourceNotFoundException) {
+            return HttpServletResponse.SC_NOT_FOUND;
+        } else if (exception instanceof ResourceAlreadyExistsException) {
+            return HttpServletResponse.SC_CONFLICT;
+        } else if (exception instanceof PreconditionFailedException) {
+            return HttpServletResponse.SC_PRECONDITION_FAILED;
+        } else if (exception instanceof TransientException) {
+            return HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+        } else {
+            return HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        }
+    }
+
+    /**
+     * Report a failure to the client from a servlet that does not run through RestAction.
+     *
+     * @param response The response to write to.
+     * @param exception The failure.
+     * @throws IOException If writing the error fails.
+     */
+    public static void sendError(final HttpServletResponse response, final Exception exception) throws IOException {
+        final int statusCode = ProxyServlet.statusCode(exception);
+        if (statusCode == HttpServletResponse.SC_INTERNAL_SERVER_ERROR) {
+            LOGGER.error("Unable to proxy request.", exception);
+        }
+
+        response.sendError(statusCode, exception.getMessage());
+    }
+
+    @FunctionalInterface
+    interface RequestHandler {
+        void handle(HttpServletRequest request, HttpServletResponse response) throws IOException;
+    }
+
+    /** Endpoints whose pass-through GET requests may be proxied asynchronously. */
+    enum AsyncEndpoint {
+        // Image repositories (/repository).
+        REPOSITORY(Standards.PLATFORM_REPO_1, false, "repository"),
+
+        // A single session, its logs or its events (/session/{id}...).  The session list is served by SessionStateHub.
+        SESSION(Standards.PLATFORM_SESSION_1, true, "session");
+
+        final URI standardID;
+        final boolean appendPath;
+
+        // Metrics endpoint name, the same as the actions serving this endpoint synchronously.
+        final String endpoint;
+
+        AsyncEndpoint(final URI standardID, final boolean appendPath, final String endpoint) {
+            this.standardID = standardID;
+            this.appendPath = appendPath;
+            this.endpoint = endpoint;
+        }
+
+        boolean handles(final String pathInfo) {
+            return !this.appendPath || (StringUtil.hasText(pathInfo) && !"/".equals(pathInfo.trim()));
+        }
+    }
+}
@@ -77,14 +77,20 @@ import ca.nrc.cadc.rest.InlineContentHandler;
 import ca.nrc.cadc.rest.RestAction;
 import ca.nrc.cadc.util.StringUtil;
 import java.io.IOException;
+import java.net.URI;
 import java.net.URL;
-import java.util.Arrays;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import javax.security.auth.Subject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.opencadc.scienceportal.cache.AccessTokenCache;
+import org.opencadc.scienceportal.metrics.EndpointMetrics;
+import org.opencadc.scienceportal.metrics.PortalMetrics;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
 import org.opencadc.token.Client;
 
 /**
@@ -97,29 +103,98 @@ import org.opencadc.token.Client;
 public abstract class SciencePortalAuthAction extends RestAction {
     private static final Logger LOGGER = LogManager.getLogger(SciencePortalAuthAction.class);
 
-    protected final ApplicationConfiguration applicationConfiguration = new ApplicationConfiguration();
+    // Shared by all requests so that a polling client costs one token cache lookup per token lifetime.
+    private static final AccessTokenCache ACCESS_TOKEN_CACHE = new AccessTokenCache(
+            Duration.ofSeconds(ApplicationConfiguration.getInstance().getTokenCacheLocalMaxAgeSeconds()),
+            ApplicationConfiguration.getInstance().getTokenCacheLocalMaxEntries());
+
+    protected final ApplicationConfiguration applicationConfiguration = ApplicationConfiguration.getInstance();
+
+    protected final EndpointMetrics endpointMetrics = PortalMetrics.forEndpoint(PortalMetrics.endpointName(getClass()));
+
+    public static AccessTokenCache getAccessTokenCache() {
+        return SciencePortalAuthAction.ACCESS_TOKEN_CACHE;
+    }
 
     protected Client getOIDCClient() throws IOException {
         return this.applicationConfiguration.getOIDCClient();
     }
 
+    /**
+     * Look up the base URL of the given capability of the configured Skaha service. Lookups are served from the shared
+     * ServiceURLResolver.
+     *
+     * @param standardID The capability's standard ID.
+     * @return URL of the capability, or null if not found in the Registry.
+     */
+    protected URL lookupServiceURL(final URI standardID) {
+        final long startNanos = System.nanoTime();
+        try {
+            final URI apiServiceURI = URI.create(this.applicationConfiguration.getResourceID());
+            return ServiceURLResolver.getInstance().getServiceURL(apiServiceURI, standardID, AuthMethod.TOKEN);
+        } finally {
+            this.endpointMetrics.recordPhase(EndpointMetrics.Phase.REGISTRY_LOOKUP, System.nanoTime() - startNanos);
+        }
+    }
+
     protected Subject getCurrentSubject(final URL targetURL) throws Exception {
-        final String rawCookieHeader = this.syncInput.getHeader("cookie");
-        final Subject subject = AuthenticationUtil.getCurrentSubject();
+        final long startNanos = System.nanoTime();
+        try {
+            return SciencePortalAuthAction.resolveSubject(
+                    this.syncInput.getHeader("cookie"),
+                    AuthenticationUtil.getCurrentSubject(),
+                    targetURL,
+                    this.applicationConfiguration);
+        } finally {
+            this.endpointMetrics.recordPhase(EndpointMetrics.Phase.TOKEN_RESOLUTION, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Create an upstream request whose metrics are recorded under this action's endpoint.
+     *
+     * @param method The HTTP method.
+     * @param url The upstream URL.
+     * @param formParameters The form parameters to send, if any.
+     * @return ProxyRequest. Never null.
+     */
+    protected ProxyRequest newProxyRequest(
+            final String method, final URL url, final Map<String, Object> formParameters) {
+        final ProxyRequest proxyRequest = new ProxyRequest(method, url, formParameters);
+        proxyRequest.setEndpoint(this.endpointMetrics.getEndpoint());
+        return proxyRequest;
+    }
 
+    /**
+     * Add the upstream credentials for the given target to the authenticated Subject. The first-party cookie, if
+     * present, is exchanged for its access token; otherwise an SSO cookie is scoped to the target host. Used by actions
+     * and by servlets that do not run through RestAction.
+     *
+     * @param rawCookieHeader The request's Cookie header. May be null.
+     * @param subject The Subject authenticated from the request.
+     * @param targetURL The upstream URL the credentials are for.
+     * @param applicationConfiguration The current configuration.
+     * @return The given Subject, with upstream credentials added.
+     * @throws Exception If the OIDC client cannot be created.
+     */
+    public static Subject resolveSubject(
+            final String rawCookieHeader,
+            final Subject subject,
+            final URL targetURL,
+            final ApplicationConfiguration applicationConfiguration)
+            throws Exception {
         if (StringUtil.hasText(rawCookieHeader)) {
-            final String[] firstPartyCookies = Arrays.stream(rawCookieHeader.split(";"))
-                    .map(String::trim)
-                    .filter(cookieString -> cookieString.startsWith(ApplicationConfiguration.FIRST_PARTY_COOKIE_NAME))
-                    .toArray(String[]::new);
+            final CookieScanner firstPartyCookies =
+                    new CookieScanner(rawCookieHeader, ApplicationConfiguration.FIRST_PARTY_COOKIE_NAME);
 
-            if (firstPartyCookies.length > 0 && applicationConfiguration.isOIDCConfigured()) {
-                for (final String cookie : firstPartyCookies) {
-                    // Only split on the first "=" symbol, and trim any wrapping double quotes
-                    final String encryptedCookieValue = cookie.split("=", 2)[1].replaceAll("\"", "");
+            if (firstPartyCookies.next() && applicationConfiguration.isOIDCConfigured()) {
+                do {
+                    final String encryptedCookieValue = firstPartyCookies.value();
 
                     try {
-                        final String accessToken = getOIDCClient().getAccessToken(encryptedCookieValue);
+                        final String accessToken = SciencePortalAuthAction.ACCESS_TOKEN_CACHE.getAccessToken(
+                                encryptedCookieValue,
+                                () -> applicationConfiguration.getOIDCClient().getAccessToken(encryptedCookieValue));
 
                         subject.getPrincipals()
                                 .add(new AuthorizationTokenPrincipal(
@@ -130,10 +205,13 @@ public abstract class SciencePortalAuthAction extends RestAction {
                                         AuthenticationUtil.CHALLENGE_TYPE_BEARER,
                                         accessToken,
                                         Collections.singletonList(targetURL.getHost())));
+                        subject.getPublicCredentials()
+                                .add(SciencePortalAuthAction.ACCESS_TOKEN_CACHE.getTokenSource(
+                                        encryptedCookieValue, accessToken));
                     } catch (NoSuchElementException noTokenForKeyInCacheException) {
                         LOGGER.warn("Cookie found and decrypted but no value in cache.  Ignoring cookie...");
                     }
-                }
+                } while (firstPartyCookies.next());
 
                 if (!subject.getPrincipals(AuthorizationTokenPrincipal.class).isEmpty()) {
                     // Ensure it's clean first.
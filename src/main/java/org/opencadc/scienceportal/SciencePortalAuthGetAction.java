@@ -68,50 +68,248 @@
 
 package org.opencadc.scienceportal;
 
-import ca.nrc.cadc.net.HttpGet;
 import ca.nrc.cadc.util.StringUtil;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.security.PrivilegedExceptionAction;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import javax.security.auth.Subject;
+import org.opencadc.scienceportal.cache.CacheKeys;
+import org.opencadc.scienceportal.cache.SingleFlight;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
+import org.opencadc.scienceportal.proxy.ProxyResponse;
+import org.opencadc.scienceportal.proxy.ProxyTransport;
 
 public abstract class SciencePortalAuthGetAction extends SciencePortalAuthAction {
+    private static final String ANONYMOUS_SCOPE = "anonymous";
+
+    private static final SingleFlight<String, UpstreamBody> UPSTREAM_CALLS = new SingleFlight<>("upstream");
 
     protected abstract URL getAPIURL() throws IOException;
 
+    public static SingleFlight<String, ?> getUpstreamCalls() {
+        return SciencePortalAuthGetAction.UPSTREAM_CALLS;
+    }
+
     @Override
     public void doAction() throws Exception {
         final URL apiURL = getAPIURL();
         final Subject subject = getCurrentSubject(apiURL);
+
+        writeResponse(createProxyRequest(apiURL), subject);
+    }
+
+    /**
+     * Build the upstream request, passing through the query parameters of this request.
+     *
+     * @param apiURL The upstream URL.
+     * @return ProxyRequest. Never null.
+     * @throws IOException If the resulting URL is invalid.
+     */
+    protected ProxyRequest createProxyRequest(final URL apiURL) throws IOException {
         final String query;
 
         if (!syncInput.getParameterNames().isEmpty()) {
-            query = (StringUtil.hasText(apiURL.getQuery()) ? "&" : "?")
-                    + syncInput.getParameterNames().stream()
-                            .map(k -> k + "=" + this.syncInput.getParameter(k))
-                            .collect(Collectors.joining("&"));
+            final String parameters = syncInput.getParameterNames().stream()
+                    .filter(this::isUpstreamParameter)
+                    .map(k -> k + "=" + this.syncInput.getParameter(k))
+                    .collect(Collectors.joining("&"));
+            query = parameters.isEmpty() ? "" : (StringUtil.hasText(apiURL.getQuery()) ? "&" : "?") + parameters;
         } else {
             query = "";
         }
 
-        Subject.doAs(subject, (PrivilegedExceptionAction<?>) () -> {
-            final HttpGet httpGet = new HttpGet(new URL(apiURL.toExternalForm() + query), true);
-            httpGet.setRequestProperty("accept", "application/json");
-            httpGet.prepare();
+        final ProxyRequest proxyRequest =
+                newProxyRequest(ProxyRequest.GET, new URL(apiURL.toExternalForm() + query), Collections.emptyMap());
+        proxyRequest.setRequestProperty("accept", "application/json");
+        return proxyRequest;
+    }
+
+    /**
+     * Whether the given query parameter is passed upstream. Parameters the portal handles itself are not.
+     *
+     * @param parameterName The query parameter name.
+     * @return True to pass it upstream. Defaults to True.
+     */
+    protected boolean isUpstreamParameter(final String parameterName) {
+        return true;
+    }
+
+    /**
+     * Send the request upstream and copy the response to the client. The upstream entity tag is passed through if there
+     * is one, otherwise a strong entity tag is computed from the body, and a matching If-None-Match is answered with
+     * 304 Not Modified and no body.
+     *
+     * <p>Identical requests from the same caller that arrive while one is already in flight share its upstream call and
+     * buffered response. The key includes a hash of the caller's credentials, so responses are never shared between
+     * users. Bodies too large to buffer are streamed to one caller, and the others make their own calls.
+     *
+     * <p>When the client accepts gzip, so is upstream asked to, and a gzip encoded upstream body is passed through
+     * without being decoded. Other bodies are compressed here, as writeBody() does.
+     *
+     * @param proxyRequest The upstream request.
+     * @param subject The Subject whose credentials to send.
+     * @throws Exception For any upstream or I/O failure.
+     */
+    protected void writeResponse(final ProxyRequest proxyRequest, final Subject subject) throws Exception {
+        final boolean acceptsGzip = acceptsGzip();
+        if (acceptsGzip) {
+            proxyRequest.setRequestProperty("accept-encoding", GzipCompression.GZIP);
+        }
+
+        final String credentialKey = CacheKeys.forSubject(subject);
+        final String flightKey = (credentialKey == null ? SciencePortalAuthGetAction.ANONYMOUS_SCOPE : credentialKey)
+                + " " + proxyRequest.getURL().toExternalForm()
+                + (acceptsGzip ? " " + GzipCompression.GZIP : "");
+
+        UpstreamBody upstreamBody = SciencePortalAuthGetAction.UPSTREAM_CALLS.execute(
+                flightKey, () -> UpstreamBody.read(ProxyTransport.getInstance().send(proxyRequest, subject)));
+
+        if (!upstreamBody.isComplete() && !upstreamBody.claim()) {
+            // Another caller is streaming the shared oversized body.
+            upstreamBody = UpstreamBody.read(ProxyTransport.getInstance().send(proxyRequest, subject));
+            upstreamBody.claim();
+        }
+
+        final String upstreamETag = StringUtil.hasText(upstreamBody.etag) ? upstreamBody.etag : null;
+        if (upstreamBody.isComplete() && !upstreamBody.gzip) {
+            writeBody(upstreamBody.head, upstreamETag == null ? ETags.strongETag(upstreamBody.head) : upstreamETag);
+        } else if (upstreamBody.isComplete()) {
+            // The tag, upstream or computed, is of the encoded bytes as sent.
+            final String etag = upstreamETag == null ? ETags.strongETag(upstreamBody.head) : upstreamETag;
+            if (!isNotModified(etag)) {
+                this.syncOutput.setHeader("content-type", "application/json");
+                this.syncOutput.setHeader("content-encoding", GzipCompression.GZIP);
+                this.syncOutput.getOutputStream().write(upstreamBody.head);
+            }
+        } else {
+            try (final ProxyResponse proxyResponse = upstreamBody.proxyResponse) {
+                final boolean compress = acceptsGzip && !upstreamBody.gzip;
+                final String etag =
+                        compress && upstreamETag != null ? GzipCompression.weakETag(upstreamETag) : upstreamETag;
+
+                // Too large to hash in memory, so send it with the upstream entity tag, if any.
+                if (etag == null || !isNotModified(etag)) {
+                    this.syncOutput.setHeader("content-type", "application/json");
+                    if (compress || upstreamBody.gzip) {
+                        this.syncOutput.setHeader("content-encoding", GzipCompression.GZIP);
+                    }
+
+                    final OutputStream outputStream = this.syncOutput.getOutputStream();
+                    if (compress) {
+                        try (final OutputStream gzipOutputStream = GzipCompression.wrap(outputStream, false)) {
+                            gzipOutputStream.write(upstreamBody.head);
+                            StreamCopier.copy(proxyResponse.getInputStream(), gzipOutputStream);
+                        }
+                    } else {
+                        outputStream.write(upstreamBody.head);
+                        StreamCopier.copy(proxyResponse.getInputStream(), outputStream);
+                    }
+                }
+            }
+        }
+    }
 
+    /**
+     * Write a complete JSON body, or 304 Not Modified if the client already has it. Bodies of at least the configured
+     * threshold are gzip encoded for clients that accept it, with the weak form of the entity tag.
+     *
+     * @param body The response body.
+     * @param etag The body's entity tag.
+     * @throws IOException If writing fails.
+     */
+    protected void writeBody(final byte[] body, final String etag) throws IOException {
+        if (body.length >= this.applicationConfiguration.getProxyCompressionThresholdBytes() && acceptsGzip()) {
+            if (!isNotModified(GzipCompression.weakETag(etag))) {
+                this.syncOutput.setHeader("content-type", "application/json");
+                this.syncOutput.setHeader("content-encoding", GzipCompression.GZIP);
+                try (final OutputStream gzipOutputStream =
+                        GzipCompression.wrap(this.syncOutput.getOutputStream(), false)) {
+                    gzipOutputStream.write(body);
+                }
+            }
+        } else if (!isNotModified(etag)) {
             this.syncOutput.setHeader("content-type", "application/json");
-            final BufferedReader reader = new BufferedReader(new InputStreamReader(httpGet.getInputStream()));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                this.syncOutput.getOutputStream().write(line.getBytes(StandardCharsets.UTF_8));
+            this.syncOutput.getOutputStream().write(body);
+        }
+    }
+
+    /**
+     * Whether responses to this request may be gzip encoded.
+     *
+     * @return True if compression is enabled and the client accepts gzip, False otherwise.
+     */
+    protected boolean acceptsGzip() {
+        return this.applicationConfiguration.isProxyCompressionEnabled()
+                && GzipCompression.accepts(this.syncInput.getHeader("accept-encoding"));
+    }
+
+    /**
+     * Set the validator headers for the given entity tag and, if the client's copy is current, the 304 status.
+     *
+     * @param etag The current entity tag.
+     * @return True if 304 Not Modified was set and no body must follow, False otherwise.
+     */
+    protected boolean isNotModified(final String etag) {
+        this.syncOutput.setHeader("etag", etag);
+        // Responses are per user.  Browsers may keep them, but must revalidate before each use.
+        this.syncOutput.setHeader("cache-control", "private, no-cache");
+        if (this.applicationConfiguration.isProxyCompressionEnabled()) {
+            this.syncOutput.setHeader("vary", "accept-encoding");
+        }
+
+        if (ETags.matches(this.syncInput.getHeader("if-none-match"), etag)) {
+            this.syncOutput.setCode(304);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * An upstream response read into memory, or for bodies over ETags.MAX_HASHED_BODY_BYTES, the first part of it and
+     * the still open response, which exactly one caller may claim and stream.
+     */
+    private static final class UpstreamBody {
+        private final String etag;
+        private final boolean gzip;
+        private final byte[] head;
+        private final ProxyResponse proxyResponse;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private UpstreamBody(
+                final String etag, final boolean gzip, final byte[] head, final ProxyResponse proxyResponse) {
+            this.etag = etag;
+            this.gzip = gzip;
+            this.head = head;
+            this.proxyResponse = proxyResponse;
+        }
+
+        static UpstreamBody read(final ProxyResponse proxyResponse) throws IOException {
+            final String etag = proxyResponse.getHeader("etag");
+            final boolean gzip = GzipCompression.isGzip(proxyResponse.getHeader("content-encoding"));
+            try {
+                final byte[] body = proxyResponse.getInputStream().readNBytes(ETags.MAX_HASHED_BODY_BYTES + 1);
+                if (body.length <= ETags.MAX_HASHED_BODY_BYTES) {
+                    proxyResponse.close();
+                    return new UpstreamBody(etag, gzip, body, null);
+                } else {
+                    return new UpstreamBody(etag, gzip, body, proxyResponse);
+                }
+            } catch (IOException | RuntimeException exception) {
+                proxyResponse.close();
+                throw exception;
             }
-            this.syncOutput.getOutputStream().flush();
+        }
 
-            return null;
-        });
+        boolean isComplete() {
+            return this.proxyResponse == null;
+        }
+
+        boolean claim() {
+            return this.claimed.compareAndSet(false, true);
+        }
     }
 }
@@ -0,0 +1,180 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal;
+
+import ca.nrc.cadc.auth.AuthMethod;
+import ca.nrc.cadc.reg.client.RegistryClient;
+import java.net.URI;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Objects;
+import org.opencadc.scienceportal.cache.RefreshingCache;
+
+/**
+ * Process-wide cache of Registry service URL lookups, keyed by resource ID, standard ID, and authentication method.
+ * Resolved URLs are refreshed in the background once older than the configured time-to-live, and the last known-good
+ * URL continues to be served while the Registry is unreachable. Concurrent lookups of the same service share one
+ * Registry call.
+ */
+public class ServiceURLResolver {
+    // Serve the last known-good URL for as long as the Registry is down.
+    private static final Duration SERVE_STALE_INDEFINITELY = Duration.ofNanos(Long.MAX_VALUE);
+
+    private static final ServiceURLResolver INSTANCE = new ServiceURLResolver(
+            Duration.ofSeconds(ApplicationConfiguration.getInstance().getRegistryCacheTimeToLiveSeconds()));
+
+    private final RegistryClient registryClient = new RegistryClient();
+    private final RefreshingCache<ServiceKey, URL> serviceURLCache;
+
+    ServiceURLResolver(final Duration timeToLive) {
+        this.serviceURLCache = new RefreshingCache<>(
+                "serviceURL", timeToLive, ServiceURLResolver.SERVE_STALE_INDEFINITELY, 0, BackgroundTasks.executor());
+    }
+
+    public static ServiceURLResolver getInstance() {
+        return ServiceURLResolver.INSTANCE;
+    }
+
+    /**
+     * Resolve the base URL of a service capability, as RegistryClient.getServiceURL does.
+     *
+     * @param resourceID The service's resource ID.
+     * @param standardID The capability's standard ID.
+     * @param authMethod The authentication method the interface must support.
+     * @return URL of the service, or null if the Registry has no such capability.
+     */
+    public URL getServiceURL(final URI resourceID, final URI standardID, final AuthMethod authMethod) {
+        try {
+            return this.serviceURLCache.get(
+                    new ServiceKey(resourceID, standardID, authMethod),
+                    () -> lookupServiceURL(resourceID, standardID, authMethod));
+        } catch (RuntimeException runtimeException) {
+            throw runtimeException;
+        } catch (Exception exception) {
+            // Not expected as the Registry lookup does not declare checked exceptions.
+            throw new IllegalStateException(exception.getMessage(), exception);
+        }
+    }
+
+    URL lookupServiceURL(final URI resourceID, final URI standardID, final AuthMethod authMethod) {
+        return this.registryClient.getServiceURL(resourceID, standardID, authMethod);
+    }
+
+    public RefreshingCache<?, ?> getCache() {
+        return this.serviceURLCache;
+    }
+
+    public long getHitCount() {
+        return this.serviceURLCache.getHitCount() + this.serviceURLCache.getStaleHitCount();
+    }
+
+    public long getMissCount() {
+        return this.serviceURLCache.getMissCount();
+    }
+
+    public long getRefreshCount() {
+        return this.serviceURLCache.getRefreshCount();
+    }
+
+    private static final class ServiceKey {
+        private final URI resourceID;
+        private final URI standardID;
+        private final AuthMethod authMethod;
+
+        ServiceKey(final URI resourceID, final URI standardID, final AuthMethod authMethod) {
+            this.resourceID = resourceID;
+            this.standardID = standardID;
+            this.authMethod = authMethod;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            } else if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            final ServiceKey that = (ServiceKey) o;
+            return Objects.equals(resourceID, that.resourceID)
+                    && Objects.equals(standardID, that.standardID)
+                    && authMethod == that.authMethod;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(resourceID, standardID, authMethod);
+        }
+
+        @Override
+        public String toString() {
+            return resourceID + " " + standardID + " (" + authMethod + ")";
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Sets the caching headers of static assets, and serves hashed assets from their precompressed copies where the browser
+ * accepts one. Hashed assets (see AssetManifest) are cached for a year and marked immutable, so repeat page loads fetch
+ * none of them. Other assets, such as the deployment's dist_config, must be revalidated before each use. Everything not
+ * served from a precompressed copy is left to the container's default servlet.
+ */
+public class StaticAssetFilter implements Filter {
+    static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=" + TimeUnit.DAYS.toSeconds(365L) + ", immutable";
+    static final String REVALIDATE_CACHE_CONTROL = "no-cache";
+
+    private static final String BROTLI = "br";
+
+    private ServletContext servletContext;
+
+    @Override
+    public void init(final FilterConfig filterConfig) {
+        this.servletContext = filterConfig.getServletContext();
+    }
+
+    @Override
+    public void doFilter(
+            final ServletRequest servletRequest, final ServletResponse servletResponse, final FilterChain filterChain)
+            throws IOException, ServletException {
+        final HttpServletRequest request = (HttpServletRequest) servletRequest;
+        final HttpServletResponse response = (HttpServletResponse) servletResponse;
+        final String path = request.getRequestURI()
+                .substring(request.getContextPath().length())
+                .replaceFirst("^/+", "");
+        final AssetManifest assetManifest = AssetManifest.getInstance(this.servletContext);
+
+        if (!assetManifest.isImmutable(path)) {
+            response.setHeader("cache-control", StaticAssetFilter.REVALIDATE_CACHE_CONTROL);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setHeader("cache-control", StaticAssetFilter.IMMUTABLE_CACHE_CONTROL);
+        if (!assetManifest.getEncodings(path).isEmpty()) {
+            response.setHeader("vary", "accept-encoding");
+        }
+
+        final String contentCoding = StaticAssetFilter.selectEncoding(
+                request.getMethod(), request.getHeader("accept-encoding"), assetManifest, path);
+        if (contentCoding == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final String suffix = StaticAssetFilter.BROTLI.equals(contentCoding) ? ".br" : ".gz";
+        try (final InputStream inputStream = this.servletContext.getResourceAsStream("/" + path + suffix)) {
+            if (inputStream == null) {
+                // Listed in the manifest but not packaged.  Fall back to the uncompressed copy.
+                filterChain.doFilter(request, response);
+                return;
+            }
+
+            response.setContentType(this.servletContext.getMimeType(path));
+            response.setHeader("content-encoding", contentCoding);
+            if (!"HEAD".equals(request.getMethod())) {
+                StreamCopier.copy(inputStream, response.getOutputStream());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // Nothing to release.
+    }
+
+    /**
+     * Pick the precompressed copy to serve, preferring Brotli, which is the smaller.
+     *
+     * @param method The request method. Only GET and HEAD are served from a precompressed copy.
+     * @param acceptEncoding The Accept-Encoding request header. May be null.
+     * @param assetManifest The manifest listing the copies available.
+     * @param path The hashed asset's path.
+     * @return The content coding to serve, or null to serve the asset as it is.
+     */
+    static String selectEncoding(
+            final String method, final String acceptEncoding, final AssetManifest assetManifest, final String path) {
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return null;
+        }
+
+        for (final String contentCoding : assetManifest.getEncodings(path)) {
+            if (GzipCompression.accepts(acceptEncoding, contentCoding)) {
+                return contentCoding;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Copies upstream response bodies to the client byte for byte. No decoding takes place, so the upstream bytes,
+ * including line endings and character encoding, are preserved exactly. Copy buffers are pooled rather than tied to a
+ * thread so that they are reused regardless of which thread handles a request.
+ */
+public final class StreamCopier {
+    static final int BUFFER_SIZE = 16 * 1024;
+
+    // Roughly the number of concurrent copies expected on a busy node. Beyond this, buffers are allocated and dropped.
+    private static final int MAX_POOLED_BUFFERS = 64;
+
+    private static final BlockingQueue<byte[]> BUFFER_POOL = new ArrayBlockingQueue<>(StreamCopier.MAX_POOLED_BUFFERS);
+
+    private StreamCopier() {}
+
+    /**
+     * Copy all bytes from the input to the output. The output is flushed, but neither stream is closed.
+     *
+     * @param inputStream The source to read until end of stream.
+     * @param outputStream The destination.
+     * @return Number of bytes copied.
+     * @throws IOException If reading or writing fails.
+     */
+    public static long copy(final InputStream inputStream, final OutputStream outputStream) throws IOException {
+        final byte[] buffer = StreamCopier.acquire();
+        try {
+            long total = 0L;
+            int bytesRead;
+            while ((bytesRead = inputStream.read(buffer)) >= 0) {
+                outputStream.write(buffer, 0, bytesRead);
+                total += bytesRead;
+            }
+            outputStream.flush();
+            return total;
+        } finally {
+            StreamCopier.release(buffer);
+        }
+    }
+
+    static byte[] acquire() {
+        final byte[] pooled = StreamCopier.BUFFER_POOL.poll();
+        return pooled == null ? new byte[StreamCopier.BUFFER_SIZE] : pooled;
+    }
+
+    static void release(final byte[] buffer) {
+        StreamCopier.BUFFER_POOL.offer(buffer);
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+
+/**
+ * Bounded, in-process cache of access tokens keyed by the encrypted first-party cookie they were obtained from. Entries
+ * expire at the token's own expiry (read from the JWT "exp" claim when present) or after the maximum age, whichever
+ * comes first, and the least recently used entry is evicted once the cache is full. Concurrent lookups for the same
+ * cookie share one call to the token cache. A token the upstream refuses, as when it was revoked or its session logged
+ * out, is dropped through the TokenSource credential that marks it on the Subject.
+ *
+ * <p>Cookie values are never stored; entries are keyed by their SHA-256 digest.
+ */
+public class AccessTokenCache {
+    private static final Logger LOGGER = LogManager.getLogger(AccessTokenCache.class);
+
+    // Stop using a token slightly before it expires so that it does not expire in flight to the upstream service.
+    private static final long EXPIRY_MARGIN_SECONDS = 30L;
+
+    private final long maxAgeNanos;
+    private final int maxEntries;
+
+    // Access-ordered, so iteration starts at the least recently used entry.  Guarded by itself.
+    private final Map<String, CachedToken> entries = new LinkedHashMap<>(16, 0.75F, true);
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param maxAge Longest time a token is reused, regardless of its own expiry. Zero disables caching.
+     * @param maxEntries Maximum number of tokens before the least recently used is evicted.
+     */
+    public AccessTokenCache(final Duration maxAge, final int maxEntries) {
+        this.maxAgeNanos = maxAge.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Obtain the access token for the given encrypted cookie value, fetching it if not cached or expired.
+     *
+     * @param encryptedCookieValue The first-party cookie value.
+     * @param loader Fetches the access token, typically from the OIDC token cache.
+     * @return The access token. Null if the loader returned null.
+     * @throws Exception Any exception from the loader.
+     */
+    public String getAccessToken(final String encryptedCookieValue, final RefreshingCache.Loader<String> loader)
+            throws Exception {
+        if (this.maxAgeNanos <= 0L) {
+            this.misses.increment();
+            return loader.load();
+        }
+
+        final String key = CacheKeys.sha256(encryptedCookieValue);
+        final long now = System.nanoTime();
+
+        synchronized (this.entries) {
+            final CachedToken cachedToken = this.entries.get(key);
+            if (cachedToken != null) {
+                if (now - cachedToken.expiresAtNanos < 0L) {
+                    this.hits.increment();
+                    return cachedToken.accessToken;
+                } else {
+                    this.entries.remove(key);
+                    this.expirations.increment();
+                }
+            }
+        }
+
+        this.misses.increment();
+        final CompletableFuture<String> created = new CompletableFuture<>();
+        final CompletableFuture<String> existing = this.inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return RefreshingCache.await(existing);
+        }
+
+        try {
+            final String accessToken = loader.load();
+            if (accessToken != null) {
+                store(key, accessToken, now);
+            }
+            created.complete(accessToken);
+            return accessToken;
+        } catch (Exception | Error throwable) {
+            created.completeExceptionally(throwable);
+            throw throwable;
+        } finally {
+            this.inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * Obtain the credential that marks an access token, obtained from this cache, on the Subject it is sent for.
+     *
+     * @param encryptedCookieValue The first-party cookie value the token was obtained for.
+     * @param accessToken The access token.
+     * @return TokenSource to add to the Subject's public credentials. Never null.
+     */
+    public TokenSource getTokenSource(final String encryptedCookieValue, final String accessToken) {
+        return new TokenSource(this, CacheKeys.sha256(encryptedCookieValue), accessToken);
+    }
+
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    public long getExpirationCount() {
+        return this.expirations.sum();
+    }
+
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    public long getRejectionCount() {
+        return this.rejections.sum();
+    }
+
+    private void reject(final String key, final String rejectedAccessToken) {
+        synchronized (this.entries) {
+            // A token loaded since the rejected one was sent is kept.
+            final CachedToken cachedToken = this.entries.get(key);
+            if (cachedToken != null && cachedToken.accessToken.equals(rejectedAccessToken)) {
+                this.entries.remove(key);
+                this.rejections.increment();
+            }
+        }
+    }
+
+    private void store(final String key, final String accessToken, final long loadedAtNanos) {
+        long lifetimeNanos = this.maxAgeNanos;
+        final Long expiresInSeconds = AccessTokenCache.secondsUntilExpiry(accessToken);
+        if (expiresInSeconds != null) {
+            lifetimeNanos = Math.min(
+                    lifetimeNanos,
+                    Duration.ofSeconds(Math.max(0L, expiresInSeconds - AccessTokenCache.EXPIRY_MARGIN_SECONDS))
+                            .toNanos());
+        }
+
+        if (lifetimeNanos <= 0L) {
+            return;
+        }
+
+        synchronized (this.entries) {
+            this.entries.put(key, new CachedToken(accessToken, loadedAtNanos + lifetimeNanos));
+            while (this.entries.size() > this.maxEntries) {
+                final Iterator<String> leastRecentlyUsed = this.entries.keySet().iterator();
+                leastRecentlyUsed.next();
+                leastRecentlyUsed.remove();
+                this.evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Read the expiry of a JWT access token without verifying it. Verification is the upstream service's concern; the
+     * expiry is only used to avoid reusing a token past its lifetime.
+     *
+     * @param accessToken The access token.
+     * @return Seconds until the token expires, possibly negative, or null if the token is opaque or has no expiry.
+     */
+    static Long secondsUntilExpiry(final String accessToken) {
+        final String[] parts = accessToken.split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+
+        try {
+            final JSONObject claims =
+                    new JSONObject(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+            final long expiresAtSeconds = claims.optLong("exp", -1L);
+            return expiresAtSeconds < 0L ? null : expiresAtSeconds - (System.currentTimeMillis() / 1000L);
+        } catch (RuntimeException unreadableTokenException) {
+            LOGGER.debug("Unable to read access token expiry: " + unreadableTokenException.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Public credential marking an access token as served by an AccessTokenCache, so that the token is dropped if the
+     * upstream refuses it rather than being reused until it ages out. Holds the cookie digest, not the cookie.
+     */
+    public static final class TokenSource {
+        private final AccessTokenCache accessTokenCache;
+        private final String key;
+        private final String accessToken;
+
+        TokenSource(final AccessTokenCache accessTokenCache, final String key, final String accessToken) {
+            this.accessTokenCache = accessTokenCache;
+            this.key = key;
+            this.accessToken = accessToken;
+        }
+
+        /** Drop the access token from the cache, unless it has already been replaced. */
+        public void reject() {
+            this.accessTokenCache.reject(this.key, this.accessToken);
+        }
+    }
+
+    private static final class CachedToken {
+        final String accessToken;
+        final long expiresAtNanos;
+
+        CachedToken(final String accessToken, final long expiresAtNanos) {
+            this.accessToken = accessToken;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
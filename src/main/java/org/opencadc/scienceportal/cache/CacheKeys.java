@@ -0,0 +1,134 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal.cache;
+
+import ca.nrc.cadc.auth.AuthorizationToken;
+import ca.nrc.cadc.auth.SSOCookieCredential;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import javax.security.auth.Subject;
+
+/**
+ * Derives cache keys from secrets, such as cookies and tokens, so that the secrets themselves are never held as keys,
+ * and from content, such as response bodies.
+ */
+public final class CacheKeys {
+    private CacheKeys() {}
+
+    /**
+     * Obtain a key identifying the credential that would be sent upstream for the given Subject, so that per-user cache
+     * entries are never shared between users.
+     *
+     * @param subject The Subject to inspect. May be null.
+     * @return Hashed credential, or null if the Subject carries no forwardable credential.
+     */
+    public static String forSubject(final Subject subject) {
+        if (subject == null) {
+            return null;
+        }
+
+        for (final AuthorizationToken authorizationToken : subject.getPublicCredentials(AuthorizationToken.class)) {
+            return CacheKeys.sha256(authorizationToken.getType() + " " + authorizationToken.getCredentials());
+        }
+
+        for (final SSOCookieCredential cookieCredential : subject.getPublicCredentials(SSOCookieCredential.class)) {
+            return CacheKeys.sha256(cookieCredential.getSsoCookieValue());
+        }
+
+        return null;
+    }
+
+    /**
+     * Obtain the Base64 encoded SHA-256 digest of the given value.
+     *
+     * @param value The value to digest.
+     * @return Base64 digest. Never null.
+     */
+    public static String sha256(final String value) {
+        return CacheKeys.sha256(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Obtain the Base64 encoded SHA-256 digest of the given bytes.
+     *
+     * @param value The bytes to digest.
+     * @return Base64 digest. Never null.
+     */
+    public static String sha256(final byte[] value) {
+        try {
+            final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(messageDigest.digest(value));
+        } catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(noSuchAlgorithmException.getMessage(), noSuchAlgorithmException);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Concurrent cache whose entries are refreshed in the background once they are older than the time-to-live. A stale
+ * entry continues to be served while its refresh is in flight, and after a failed refresh, until it is older than the
+ * time-to-live plus the maximum staleness. Concurrent misses for the same key are coalesced into a single load that
+ * runs on the calling thread, so loaders see the caller's Subject. Background refreshes run on the given Executor and
+ * must therefore not rely on the calling thread's context.
+ *
+ * <p>Null values are returned to the caller but never cached.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ */
+public class RefreshingCache<K, V> {
+    private static final Logger LOGGER = LogManager.getLogger(RefreshingCache.class);
+
+    // Upper bound on how often a failing refresh is retried for a single entry.
+    private static final long MAX_RETRY_INTERVAL_NANOS = Duration.ofSeconds(30L).toNanos();
+
+    private final String name;
+    private final long timeToLiveNanos;
+    private final long maxStaleNanos;
+    private final int maxEntries;
+    private final Executor executor;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param name Name used in log messages and metrics.
+     * @param timeToLive How long an entry is considered fresh.
+     * @param maxStale How long past the time-to-live a stale entry may still be served. Zero disables serving stale
+     *     entries, so expired entries are reloaded in the foreground.
+     * @param maxEntries Maximum number of entries before the least recently used is evicted. Zero for no limit.
+     * @param executor Executor to run background refreshes on.
+     */
+    public RefreshingCache(
+            final String name,
+            final Duration timeToLive,
+            final Duration maxStale,
+            final int maxEntries,
+            final Executor executor) {
+        this.name = name;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.maxStaleNanos = maxStale.toNanos();
+        this.maxEntries = maxEntries;
+        this.executor = executor;
+    }
+
+    /**
+     * Obtain the value for the given key, loading it if absent or expired.
+     *
+     * @param key The key to look up.
+     * @param loader Loads the value for the key. Used for the initial load and any background refresh.
+     * @return The cached or loaded value. Null if the loader returned null.
+     * @throws Exception Any exception from the loader when no usable entry exists.
+     */
+    public V get(final K key, final Loader<V> loader) throws Exception {
+        final long now = System.nanoTime();
+        final Entry<V> entry = this.entries.get(key);
+
+        if (entry != null) {
+            final long age = now - entry.loadedAtNanos;
+            if (age < this.timeToLiveNanos) {
+                this.hits.increment();
+                entry.lastAccessNanos = now;
+                return entry.value;
+            } else if (age - this.timeToLiveNanos < this.maxStaleNanos) {
+                this.staleHits.increment();
+                entry.lastAccessNanos = now;
+                if (now - entry.refreshAfterNanos >= 0L) {
+                    refreshInBackground(key, entry, loader);
+                }
+                return entry.value;
+            }
+        }
+
+        this.misses.increment();
+        final CompletableFuture<V> created = new CompletableFuture<>();
+        final CompletableFuture<V> existing = this.inFlight.putIfAbsent(key, created);
+        if (existing == null) {
+            return load(key, loader, created);
+        } else {
+            return RefreshingCache.await(existing);
+        }
+    }
+
+    /**
+     * Obtain the cached value without loading or counting a hit, regardless of age.
+     *
+     * @param key The key to look up.
+     * @return The cached value, or null if none.
+     */
+    public V peek(final K key) {
+        final Entry<V> entry = this.entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Obtain how long ago the value for the given key was loaded.
+     *
+     * @param key The key to look up.
+     * @return The age of the entry, or null if there is no entry.
+     */
+    public Duration getAge(final K key) {
+        final Entry<V> entry = this.entries.get(key);
+        return entry == null ? null : Duration.ofNanos(System.nanoTime() - entry.loadedAtNanos);
+    }
+
+    /**
+     * Obtain the age of the oldest entry, for monitoring how far behind the cache may be. Reported as portal.cache.age.
+     *
+     * @return The oldest entry's age, or Duration.ZERO if the cache is empty.
+     */
+    public Duration getOldestAge() {
+        final long now = System.nanoTime();
+        long oldestAgeNanos = 0L;
+        for (final Entry<V> entry : this.entries.values()) {
+            oldestAgeNanos = Math.max(oldestAgeNanos, now - entry.loadedAtNanos);
+        }
+
+        return Duration.ofNanos(oldestAgeNanos);
+    }
+
+    /**
+     * Determine whether the entry for the given key is older than the time-to-live.
+     *
+     * @param key The key to look up.
+     * @return True if an entry exists and is stale, False otherwise.
+     */
+    public boolean isStale(final K key) {
+        final Entry<V> entry = this.entries.get(key);
+        return entry != null && System.nanoTime() - entry.loadedAtNanos >= this.timeToLiveNanos;
+    }
+
+    /**
+     * Replace the cached value for the given key, for example after a write that is known to change it.
+     *
+     * @param key The key to store.
+     * @param value The new value. A null value removes the entry.
+     */
+    public void put(final K key, final V value) {
+        if (value == null) {
+            invalidate(key);
+        } else {
+            store(key, value);
+        }
+    }
+
+    public void invalidate(final K key) {
+        this.entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        this.entries.clear();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    public long getStaleHitCount() {
+        return this.staleHits.sum();
+    }
+
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    public long getRefreshCount() {
+        return this.refreshes.sum();
+    }
+
+    public long getLoadFailureCount() {
+        return this.loadFailures.sum();
+    }
+
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    private V load(final K key, final Loader<V> loader, final CompletableFuture<V> future) throws Exception {
+        try {
+            final V value = loader.load();
+            if (value != null) {
+                store(key, value);
+            }
+            future.complete(value);
+            return value;
+        } catch (Exception | Error throwable) {
+            this.loadFailures.increment();
+            future.completeExceptionally(throwable);
+            throw throwable;
+        } finally {
+            this.inFlight.remove(key, future);
+        }
+    }
+
+    private void refreshInBackground(final K key, final Entry<V> staleEntry, final Loader<V> loader) {
+        final CompletableFuture<V> created = new CompletableFuture<>();
+        if (this.inFlight.putIfAbsent(key, created) != null) {
+            // Someone else is already loading this key.
+            return;
+        }
+
+        // Back off before the next attempt in case this refresh fails.
+        staleEntry.refreshAfterNanos =
+                System.nanoTime() + Math.min(this.timeToLiveNanos, RefreshingCache.MAX_RETRY_INTERVAL_NANOS);
+        this.refreshes.increment();
+
+        try {
+            this.executor.execute(() -> {
+                try {
+                    load(key, loader, created);
+                } catch (Exception exception) {
+                    LOGGER.warn("Refresh of " + key + " in cache " + this.name + " failed.  Serving stale value: "
+                            + exception.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            this.inFlight.remove(key, created);
+            created.completeExceptionally(rejectedExecutionException);
+        }
+    }
+
+    private void store(final K key, final V value) {
+        this.entries.put(key, new Entry<>(value, System.nanoTime()));
+        if (this.maxEntries > 0 && this.entries.size() > this.maxEntries) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    /**
+     * Evict the least recently accessed entries until within bounds. This scans the map, which is acceptable for the
+     * small, bounded sizes this cache is used with and keeps the read path free of any ordering bookkeeping.
+     */
+    private void evictLeastRecentlyUsed() {
+        while (this.entries.size() > this.maxEntries) {
+            K oldestKey = null;
+            long oldestAccess = Long.MAX_VALUE;
+            for (final Map.Entry<K, Entry<V>> mapEntry : this.entries.entrySet()) {
+                final long lastAccess = mapEntry.getValue().lastAccessNanos;
+                if (oldestKey == null || lastAccess - oldestAccess < 0L) {
+                    oldestKey = mapEntry.getKey();
+                    oldestAccess = lastAccess;
+                }
+            }
+
+            if (oldestKey == null || this.entries.remove(oldestKey) == null) {
+                return;
+            }
+            this.evictions.increment();
+        }
+    }
+
+    /**
+     * Wait for a shared load to complete, rethrowing its failure as thrown by the loader.
+     *
+     * @param future The in-flight load.
+     * @param <V> Value type.
+     * @return The loaded value.
+     * @throws Exception The loader's exception, or InterruptedException if interrupted while waiting.
+     */
+    public static <V> V await(final CompletableFuture<V> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw interruptedException;
+        } catch (ExecutionException executionException) {
+            final Throwable cause = executionException.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw executionException;
+            }
+        }
+    }
+
+    /**
+     * Loads a value for a cache entry.
+     *
+     * @param <V> Value type.
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws Exception;
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long loadedAtNanos;
+        volatile long lastAccessNanos;
+        volatile long refreshAfterNanos;
+
+        Entry(final V value, final long loadedAtNanos) {
+            this.value = value;
+            this.loadedAtNanos = loadedAtNanos;
+            this.lastAccessNanos = loadedAtNanos;
+            this.refreshAfterNanos = loadedAtNanos;
+        }
+    }
+}
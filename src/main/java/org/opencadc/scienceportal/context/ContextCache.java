@@ -0,0 +1,146 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal.context;
+
+import java.time.Duration;
+import javax.security.auth.Subject;
+import org.opencadc.scienceportal.ApplicationConfiguration;
+import org.opencadc.scienceportal.BackgroundTasks;
+import org.opencadc.scienceportal.cache.CacheKeys;
+import org.opencadc.scienceportal.cache.RefreshingCache;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
+import org.opencadc.scienceportal.proxy.ProxyTransport;
+
+/**
+ * Cache of the platform context (CPU, RAM and GPU options), which is the same for every user and rarely changes. Once
+ * loaded, the context is refreshed in the background after the time-to-live, and the last known context is served while
+ * the refresh runs or if it fails, so page loads never wait on the context call after the first.
+ *
+ * <p>Only authenticated requests are answered from the cache, and refreshes use the credentials of the request that
+ * found the entry stale.
+ */
+public class ContextCache {
+    private static final ContextCache INSTANCE = new ContextCache(
+            Duration.ofSeconds(ApplicationConfiguration.getInstance().getContextCacheTimeToLiveSeconds()),
+            ProxyTransport.getInstance()::fetch);
+
+    private final RefreshingCache<String, byte[]> contextCache;
+    private final Fetcher fetcher;
+
+    ContextCache(final Duration timeToLive, final Fetcher fetcher) {
+        this.contextCache = new RefreshingCache<>(
+                "context", timeToLive, Duration.ofNanos(Long.MAX_VALUE), 0, BackgroundTasks.executor());
+        this.fetcher = fetcher;
+    }
+
+    public static ContextCache getInstance() {
+        return ContextCache.INSTANCE;
+    }
+
+    /**
+     * Obtain the context for the given request.
+     *
+     * @param proxyRequest The upstream context request.
+     * @param subject The requesting Subject.
+     * @return The context JSON, or null if the request carries no credentials and must be sent upstream directly.
+     * @throws Exception If no context has been loaded yet and loading it fails.
+     */
+    public byte[] getContext(final ProxyRequest proxyRequest, final Subject subject) throws Exception {
+        if (CacheKeys.forSubject(subject) == null) {
+            return null;
+        }
+
+        return this.contextCache.get(
+                proxyRequest.getURL().toExternalForm(), () -> this.fetcher.fetch(proxyRequest, subject));
+    }
+
+    /**
+     * Obtain how long ago the context for the given request was loaded.
+     *
+     * @param proxyRequest The upstream context request.
+     * @return The age, or null if not cached.
+     */
+    public Duration getAge(final ProxyRequest proxyRequest) {
+        return this.contextCache.getAge(proxyRequest.getURL().toExternalForm());
+    }
+
+    public boolean isStale(final ProxyRequest proxyRequest) {
+        return this.contextCache.isStale(proxyRequest.getURL().toExternalForm());
+    }
+
+    public RefreshingCache<?, ?> getCache() {
+        return this.contextCache;
+    }
+
+    /** Fetches the context body from upstream. */
+    @FunctionalInterface
+    interface Fetcher {
+        byte[] fetch(ProxyRequest proxyRequest, Subject subject) throws Exception;
+    }
+}
@@ -68,20 +68,42 @@
 
 package org.opencadc.scienceportal.context;
 
-import ca.nrc.cadc.auth.AuthMethod;
 import ca.nrc.cadc.reg.Standards;
-import ca.nrc.cadc.reg.client.RegistryClient;
-import java.net.URI;
 import java.net.URL;
-import org.opencadc.scienceportal.ApplicationConfiguration;
+import java.time.Duration;
+import javax.security.auth.Subject;
+import org.opencadc.scienceportal.ETags;
 import org.opencadc.scienceportal.SciencePortalAuthGetAction;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
 
 public class GetAction extends SciencePortalAuthGetAction {
     @Override
     protected URL getAPIURL() {
-        final ApplicationConfiguration applicationConfiguration = new ApplicationConfiguration();
-        final URI apiServiceURI = URI.create(applicationConfiguration.getResourceID());
-        final RegistryClient registryClient = new RegistryClient();
-        return registryClient.getServiceURL(apiServiceURI, Standards.PLATFORM_CONTEXT_1, AuthMethod.TOKEN);
+        return lookupServiceURL(Standards.PLATFORM_CONTEXT_1);
+    }
+
+    /**
+     * Answer from the shared context cache. A context older than the time-to-live is marked with the Warning header
+     * while it is refreshed, and the Age header reports how old it is.
+     */
+    @Override
+    protected void writeResponse(final ProxyRequest proxyRequest, final Subject subject) throws Exception {
+        final ContextCache contextCache = ContextCache.getInstance();
+        final byte[] context = contextCache.getContext(proxyRequest, subject);
+
+        if (context == null) {
+            super.writeResponse(proxyRequest, subject);
+        } else {
+            final Duration age = contextCache.getAge(proxyRequest);
+            if (age != null) {
+                this.syncOutput.setHeader("age", age.getSeconds());
+            }
+
+            if (contextCache.isStale(proxyRequest)) {
+                this.syncOutput.setHeader("warning", "110 - \"Response is Stale\"");
+            }
+
+            writeBody(context, ETags.strongETag(context));
+        }
     }
 }
@@ -68,20 +68,27 @@
 
 package org.opencadc.scienceportal.image;
 
-import ca.nrc.cadc.auth.AuthMethod;
 import ca.nrc.cadc.reg.Standards;
-import ca.nrc.cadc.reg.client.RegistryClient;
-import java.net.URI;
 import java.net.URL;
-import org.opencadc.scienceportal.ApplicationConfiguration;
+import javax.security.auth.Subject;
+import org.opencadc.scienceportal.ETags;
 import org.opencadc.scienceportal.SciencePortalAuthGetAction;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
 
 public class GetAction extends SciencePortalAuthGetAction {
     @Override
     protected URL getAPIURL() {
-        final ApplicationConfiguration applicationConfiguration = new ApplicationConfiguration();
-        final URI apiServiceURI = URI.create(applicationConfiguration.getResourceID());
-        final RegistryClient registryClient = new RegistryClient();
-        return registryClient.getServiceURL(apiServiceURI, Standards.PLATFORM_IMAGE_1, AuthMethod.TOKEN);
+        return lookupServiceURL(Standards.PLATFORM_IMAGE_1);
+    }
+
+    @Override
+    protected void writeResponse(final ProxyRequest proxyRequest, final Subject subject) throws Exception {
+        final byte[] images = ImageCatalogue.getInstance().getImages(proxyRequest, subject);
+
+        if (images == null) {
+            super.writeResponse(proxyRequest, subject);
+        } else {
+            writeBody(images, ETags.strongETag(images));
+        }
     }
 }
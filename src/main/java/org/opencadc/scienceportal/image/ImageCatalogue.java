@@ -0,0 +1,267 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal.image;
+
+import ca.nrc.cadc.auth.NotAuthenticatedException;
+import java.nio.charset.StandardCharsets;
+import java.security.AccessControlException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.security.auth.Subject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.opencadc.scienceportal.ApplicationConfiguration;
+import org.opencadc.scienceportal.BackgroundTasks;
+import org.opencadc.scienceportal.cache.CacheKeys;
+import org.opencadc.scienceportal.cache.RefreshingCache;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
+import org.opencadc.scienceportal.proxy.ProxyTransport;
+
+/**
+ * Image list cache, partitioned by visibility. The images upstream lists to anonymous callers are the same for every
+ * user, so they are cached once per query. Each user's list is fetched with their credentials and kept for that user,
+ * with a shorter time-to-live, sharing the JSON of the images it has in common with the public list. Responses merge
+ * the current public list with the user's images missing from it, so that an image made public, or no longer public, is
+ * listed once. Both partitions are refreshed in the background once stale, so only a user's first visit waits for
+ * upstream.
+ *
+ * <p>If upstream does not list images anonymously, the public partition is empty and every image is treated as private.
+ */
+public class ImageCatalogue {
+    private static final Logger LOGGER = LogManager.getLogger(ImageCatalogue.class);
+
+    // Bounds memory for per-user entries.  Well above the number of users active within the time-to-live.
+    private static final int MAX_PRIVATE_ENTRIES = 10000;
+
+    private static final ImageCatalogue INSTANCE = new ImageCatalogue(
+            Duration.ofSeconds(ApplicationConfiguration.getInstance().getPublicImageCacheTimeToLiveSeconds()),
+            Duration.ofSeconds(ApplicationConfiguration.getInstance().getPrivateImageCacheTimeToLiveSeconds()),
+            ProxyTransport.getInstance()::fetch);
+
+    private final RefreshingCache<String, ImageList> publicImages;
+    private final RefreshingCache<String, ImageList> privateImages;
+    private final Fetcher fetcher;
+
+    ImageCatalogue(final Duration publicTimeToLive, final Duration privateTimeToLive, final Fetcher fetcher) {
+        // The public list is served for as long as upstream is unavailable.  A user's own images are served stale
+        // for at most one public time-to-live.
+        this.publicImages = new RefreshingCache<>(
+                "publicImages", publicTimeToLive, Duration.ofNanos(Long.MAX_VALUE), 0, BackgroundTasks.executor());
+        this.privateImages = new RefreshingCache<>(
+                "privateImages",
+                privateTimeToLive,
+                publicTimeToLive,
+                ImageCatalogue.MAX_PRIVATE_ENTRIES,
+                BackgroundTasks.executor());
+        this.fetcher = fetcher;
+    }
+
+    public static ImageCatalogue getInstance() {
+        return ImageCatalogue.INSTANCE;
+    }
+
+    /**
+     * Obtain the image list for the given request and user.
+     *
+     * @param proxyRequest The upstream image list request, including any query.
+     * @param subject The Subject whose images to include.
+     * @return JSON array of images, or null if the request carries no credentials and must be sent upstream directly.
+     * @throws Exception If a partition has no usable entry and fetching it fails.
+     */
+    public byte[] getImages(final ProxyRequest proxyRequest, final Subject subject) throws Exception {
+        final String credentialKey = CacheKeys.forSubject(subject);
+        if (credentialKey == null) {
+            return null;
+        }
+
+        final String queryKey = proxyRequest.getURL().toExternalForm();
+        final ImageList publicImageList = this.publicImages.get(queryKey, () -> fetchPublicImages(proxyRequest));
+        final ImageList privateImageList = this.privateImages.get(
+                credentialKey + " " + queryKey, () -> fetchPrivateImages(proxyRequest, subject, queryKey));
+
+        return ImageList.merge(publicImageList, privateImageList);
+    }
+
+    public RefreshingCache<?, ?> getPublicCache() {
+        return this.publicImages;
+    }
+
+    public RefreshingCache<?, ?> getPrivateCache() {
+        return this.privateImages;
+    }
+
+    private ImageList fetchPublicImages(final ProxyRequest proxyRequest) throws Exception {
+        try {
+            return ImageList.parse(this.fetcher.fetch(proxyRequest, null));
+        } catch (NotAuthenticatedException | AccessControlException notListedAnonymouslyException) {
+            LOGGER.debug("Images are not listed anonymously: " + notListedAnonymouslyException.getMessage());
+            return ImageList.EMPTY;
+        }
+    }
+
+    private ImageList fetchPrivateImages(final ProxyRequest proxyRequest, final Subject subject, final String queryKey)
+            throws Exception {
+        final ImageList userImageList = ImageList.parse(this.fetcher.fetch(proxyRequest, subject));
+        final ImageList publicImageList = this.publicImages.peek(queryKey);
+        return publicImageList == null ? userImageList : userImageList.sharing(publicImageList);
+    }
+
+    /** Fetches an image list body from upstream. */
+    @FunctionalInterface
+    interface Fetcher {
+        byte[] fetch(ProxyRequest proxyRequest, Subject subject) throws Exception;
+    }
+
+    /** Image IDs with their pre-serialized JSON, so that merging lists needs no JSON processing. */
+    static final class ImageList {
+        static final ImageList EMPTY = new ImageList(Collections.emptyList(), Collections.emptyList());
+
+        private final List<String> imageIDs;
+        private final List<String> imageJSON;
+        private final Set<String> imageIDSet;
+
+        private ImageList(final List<String> imageIDs, final List<String> imageJSON) {
+            this.imageIDs = imageIDs;
+            this.imageJSON = imageJSON;
+            this.imageIDSet = new HashSet<>(imageIDs);
+        }
+
+        static ImageList parse(final byte[] imageListJSON) {
+            final JSONArray images = new JSONArray(new String(imageListJSON, StandardCharsets.UTF_8));
+            final List<String> imageIDs = new ArrayList<>(images.length());
+            final List<String> imageJSON = new ArrayList<>(images.length());
+            for (int i = 0; i < images.length(); i++) {
+                final JSONObject image = images.getJSONObject(i);
+                imageIDs.add(image.optString("id"));
+                imageJSON.add(image.toString());
+            }
+
+            return new ImageList(imageIDs, imageJSON);
+        }
+
+        /**
+         * Obtain this list with the JSON of each image that is identical in the other list replaced by the other list's
+         * copy, so that a user's list holds no second copy of the public images.
+         *
+         * @param other The list to share JSON with.
+         * @return ImageList of the same images.
+         */
+        ImageList sharing(final ImageList other) {
+            final Map<String, String> otherJSON = new HashMap<>();
+            for (final String json : other.imageJSON) {
+                otherJSON.put(json, json);
+            }
+
+            final List<String> sharedJSON = new ArrayList<>(this.imageJSON.size());
+            for (final String json : this.imageJSON) {
+                sharedJSON.add(otherJSON.getOrDefault(json, json));
+            }
+
+            return new ImageList(this.imageIDs, sharedJSON);
+        }
+
+        int size() {
+            return this.imageIDs.size();
+        }
+
+        /**
+         * Join two lists into one JSON array: the first list, then the images of the second whose IDs are not in the
+         * first.
+         *
+         * @param first The first list.
+         * @param second The second list.
+         * @return UTF-8 JSON array.
+         */
+        static byte[] merge(final ImageList first, final ImageList second) {
+            final StringBuilder stringBuilder = new StringBuilder("[");
+            for (final String json : first.imageJSON) {
+                stringBuilder.append(json).append(',');
+            }
+            for (int i = 0; i < second.imageJSON.size(); i++) {
+                if (!first.imageIDSet.contains(second.imageIDs.get(i))) {
+                    stringBuilder.append(second.imageJSON.get(i)).append(',');
+                }
+            }
+
+            if (stringBuilder.length() > 1) {
+                stringBuilder.setLength(stringBuilder.length() - 1);
+            }
+
+            return stringBuilder.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
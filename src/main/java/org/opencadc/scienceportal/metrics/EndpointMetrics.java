@@ -0,0 +1,180 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Meters for one proxied endpoint (session, image, context, repository...). Meters are registered once, so recording is
+ * a lookup by index and allocates nothing.
+ */
+public final class EndpointMetrics {
+    private static final int MAX_STATUS_CODE = 599;
+
+    private final MeterRegistry meterRegistry;
+    private final String endpoint;
+    private final Timer[] phaseTimers;
+    private final Counter bodyBytes;
+    private final AtomicReferenceArray<Counter> statusCounters =
+            new AtomicReferenceArray<>(EndpointMetrics.MAX_STATUS_CODE + 1);
+
+    EndpointMetrics(final MeterRegistry meterRegistry, final String endpoint) {
+        this.meterRegistry = meterRegistry;
+        this.endpoint = endpoint;
+
+        final Phase[] phases = Phase.values();
+        this.phaseTimers = new Timer[phases.length];
+        for (final Phase phase : phases) {
+            this.phaseTimers[phase.ordinal()] = Timer.builder("portal.proxy.phase")
+                    .description("Time spent in each phase of a proxied request.")
+                    .tag("endpoint", endpoint)
+                    .tag("phase", phase.tagValue)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1L))
+                    .maximumExpectedValue(Duration.ofSeconds(60L))
+                    .register(meterRegistry);
+        }
+
+        this.bodyBytes = Counter.builder("portal.upstream.body")
+                .description("Upstream response body bytes read.")
+                .baseUnit("bytes")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+    }
+
+    public String getEndpoint() {
+        return this.endpoint;
+    }
+
+    /**
+     * Record the duration of one phase.
+     *
+     * @param phase The phase.
+     * @param nanoseconds Duration, as a difference of System.nanoTime() values.
+     */
+    public void recordPhase(final Phase phase, final long nanoseconds) {
+        this.phaseTimers[phase.ordinal()].record(nanoseconds, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a consumed upstream body.
+     *
+     * @param nanoseconds Time from the response headers until the body was consumed.
+     * @param byteCount Bytes read.
+     */
+    public void recordBody(final long nanoseconds, final long byteCount) {
+        recordPhase(Phase.BODY_COPY, nanoseconds);
+        this.bodyBytes.increment(byteCount);
+    }
+
+    /**
+     * Count an upstream response status.
+     *
+     * @param statusCode The HTTP status code.
+     */
+    public void recordStatus(final int statusCode) {
+        final int index = statusCode < 0 || statusCode > EndpointMetrics.MAX_STATUS_CODE ? 0 : statusCode;
+        Counter counter = this.statusCounters.get(index);
+        if (counter == null) {
+            // Registering the same counter twice returns the existing one, so a race here is harmless.
+            counter = Counter.builder("portal.upstream.responses")
+                    .description("Upstream responses by status code.")
+                    .tag("endpoint", this.endpoint)
+                    .tag("status", index == 0 ? "other" : Integer.toString(statusCode))
+                    .register(this.meterRegistry);
+            this.statusCounters.set(index, counter);
+        }
+        counter.increment();
+    }
+
+    /** The phases of a proxied request. */
+    public enum Phase {
+        // Registry service URL lookup, usually served from the ServiceURLResolver.
+        REGISTRY_LOOKUP("registry"),
+
+        // Resolution of the caller's upstream credentials, including any token cache lookup.
+        TOKEN_RESOLUTION("token"),
+
+        // From sending the upstream request until its response headers arrive.
+        UPSTREAM_TTFB("ttfb"),
+
+        // From the upstream response headers until the body is consumed.
+        BODY_COPY("body");
+
+        private final String tagValue;
+
+        Phase(final String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal.metrics;
+
+import io.prometheus.client.exporter.common.TextFormat;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opencadc.scienceportal.ApplicationConfiguration;
+
+/**
+ * Serves the PortalMetrics registry in the Prometheus text exposition format. Only the configured client addresses may
+ * read it, as the metrics describe the traffic of every user. Forwarded headers are not trusted, so the ingress must
+ * also block this path from outside callers.
+ */
+public class MetricsServlet extends HttpServlet {
+    private static final Logger LOGGER = LogManager.getLogger(MetricsServlet.class);
+
+    @Override
+    protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        final List<String> allowedAddresses =
+                ApplicationConfiguration.getInstance().getMetricsAllowedAddresses();
+        if (!MetricsServlet.isAllowed(request.getRemoteAddr(), allowedAddresses)) {
+            LOGGER.debug("Refused metrics request from " + request.getRemoteAddr());
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        response.setContentType(TextFormat.CONTENT_TYPE_004);
+        response.setHeader("cache-control", "no-store");
+
+        final Writer writer = response.getWriter();
+        PortalMetrics.getRegistry().scrape(writer);
+        writer.flush();
+    }
+
+    /**
+     * Check the client address against a list of addresses, or CIDR ranges such as 10.0.0.0/8. Entries that are not IP
+     * literals match nothing, so that no name is ever looked up.
+     *
+     * @param remoteAddress The client IP address.
+     * @param allowedAddresses The allowed addresses and ranges.
+     * @return True if the address is allowed.
+     */
+    static boolean isAllowed(final String remoteAddress, final List<String> allowedAddresses) {
+        final byte[] remote = MetricsServlet.toBytes(remoteAddress);
+        if (remote == null) {
+            return false;
+        }
+
+        for (final String allowedAddress : allowedAddresses) {
+            final int slashIndex = allowedAddress.indexOf('/');
+            final byte[] network =
+                    MetricsServlet.toBytes(slashIndex < 0 ? allowedAddress : allowedAddress.substring(0, slashIndex));
+            if (network == null || network.length != remote.length) {
+                continue;
+            }
+
+            final int prefixLength;
+            try {
+                prefixLength = slashIndex < 0
+                        ? network.length * Byte.SIZE
+                        : Integer.parseInt(allowedAddress.substring(slashIndex + 1));
+            } catch (NumberFormatException numberFormatException) {
+                LOGGER.warn("Invalid metrics address range " + allowedAddress);
+                continue;
+            }
+
+            if (MetricsServlet.matches(remote, network, prefixLength)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean matches(final byte[] remote, final byte[] network, final int prefixLength) {
+        if (prefixLength < 0 || prefixLength > network.length * Byte.SIZE) {
+            return false;
+        }
+
+        final int wholeBytes = prefixLength / Byte.SIZE;
+        for (int i = 0; i < wholeBytes; i++) {
+            if (remote[i] != network[i]) {
+                return false;
+            }
+        }
+
+        final int remainingBits = prefixLength % Byte.SIZE;
+        if (remainingBits == 0) {
+            return true;
+        }
+
+        final int mask = 0xFF << (Byte.SIZE - remainingBits);
+        return (remote[wholeBytes] & mask) == (network[wholeBytes] & mask);
+    }
+
+    private static byte[] toBytes(final String address) {
+        // Only IP literals, which InetAddress parses without a lookup.  Anything containing a colon is taken as IPv6.
+        if (address == null || !(address.matches("\\d{1,3}(\\.\\d{1,3}){3}") || address.contains(":"))) {
+            return null;
+        }
+
+        try {
+            return InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException unknownHostException) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ClassLoaderMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opencadc.scienceportal.SciencePortalAuthAction;
+import org.opencadc.scienceportal.SciencePortalAuthGetAction;
+import org.opencadc.scienceportal.ServiceURLResolver;
+import org.opencadc.scienceportal.cache.AccessTokenCache;
+import org.opencadc.scienceportal.cache.RefreshingCache;
+import org.opencadc.scienceportal.cache.SingleFlight;
+import org.opencadc.scienceportal.context.ContextCache;
+import org.opencadc.scienceportal.image.ImageCatalogue;
+import org.opencadc.scienceportal.proxy.ProxyTransport;
+import org.opencadc.scienceportal.session.SessionEventsServlet;
+import org.opencadc.scienceportal.session.SessionStateHub;
+
+/**
+ * Process-wide metrics, exposed in the Prometheus text format by the MetricsServlet. Request paths record into
+ * pre-registered EndpointMetrics; caches, pools and streams are read through gauges and function counters only when
+ * scraped, so they add nothing to the request path.
+ */
+public final class PortalMetrics {
+    private static final Logger LOGGER = LogManager.getLogger(PortalMetrics.class);
+
+    // Endpoint of upstream requests not made on behalf of a named endpoint.
+    public static final String OTHER_ENDPOINT = "other";
+
+    private static final PrometheusMeterRegistry REGISTRY = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+    private static final Map<String, EndpointMetrics> ENDPOINTS = new ConcurrentHashMap<>();
+
+    // Actions are named for their package, for example session.GetAction is "session".
+    private static final ClassValue<String> ENDPOINT_NAMES = new ClassValue<>() {
+        @Override
+        protected String computeValue(final Class<?> type) {
+            final String packageName = type.getPackageName();
+            return packageName.substring(packageName.lastIndexOf('.') + 1);
+        }
+    };
+
+    private static JvmGcMetrics jvmGcMetrics;
+
+    private PortalMetrics() {}
+
+    public static PrometheusMeterRegistry getRegistry() {
+        return PortalMetrics.REGISTRY;
+    }
+
+    /**
+     * Obtain the meters of the given endpoint, registering them on first use.
+     *
+     * @param endpoint The endpoint name. A small, fixed set of values, as each has its own meters.
+     * @return EndpointMetrics. Never null.
+     */
+    public static EndpointMetrics forEndpoint(final String endpoint) {
+        final EndpointMetrics endpointMetrics = PortalMetrics.ENDPOINTS.get(endpoint);
+        return endpointMetrics == null
+                ? PortalMetrics.ENDPOINTS.computeIfAbsent(
+                        endpoint, k -> new EndpointMetrics(PortalMetrics.REGISTRY, endpoint))
+                : endpointMetrics;
+    }
+
+    /**
+     * Obtain the endpoint name of the given action class.
+     *
+     * @param actionClass The RestAction class.
+     * @return Endpoint name. Never null.
+     */
+    public static String endpointName(final Class<?> actionClass) {
+        return PortalMetrics.ENDPOINT_NAMES.get(actionClass);
+    }
+
+    /** Register the JVM meters and those read from the shared caches, pools and streams. */
+    public static synchronized void start() {
+        if (PortalMetrics.jvmGcMetrics != null) {
+            return;
+        }
+
+        final MeterRegistry meterRegistry = PortalMetrics.REGISTRY;
+        new ClassLoaderMetrics().bindTo(meterRegistry);
+        new JvmMemoryMetrics().bindTo(meterRegistry);
+        new JvmThreadMetrics().bindTo(meterRegistry);
+        new ProcessorMetrics().bindTo(meterRegistry);
+        PortalMetrics.jvmGcMetrics = new JvmGcMetrics();
+        PortalMetrics.jvmGcMetrics.bindTo(meterRegistry);
+
+        final ProxyTransport proxyTransport = ProxyTransport.getInstance();
+        Gauge.builder("portal.upstream.inflight", proxyTransport::getInFlightCount)
+                .description("Upstream requests awaiting or streaming a response.")
+                .register(meterRegistry);
+
+        PortalMetrics.bindCache(meterRegistry, ServiceURLResolver.getInstance().getCache());
+        PortalMetrics.bindCache(meterRegistry, ImageCatalogue.getInstance().getPublicCache());
+        PortalMetrics.bindCache(meterRegistry, ImageCatalogue.getInstance().getPrivateCache());
+        PortalMetrics.bindCache(meterRegistry, ContextCache.getInstance().getCache());
+
+        final AccessTokenCache accessTokenCache = SciencePortalAuthAction.getAccessTokenCache();
+        PortalMetrics.bindCacheRequests(
+                meterRegistry, "accessToken", "hit", accessTokenCache, AccessTokenCache::getHitCount);
+        PortalMetrics.bindCacheRequests(
+                meterRegistry, "accessToken", "miss", accessTokenCache, AccessTokenCache::getMissCount);
+        FunctionCounter.builder("portal.token.rejections", accessTokenCache, AccessTokenCache::getRejectionCount)
+                .description("Cached access tokens dropped after the upstream refused them.")
+                .register(meterRegistry);
+
+        final SessionStateHub sessionStateHub = SessionStateHub.getInstance();
+        PortalMetrics.bindCacheRequests(
+                meterRegistry, "sessions", "hit", sessionStateHub, SessionStateHub::getSnapshotHitCount);
+        PortalMetrics.bindCacheRequests(
+                meterRegistry, "sessions", "miss", sessionStateHub, SessionStateHub::getUpstreamFetchCount);
+        FunctionCounter.builder("portal.session.invalidations", sessionStateHub, SessionStateHub::getInvalidationCount)
+                .description("Session list snapshots discarded after a launch, renewal or deletion.")
+                .register(meterRegistry);
+        Gauge.builder("portal.session.pollers", sessionStateHub::getActiveUserCount)
+                .description("Users whose session list is being polled.")
+                .register(meterRegistry);
+        Gauge.builder("portal.session.subscribers", sessionStateHub::getSubscriberCount)
+                .description("Open event streams and pending requests subscribed to session lists.")
+                .register(meterRegistry);
+        Gauge.builder("portal.session.events.open", SessionEventsServlet::getOpenStreamCount)
+                .description("Open /session/events streams.")
+                .register(meterRegistry);
+
+        final SingleFlight<?, ?> upstreamCalls = SciencePortalAuthGetAction.getUpstreamCalls();
+        FunctionCounter.builder("portal.singleflight.calls", upstreamCalls, SingleFlight::getCallCount)
+                .description("Upstream calls made for pass-through requests.")
+                .tag("result", "called")
+                .register(meterRegistry);
+        FunctionCounter.builder("portal.singleflight.calls", upstreamCalls, SingleFlight::getSharedCallCount)
+                .description("Upstream calls made for pass-through requests.")
+                .tag("result", "shared")
+                .register(meterRegistry);
+        Gauge.builder("portal.singleflight.inflight", upstreamCalls::getInFlightCount)
+                .description("Pass-through upstream calls in flight.")
+                .register(meterRegistry);
+
+        LOGGER.debug("Metrics started.");
+    }
+
+    public static synchronized void shutdown() {
+        if (PortalMetrics.jvmGcMetrics != null) {
+            PortalMetrics.jvmGcMetrics.close();
+            PortalMetrics.jvmGcMetrics = null;
+        }
+        PortalMetrics.REGISTRY.clear();
+        PortalMetrics.ENDPOINTS.clear();
+    }
+
+    static void bindCache(final MeterRegistry meterRegistry, final RefreshingCache<?, ?> cache) {
+        final String name = cache.getName();
+        PortalMetrics.bindCacheRequests(meterRegistry, name, "hit", cache, RefreshingCache::getHitCount);
+        PortalMetrics.bindCacheRequests(meterRegistry, name, "stale", cache, RefreshingCache::getStaleHitCount);
+        PortalMetrics.bindCacheRequests(meterRegistry, name, "miss", cache, RefreshingCache::getMissCount);
+        FunctionCounter.builder("portal.cache.refreshes", cache, RefreshingCache::getRefreshCount)
+                .description("Background cache refreshes.")
+                .tag("cache", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("portal.cache.load.failures", cache, RefreshingCache::getLoadFailureCount)
+                .description("Failed cache loads and refreshes.")
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("portal.cache.size", cache::size)
+                .description("Cached entries.")
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("portal.cache.age", cache, c -> c.getOldestAge().toNanos() / 1.0E9D)
+                .description("Age of the oldest cached entry, that is, how far behind upstream the cache may be.")
+                .baseUnit("seconds")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    private static <T> void bindCacheRequests(
+            final MeterRegistry meterRegistry,
+            final String name,
+            final String result,
+            final T cache,
+            final ToDoubleFunction<T> count) {
+        FunctionCounter.builder("portal.cache.requests", cache, count)
+                .description("Cache lookups by result.")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
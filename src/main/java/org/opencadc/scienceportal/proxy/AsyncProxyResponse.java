@@ -0,0 +1,143 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal.proxy;
+
+import java.net.http.HttpHeaders;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * An upstream response whose body is delivered asynchronously. Unlike ProxyResponse, error statuses are not mapped to
+ * exceptions, as the caller answers the client without a thread to throw on. The body publisher must be subscribed to
+ * exactly once, and release() called once the body is consumed or abandoned.
+ */
+public class AsyncProxyResponse {
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final Flow.Publisher<List<ByteBuffer>> body;
+    private final LongConsumer onRelease;
+    private final AtomicBoolean released = new AtomicBoolean();
+    private final AtomicLong bodyByteCount = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param statusCode The upstream status code.
+     * @param headers The upstream response headers.
+     * @param body The upstream body.
+     * @param onRelease Called once when released, with the number of body bytes counted.
+     */
+    AsyncProxyResponse(
+            final int statusCode,
+            final HttpHeaders headers,
+            final Flow.Publisher<List<ByteBuffer>> body,
+            final LongConsumer onRelease) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+        this.onRelease = onRelease;
+    }
+
+    public int getStatusCode() {
+        return this.statusCode;
+    }
+
+    /**
+     * Obtain the first value of the given response header.
+     *
+     * @param name The case-insensitive header name.
+     * @return The header value, or null if not present.
+     */
+    public String getHeader(final String name) {
+        return this.headers.firstValue(name).orElse(null);
+    }
+
+    public Flow.Publisher<List<ByteBuffer>> getBody() {
+        return this.body;
+    }
+
+    /**
+     * Count body bytes received by the subscriber, for the metrics recorded on release.
+     *
+     * @param byteCount Number of bytes received.
+     */
+    public void countBodyBytes(final long byteCount) {
+        this.bodyByteCount.addAndGet(byteCount);
+    }
+
+    /** Release this request's slot in the per-host limit. Safe to call more than once. */
+    public void release() {
+        if (this.released.compareAndSet(false, true)) {
+            this.onRelease.accept(this.bodyByteCount.get());
+        }
+    }
+}
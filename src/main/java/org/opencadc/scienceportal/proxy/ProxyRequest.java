@@ -0,0 +1,181 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal.proxy;
+
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.opencadc.scienceportal.metrics.PortalMetrics;
+
+/** A request to an upstream service, sent through the shared ProxyTransport. */
+public class ProxyRequest {
+    public static final String GET = "GET";
+    public static final String POST = "POST";
+    public static final String DELETE = "DELETE";
+
+    private final String method;
+    private final URL url;
+    private final Map<String, Object> formParameters;
+    private final Map<String, String> requestProperties = new LinkedHashMap<>();
+    private String endpoint = PortalMetrics.OTHER_ENDPOINT;
+
+    /**
+     * Request without a body.
+     *
+     * @param method The HTTP method.
+     * @param url The upstream URL.
+     */
+    public ProxyRequest(final String method, final URL url) {
+        this(method, url, Collections.emptyMap());
+    }
+
+    /**
+     * Request with a URL encoded form body.
+     *
+     * @param method The HTTP method.
+     * @param url The upstream URL.
+     * @param formParameters The form parameters to send. Values are sent as their String form.
+     */
+    public ProxyRequest(final String method, final URL url, final Map<String, Object> formParameters) {
+        this.method = method;
+        this.url = url;
+        this.formParameters = formParameters;
+    }
+
+    public void setRequestProperty(final String name, final String value) {
+        this.requestProperties.put(name, value);
+    }
+
+    /**
+     * Name the portal endpoint this request is made for, under which its upstream metrics are recorded.
+     *
+     * @param endpoint The endpoint name, as given by PortalMetrics.endpointName().
+     */
+    public void setEndpoint(final String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return this.endpoint;
+    }
+
+    public String getMethod() {
+        return this.method;
+    }
+
+    public URL getURL() {
+        return this.url;
+    }
+
+    public Map<String, Object> getFormParameters() {
+        return Collections.unmodifiableMap(this.formParameters);
+    }
+
+    public Map<String, String> getRequestProperties() {
+        return Collections.unmodifiableMap(this.requestProperties);
+    }
+
+    /**
+     * Create the request to send when the upstream redirects this one. The transport adds credentials for the new host
+     * itself, so none are carried over.
+     *
+     * @param redirectMethod The method to use, which differs only for a 303 See Other.
+     * @param redirectURL The URL redirected to.
+     * @return ProxyRequest. Never null.
+     */
+    ProxyRequest redirectTo(final String redirectMethod, final URL redirectURL) {
+        final ProxyRequest redirectRequest = new ProxyRequest(
+                redirectMethod,
+                redirectURL,
+                redirectMethod.equals(this.method) ? this.formParameters : Collections.emptyMap());
+        redirectRequest.requestProperties.putAll(this.requestProperties);
+        redirectRequest.endpoint = this.endpoint;
+        return redirectRequest;
+    }
+
+    boolean hasFormBody() {
+        return !this.formParameters.isEmpty();
+    }
+
+    String encodeFormBody() {
+        return this.formParameters.entrySet().stream()
+                .map(entry -> URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8) + "="
+                        + URLEncoder.encode(String.valueOf(entry.getValue()), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+    }
+
+    @Override
+    public String toString() {
+        return this.method + " " + this.url;
+    }
+}
@@ -0,0 +1,547 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal.proxy;
+
+import ca.nrc.cadc.auth.AuthorizationToken;
+import ca.nrc.cadc.auth.NotAuthenticatedException;
+import ca.nrc.cadc.auth.SSOCookieCredential;
+import ca.nrc.cadc.auth.SSOCookieManager;
+import ca.nrc.cadc.net.PreconditionFailedException;
+import ca.nrc.cadc.net.ResourceAlreadyExistsException;
+import ca.nrc.cadc.net.ResourceNotFoundException;
+import ca.nrc.cadc.net.TransientException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.AccessControlException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import javax.security.auth.Subject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opencadc.scienceportal.ApplicationConfiguration;
+import org.opencadc.scienceportal.VirtualThreads;
+import org.opencadc.scienceportal.cache.AccessTokenCache;
+import org.opencadc.scienceportal.metrics.EndpointMetrics;
+import org.opencadc.scienceportal.metrics.PortalMetrics;
+
+/**
+ * Shared HTTP transport for all upstream (Skaha) calls. A single java.net.http.HttpClient keeps persistent connections
+ * to each upstream host, negotiating HTTP/2 where the server supports it so that concurrent requests are multiplexed
+ * over one connection. The number of concurrent requests per host is bounded.
+ *
+ * <p>How long idle connections are kept is a JVM-wide setting of the JDK client, so it belongs to the deployment rather
+ * than to this webapp: see the jdk.httpclient.keepalive.timeout and jdk.httpclient.keepalive.timeout.h2 system
+ * properties in the README.
+ *
+ * <p>Credentials are taken from the given Subject: Authorization Tokens and SSO cookies scoped to the target host are
+ * sent as headers. Redirects are followed here, for GET and DELETE only as the cadc-util clients did, so that the
+ * credentials are chosen again for each host redirected to. Error responses are mapped to the same exceptions the
+ * cadc-util HTTP clients throw, so RestAction reports them to the browser as before.
+ */
+public class ProxyTransport {
+    private static final Logger LOGGER = LogManager.getLogger(ProxyTransport.class);
+
+    // Maximum length of an upstream error body to report.
+    public static final int MAX_ERROR_MESSAGE_LENGTH = 4096;
+
+    // Same limit as the JDK client's own redirect policy.
+    static final int MAX_REDIRECTS = 5;
+
+    private static final Set<Integer> REDIRECT_STATUS_CODES = Set.of(301, 302, 303, 307, 308);
+
+    private static final ProxyTransport INSTANCE = ProxyTransport.fromConfiguration();
+
+    private final HttpClient httpClient;
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final int maxConcurrentRequestsPerHost;
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    ProxyTransport(
+            final HttpClient.Version version,
+            final Duration connectTimeout,
+            final Duration readTimeout,
+            final int maxConcurrentRequestsPerHost) {
+        this(version, connectTimeout, readTimeout, maxConcurrentRequestsPerHost, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param version Preferred HTTP version.
+     * @param connectTimeout Connection timeout.
+     * @param readTimeout Time to wait for the response headers.
+     * @param maxConcurrentRequestsPerHost Maximum concurrent requests per upstream host.
+     * @param executor Executor for the HTTP client's asynchronous tasks, or null for the client's default.
+     */
+    ProxyTransport(
+            final HttpClient.Version version,
+            final Duration connectTimeout,
+            final Duration readTimeout,
+            final int maxConcurrentRequestsPerHost,
+            final Executor executor) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.maxConcurrentRequestsPerHost = maxConcurrentRequestsPerHost;
+
+        final HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(connectTimeout)
+                // The client would copy the credential headers onto a redirect to any host.
+                .followRedirects(HttpClient.Redirect.NEVER);
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        this.httpClient = builder.build();
+    }
+
+    public static ProxyTransport getInstance() {
+        return ProxyTransport.INSTANCE;
+    }
+
+    private static ProxyTransport fromConfiguration() {
+        final ApplicationConfiguration applicationConfiguration = ApplicationConfiguration.getInstance();
+
+        return new ProxyTransport(
+                applicationConfiguration.isProxyHTTP2Enabled()
+                        ? HttpClient.Version.HTTP_2
+                        : HttpClient.Version.HTTP_1_1,
+                Duration.ofSeconds(applicationConfiguration.getProxyConnectTimeoutSeconds()),
+                Duration.ofSeconds(applicationConfiguration.getProxyReadTimeoutSeconds()),
+                applicationConfiguration.getProxyMaxConcurrentRequestsPerHost(),
+                VirtualThreads.executor(applicationConfiguration));
+    }
+
+    /**
+     * Send the request with the credentials of the given Subject and wait for the response headers.
+     *
+     * @param proxyRequest The request to send.
+     * @param subject The Subject whose credentials to send. May be null for an anonymous request.
+     * @return The response, whose body must be consumed and closed by the caller.
+     * @throws Exception For an error response (mapped as the cadc-util HTTP clients do), a timeout, or an I/O failure.
+     */
+    public ProxyResponse send(final ProxyRequest proxyRequest, final Subject subject) throws Exception {
+        ProxyRequest nextRequest = proxyRequest;
+        for (int redirectCount = 0; ; redirectCount++) {
+            final ProxyResponse proxyResponse = sendOnce(nextRequest, subject);
+            final ProxyRequest redirectRequest;
+            try {
+                redirectRequest = ProxyTransport.redirectRequest(
+                        nextRequest, proxyResponse.getStatusCode(), proxyResponse.getHeader("location"), redirectCount);
+            } catch (IOException redirectException) {
+                proxyResponse.close();
+                throw redirectException;
+            }
+
+            if (redirectRequest == null) {
+                return proxyResponse;
+            }
+
+            proxyResponse.close();
+            nextRequest = redirectRequest;
+        }
+    }
+
+    private ProxyResponse sendOnce(final ProxyRequest proxyRequest, final Subject subject) throws Exception {
+        final HttpRequest httpRequest = buildHttpRequest(proxyRequest, subject);
+        final String host = proxyRequest.getURL().getHost();
+        final Semaphore permits = getPermits(host);
+
+        if (!permits.tryAcquire(this.connectTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new TransientException("Too many concurrent requests to " + host + ".  Try again later.");
+        }
+
+        final EndpointMetrics endpointMetrics = PortalMetrics.forEndpoint(proxyRequest.getEndpoint());
+        final long sentNanos = System.nanoTime();
+        final HttpResponse<InputStream> httpResponse;
+        try {
+            httpResponse = this.httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (HttpTimeoutException timeoutException) {
+            permits.release();
+            throw new TransientException(
+                    "Timed out waiting for " + proxyRequest + ": " + timeoutException.getMessage());
+        } catch (IOException | InterruptedException | RuntimeException exception) {
+            permits.release();
+            throw exception;
+        }
+
+        final long headersNanos = System.nanoTime();
+        endpointMetrics.recordPhase(EndpointMetrics.Phase.UPSTREAM_TTFB, headersNanos - sentNanos);
+        endpointMetrics.recordStatus(httpResponse.statusCode());
+        ProxyTransport.checkCredentials(subject, httpResponse.statusCode());
+
+        final ProxyResponse proxyResponse =
+                new ProxyResponse(httpResponse.statusCode(), httpResponse.headers(), httpResponse.body(), byteCount -> {
+                    permits.release();
+                    endpointMetrics.recordBody(System.nanoTime() - headersNanos, byteCount);
+                });
+        checkStatus(proxyRequest, proxyResponse);
+        return proxyResponse;
+    }
+
+    /**
+     * Send the request with the credentials of the given Subject without waiting. The returned future completes once
+     * the response headers arrive, on one of the HTTP client's threads.
+     *
+     * @param proxyRequest The request to send.
+     * @param subject The Subject whose credentials to send. May be null for an anonymous request.
+     * @return Future of the response, whose body must be subscribed to and which must be released by the caller. It
+     *     fails with a TransientException on timeout.
+     * @throws Exception If the request is invalid, or the host is already at its concurrent request limit.
+     */
+    public CompletableFuture<AsyncProxyResponse> sendAsync(final ProxyRequest proxyRequest, final Subject subject)
+            throws Exception {
+        return sendAsync(proxyRequest, subject, 0);
+    }
+
+    private CompletableFuture<AsyncProxyResponse> sendAsync(
+            final ProxyRequest proxyRequest, final Subject subject, final int redirectCount) throws Exception {
+        final HttpRequest httpRequest = buildHttpRequest(proxyRequest, subject);
+        final String host = proxyRequest.getURL().getHost();
+        final Semaphore permits = getPermits(host);
+
+        // Never wait for a permit, as that would hold the very request thread this call is meant to free.
+        if (!permits.tryAcquire()) {
+            throw new TransientException("Too many concurrent requests to " + host + ".  Try again later.");
+        }
+
+        final EndpointMetrics endpointMetrics = PortalMetrics.forEndpoint(proxyRequest.getEndpoint());
+        final long sentNanos = System.nanoTime();
+        final CompletableFuture<HttpResponse<Flow.Publisher<List<ByteBuffer>>>> responseFuture;
+        try {
+            responseFuture = this.httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofPublisher());
+        } catch (RuntimeException runtimeException) {
+            permits.release();
+            throw runtimeException;
+        }
+
+        final CompletableFuture<AsyncProxyResponse> headersFuture = responseFuture.handle((httpResponse, throwable) -> {
+            if (throwable != null) {
+                permits.release();
+                final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                        ? throwable.getCause()
+                        : throwable;
+                if (cause instanceof HttpTimeoutException) {
+                    throw new CompletionException(new TransientException(
+                            "Timed out waiting for " + proxyRequest + ": " + cause.getMessage()));
+                }
+                throw new CompletionException(cause);
+            }
+
+            final long headersNanos = System.nanoTime();
+            endpointMetrics.recordPhase(EndpointMetrics.Phase.UPSTREAM_TTFB, headersNanos - sentNanos);
+            endpointMetrics.recordStatus(httpResponse.statusCode());
+            ProxyTransport.checkCredentials(subject, httpResponse.statusCode());
+
+            return new AsyncProxyResponse(
+                    httpResponse.statusCode(), httpResponse.headers(), httpResponse.body(), byteCount -> {
+                        permits.release();
+                        endpointMetrics.recordBody(System.nanoTime() - headersNanos, byteCount);
+                    });
+        });
+
+        return headersFuture.thenCompose(
+                asyncProxyResponse -> followRedirect(proxyRequest, subject, redirectCount, asyncProxyResponse));
+    }
+
+    private CompletableFuture<AsyncProxyResponse> followRedirect(
+            final ProxyRequest proxyRequest,
+            final Subject subject,
+            final int redirectCount,
+            final AsyncProxyResponse asyncProxyResponse) {
+        final ProxyRequest redirectRequest;
+        try {
+            redirectRequest = ProxyTransport.redirectRequest(
+                    proxyRequest,
+                    asyncProxyResponse.getStatusCode(),
+                    asyncProxyResponse.getHeader("location"),
+                    redirectCount);
+        } catch (IOException redirectException) {
+            ProxyTransport.discard(asyncProxyResponse);
+            return CompletableFuture.failedFuture(new CompletionException(redirectException));
+        }
+
+        if (redirectRequest == null) {
+            return CompletableFuture.completedFuture(asyncProxyResponse);
+        }
+
+        ProxyTransport.discard(asyncProxyResponse);
+        try {
+            return sendAsync(redirectRequest, subject, redirectCount + 1);
+        } catch (Exception exception) {
+            return CompletableFuture.failedFuture(new CompletionException(exception));
+        }
+    }
+
+    private static void discard(final AsyncProxyResponse asyncProxyResponse) {
+        asyncProxyResponse.getBody().subscribe(HttpResponse.BodySubscribers.discarding());
+        asyncProxyResponse.release();
+    }
+
+    /**
+     * Determine the request to send next when a response is a redirect. Only GET and DELETE requests are redirected,
+     * and never from https to http.
+     *
+     * @param proxyRequest The request that was sent.
+     * @param statusCode The response status code.
+     * @param location The response's Location header. May be null.
+     * @param redirectCount Number of redirects already followed for the original request.
+     * @return The request to send next, or null if the response is to be returned as it is.
+     * @throws IOException If the Location is invalid, or too many redirects were followed.
+     */
+    static ProxyRequest redirectRequest(
+            final ProxyRequest proxyRequest, final int statusCode, final String location, final int redirectCount)
+            throws IOException {
+        final String method = proxyRequest.getMethod();
+        if (!ProxyTransport.REDIRECT_STATUS_CODES.contains(statusCode)
+                || location == null
+                || !(ProxyRequest.GET.equals(method) || ProxyRequest.DELETE.equals(method))) {
+            return null;
+        } else if (redirectCount >= ProxyTransport.MAX_REDIRECTS) {
+            throw new IOException("Too many redirects from " + proxyRequest + ".");
+        }
+
+        final URL redirectURL;
+        try {
+            redirectURL =
+                    proxyRequest.getURL().toURI().resolve(new URI(location)).toURL();
+        } catch (URISyntaxException | IllegalArgumentException invalidLocationException) {
+            throw new IOException("Invalid redirect to " + location + " from " + proxyRequest + ".");
+        }
+
+        if ("https".equals(proxyRequest.getURL().getProtocol()) && !"https".equals(redirectURL.getProtocol())) {
+            return null;
+        }
+
+        return proxyRequest.redirectTo(statusCode == 303 ? ProxyRequest.GET : method, redirectURL);
+    }
+
+    /**
+     * Send the request and read the whole response body. Intended for small bodies that are cached or transformed.
+     *
+     * @param proxyRequest The request to send.
+     * @param subject The Subject whose credentials to send. May be null for an anonymous request.
+     * @return The response body. Never null.
+     * @throws Exception As for send().
+     */
+    public byte[] fetch(final ProxyRequest proxyRequest, final Subject subject) throws Exception {
+        try (final ProxyResponse proxyResponse = send(proxyRequest, subject)) {
+            return proxyResponse.getInputStream().readAllBytes();
+        }
+    }
+
+    /**
+     * Count the upstream requests holding a per-host permit, that is, awaiting or streaming a response.
+     *
+     * @return Number of requests in flight across all hosts.
+     */
+    public int getInFlightCount() {
+        int inFlightCount = 0;
+        for (final Semaphore permits : this.hostPermits.values()) {
+            inFlightCount += this.maxConcurrentRequestsPerHost - permits.availablePermits();
+        }
+        return inFlightCount;
+    }
+
+    private Semaphore getPermits(final String host) {
+        return this.hostPermits.computeIfAbsent(host, k -> new Semaphore(this.maxConcurrentRequestsPerHost, true));
+    }
+
+    HttpRequest buildHttpRequest(final ProxyRequest proxyRequest, final Subject subject) throws URISyntaxException {
+        final HttpRequest.Builder builder =
+                HttpRequest.newBuilder(proxyRequest.getURL().toURI()).timeout(this.readTimeout);
+
+        proxyRequest.getRequestProperties().forEach(builder::header);
+        addCredentials(builder, proxyRequest.getURL().getHost(), subject);
+
+        if (proxyRequest.hasFormBody()) {
+            builder.header("content-type", "application/x-www-form-urlencoded");
+            builder.method(
+                    proxyRequest.getMethod(), HttpRequest.BodyPublishers.ofString(proxyRequest.encodeFormBody()));
+        } else {
+            builder.method(proxyRequest.getMethod(), HttpRequest.BodyPublishers.noBody());
+        }
+
+        return builder.build();
+    }
+
+    private static void addCredentials(final HttpRequest.Builder builder, final String host, final Subject subject) {
+        if (subject == null) {
+            return;
+        }
+
+        for (final AuthorizationToken authorizationToken : subject.getPublicCredentials(AuthorizationToken.class)) {
+            if (ProxyTransport.matchesDomain(host, authorizationToken.getDomains())) {
+                builder.header(
+                        "authorization", authorizationToken.getType() + " " + authorizationToken.getCredentials());
+                return;
+            }
+        }
+
+        for (final SSOCookieCredential cookieCredential : subject.getPublicCredentials(SSOCookieCredential.class)) {
+            if (ProxyTransport.matchesDomain(host, List.of(cookieCredential.getDomain()))) {
+                builder.header(
+                        "cookie",
+                        SSOCookieManager.DEFAULT_SSO_COOKIE_NAME + "=\"" + cookieCredential.getSsoCookieValue() + "\"");
+                return;
+            }
+        }
+    }
+
+    // Drop cached access tokens the upstream refuses, so that a revoked or logged out token is not sent again.
+    private static void checkCredentials(final Subject subject, final int statusCode) {
+        if (subject != null && (statusCode == 401 || statusCode == 403)) {
+            subject.getPublicCredentials(AccessTokenCache.TokenSource.class)
+                    .forEach(AccessTokenCache.TokenSource::reject);
+        }
+    }
+
+    static boolean matchesDomain(final String host, final Iterable<String> domains) {
+        if (domains != null) {
+            for (final String domain : domains) {
+                if (domain != null && (host.equals(domain) || host.endsWith("." + domain))) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static void checkStatus(final ProxyRequest proxyRequest, final ProxyResponse proxyResponse)
+            throws Exception {
+        final int statusCode = proxyResponse.getStatusCode();
+        if (statusCode < 400) {
+            return;
+        }
+
+        final String message;
+        try (final ProxyResponse errorResponse = proxyResponse) {
+            // Requested with accept-encoding gzip when the browser accepts it.
+            final InputStream errorStream = "gzip".equalsIgnoreCase(errorResponse.getHeader("content-encoding"))
+                    ? new GZIPInputStream(errorResponse.getInputStream())
+                    : errorResponse.getInputStream();
+            final byte[] errorBody = errorStream.readNBytes(ProxyTransport.MAX_ERROR_MESSAGE_LENGTH);
+            message = new String(errorBody, StandardCharsets.UTF_8).trim();
+        }
+
+        LOGGER.debug("Upstream error " + statusCode + " from " + proxyRequest + ": " + message);
+        throw ProxyTransport.upstreamException(proxyRequest, statusCode, message);
+    }
+
+    /**
+     * Map an upstream error status to the exception the cadc-util HTTP clients throw for it, so that it is reported to
+     * the browser as before.
+     *
+     * @param proxyRequest The request that failed.
+     * @param statusCode The upstream status code, 400 or above.
+     * @param message The upstream error message.
+     * @return The Exception to report. Never null.
+     */
+    public static Exception upstreamException(
+            final ProxyRequest proxyRequest, final int statusCode, final String message) {
+        switch (statusCode) {
+            case 400:
+                return new IllegalArgumentException(message);
+            case 401:
+                return new NotAuthenticatedException(message);
+            case 403:
+                return new AccessControlException(message);
+            case 404:
+                return new ResourceNotFoundException(message);
+            case 409:
+                return new ResourceAlreadyExistsException(message);
+            case 412:
+                return new PreconditionFailedException(message);
+            case 503:
+                return new TransientException(message);
+            default:
+                return new IOException("HTTP " + statusCode + " from " + proxyRequest + ": " + message);
+        }
+    }
+}
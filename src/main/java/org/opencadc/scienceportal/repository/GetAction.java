@@ -68,20 +68,13 @@
 
 package org.opencadc.scienceportal.repository;
 
-import ca.nrc.cadc.auth.AuthMethod;
 import ca.nrc.cadc.reg.Standards;
-import ca.nrc.cadc.reg.client.RegistryClient;
-import java.net.URI;
 import java.net.URL;
-import org.opencadc.scienceportal.ApplicationConfiguration;
 import org.opencadc.scienceportal.SciencePortalAuthGetAction;
 
 public class GetAction extends SciencePortalAuthGetAction {
     @Override
     protected URL getAPIURL() {
-        final ApplicationConfiguration applicationConfiguration = new ApplicationConfiguration();
-        final URI apiServiceURI = URI.create(applicationConfiguration.getResourceID());
-        final RegistryClient registryClient = new RegistryClient();
-        return registryClient.getServiceURL(apiServiceURI, Standards.PLATFORM_REPO_1, AuthMethod.TOKEN);
+        return lookupServiceURL(Standards.PLATFORM_REPO_1);
     }
 }
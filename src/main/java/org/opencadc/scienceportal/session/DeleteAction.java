@@ -68,17 +68,14 @@
 
 package org.opencadc.scienceportal.session;
 
-import ca.nrc.cadc.auth.AuthMethod;
-import ca.nrc.cadc.net.HttpDelete;
 import ca.nrc.cadc.reg.Standards;
-import ca.nrc.cadc.reg.client.RegistryClient;
 import ca.nrc.cadc.util.StringUtil;
-import java.net.URI;
 import java.net.URL;
-import java.security.PrivilegedExceptionAction;
+import java.util.Collections;
 import javax.security.auth.Subject;
-import org.opencadc.scienceportal.ApplicationConfiguration;
 import org.opencadc.scienceportal.SciencePortalAuthAction;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
+import org.opencadc.scienceportal.proxy.ProxyTransport;
 
 public class DeleteAction extends SciencePortalAuthAction {
     @Override
@@ -90,19 +87,15 @@ public class DeleteAction extends SciencePortalAuthAction {
             final URL apiURL = new URL(getAPIURL().toExternalForm() + "/" + sessionID);
             final Subject authenticatedUser = getCurrentSubject(apiURL);
 
-            Subject.doAs(authenticatedUser, (PrivilegedExceptionAction<?>) () -> {
-                final HttpDelete httpDelete = new HttpDelete(apiURL, true);
-                httpDelete.prepare();
+            final ProxyRequest deleteRequest = newProxyRequest(ProxyRequest.DELETE, apiURL, Collections.emptyMap());
 
-                return null;
-            });
+            // Nothing to relay to the browser, so close the response straight away to release the connection.
+            ProxyTransport.getInstance().send(deleteRequest, authenticatedUser).close();
+            SessionStateHub.getInstance().invalidate(authenticatedUser);
         }
     }
 
     URL getAPIURL() {
-        final ApplicationConfiguration applicationConfiguration = new ApplicationConfiguration();
-        final URI apiServiceURI = URI.create(applicationConfiguration.getResourceID());
-        final RegistryClient registryClient = new RegistryClient();
-        return registryClient.getServiceURL(apiServiceURI, Standards.PLATFORM_SESSION_1, AuthMethod.TOKEN);
+        return lookupServiceURL(Standards.PLATFORM_SESSION_1);
     }
 }
@@ -68,15 +68,14 @@
 
 package org.opencadc.scienceportal.session;
 
-import ca.nrc.cadc.auth.AuthMethod;
 import ca.nrc.cadc.reg.Standards;
-import ca.nrc.cadc.reg.client.RegistryClient;
 import ca.nrc.cadc.util.StringUtil;
 import java.io.IOException;
-import java.net.URI;
 import java.net.URL;
-import org.opencadc.scienceportal.ApplicationConfiguration;
+import javax.security.auth.Subject;
+import org.opencadc.scienceportal.ETags;
 import org.opencadc.scienceportal.SciencePortalAuthGetAction;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
 
 public class GetAction extends SciencePortalAuthGetAction {
     protected String getEndpoint() {
@@ -97,12 +96,49 @@ public class GetAction extends SciencePortalAuthGetAction {
 
     @Override
     protected URL getAPIURL() throws IOException {
-        final ApplicationConfiguration applicationConfiguration = new ApplicationConfiguration();
-        final URI apiServiceURI = URI.create(applicationConfiguration.getResourceID());
-        final RegistryClient registryClient = new RegistryClient();
-        final URL sessionURL =
-                registryClient.getServiceURL(apiServiceURI, Standards.PLATFORM_SESSION_1, AuthMethod.TOKEN);
+        final URL sessionURL = lookupServiceURL(Standards.PLATFORM_SESSION_1);
 
         return new URL(sessionURL.toExternalForm() + getEndpoint());
     }
+
+    @Override
+    protected boolean isUpstreamParameter(final String parameterName) {
+        return StringUtil.hasText(getEndpoint()) || !SessionListView.isViewParameter(parameterName);
+    }
+
+    /**
+     * Answer session list requests from the user's shared snapshot. Requests for a single session, its logs or events
+     * go upstream directly. See SessionListView for the changes-only and limited-fields forms of the list.
+     */
+    @Override
+    protected void writeResponse(final ProxyRequest proxyRequest, final Subject subject) throws Exception {
+        if (StringUtil.hasText(getEndpoint())) {
+            super.writeResponse(proxyRequest, subject);
+            return;
+        }
+
+        final SessionStateHub sessionStateHub = SessionStateHub.getInstance();
+        final SessionListView sessionListView = new SessionListView(
+                this.syncInput.getParameter(SessionListView.SINCE_PARAMETER),
+                this.syncInput.getParameter(SessionListView.FIELDS_PARAMETER));
+        final SessionSnapshot sessionSnapshot = sessionStateHub.getSnapshot(proxyRequest, subject);
+
+        if (sessionListView.isVerbatim()) {
+            if (sessionSnapshot == null) {
+                super.writeResponse(proxyRequest, subject);
+            } else {
+                writeBody(sessionSnapshot.getBody(), sessionSnapshot.getETag());
+            }
+        } else if (sessionSnapshot == null) {
+            // Not shared, so there is no earlier version to compare with.
+            final byte[] body = sessionListView.render(SessionStateHub.fetchFromUpstream(proxyRequest, subject), null);
+            writeBody(body, ETags.strongETag(body));
+        } else {
+            final SessionSnapshot baseSnapshot = sessionListView.getSince() == null
+                    ? null
+                    : sessionStateHub.getRetainedSnapshot(proxyRequest, subject, sessionListView.getSince());
+            final byte[] body = sessionListView.render(sessionSnapshot, baseSnapshot);
+            writeBody(body, ETags.strongETag(body));
+        }
+    }
 }
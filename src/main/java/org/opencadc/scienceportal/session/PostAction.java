@@ -68,28 +68,22 @@
 
 package org.opencadc.scienceportal.session;
 
-import ca.nrc.cadc.auth.AuthMethod;
-import ca.nrc.cadc.net.HttpPost;
 import ca.nrc.cadc.reg.Standards;
-import ca.nrc.cadc.reg.client.RegistryClient;
 import ca.nrc.cadc.rest.SyncInput;
 import ca.nrc.cadc.util.Base64;
 import ca.nrc.cadc.util.StringUtil;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.MalformedURLException;
-import java.net.URI;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.security.PrivilegedActionException;
-import java.security.PrivilegedExceptionAction;
 import java.util.Map;
 import java.util.stream.Collectors;
 import javax.security.auth.Subject;
-import org.opencadc.scienceportal.ApplicationConfiguration;
 import org.opencadc.scienceportal.SciencePortalAuthAction;
+import org.opencadc.scienceportal.StreamCopier;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
+import org.opencadc.scienceportal.proxy.ProxyResponse;
+import org.opencadc.scienceportal.proxy.ProxyTransport;
 
 public class PostAction extends SciencePortalAuthAction {
     static final String SECRET_REQUEST_HEADER_NAME_TO_SKAHA = "x-skaha-registry-auth";
@@ -109,24 +103,19 @@ public class PostAction extends SciencePortalAuthAction {
     public void doAction() throws Exception {
         final URL apiURL = buildAPIURL();
         final Subject authenticatedUser = getCurrentSubject(apiURL);
-        final HttpPost httpPost = createPostRequest(apiURL);
+        final ProxyRequest postRequest = createPostRequest(apiURL);
 
-        try {
-            Subject.doAs(authenticatedUser, (PrivilegedExceptionAction<?>) () -> {
-                httpPost.prepare();
-                write(httpPost.getInputStream());
-
-                return null;
-            });
-        } catch (PrivilegedActionException privilegedActionException) {
-            throw privilegedActionException.getException();
+        try (final ProxyResponse proxyResponse = ProxyTransport.getInstance().send(postRequest, authenticatedUser)) {
+            // Launched or renewed, so the user's cached session list is out of date.
+            SessionStateHub.getInstance().invalidate(authenticatedUser);
+            write(proxyResponse.getInputStream());
         }
     }
 
-    HttpPost createPostRequest(final URL apiURL) {
+    ProxyRequest createPostRequest(final URL apiURL) {
         final Map<String, Object> payload = PostAction.collectPayload(this.syncInput);
 
-        final HttpPost httpPost = new HttpPost(apiURL, payload, false);
+        final ProxyRequest httpPost = newProxyRequest(ProxyRequest.POST, apiURL, payload);
 
         final String repositorySecret = syncInput.getHeader(PostAction.REPOSITORY_AUTH_SECRET_FROM_BROWSER);
         final String repositoryUsername = syncInput.getHeader(PostAction.REPOSITORY_AUTH_USERNAME_FROM_BROWSER);
@@ -182,18 +171,10 @@ public class PostAction extends SciencePortalAuthAction {
     }
 
     URL lookupAPIEndpoint() {
-        final ApplicationConfiguration applicationConfiguration = new ApplicationConfiguration();
-        final URI apiServiceURI = URI.create(applicationConfiguration.getResourceID());
-        final RegistryClient registryClient = new RegistryClient();
-        return registryClient.getServiceURL(apiServiceURI, Standards.PLATFORM_SESSION_1, AuthMethod.TOKEN);
+        return lookupServiceURL(Standards.PLATFORM_SESSION_1);
     }
 
     void write(final InputStream inputStream) throws IOException {
-        final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-        String line;
-        while ((line = reader.readLine()) != null) {
-            this.syncOutput.getOutputStream().write(line.getBytes(StandardCharsets.UTF_8));
-        }
-        this.syncOutput.getOutputStream().flush();
+        StreamCopier.copy(inputStream, this.syncOutput.getOutputStream());
     }
 }
@@ -0,0 +1,166 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal.session;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * A change to a user's session list, formatted as a Server-Sent Event. The first event on a stream carries the whole
+ * list; later events carry one added, removed, or changed session each.
+ */
+public class SessionEvent {
+    static final String SESSIONS = "sessions";
+    static final String SESSION_ADDED = "session-added";
+    static final String SESSION_REMOVED = "session-removed";
+    static final String SESSION_CHANGED = "session-changed";
+
+    private final String name;
+    private final String data;
+
+    SessionEvent(final String name, final String data) {
+        this.name = name;
+        this.data = data;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getData() {
+        return this.data;
+    }
+
+    /**
+     * Format this event for a text/event-stream response. The data is single-line JSON, so no escaping is needed.
+     *
+     * @return UTF-8 bytes of the event.
+     */
+    public byte[] toServerSentEvent() {
+        return ("event: " + this.name + "\ndata: " + this.data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Index a Skaha session list by session ID, preserving order.
+     *
+     * @param sessionListJSON The session list response body.
+     * @return Map of session ID to session. Never null.
+     */
+    static Map<String, JSONObject> index(final byte[] sessionListJSON) {
+        final JSONArray sessions = new JSONArray(new String(sessionListJSON, StandardCharsets.UTF_8));
+        final Map<String, JSONObject> sessionsByID = new LinkedHashMap<>();
+        for (int i = 0; i < sessions.length(); i++) {
+            final JSONObject session = sessions.getJSONObject(i);
+            sessionsByID.put(session.optString("id"), session);
+        }
+
+        return sessionsByID;
+    }
+
+    static SessionEvent sessions(final Map<String, JSONObject> sessionsByID) {
+        return new SessionEvent(SessionEvent.SESSIONS, new JSONArray(sessionsByID.values()).toString());
+    }
+
+    /**
+     * Compute the events that turn one session list into the next.
+     *
+     * @param previous The sessions last sent, by ID.
+     * @param current The latest sessions, by ID.
+     * @return Removals, then additions and changes in list order. Empty if nothing changed.
+     */
+    static List<SessionEvent> diff(final Map<String, JSONObject> previous, final Map<String, JSONObject> current) {
+        final List<SessionEvent> sessionEvents = new ArrayList<>();
+
+        for (final String sessionID : previous.keySet()) {
+            if (!current.containsKey(sessionID)) {
+                sessionEvents.add(new SessionEvent(
+                        SessionEvent.SESSION_REMOVED,
+                        new JSONObject().put("id", sessionID).toString()));
+            }
+        }
+
+        for (final Map.Entry<String, JSONObject> entry : current.entrySet()) {
+            final JSONObject previousSession = previous.get(entry.getKey());
+            if (previousSession == null) {
+                sessionEvents.add(new SessionEvent(
+                        SessionEvent.SESSION_ADDED, entry.getValue().toString()));
+            } else if (!previousSession.similar(entry.getValue())) {
+                sessionEvents.add(new SessionEvent(
+                        SessionEvent.SESSION_CHANGED, entry.getValue().toString()));
+            }
+        }
+
+        return sessionEvents;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal.session;
+
+import ca.nrc.cadc.auth.NotAuthenticatedException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.AccessControlException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * One browser's Server-Sent Event stream of session list changes. Events are queued as snapshots arrive and written
+ * with non-blocking I/O only while the container reports the output ready, so an open stream holds no thread while it
+ * waits for changes or for a slow client.
+ */
+class SessionEventStream implements SessionStateHub.SnapshotListener, WriteListener, AsyncListener {
+    private static final Logger LOGGER = LogManager.getLogger(SessionEventStream.class);
+
+    // Tells EventSource how long to wait, in milliseconds, before reconnecting.
+    private static final byte[] RETRY = "retry: 5000\n\n".getBytes(StandardCharsets.UTF_8);
+
+    // SSE comment line.  Keeps intermediaries from timing out an idle stream, and detects clients that went away.
+    static final byte[] KEEP_ALIVE = ": keep-alive\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream outputStream;
+    private final Consumer<SessionEventStream> onClose;
+    private final Queue<byte[]> pending = new ConcurrentLinkedQueue<>();
+
+    // Guarded by this.
+    private Map<String, JSONObject> sentSessions;
+    private boolean unflushed;
+
+    private volatile boolean closed;
+    private volatile Runnable unsubscribe;
+
+    SessionEventStream(
+            final AsyncContext asyncContext,
+            final ServletOutputStream outputStream,
+            final Consumer<SessionEventStream> onClose) {
+        this.asyncContext = asyncContext;
+        this.outputStream = outputStream;
+        this.onClose = onClose;
+        this.pending.add(SessionEventStream.RETRY);
+    }
+
+    /**
+     * Set the action that unsubscribes this stream from the hub. Runs it at once if the stream already closed.
+     *
+     * @param unsubscribe The unsubscribe action.
+     */
+    void setUnsubscribe(final Runnable unsubscribe) {
+        this.unsubscribe = unsubscribe;
+        if (this.closed) {
+            unsubscribe.run();
+        }
+    }
+
+    @Override
+    public synchronized void onSnapshot(final SessionSnapshot sessionSnapshot) {
+        if (this.closed) {
+            return;
+        }
+
+        try {
+            final Map<String, JSONObject> currentSessions = sessionSnapshot.getSessions();
+            if (this.sentSessions == null) {
+                this.pending.add(SessionEvent.sessions(currentSessions).toServerSentEvent());
+            } else {
+                SessionEvent.diff(this.sentSessions, currentSessions)
+                        .forEach(sessionEvent -> this.pending.add(sessionEvent.toServerSentEvent()));
+            }
+            this.sentSessions = currentSessions;
+        } catch (JSONException jsonException) {
+            LOGGER.warn("Unreadable session list from upstream: " + jsonException.getMessage());
+        }
+
+        drain();
+    }
+
+    @Override
+    public void onFailure(final Exception exception) {
+        if (exception instanceof NotAuthenticatedException || exception instanceof AccessControlException) {
+            // The credentials expired or were revoked.  Closing lets the browser reconnect with its current cookies.
+            close();
+        }
+    }
+
+    void keepAlive() {
+        this.pending.add(SessionEventStream.KEEP_ALIVE);
+        drain();
+    }
+
+    @Override
+    public void onWritePossible() {
+        drain();
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        LOGGER.debug("Session event stream write failed: " + throwable.getMessage());
+        close();
+    }
+
+    @Override
+    public void onComplete(final AsyncEvent asyncEvent) {
+        close();
+    }
+
+    @Override
+    public void onTimeout(final AsyncEvent asyncEvent) {
+        close();
+    }
+
+    @Override
+    public void onError(final AsyncEvent asyncEvent) {
+        close();
+    }
+
+    @Override
+    public void onStartAsync(final AsyncEvent asyncEvent) {
+        // Not restarted.
+    }
+
+    /**
+     * Write queued events until the queue is empty or the output would block. In the latter case the container calls
+     * onWritePossible once it can accept more.
+     */
+    private synchronized void drain() {
+        if (this.closed) {
+            return;
+        }
+
+        try {
+            while (this.outputStream.isReady()) {
+                final byte[] next = this.pending.poll();
+                if (next == null) {
+                    if (this.unflushed) {
+                        this.unflushed = false;
+                        this.outputStream.flush();
+                    }
+                    return;
+                }
+
+                this.outputStream.write(next);
+                this.unflushed = true;
+            }
+        } catch (IOException | IllegalStateException writeException) {
+            LOGGER.debug("Session event stream closed by client: " + writeException.getMessage());
+            close();
+        }
+    }
+
+    synchronized void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+
+        final Runnable currentUnsubscribe = this.unsubscribe;
+        if (currentUnsubscribe != null) {
+            currentUnsubscribe.run();
+        }
+        this.pending.clear();
+        this.onClose.accept(this);
+
+        try {
+            this.asyncContext.complete();
+        } catch (IllegalStateException alreadyCompleteException) {
+            // Completed by the container.
+        }
+    }
+}
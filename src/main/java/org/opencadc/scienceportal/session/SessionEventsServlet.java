@@ -0,0 +1,222 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal.session;
+
+import ca.nrc.cadc.auth.AuthMethod;
+import ca.nrc.cadc.auth.AuthenticationUtil;
+import ca.nrc.cadc.auth.NotAuthenticatedException;
+import ca.nrc.cadc.auth.ServletPrincipalExtractor;
+import ca.nrc.cadc.net.TransientException;
+import ca.nrc.cadc.reg.Standards;
+import ca.nrc.cadc.util.StringUtil;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.security.auth.Subject;
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opencadc.scienceportal.ApplicationConfiguration;
+import org.opencadc.scienceportal.BackgroundTasks;
+import org.opencadc.scienceportal.ProxyServlet;
+import org.opencadc.scienceportal.SciencePortalAuthAction;
+import org.opencadc.scienceportal.ServiceURLResolver;
+import org.opencadc.scienceportal.cache.CacheKeys;
+import org.opencadc.scienceportal.metrics.PortalMetrics;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
+
+/**
+ * Streams changes to the user's session list as Server-Sent Events. Each stream subscribes to the user's poller in the
+ * SessionStateHub, so any number of open tabs share one upstream poll. Streams use asynchronous, non-blocking I/O and
+ * hold no request thread while idle.
+ *
+ * <p>The stream opens with a "sessions" event carrying the whole list, followed by "session-added", "session-removed",
+ * and "session-changed" events as the list changes. Streams are closed after the configured timeout, or when the user's
+ * credentials are rejected upstream, and the browser reconnects with its current cookies.
+ */
+public class SessionEventsServlet extends HttpServlet {
+    private static final Logger LOGGER = LogManager.getLogger(SessionEventsServlet.class);
+
+    private static final long KEEP_ALIVE_INTERVAL_SECONDS = 30L;
+
+    private static final Set<SessionEventStream> OPEN_STREAMS = ConcurrentHashMap.newKeySet();
+
+    private transient ScheduledFuture<?> keepAliveTask;
+
+    @Override
+    public void init() {
+        this.keepAliveTask = BackgroundTasks.scheduler()
+                .scheduleWithFixedDelay(
+                        () -> SessionEventsServlet.OPEN_STREAMS.forEach(SessionEventStream::keepAlive),
+                        SessionEventsServlet.KEEP_ALIVE_INTERVAL_SECONDS,
+                        SessionEventsServlet.KEEP_ALIVE_INTERVAL_SECONDS,
+                        TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (this.keepAliveTask != null) {
+            this.keepAliveTask.cancel(false);
+        }
+        SessionEventsServlet.OPEN_STREAMS.forEach(SessionEventStream::close);
+    }
+
+    @Override
+    protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        final ApplicationConfiguration applicationConfiguration = ApplicationConfiguration.getInstance();
+        final SessionStateHub sessionStateHub = SessionStateHub.getInstance();
+
+        if (!sessionStateHub.isEnabled()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Session events are not enabled.");
+            return;
+        }
+
+        final ProxyRequest proxyRequest;
+        final Subject subject;
+        try {
+            final URL sessionURL = ServiceURLResolver.getInstance()
+                    .getServiceURL(
+                            URI.create(applicationConfiguration.getResourceID()),
+                            Standards.PLATFORM_SESSION_1,
+                            AuthMethod.TOKEN);
+            if (sessionURL == null) {
+                throw new TransientException("Session service not found in the Registry.");
+            }
+
+            // Same URL as the browser's list request, so both share one poller.
+            final String queryString = request.getQueryString();
+            proxyRequest = new ProxyRequest(
+                    ProxyRequest.GET,
+                    new URL(sessionURL.toExternalForm() + (StringUtil.hasText(queryString) ? "?" + queryString : "")));
+            proxyRequest.setRequestProperty("accept", "application/json");
+            proxyRequest.setEndpoint(PortalMetrics.endpointName(GetAction.class));
+
+            subject = SciencePortalAuthAction.resolveSubject(
+                    request.getHeader("cookie"),
+                    AuthenticationUtil.getSubject(new ServletPrincipalExtractor(request)),
+                    sessionURL,
+                    applicationConfiguration);
+
+            if (CacheKeys.forSubject(subject) == null) {
+                throw new NotAuthenticatedException("Session events require authentication.");
+            }
+
+            // Report upstream failures as a status code, which stops EventSource from reconnecting in a loop.
+            sessionStateHub.getSnapshot(proxyRequest, subject);
+        } catch (Exception exception) {
+            sendError(response, exception);
+            return;
+        }
+
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("cache-control", "no-cache");
+        // Disable response buffering in nginx style reverse proxies.
+        response.setHeader("x-accel-buffering", "no");
+
+        final AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(
+                TimeUnit.SECONDS.toMillis(applicationConfiguration.getSessionEventStreamTimeoutSeconds()));
+
+        final SessionEventStream sessionEventStream = new SessionEventStream(
+                asyncContext, response.getOutputStream(), SessionEventsServlet.OPEN_STREAMS::remove);
+
+        SessionEventsServlet.OPEN_STREAMS.add(sessionEventStream);
+        asyncContext.addListener(sessionEventStream);
+        response.getOutputStream().setWriteListener(sessionEventStream);
+
+        try {
+            sessionEventStream.setUnsubscribe(sessionStateHub.subscribe(proxyRequest, subject, sessionEventStream));
+        } catch (Exception exception) {
+            // The response is already committed.  Closing makes the browser reconnect after the retry interval.
+            LOGGER.warn("Unable to subscribe to session list: " + exception.getMessage());
+            sessionEventStream.close();
+        }
+    }
+
+    public static int getOpenStreamCount() {
+        return SessionEventsServlet.OPEN_STREAMS.size();
+    }
+
+    private static void sendError(final HttpServletResponse response, final Exception exception) throws IOException {
+        final int statusCode = ProxyServlet.statusCode(exception);
+        if (statusCode == HttpServletResponse.SC_INTERNAL_SERVER_ERROR) {
+            LOGGER.error("Unable to open session event stream.", exception);
+        }
+
+        response.sendError(statusCode, exception.getMessage());
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+package org.opencadc.scienceportal.session;
+
+import ca.nrc.cadc.util.StringUtil;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * What a client asked to see of its session list. By default, the list is sent exactly as Skaha returned it. The
+ * "fields" parameter (comma separated) limits each session to the named fields, and "since" asks for the changes since
+ * a version the client already has:
+ *
+ * <pre>
+ * {"version": "...", "full": false, "sessions": [added or changed sessions], "removed": ["session ID", ...]}
+ * </pre>
+ *
+ * <p>If the version is not known, for example because it is too old, "full" is true and "sessions" holds the whole
+ * list, which replaces whatever the client has. Session IDs are always included, whatever the fields.
+ */
+final class SessionListView {
+    static final String SINCE_PARAMETER = "since";
+    static final String FIELDS_PARAMETER = "fields";
+
+    private static final String ID_FIELD = "id";
+
+    private final String since;
+    private final Set<String> fields;
+
+    SessionListView(final String since, final String fields) {
+        this.since = StringUtil.hasText(since) ? since.trim() : null;
+        this.fields = StringUtil.hasText(fields)
+                ? Arrays.stream(fields.split(","))
+                        .map(String::trim)
+                        .filter(StringUtil::hasText)
+                        .collect(Collectors.toUnmodifiableSet())
+                : null;
+    }
+
+    static boolean isViewParameter(final String parameterName) {
+        return SessionListView.SINCE_PARAMETER.equals(parameterName)
+                || SessionListView.FIELDS_PARAMETER.equals(parameterName);
+    }
+
+    /**
+     * Whether the upstream body can be sent as it is.
+     *
+     * @return True if neither changes nor fields were asked for.
+     */
+    boolean isVerbatim() {
+        return this.since == null && this.fields == null;
+    }
+
+    String getSince() {
+        return this.since;
+    }
+
+    /**
+     * Render the session list for this view.
+     *
+     * @param current The latest session list.
+     * @param base The session list at the client's version, or null if not known. Ignored unless changes were asked
+     *     for.
+     * @return The JSON response body.
+     */
+    byte[] render(final SessionSnapshot current, final SessionSnapshot base) {
+        final Map<String, JSONObject> currentSessions = current.getSessions();
+        final String json;
+
+        if (this.since == null) {
+            final JSONArray sessions = new JSONArray();
+            currentSessions.values().forEach(session -> sessions.put(project(session)));
+            json = sessions.toString();
+        } else {
+            final JSONArray sessions = new JSONArray();
+            final JSONArray removed = new JSONArray();
+
+            if (base == null) {
+                currentSessions.values().forEach(session -> sessions.put(project(session)));
+            } else {
+                final Map<String, JSONObject> baseSessions = base.getSessions();
+                for (final String sessionID : baseSessions.keySet()) {
+                    if (!currentSessions.containsKey(sessionID)) {
+                        removed.put(sessionID);
+                    }
+                }
+
+                for (final Map.Entry<String, JSONObject> entry : currentSessions.entrySet()) {
+                    final JSONObject session = project(entry.getValue());
+                    final JSONObject baseSession = baseSessions.get(entry.getKey());
+                    // Changes to fields the client did not ask for are not changes to it.
+                    if (baseSession == null || !project(baseSession).similar(session)) {
+                        sessions.put(session);
+                    }
+                }
+            }
+
+            json = new JSONObject()
+                    .put("version", current.getVersion())
+                    .put("full", base == null)
+                    .put("sessions", sessions)
+                    .put("removed", removed)
+                    .toString();
+        }
+
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private JSONObject project(final JSONObject session) {
+        if (this.fields == null) {
+            return session;
+        }
+
+        final JSONObject projected = new JSONObject();
+        projected.put(SessionListView.ID_FIELD, session.opt(SessionListView.ID_FIELD));
+        for (final String field : this.fields) {
+            final Object value = session.opt(field);
+            if (value != null) {
+                projected.put(field, value);
+            }
+        }
+
+        return projected;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal.session;
+
+import java.util.Collections;
+import java.util.Map;
+import org.json.JSONObject;
+import org.opencadc.scienceportal.ETags;
+
+/**
+ * One upstream response to a session list request. Snapshots are immutable and shared between all requests from the
+ * same user, so the body must not be modified.
+ */
+public class SessionSnapshot {
+    private final byte[] body;
+    private final String contentType;
+    private final long fetchedAtNanos;
+
+    // Computed on first use, then shared by every request served from this snapshot.
+    private volatile String etag;
+    private volatile Map<String, JSONObject> sessions;
+
+    SessionSnapshot(final byte[] body, final String contentType, final long fetchedAtNanos) {
+        this.body = body;
+        this.contentType = contentType;
+        this.fetchedAtNanos = fetchedAtNanos;
+    }
+
+    public byte[] getBody() {
+        return this.body;
+    }
+
+    public String getContentType() {
+        return this.contentType;
+    }
+
+    /**
+     * Obtain the strong entity tag of the body, computing it once.
+     *
+     * @return Quoted entity tag. Never null.
+     */
+    public String getETag() {
+        String currentETag = this.etag;
+        if (currentETag == null) {
+            currentETag = ETags.strongETag(this.body);
+            this.etag = currentETag;
+        }
+
+        return currentETag;
+    }
+
+    /**
+     * Obtain the version of this snapshot, which identifies its content, for clients asking for changes since then.
+     *
+     * @return The entity tag without its quotes. Never null.
+     */
+    public String getVersion() {
+        final String currentETag = getETag();
+        return currentETag.substring(1, currentETag.length() - 1);
+    }
+
+    /**
+     * Obtain the sessions in the body, by ID and in list order, parsing it once. The returned objects are shared and
+     * must not be modified.
+     *
+     * @return Unmodifiable Map of session ID to session. Never null.
+     * @throws org.json.JSONException If the body is not a JSON array of sessions.
+     */
+    public Map<String, JSONObject> getSessions() {
+        Map<String, JSONObject> currentSessions = this.sessions;
+        if (currentSessions == null) {
+            currentSessions = Collections.unmodifiableMap(SessionEvent.index(this.body));
+            this.sessions = currentSessions;
+        }
+
+        return currentSessions;
+    }
+
+    public long getFetchedAtNanos() {
+        return this.fetchedAtNanos;
+    }
+
+    /**
+     * Obtain how long ago this snapshot was fetched.
+     *
+     * @param nowNanos The current System.nanoTime().
+     * @return Age in nanoseconds.
+     */
+    public long getAgeNanos(final long nowNanos) {
+        return nowNanos - this.fetchedAtNanos;
+    }
+}
@@ -0,0 +1,625 @@
+/*
+ ************************************************************************
+ *******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+ **************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+ *
+ *  (c) 2026.                            (c) 2026.
+ *  Government of Canada                 Gouvernement du Canada
+ *  National Research Council            Conseil national de recherches
+ *  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+ *  All rights reserved                  Tous droits réservés
+ *
+ *  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+ *  expressed, implied, or               énoncée, implicite ou légale,
+ *  statutory, of any kind with          de quelque nature que ce
+ *  respect to the software,             soit, concernant le logiciel,
+ *  including without limitation         y compris sans restriction
+ *  any warranty of merchantability      toute garantie de valeur
+ *  or fitness for a particular          marchande ou de pertinence
+ *  purpose. NRC shall not be            pour un usage particulier.
+ *  liable in any event for any          Le CNRC ne pourra en aucun cas
+ *  damages, whether direct or           être tenu responsable de tout
+ *  indirect, special or general,        dommage, direct ou indirect,
+ *  consequential or incidental,         particulier ou général,
+ *  arising from the use of the          accessoire ou fortuit, résultant
+ *  software.  Neither the name          de l'utilisation du logiciel. Ni
+ *  of the National Research             le nom du Conseil National de
+ *  Council of Canada nor the            Recherches du Canada ni les noms
+ *  names of its contributors may        de ses  participants ne peuvent
+ *  be used to endorse or promote        être utilisés pour approuver ou
+ *  products derived from this           promouvoir les produits dérivés
+ *  software without specific prior      de ce logiciel sans autorisation
+ *  written permission.                  préalable et particulière
+ *                                       par écrit.
+ *
+ *  This file is part of the             Ce fichier fait partie du projet
+ *  OpenCADC project.                    OpenCADC.
+ *
+ *  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+ *  you can redistribute it and/or       vous pouvez le redistribuer ou le
+ *  modify it under the terms of         modifier suivant les termes de
+ *  the GNU Affero General Public        la “GNU Affero General Public
+ *  License as published by the          License” telle que publiée
+ *  Free Software Foundation,            par la Free Software Foundation
+ *  either version 3 of the              : soit la version 3 de cette
+ *  License, or (at your option)         licence, soit (à votre gré)
+ *  any later version.                   toute version ultérieure.
+ *
+ *  OpenCADC is distributed in the       OpenCADC est distribué
+ *  hope that it will be useful,         dans l’espoir qu’il vous
+ *  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+ *  without even the implied             GARANTIE : sans même la garantie
+ *  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+ *  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+ *  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+ *  General Public License for           Générale Publique GNU Affero
+ *  more details.                        pour plus de détails.
+ *
+ *  You should have received             Vous devriez avoir reçu une
+ *  a copy of the GNU Affero             copie de la Licence Générale
+ *  General Public License along         Publique GNU Affero avec
+ *  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+ *  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+ *                                       <http://www.gnu.org/licenses/>.
+ *
+ *
+ ************************************************************************
+ */
+
+package org.opencadc.scienceportal.session;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import javax.security.auth.Subject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opencadc.scienceportal.ApplicationConfiguration;
+import org.opencadc.scienceportal.BackgroundTasks;
+import org.opencadc.scienceportal.cache.CacheKeys;
+import org.opencadc.scienceportal.cache.RefreshingCache;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
+import org.opencadc.scienceportal.proxy.ProxyResponse;
+import org.opencadc.scienceportal.proxy.ProxyTransport;
+
+/**
+ * Fans in session list requests so that each user costs at most one upstream call per poll interval, however many
+ * browser tabs they have open. A request for a user's session list starts a poller that refreshes a shared snapshot
+ * every poll interval, and subsequent requests are answered from that snapshot. The poller runs while a listener is
+ * subscribed, or for two poll intervals after the last request, so that a browser polling the list on its own costs no
+ * more upstream calls than it makes. Listeners are told of each snapshot that differs from the previous one, which lets
+ * changes be pushed to the browser.
+ *
+ * <p>After the poller stops, the user's recent lists are kept without polling until the idle timeout, so that the
+ * changes since one of them can still be answered. Upstream calls are made on a small pool of their own, as they block;
+ * the shared scheduler only times the polls.
+ *
+ * <p>Users are identified by the credential the portal forwards upstream (token or SSO cookie), hashed, together with
+ * the upstream URL so that different views of the list are polled separately. Requests without credentials are not
+ * shared.
+ *
+ * <p>A user's own launches, renewals and deletions through the portal invalidate their snapshots, so the list they load
+ * next reflects the change rather than the last poll.
+ */
+public class SessionStateHub {
+    private static final Logger LOGGER = LogManager.getLogger(SessionStateHub.class);
+
+    // A snapshot older than this many poll intervals, for example because the poller fell behind, is not served.
+    private static final int MAX_SNAPSHOT_AGE_INTERVALS = 5;
+
+    // Number of distinct recent lists kept per user, against which changes can be computed.
+    private static final int RETAINED_SNAPSHOTS = 8;
+
+    // Poll intervals without a request after which a poller with no listeners stops.
+    private static final int IDLE_POLL_INTERVALS = 2;
+
+    // Upstream calls in progress at once.  Each user has at most one poll queued, so the queue bounds polling users.
+    private static final int POLL_POOL_SIZE = 8;
+    private static final int POLL_QUEUE_CAPACITY = 4096;
+
+    private static final ExecutorService POLL_EXECUTOR_SERVICE = new ThreadPoolExecutor(
+            SessionStateHub.POLL_POOL_SIZE,
+            SessionStateHub.POLL_POOL_SIZE,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(SessionStateHub.POLL_QUEUE_CAPACITY),
+            new DaemonThreadFactory());
+
+    private static final SessionStateHub INSTANCE = new SessionStateHub(
+            Duration.ofMillis(ApplicationConfiguration.getInstance().getSessionPollIntervalMilliseconds()),
+            Duration.ofSeconds(ApplicationConfiguration.getInstance().getSessionPollIdleTimeoutSeconds()),
+            BackgroundTasks.scheduler(),
+            SessionStateHub.POLL_EXECUTOR_SERVICE,
+            SessionStateHub::fetchFromUpstream);
+
+    private final long pollIntervalNanos;
+    private final long idleTimeoutNanos;
+    private final ScheduledExecutorService scheduler;
+    private final Executor pollExecutor;
+    private final Fetcher fetcher;
+    private final Map<String, UserSessionState> userSessionStates = new ConcurrentHashMap<>();
+
+    private final LongAdder snapshotHits = new LongAdder();
+    private final LongAdder upstreamFetches = new LongAdder();
+    private final LongAdder pollFailures = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param pollInterval How often a user's list is polled while it is in use.
+     * @param idleTimeout How long a user's recent lists are kept after their last request.
+     * @param scheduler Times the polls. Its tasks do not block.
+     * @param pollExecutor Runs the upstream calls.
+     * @param fetcher Fetches a session list from upstream.
+     */
+    SessionStateHub(
+            final Duration pollInterval,
+            final Duration idleTimeout,
+            final ScheduledExecutorService scheduler,
+            final Executor pollExecutor,
+            final Fetcher fetcher) {
+        this.pollIntervalNanos = pollInterval.toNanos();
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.scheduler = scheduler;
+        this.pollExecutor = pollExecutor;
+        this.fetcher = fetcher;
+    }
+
+    public static SessionStateHub getInstance() {
+        return SessionStateHub.INSTANCE;
+    }
+
+    /** Stop the upstream polling threads. Called when the web application is shut down. */
+    public static void shutdown() {
+        SessionStateHub.POLL_EXECUTOR_SERVICE.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return this.pollIntervalNanos > 0L;
+    }
+
+    /**
+     * Obtain the latest session list for the given request, starting a poller for the user if needed.
+     *
+     * @param proxyRequest The upstream session list request.
+     * @param subject The Subject whose credentials to poll with. The most recent request's credentials are used.
+     * @return The latest snapshot, or null if the request cannot be shared and should be sent upstream directly.
+     * @throws Exception If no usable snapshot exists and fetching one fails.
+     */
+    public SessionSnapshot getSnapshot(final ProxyRequest proxyRequest, final Subject subject) throws Exception {
+        final String key = keyFor(proxyRequest, subject);
+        if (key == null) {
+            return null;
+        }
+
+        while (true) {
+            final UserSessionState userSessionState =
+                    this.userSessionStates.computeIfAbsent(key, k -> new UserSessionState(k, proxyRequest));
+            if (userSessionState.touch(subject, null)) {
+                return userSessionState.getSnapshot();
+            }
+            // The poller stopped between the lookup and the touch, so start over with a fresh state.
+        }
+    }
+
+    /**
+     * Subscribe to changes in the session list for the given request. The listener is first given the latest snapshot,
+     * then every later snapshot whose content differs, until unsubscribed. The first snapshot may be delivered twice,
+     * so listeners must compare content rather than count calls. The user's poller keeps running while any listener is
+     * subscribed.
+     *
+     * @param proxyRequest The upstream session list request.
+     * @param subject The Subject whose credentials to poll with.
+     * @param snapshotListener The listener to notify. Called from the poller thread, so it must not block.
+     * @return Runnable that unsubscribes, or null if the request cannot be shared.
+     * @throws Exception If no snapshot exists yet and fetching the first one fails. The listener is not subscribed.
+     */
+    public Runnable subscribe(
+            final ProxyRequest proxyRequest, final Subject subject, final SnapshotListener snapshotListener)
+            throws Exception {
+        final String key = keyFor(proxyRequest, subject);
+        if (key == null) {
+            return null;
+        }
+
+        while (true) {
+            final UserSessionState userSessionState =
+                    this.userSessionStates.computeIfAbsent(key, k -> new UserSessionState(k, proxyRequest));
+            if (userSessionState.touch(subject, snapshotListener)) {
+                final Runnable unsubscribe = () -> userSessionState.listeners.remove(snapshotListener);
+                try {
+                    snapshotListener.onSnapshot(userSessionState.getSnapshot());
+                } catch (Exception | Error throwable) {
+                    unsubscribe.run();
+                    throw throwable;
+                }
+                return unsubscribe;
+            }
+        }
+    }
+
+    /**
+     * Find one of the user's recent session lists by version, so that the changes since then can be sent rather than
+     * the whole list. The most recent distinct lists are kept while the user's poller runs.
+     *
+     * @param proxyRequest The upstream session list request.
+     * @param subject The requesting Subject.
+     * @param version The version, as given by SessionSnapshot.getVersion().
+     * @return The matching snapshot, or null if it is not known.
+     */
+    public SessionSnapshot getRetainedSnapshot(
+            final ProxyRequest proxyRequest, final Subject subject, final String version) {
+        final String key = keyFor(proxyRequest, subject);
+        final UserSessionState userSessionState = key == null ? null : this.userSessionStates.get(key);
+        return userSessionState == null ? null : userSessionState.findRetained(version);
+    }
+
+    /**
+     * Discard the session list snapshots of the given Subject's credential after it has changed the list (launched,
+     * renewed or deleted a session). The next request for the list goes upstream, and snapshots with subscribers are
+     * refreshed straight away so that the change is pushed without waiting for the next poll.
+     *
+     * @param subject The Subject whose credentials made the change. May be null.
+     */
+    public void invalidate(final Subject subject) {
+        final String credentialKey = CacheKeys.forSubject(subject);
+        if (!isEnabled() || credentialKey == null) {
+            return;
+        }
+
+        final String keyPrefix = credentialKey + " ";
+        this.userSessionStates.forEach((key, userSessionState) -> {
+            if (key.startsWith(keyPrefix)) {
+                userSessionState.invalidate();
+                this.invalidations.increment();
+            }
+        });
+    }
+
+    public int getActiveUserCount() {
+        return this.userSessionStates.size();
+    }
+
+    public int getSubscriberCount() {
+        return this.userSessionStates.values().stream()
+                .mapToInt(userSessionState -> userSessionState.listeners.size())
+                .sum();
+    }
+
+    public long getSnapshotHitCount() {
+        return this.snapshotHits.sum();
+    }
+
+    public long getUpstreamFetchCount() {
+        return this.upstreamFetches.sum();
+    }
+
+    public long getPollFailureCount() {
+        return this.pollFailures.sum();
+    }
+
+    public long getInvalidationCount() {
+        return this.invalidations.sum();
+    }
+
+    private String keyFor(final ProxyRequest proxyRequest, final Subject subject) {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        final String credentialKey = CacheKeys.forSubject(subject);
+        return credentialKey == null
+                ? null
+                : credentialKey + " " + proxyRequest.getURL().toExternalForm();
+    }
+
+    static SessionSnapshot fetchFromUpstream(final ProxyRequest proxyRequest, final Subject subject) throws Exception {
+        try (final ProxyResponse proxyResponse = ProxyTransport.getInstance().send(proxyRequest, subject)) {
+            return new SessionSnapshot(
+                    proxyResponse.getInputStream().readAllBytes(), proxyResponse.getContentType(), System.nanoTime());
+        }
+    }
+
+    /** Receives session list snapshots for one user. */
+    public interface SnapshotListener {
+        /**
+         * Called with the latest snapshot on subscription, then whenever the content changes.
+         *
+         * @param sessionSnapshot The new snapshot.
+         */
+        void onSnapshot(SessionSnapshot sessionSnapshot);
+
+        /**
+         * Called when a background poll fails. Polling continues.
+         *
+         * @param exception The failure, mapped as for a direct upstream request.
+         */
+        void onFailure(Exception exception);
+    }
+
+    /** Fetches one session list snapshot from upstream. */
+    @FunctionalInterface
+    interface Fetcher {
+        SessionSnapshot fetch(ProxyRequest proxyRequest, Subject subject) throws Exception;
+    }
+
+    private final class UserSessionState {
+        private final String key;
+        private final ProxyRequest proxyRequest;
+        private final AtomicReference<CompletableFuture<SessionSnapshot>> inFlight = new AtomicReference<>();
+        private final Set<SnapshotListener> listeners = new CopyOnWriteArraySet<>();
+
+        private volatile Subject subject;
+        private volatile SessionSnapshot snapshot;
+        private volatile boolean lastFetchFailed;
+        private volatile long lastAccessNanos;
+
+        // Set when the user changes their sessions, and cleared by the first snapshot fetched after that.  The
+        // generation tells fetches that started before the change, whose results are not kept, from those after.
+        private volatile boolean invalidated;
+        private volatile long generation;
+
+        // Set while a poll is queued or running, so that a slow upstream does not pile up polls.
+        private final AtomicBoolean pollPending = new AtomicBoolean();
+
+        // Guarded by this.
+        private ScheduledFuture<?> poller;
+        private long pollerStartedNanos;
+        private boolean stopped;
+        private final Deque<SessionSnapshot> retained = new ArrayDeque<>();
+
+        UserSessionState(final String key, final ProxyRequest proxyRequest) {
+            this.key = key;
+            this.proxyRequest = proxyRequest;
+        }
+
+        /**
+         * Record a request for this user's list, starting the poller if it is not running.
+         *
+         * @param requestSubject The requesting Subject, whose credentials are used for subsequent polls.
+         * @param snapshotListener A listener to subscribe, or null.
+         * @return True if this state is live, False if its poller has already stopped.
+         */
+        synchronized boolean touch(final Subject requestSubject, final SnapshotListener snapshotListener) {
+            if (this.stopped) {
+                return false;
+            }
+
+            this.subject = requestSubject;
+            this.lastAccessNanos = System.nanoTime();
+            if (snapshotListener != null) {
+                this.listeners.add(snapshotListener);
+            }
+
+            if (this.poller == null) {
+                try {
+                    this.poller = SessionStateHub.this.scheduler.scheduleWithFixedDelay(
+                            this::tick,
+                            SessionStateHub.this.pollIntervalNanos,
+                            SessionStateHub.this.pollIntervalNanos,
+                            TimeUnit.NANOSECONDS);
+                    this.pollerStartedNanos = System.nanoTime();
+                } catch (RejectedExecutionException rejectedExecutionException) {
+                    // Shutting down.  Requests are still answered, each with its own upstream call.
+                    LOGGER.debug("Session poller not started: " + rejectedExecutionException.getMessage());
+                }
+            }
+
+            return true;
+        }
+
+        SessionSnapshot getSnapshot() throws Exception {
+            // Read before the snapshot, so that a snapshot older than an invalidation is never taken as current.
+            final boolean stale = this.invalidated;
+            final SessionSnapshot current = this.snapshot;
+            if (current != null && !stale && !this.lastFetchFailed && isFresh(current, System.nanoTime())) {
+                SessionStateHub.this.snapshotHits.increment();
+                return current;
+            }
+
+            return fetch();
+        }
+
+        /**
+         * A snapshot fetched while the poller runs is kept up to date by it, unless the poller falls well behind. One
+         * fetched before the poller started is only as current as its age.
+         */
+        private synchronized boolean isFresh(final SessionSnapshot current, final long nowNanos) {
+            final long ageNanos = current.getAgeNanos(nowNanos);
+            final boolean polled = this.poller != null && nowNanos - ageNanos - this.pollerStartedNanos >= 0L;
+            return ageNanos
+                    < SessionStateHub.this.pollIntervalNanos
+                            * (polled ? SessionStateHub.MAX_SNAPSHOT_AGE_INTERVALS : 1);
+        }
+
+        /** Fetch a new snapshot, sharing the fetch with any already in flight. */
+        SessionSnapshot fetch() throws Exception {
+            final CompletableFuture<SessionSnapshot> created = new CompletableFuture<>();
+            final CompletableFuture<SessionSnapshot> existing = this.inFlight.compareAndExchange(null, created);
+            if (existing != null) {
+                return RefreshingCache.await(existing);
+            }
+
+            try {
+                SessionStateHub.this.upstreamFetches.increment();
+                final long fetchGeneration = this.generation;
+                final SessionSnapshot fetched = SessionStateHub.this.fetcher.fetch(this.proxyRequest, this.subject);
+                final SessionSnapshot previous = this.snapshot;
+                final boolean published = publish(fetched, fetchGeneration);
+                created.complete(fetched);
+
+                if (published && (previous == null || !Arrays.equals(previous.getBody(), fetched.getBody()))) {
+                    this.listeners.forEach(snapshotListener -> snapshotListener.onSnapshot(fetched));
+                }
+                return fetched;
+            } catch (Exception | Error throwable) {
+                this.lastFetchFailed = true;
+                created.completeExceptionally(throwable);
+                throw throwable;
+            } finally {
+                this.inFlight.compareAndSet(created, null);
+            }
+        }
+
+        /**
+         * Keep the given snapshot unless the user has changed their sessions since it was requested.
+         *
+         * @return True if the snapshot was kept, False otherwise.
+         */
+        synchronized boolean publish(final SessionSnapshot fetched, final long fetchGeneration) {
+            if (fetchGeneration != this.generation) {
+                return false;
+            }
+
+            this.snapshot = fetched;
+            this.lastFetchFailed = false;
+            this.invalidated = false;
+
+            final SessionSnapshot lastRetained = this.retained.peekFirst();
+            if (lastRetained == null || !Arrays.equals(lastRetained.getBody(), fetched.getBody())) {
+                this.retained.addFirst(fetched);
+                if (this.retained.size() > SessionStateHub.RETAINED_SNAPSHOTS) {
+                    this.retained.removeLast();
+                }
+            }
+            return true;
+        }
+
+        synchronized SessionSnapshot findRetained(final String version) {
+            for (final SessionSnapshot retainedSnapshot : this.retained) {
+                if (retainedSnapshot.getVersion().equals(version)) {
+                    return retainedSnapshot;
+                }
+            }
+
+            return null;
+        }
+
+        synchronized void invalidate() {
+            this.generation++;
+            this.invalidated = true;
+            // A fetch already in flight may have read the list before the change, so later requests must not join it.
+            this.inFlight.set(null);
+
+            if (!this.listeners.isEmpty() && !this.stopped) {
+                submitPoll();
+            }
+        }
+
+        /** Runs on the scheduler, so it only decides whether to poll and leaves the upstream call to the poll pool. */
+        void tick() {
+            if (!stopPollingIfIdle()) {
+                submitPoll();
+            }
+        }
+
+        private void submitPoll() {
+            if (!this.pollPending.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                SessionStateHub.this.pollExecutor.execute(this::poll);
+            } catch (RejectedExecutionException rejectedExecutionException) {
+                // Too many users polling, or shutting down.  Requests fall back to fetching the list themselves.
+                this.pollPending.set(false);
+                SessionStateHub.this.pollFailures.increment();
+                LOGGER.debug("Session list poll not started: " + rejectedExecutionException.getMessage());
+            }
+        }
+
+        void poll() {
+            try {
+                fetch();
+            } catch (Exception exception) {
+                SessionStateHub.this.pollFailures.increment();
+                LOGGER.debug("Session list poll failed: " + exception.getMessage());
+                this.listeners.forEach(snapshotListener -> snapshotListener.onFailure(exception));
+            } finally {
+                this.pollPending.set(false);
+            }
+        }
+
+        /**
+         * Stop the poller once no listener is subscribed and the list has not been requested for a couple of poll
+         * intervals. The recent lists are then kept until the idle timeout.
+         *
+         * @return True if the poller was stopped, False if it is to keep polling.
+         */
+        synchronized boolean stopPollingIfIdle() {
+            final long idleNanos = System.nanoTime() - this.lastAccessNanos;
+            if (!this.listeners.isEmpty()
+                    || idleNanos <= SessionStateHub.this.pollIntervalNanos * SessionStateHub.IDLE_POLL_INTERVALS) {
+                return false;
+            }
+
+            if (this.poller != null) {
+                this.poller.cancel(false);
+                this.poller = null;
+            }
+            scheduleExpiry(SessionStateHub.this.idleTimeoutNanos - idleNanos);
+            return true;
+        }
+
+        private synchronized void scheduleExpiry(final long delayNanos) {
+            try {
+                SessionStateHub.this.scheduler.schedule(
+                        this::expireIfIdle, Math.max(0L, delayNanos), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException rejectedExecutionException) {
+                // Shutting down.
+                expire();
+            }
+        }
+
+        /** Discard this user's state if it has not been used since the poller stopped, or look again later. */
+        synchronized void expireIfIdle() {
+            if (this.poller != null || this.stopped) {
+                // Polling again, which schedules a new expiry when it stops.
+                return;
+            }
+
+            final long idleNanos = System.nanoTime() - this.lastAccessNanos;
+            if (this.listeners.isEmpty() && idleNanos > SessionStateHub.this.idleTimeoutNanos) {
+                expire();
+            } else {
+                scheduleExpiry(SessionStateHub.this.idleTimeoutNanos - idleNanos);
+            }
+        }
+
+        private synchronized void expire() {
+            this.stopped = true;
+            SessionStateHub.this.userSessionStates.remove(this.key, this);
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "science-portal-session-poll-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -72,16 +72,13 @@ import ca.nrc.cadc.auth.AuthMethod;
 import ca.nrc.cadc.auth.AuthenticationUtil;
 import ca.nrc.cadc.auth.NotAuthenticatedException;
 import ca.nrc.cadc.reg.Standards;
-import ca.nrc.cadc.reg.client.RegistryClient;
 import java.io.IOException;
-import java.net.URI;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.security.PrivilegedExceptionAction;
 import javax.security.auth.Subject;
 import javax.servlet.http.HttpServletResponse;
 import org.json.JSONObject;
-import org.opencadc.scienceportal.ApplicationConfiguration;
 import org.opencadc.scienceportal.SciencePortalAuthAction;
 
 public class GetAction extends SciencePortalAuthAction {
@@ -117,14 +114,10 @@ public class GetAction extends SciencePortalAuthAction {
     }
 
     private URL getSessionsURL() throws IOException {
-        final ApplicationConfiguration applicationConfiguration = new ApplicationConfiguration();
-        final URI apiServiceURI = URI.create(applicationConfiguration.getResourceID());
-        final RegistryClient registryClient = new RegistryClient();
-        final URL registryServiceBaseURL =
-                registryClient.getServiceURL(apiServiceURI, Standards.PLATFORM_SESSION_1, AuthMethod.TOKEN);
+        final URL registryServiceBaseURL = lookupServiceURL(Standards.PLATFORM_SESSION_1);
         if (registryServiceBaseURL == null) {
             throw new IOException("The Skaha web service is not configured in the Registry.  Please ensure that "
-                    + apiServiceURI + " exists.");
+                    + this.applicationConfiguration.getResourceID() + " exists.");
         }
 
         return registryServiceBaseURL;
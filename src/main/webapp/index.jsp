@@ -1,35 +1,22 @@
-<%@ page import="org.opencadc.scienceportal.ApplicationConfiguration" %>
+<%@ page import="org.opencadc.scienceportal.AssetManifest" %>
+<%@ page import="org.opencadc.scienceportal.BootstrapBundle" %>
 <%@ page language="java" contentType="text/html; charset=UTF-8" session="false" pageEncoding="UTF-8" %>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/functions" prefix="fn" %>
 
 
 <%
-  final ApplicationConfiguration configuration = new ApplicationConfiguration();
-  final String sessionsResourceID = configuration.getResourceID();
-  final String sessionsStandardID = configuration.getStandardID();
-  final String[] tabLabels = configuration.getTabLabels();
-  String bannerText = configuration.getBannerMessage();
-  String headerURLJSON = configuration.getHeaderURLs().toString();
-  String storageXmlInfoUrl = configuration.getStorageXmlInfoUrl();
-  final String experimentalJSON = configuration.getExperimentalFeatures().toJSONString();
-  final ApplicationConfiguration.Theme theme = configuration.getTheme();
-
-  String defaultProjectName = configuration.getDefaultProjectName();
-
-  if (defaultProjectName == null || defaultProjectName.isEmpty()) {
-      defaultProjectName = "skaha";
-  }
-
-  if (bannerText == null) {
-      bannerText = "";
-  }
+  // Pre-serialized at startup and refreshed in the background.  No Registry calls are made here.
+  final BootstrapBundle bootstrapBundle = BootstrapBundle.getInstance();
+  final String themeName = bootstrapBundle.getThemeName();
+
+  // Scripts are referenced by their content-hashed names, which browsers cache indefinitely (see StaticAssetFilter).
+  // The page itself names the current ones, so it must be revalidated before each use.
+  final AssetManifest assets = AssetManifest.getInstance(application);
+  response.setHeader("cache-control", "no-cache");
 %>
 
-<%-- Used to prevent JavaScript caching. --%>
-<jsp:useBean id="current" class="java.util.Date" />
 <c:set var="contextPath" value="${pageContext.request.contextPath}" />
-<c:set var="buildVersion" value="<%= ApplicationConfiguration.BUILD_TIME_MS %>" scope="application" />
 
 <!DOCTYPE html>
 <html lang="en">
@@ -38,19 +25,16 @@
     <meta charset='utf-8'>
     <meta http-equiv="X-UA-Compatible" content="chrome=1">
     <meta name="viewport" content="width=device-width, initial-scale=1">
-    <meta name="Cache-Control" content="no-cache, no-store, must-revalidate" />
-    <meta name="Pragma" content="no-cache" />
-    <meta name="Expires" content="0" />
 
     <base href="${fn:substring(url, 0, fn:length(url) - fn:length(uri))}${req.contextPath}/" />
 
     <!-- Located in ROOT.war -->
-    <script type="application/javascript" src="${contextPath}/dist/js/jquery-2.2.4.min.js"></script>
+    <script type="application/javascript" src="${contextPath}/<%= assets.resolve("dist/js/jquery-2.2.4.min.js") %>"></script>
 
     <!-- Add Promises if missing/broken. -->
-    <script type="application/javascript" src="${contextPath}/dist/js/es6-promise.auto.js"></script>
+    <script type="application/javascript" src="${contextPath}/<%= assets.resolve("dist/js/es6-promise.auto.js") %>"></script>
 
-    <% if ("canfar".equals(theme.name)) { %>
+    <% if ("canfar".equals(themeName)) { %>
     <!-- Found in canfar-root: tomcat(-canfar)/webapps/ROOT unless an absolute URL -->
     <script type="text/javascript" src="https://www.canfar.net/cadcJS/javascript/cadc.registry-client.js"></script>
     <script type="text/javascript" src="https://www.canfar.net/cadcJS/javascript/org.opencadc.js"></script>
@@ -66,7 +50,7 @@
     <title>Science Portal</title>
   </head>
 
-  <body class="theme-<%= theme.name %>">
+  <body class="theme-<%= themeName %>">
     <div class="container-fluid fill">
       <div class="row fill">
         <div role="main" class="col-sm-12 col-md-12 main fill">
@@ -84,12 +68,13 @@
     </div>
 
     <%--local files ot pick up--%>
-    <script type="application/javascript" src="${contextPath}/dist/js/science_portal_login.js?v=${buildVersion}"></script>
-    <script type="application/javascript" src="${contextPath}/dist/js/science_portal_core.js?v=${buildVersion}"></script>
-    <script type="application/javascript" src="${contextPath}/dist/js/science_portal_session.js?v=${buildVersion}"></script>
-    <script type="application/javascript" src="${contextPath}/dist/js/science_portal_form.js?v=${buildVersion}"></script>
-    <script type="application/javascript" src="${contextPath}/dist/js/science_portal.js?v=${buildVersion}"></script>
-    <script type="application/javascript" src="${contextPath}/dist_config/sp_dist_config.js?v=${buildVersion}"></script>
+    <script type="application/javascript" src="${contextPath}/<%= assets.resolve("dist/js/science_portal_login.js") %>"></script>
+    <script type="application/javascript" src="${contextPath}/<%= assets.resolve("dist/js/science_portal_core.js") %>"></script>
+    <script type="application/javascript" src="${contextPath}/<%= assets.resolve("dist/js/science_portal_session.js") %>"></script>
+    <script type="application/javascript" src="${contextPath}/<%= assets.resolve("dist/js/science_portal_form.js") %>"></script>
+    <script type="application/javascript" src="${contextPath}/<%= assets.resolve("dist/js/science_portal.js") %>"></script>
+    <%-- Deployment specific, so not hashed.  Revalidated on each use. --%>
+    <script type="application/javascript" src="${contextPath}/dist_config/sp_dist_config.js"></script>
 
     <script type="application/javascript">
       function generateState() {
@@ -102,26 +87,12 @@
         return result;
       }
 
-      const tabLabelArray = [];
-      <% for (int i = 0; i < tabLabels.length; i++) { %>
-      tabLabelArray[<%= i %>] = "<%= tabLabels[i] %>";
-      <% } %>
-
       window.runStartupTasks = () => {
         // Set up controller for Science Portal Session Launch page
-        const launch_js = new cadc.web.science.portal.PortalApp({
+        const launch_js = new cadc.web.science.portal.PortalApp(Object.assign({
           baseURL: window.location.origin,
-          sessionsResourceID: '<%= sessionsResourceID %>',
-          sessionsStandardID: '<%= sessionsStandardID %>',
-          theme: JSON.parse('<%= theme.toJSONString() %>'),
-          tabLabels: tabLabelArray,
-          bannerText: '<%= bannerText %>',
-          contentBase: "${contextPath}/dist",
-          headerURLs: JSON.parse('<%= headerURLJSON %>'),
-          storageXmlInfoUrl: '<%= storageXmlInfoUrl %>',
-          defaultProjectName: '<%= defaultProjectName %>',
-          experimentalFeatures: JSON.parse('<%= experimentalJSON %>')
-        })
+          contentBase: "${contextPath}/dist"
+        }, <%= bootstrapBundle.getPortalOptionsJSON() %>))
 
         launch_js.init()
       }
@@ -129,7 +100,9 @@
 
     <%-- render the react app last - App.js's render cycle will call
       window.runStartupTasks() on completion. --%>
-    <script src="${contextPath}/dist/react-app.js?v=${buildVersion}"></script>
+    <% for (final String script : assets.getEntrypoint("react-app", "dist/react-app.js")) { %>
+    <script src="${contextPath}/<%= script %>"></script>
+    <% } %>
 
   </body>
 </html>
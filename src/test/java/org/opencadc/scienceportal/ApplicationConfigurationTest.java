@@ -1,10 +1,21 @@
 package org.opencadc.scienceportal;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
 import org.apache.commons.configuration2.Configuration;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opencadc.token.Client;
 
 public class ApplicationConfigurationTest {
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void testExperimentalFeatures() {
         final Configuration props = new org.apache.commons.configuration2.PropertiesConfiguration();
@@ -25,4 +36,78 @@ public class ApplicationConfigurationTest {
         Assert.assertFalse("Feature is missing enabled keyword.", experimentalFeatures.isFeatureEnabled("foo"));
         Assert.assertTrue("Feature is enabled.", experimentalFeatures.isFeatureEnabled("goodfeature"));
     }
+
+    @Test
+    public void testReloadOnChange() throws Exception {
+        final File configFile = temporaryFolder.newFile("org.opencadc.science-portal.properties");
+        Files.write(
+                configFile.toPath(),
+                "org.opencadc.science-portal.sessions.resourceID = ivo://example.org/skaha\n"
+                        .getBytes(StandardCharsets.UTF_8));
+
+        final ApplicationConfiguration.Watcher watcher =
+                new ApplicationConfiguration.Watcher(configFile.toPath(), null);
+        final ApplicationConfiguration firstSnapshot = watcher.current();
+        Assert.assertEquals("Wrong resource ID.", "ivo://example.org/skaha", firstSnapshot.getResourceID());
+        Assert.assertFalse("Should not reload an unchanged file.", watcher.checkForUpdate());
+        Assert.assertSame("Snapshot should be unchanged.", firstSnapshot, watcher.current());
+
+        Files.write(
+                configFile.toPath(),
+                "org.opencadc.science-portal.sessions.resourceID = ivo://example.org/skaha-new\n"
+                        .getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(configFile.toPath(), FileTime.fromMillis(configFile.lastModified() + 5000L));
+
+        Assert.assertTrue("Should reload a changed file.", watcher.checkForUpdate());
+        Assert.assertEquals(
+                "Wrong resource ID.",
+                "ivo://example.org/skaha-new",
+                watcher.current().getResourceID());
+        Assert.assertEquals("Old snapshot must not change.", "ivo://example.org/skaha", firstSnapshot.getResourceID());
+    }
+
+    @Test
+    public void testSharedOIDCClient() throws Exception {
+        final ApplicationConfiguration config = new ApplicationConfiguration(oidcConfiguration("openid profile"));
+        final Client client = config.getOIDCClient();
+        Assert.assertSame("Same snapshot, same client.", client, config.getOIDCClient());
+
+        final Configuration reloaded = oidcConfiguration("openid profile");
+        reloaded.setProperty("org.opencadc.science-portal.sessions.bannerText", "Maintenance tonight.");
+        Assert.assertSame(
+                "Unchanged OIDC settings should share the client.",
+                client,
+                new ApplicationConfiguration(reloaded).getOIDCClient());
+
+        Assert.assertNotSame(
+                "Changed OIDC settings need a new client.",
+                client,
+                new ApplicationConfiguration(oidcConfiguration("openid profile email")).getOIDCClient());
+    }
+
+    @Test
+    public void testMetricsAllowedAddresses() {
+        final Configuration props = new org.apache.commons.configuration2.PropertiesConfiguration();
+        Assert.assertEquals(
+                "Should allow only loopback by default.",
+                List.of("127.0.0.1", "::1"),
+                new ApplicationConfiguration(props).getMetricsAllowedAddresses());
+
+        props.setProperty("org.opencadc.science-portal.metrics.allowedAddresses", " 10.42.0.0/16, ,192.0.2.7 ");
+        Assert.assertEquals(
+                "Wrong allowed addresses.",
+                List.of("10.42.0.0/16", "192.0.2.7"),
+                new ApplicationConfiguration(props).getMetricsAllowedAddresses());
+    }
+
+    private static Configuration oidcConfiguration(final String scope) {
+        final Configuration props = new org.apache.commons.configuration2.PropertiesConfiguration();
+        props.setProperty("org.opencadc.science-portal.oidc.clientID", "science-portal");
+        props.setProperty("org.opencadc.science-portal.oidc.clientSecret", "secret");
+        props.setProperty("org.opencadc.science-portal.oidc.callbackURI", "https://example.com/callback");
+        props.setProperty("org.opencadc.science-portal.oidc.redirectURI", "https://example.com/redirect");
+        props.setProperty("org.opencadc.science-portal.oidc.scope", scope);
+        props.setProperty("org.opencadc.science-portal.tokenCache.url", "redis://localhost:6379");
+        return props;
+    }
 }
@@ -0,0 +1,39 @@
+package org.opencadc.scienceportal;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BootstrapBundleTest {
+    @Test
+    public void serializePortalOptions() {
+        final Configuration props = new PropertiesConfiguration();
+        props.setProperty("org.opencadc.science-portal.sessions.resourceID", "ivo://example.org/skaha");
+        props.setProperty("org.opencadc.science-portal.sessions.standard", "vos://example.org/std/skaha");
+        props.setProperty("org.opencadc.science-portal.tabLabels", "Public, Advanced");
+        props.setProperty("org.opencadc.science-portal.sessions.bannerText", "Down at </script> o'clock");
+        props.setProperty(ApplicationConfiguration.Theme.THEME_NAME, "canfar");
+
+        final JSONObject headerURLs = new JSONObject().put("ivo://example.org/home", "https://example.org/home");
+        final BootstrapBundle testSubject = new BootstrapBundle(new ApplicationConfiguration(props), headerURLs);
+
+        Assert.assertEquals("Wrong theme.", "canfar", testSubject.getThemeName());
+        Assert.assertFalse(
+                "Should not close the script element.",
+                testSubject.getPortalOptionsJSON().contains("</"));
+
+        final JSONObject portalOptions = new JSONObject(testSubject.getPortalOptionsJSON());
+        Assert.assertEquals(
+                "Wrong resource ID.", "ivo://example.org/skaha", portalOptions.getString("sessionsResourceID"));
+        Assert.assertEquals("Wrong banner.", "Down at </script> o'clock", portalOptions.getString("bannerText"));
+        Assert.assertEquals(
+                "Wrong tab count.", 2, portalOptions.getJSONArray("tabLabels").length());
+        Assert.assertEquals("Wrong default project.", "skaha", portalOptions.getString("defaultProjectName"));
+        Assert.assertEquals(
+                "Wrong header URL.",
+                "https://example.org/home",
+                portalOptions.getJSONObject("headerURLs").getString("ivo://example.org/home"));
+    }
+}
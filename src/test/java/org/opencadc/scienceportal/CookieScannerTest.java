@@ -0,0 +1,45 @@
+package org.opencadc.scienceportal;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CookieScannerTest {
+    private static final String NAME = ApplicationConfiguration.FIRST_PARTY_COOKIE_NAME;
+
+    @Test
+    public void findsValues() {
+        Assert.assertEquals("Only cookie.", List.of("abc"), CookieScannerTest.scan(NAME + "=abc"));
+        Assert.assertEquals(
+                "Among others.",
+                List.of("abc"),
+                CookieScannerTest.scan("_ga=GA1.1.1; " + NAME + "=abc;_gid=GA1.2.2;  theme=dark"));
+        Assert.assertEquals("Quotes removed.", List.of("abc"), CookieScannerTest.scan("a=1; " + NAME + "=\"abc\""));
+        Assert.assertEquals("Trailing whitespace.", List.of("abc"), CookieScannerTest.scan(NAME + "=abc \t; a=1"));
+        Assert.assertEquals(
+                "Value containing =, and repeated.",
+                List.of("YWJj==", "ZGVm"),
+                CookieScannerTest.scan(NAME + "=YWJj==; " + NAME + "=ZGVm"));
+    }
+
+    @Test
+    public void ignoresOthers() {
+        Assert.assertEquals("No header.", List.of(), CookieScannerTest.scan(null));
+        Assert.assertEquals("Empty header.", List.of(), CookieScannerTest.scan(""));
+        Assert.assertEquals("Not present.", List.of(), CookieScannerTest.scan("_ga=GA1.1.1; theme=dark"));
+        Assert.assertEquals("Longer name.", List.of(), CookieScannerTest.scan(NAME + "-old=abc"));
+        Assert.assertEquals("Name as a value.", List.of(), CookieScannerTest.scan("a=" + NAME + "=abc"));
+        Assert.assertEquals("Empty value.", List.of(), CookieScannerTest.scan(NAME + "=; " + NAME + "=\"\""));
+        Assert.assertEquals("No value.", List.of(), CookieScannerTest.scan(NAME + "; a=1"));
+    }
+
+    private static List<String> scan(final String cookieHeader) {
+        final List<String> values = new ArrayList<>();
+        final CookieScanner cookieScanner = new CookieScanner(cookieHeader, CookieScannerTest.NAME);
+        while (cookieScanner.next()) {
+            values.add(cookieScanner.value());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,32 @@
+package org.opencadc.scienceportal;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ETagsTest {
+    @Test
+    public void strongETag() {
+        final String etag = ETags.strongETag("[{\"id\": \"a\"}]".getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertTrue("Should be quoted.", etag.startsWith("\"") && etag.endsWith("\""));
+        Assert.assertEquals(
+                "Same body, same tag.", etag, ETags.strongETag("[{\"id\": \"a\"}]".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertNotEquals(
+                "Different body, different tag.",
+                etag,
+                ETags.strongETag("[{\"id\": \"b\"}]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void matches() {
+        Assert.assertTrue("Exact match.", ETags.matches("\"abc\"", "\"abc\""));
+        Assert.assertTrue("Match in list.", ETags.matches("\"xyz\", \"abc\"", "\"abc\""));
+        Assert.assertTrue("Weak comparison.", ETags.matches("W/\"abc\"", "\"abc\""));
+        Assert.assertTrue("Wildcard.", ETags.matches(" * ", "\"abc\""));
+
+        Assert.assertFalse("No header.", ETags.matches(null, "\"abc\""));
+        Assert.assertFalse("Different tag.", ETags.matches("\"xyz\"", "\"abc\""));
+        Assert.assertFalse("Unquoted is a different tag.", ETags.matches("abc", "\"abc\""));
+    }
+}
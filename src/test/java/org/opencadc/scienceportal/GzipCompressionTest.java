@@ -0,0 +1,90 @@
+package org.opencadc.scienceportal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GzipCompressionTest {
+    @Test
+    public void accepts() {
+        Assert.assertTrue("Plain gzip.", GzipCompression.accepts("gzip, deflate, br"));
+        Assert.assertTrue("Weighted gzip.", GzipCompression.accepts("br;q=1.0, gzip;q=0.8"));
+        Assert.assertTrue("Wildcard.", GzipCompression.accepts("*"));
+        Assert.assertTrue("Legacy name.", GzipCompression.accepts("x-gzip"));
+
+        Assert.assertFalse("No header.", GzipCompression.accepts(null));
+        Assert.assertFalse("Identity only.", GzipCompression.accepts("identity"));
+        Assert.assertFalse("Brotli only.", GzipCompression.accepts("br"));
+        Assert.assertFalse("Refused.", GzipCompression.accepts("gzip;q=0, *"));
+        Assert.assertFalse("Refused through wildcard.", GzipCompression.accepts("br, *;q=0"));
+    }
+
+    @Test
+    public void compress() throws Exception {
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 500; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":\"image-").append(i).append("\",\"types\":[\"notebook\"]}");
+        }
+        final byte[] body = json.append("]").toString().getBytes(StandardCharsets.UTF_8);
+
+        final byte[] compressed = GzipCompression.compress(body);
+        Assert.assertTrue("Should be much smaller.", compressed.length * 5 < body.length);
+        Assert.assertArrayEquals("Wrong decoded body.", body, GzipCompressionTest.decode(compressed));
+
+        // Deflaters are reused, so a second body must not carry any state over from the first.
+        final byte[] other = "{\"other\": true}".getBytes(StandardCharsets.UTF_8);
+        Assert.assertArrayEquals(
+                "Wrong decoded body after reuse.", other, GzipCompressionTest.decode(GzipCompression.compress(other)));
+        Assert.assertArrayEquals(
+                "Wrong decoded empty body.",
+                new byte[0],
+                GzipCompressionTest.decode(GzipCompression.compress(new byte[0])));
+    }
+
+    @Test
+    public void streamInChunks() throws Exception {
+        final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        final OutputStream gzipOutputStream = GzipCompression.wrap(encoded, true);
+
+        for (int i = 0; i < 3; i++) {
+            final byte[] chunk = ("{\"chunk\": " + i + "}").getBytes(StandardCharsets.UTF_8);
+            final int before = encoded.size();
+            gzipOutputStream.write(chunk);
+            gzipOutputStream.flush();
+            expected.write(chunk);
+            Assert.assertTrue("Flush should emit the chunk.", encoded.size() > before);
+        }
+        gzipOutputStream.close();
+        gzipOutputStream.close();
+
+        Assert.assertArrayEquals(
+                "Wrong decoded stream.", expected.toByteArray(), GzipCompressionTest.decode(encoded.toByteArray()));
+
+        try {
+            gzipOutputStream.write(1);
+            Assert.fail("Should not write after close.");
+        } catch (IOException expectedException) {
+            // Good.
+        }
+    }
+
+    @Test
+    public void weakETag() {
+        Assert.assertEquals("Wrong weak tag.", "W/\"abc\"", GzipCompression.weakETag("\"abc\""));
+        Assert.assertEquals("Already weak.", "W/\"abc\"", GzipCompression.weakETag("W/\"abc\""));
+        Assert.assertTrue(
+                "Should match the identity tag.", ETags.matches("\"abc\"", GzipCompression.weakETag("\"abc\"")));
+    }
+
+    private static byte[] decode(final byte[] compressed) throws IOException {
+        try (final GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return gzipInputStream.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.opencadc.scienceportal;
+
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HeaderURLLookupTest {
+    @Test
+    public void partialResultsOnTimeout() throws Exception {
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        final CountDownLatch neverReleased = new CountDownLatch(1);
+        try {
+            final HeaderURLLookup testSubject = new HeaderURLLookup(executorService, 200L, 1000L);
+            final Map<String, Callable<URL>> lookups = new LinkedHashMap<>();
+            lookups.put("ivo://example.org/fast", () -> new URL("https://example.org/fast"));
+            lookups.put("ivo://example.org/slow", () -> {
+                neverReleased.await();
+                return new URL("https://example.org/slow");
+            });
+            lookups.put("ivo://example.org/broken", () -> {
+                throw new IllegalStateException("Registry unavailable.");
+            });
+            lookups.put("ivo://example.org/absent", () -> null);
+
+            final long start = System.currentTimeMillis();
+            final JSONObject headerURLs = testSubject.lookup(lookups);
+            final long elapsed = System.currentTimeMillis() - start;
+
+            Assert.assertEquals("Wrong header URLs.", 1, headerURLs.length());
+            Assert.assertEquals(
+                    "Wrong URL.", "https://example.org/fast", headerURLs.getString("ivo://example.org/fast"));
+            Assert.assertTrue("Should stop waiting at the lookup timeout (" + elapsed + "ms).", elapsed < 1000L);
+            Assert.assertTrue(
+                    "Should record fast latency.", testSubject.getLatencies().containsKey("ivo://example.org/fast"));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void concurrentLookups() throws Exception {
+        final ExecutorService executorService = Executors.newFixedThreadPool(3);
+        final CountDownLatch allStarted = new CountDownLatch(3);
+        try {
+            final HeaderURLLookup testSubject = new HeaderURLLookup(executorService, 5000L, 5000L);
+            final Map<String, Callable<URL>> lookups = new LinkedHashMap<>();
+            for (int i = 0; i < 3; i++) {
+                final String key = "ivo://example.org/app" + i;
+                lookups.put(key, () -> {
+                    // Completes only if all three lookups are in flight at once.
+                    allStarted.countDown();
+                    allStarted.await();
+                    return new URL("https://example.org/" + key.substring(key.lastIndexOf('/') + 1));
+                });
+            }
+
+            final JSONObject headerURLs = testSubject.lookup(lookups);
+            Assert.assertEquals("Wrong header URLs.", 3, headerURLs.length());
+            Assert.assertEquals(
+                    "Wrong URL.", "https://example.org/app2", headerURLs.getString("ivo://example.org/app2"));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
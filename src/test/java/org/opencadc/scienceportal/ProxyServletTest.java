@@ -0,0 +1,39 @@
+package org.opencadc.scienceportal;
+
+import java.io.IOException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class ProxyServletTest {
+    @Test
+    public void reportActionFailure() throws Exception {
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+        ProxyServlet.handleOrReport(request, response, (req, res) -> {
+            throw new IllegalArgumentException("Bad session ID");
+        });
+        Mockito.verify(response).sendError(HttpServletResponse.SC_BAD_REQUEST, "Bad session ID");
+
+        final HttpServletResponse upstreamFailureResponse = Mockito.mock(HttpServletResponse.class);
+        ProxyServlet.handleOrReport(request, upstreamFailureResponse, (req, res) -> {
+            throw new IOException("Connection reset");
+        });
+        Mockito.verify(upstreamFailureResponse)
+                .sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Connection reset");
+    }
+
+    @Test
+    public void leaveCommittedResponse() throws Exception {
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(response.isCommitted()).thenReturn(true);
+
+        ProxyServlet.handleOrReport(request, response, (req, res) -> {
+            throw new IOException("Client went away");
+        });
+        Mockito.verify(response, Mockito.never()).sendError(Mockito.anyInt(), Mockito.anyString());
+    }
+}
@@ -0,0 +1,178 @@
+package org.opencadc.scienceportal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class StaticAssetFilterTest {
+    private static final String MANIFEST = "{\"files\": {"
+            + "\"dist/js/science_portal.js\": {\"path\": \"dist/js/science_portal.0123456789.js\","
+            + " \"encodings\": [\"br\", \"gzip\"]},"
+            + "\"dist/chunks/vendor.9876543210.js\": {\"path\": \"dist/chunks/vendor.9876543210.js\","
+            + " \"encodings\": [\"br\"]},"
+            + "\"dist/react-app.js\": {\"path\": \"dist/react-app.abcdef0123.js\", \"encodings\": []}"
+            + "}, \"entrypoints\": {"
+            + "\"react-app\": [\"dist/chunks/vendor.9876543210.js\", \"dist/react-app.abcdef0123.js\"]"
+            + "}}";
+
+    @Test
+    public void manifest() {
+        final AssetManifest assetManifest = AssetManifest.parse(StaticAssetFilterTest.MANIFEST);
+
+        Assert.assertEquals(
+                "Wrong hashed path.",
+                "dist/js/science_portal.0123456789.js",
+                assetManifest.resolve("dist/js/science_portal.js"));
+        Assert.assertEquals(
+                "Unlisted assets keep their name.",
+                "dist_config/sp_dist_config.js",
+                assetManifest.resolve("dist_config/sp_dist_config.js"));
+
+        Assert.assertTrue("Hashed path.", assetManifest.isImmutable("dist/js/science_portal.0123456789.js"));
+        Assert.assertTrue("Hashed path without copies.", assetManifest.isImmutable("dist/react-app.abcdef0123.js"));
+        Assert.assertFalse("Original path.", assetManifest.isImmutable("dist/js/science_portal.js"));
+
+        Assert.assertEquals(
+                "Wrong encodings.",
+                List.of("br", "gzip"),
+                assetManifest.getEncodings("dist/js/science_portal.0123456789.js"));
+        Assert.assertTrue("Webpack chunk.", assetManifest.isImmutable("dist/chunks/vendor.9876543210.js"));
+
+        Assert.assertEquals(
+                "Wrong entry point scripts.",
+                List.of("dist/chunks/vendor.9876543210.js", "dist/react-app.abcdef0123.js"),
+                assetManifest.getEntrypoint("react-app", "dist/react-app.js"));
+        Assert.assertEquals(
+                "Unlisted entry point.",
+                List.of("dist/other.js"),
+                assetManifest.getEntrypoint("other", "dist/other.js"));
+    }
+
+    @Test
+    public void selectEncoding() {
+        final AssetManifest assetManifest = AssetManifest.parse(StaticAssetFilterTest.MANIFEST);
+        final String hashedPath = "dist/js/science_portal.0123456789.js";
+
+        Assert.assertEquals(
+                "Brotli preferred.",
+                "br",
+                StaticAssetFilter.selectEncoding("GET", "gzip, deflate, br", assetManifest, hashedPath));
+        Assert.assertEquals(
+                "Gzip otherwise.", "gzip", StaticAssetFilter.selectEncoding("GET", "gzip", assetManifest, hashedPath));
+        Assert.assertNull("Identity.", StaticAssetFilter.selectEncoding("GET", null, assetManifest, hashedPath));
+        Assert.assertNull("Not a GET.", StaticAssetFilter.selectEncoding("POST", "br", assetManifest, hashedPath));
+        Assert.assertNull(
+                "No copies.",
+                StaticAssetFilter.selectEncoding("GET", "br", assetManifest, "dist/react-app.abcdef0123.js"));
+    }
+
+    @Test
+    public void servePrecompressed() throws Exception {
+        final ServletContext servletContext = StaticAssetFilterTest.servletContext();
+        final byte[] brotliBody = {1, 2, 3};
+        Mockito.when(servletContext.getResourceAsStream("/dist/js/science_portal.0123456789.js.br"))
+                .thenReturn(new ByteArrayInputStream(brotliBody));
+        Mockito.when(servletContext.getMimeType("dist/js/science_portal.0123456789.js"))
+                .thenReturn("application/javascript");
+
+        final HttpServletRequest request =
+                StaticAssetFilterTest.request("/science-portal/dist/js/science_portal.0123456789.js", "br");
+        final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(StaticAssetFilterTest.outputStream(written));
+        final FilterChain filterChain = Mockito.mock(FilterChain.class);
+
+        StaticAssetFilterTest.filter(servletContext).doFilter(request, response, filterChain);
+
+        Mockito.verify(response).setHeader("cache-control", StaticAssetFilter.IMMUTABLE_CACHE_CONTROL);
+        Mockito.verify(response).setHeader("content-encoding", "br");
+        Mockito.verify(response).setHeader("vary", "accept-encoding");
+        Mockito.verify(response).setContentType("application/javascript");
+        Mockito.verifyNoInteractions(filterChain);
+        Assert.assertArrayEquals("Wrong body.", brotliBody, written.toByteArray());
+    }
+
+    @Test
+    public void passThrough() throws Exception {
+        final ServletContext servletContext = StaticAssetFilterTest.servletContext();
+        final FilterChain filterChain = Mockito.mock(FilterChain.class);
+
+        // Hashed, but the client accepts no precompressed copy.
+        final HttpServletRequest hashedRequest =
+                StaticAssetFilterTest.request("/science-portal/dist/js/science_portal.0123456789.js", null);
+        final HttpServletResponse hashedResponse = Mockito.mock(HttpServletResponse.class);
+        StaticAssetFilterTest.filter(servletContext).doFilter(hashedRequest, hashedResponse, filterChain);
+
+        Mockito.verify(hashedResponse).setHeader("cache-control", StaticAssetFilter.IMMUTABLE_CACHE_CONTROL);
+        Mockito.verify(hashedResponse, Mockito.never()).setHeader(Mockito.eq("content-encoding"), Mockito.anyString());
+        Mockito.verify(filterChain).doFilter(hashedRequest, hashedResponse);
+
+        // Not hashed, so it must be revalidated.
+        final HttpServletRequest configRequest =
+                StaticAssetFilterTest.request("/science-portal/dist_config/sp_dist_config.js", "br");
+        final HttpServletResponse configResponse = Mockito.mock(HttpServletResponse.class);
+        StaticAssetFilterTest.filter(servletContext).doFilter(configRequest, configResponse, filterChain);
+
+        Mockito.verify(configResponse).setHeader("cache-control", StaticAssetFilter.REVALIDATE_CACHE_CONTROL);
+        Mockito.verify(filterChain).doFilter(configRequest, configResponse);
+    }
+
+    private static ServletContext servletContext() {
+        final ServletContext servletContext = Mockito.mock(ServletContext.class);
+        Mockito.when(servletContext.getAttribute(AssetManifest.class.getName()))
+                .thenReturn(AssetManifest.parse(StaticAssetFilterTest.MANIFEST));
+        return servletContext;
+    }
+
+    private static StaticAssetFilter filter(final ServletContext servletContext) {
+        final FilterConfig filterConfig = Mockito.mock(FilterConfig.class);
+        Mockito.when(filterConfig.getServletContext()).thenReturn(servletContext);
+
+        final StaticAssetFilter staticAssetFilter = new StaticAssetFilter();
+        staticAssetFilter.init(filterConfig);
+        return staticAssetFilter;
+    }
+
+    private static HttpServletRequest request(final String requestURI, final String acceptEncoding) {
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getMethod()).thenReturn("GET");
+        Mockito.when(request.getContextPath()).thenReturn("/science-portal");
+        Mockito.when(request.getRequestURI()).thenReturn(requestURI);
+        Mockito.when(request.getHeader("accept-encoding")).thenReturn(acceptEncoding);
+        return request;
+    }
+
+    private static ServletOutputStream outputStream(final ByteArrayOutputStream written) {
+        return new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(final WriteListener writeListener) {
+                // Blocking only.
+            }
+
+            @Override
+            public void write(final int b) {
+                written.write(b);
+            }
+
+            @Override
+            public void write(final byte[] bytes, final int offset, final int length) {
+                written.write(bytes, offset, length);
+            }
+        };
+    }
+}
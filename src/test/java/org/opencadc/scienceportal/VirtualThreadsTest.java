@@ -0,0 +1,32 @@
+package org.opencadc.scienceportal;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VirtualThreadsTest {
+    @Test
+    public void disabledByDefault() {
+        final ApplicationConfiguration configuration = new ApplicationConfiguration(new PropertiesConfiguration());
+        Assert.assertNull("Should use platform threads by default.", VirtualThreads.executor(configuration));
+    }
+
+    @Test
+    public void enabledWhenSupported() throws Exception {
+        final Configuration props = new PropertiesConfiguration();
+        props.setProperty("org.opencadc.science-portal.proxy.virtualThreads", "true");
+        final ApplicationConfiguration configuration = new ApplicationConfiguration(props);
+
+        if (VirtualThreads.isSupported()) {
+            final Thread[] ranOn = new Thread[1];
+            VirtualThreads.executor(configuration)
+                    .submit(() -> ranOn[0] = Thread.currentThread())
+                    .get();
+            Assert.assertTrue("Should run on a virtual thread.", (Boolean)
+                    Thread.class.getMethod("isVirtual").invoke(ranOn[0]));
+        } else {
+            Assert.assertNull("Should fall back to platform threads.", VirtualThreads.executor(configuration));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.opencadc.scienceportal.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AccessTokenCacheTest {
+    private static String jwt(final long expiresAtSeconds) {
+        final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"RS256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(
+                        ("{\"sub\":\"user\",\"exp\":" + expiresAtSeconds + "}").getBytes(StandardCharsets.UTF_8))
+                + ".signature";
+    }
+
+    @Test
+    public void reuseUntilMaxAge() throws Exception {
+        final AccessTokenCache testSubject = new AccessTokenCache(Duration.ofMinutes(5L), 10);
+        final AtomicInteger loadCount = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("Wrong token.", "opaque-token", testSubject.getAccessToken("cookie-value", () -> {
+                loadCount.incrementAndGet();
+                return "opaque-token";
+            }));
+        }
+
+        Assert.assertEquals("Should fetch once.", 1, loadCount.get());
+        Assert.assertEquals("Wrong hit count.", 2L, testSubject.getHitCount());
+    }
+
+    @Test
+    public void expireWithToken() throws Exception {
+        final AccessTokenCache testSubject = new AccessTokenCache(Duration.ofMinutes(5L), 10);
+        final long nowSeconds = System.currentTimeMillis() / 1000L;
+
+        // Expires within the safety margin, so it must never be reused.
+        final String expiringToken = AccessTokenCacheTest.jwt(nowSeconds + 5L);
+        Assert.assertEquals(
+                "Wrong token.", expiringToken, testSubject.getAccessToken("cookie-value", () -> expiringToken));
+        Assert.assertEquals("Should not cache.", 0, testSubject.size());
+
+        final String longLivedToken = AccessTokenCacheTest.jwt(nowSeconds + 3600L);
+        testSubject.getAccessToken("cookie-value", () -> longLivedToken);
+        Assert.assertEquals("Should cache.", 1, testSubject.size());
+        Assert.assertEquals("Wrong expiry.", 3600L, AccessTokenCache.secondsUntilExpiry(longLivedToken), 2L);
+        Assert.assertNull("Opaque token has no expiry.", AccessTokenCache.secondsUntilExpiry("opaque-token"));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() throws Exception {
+        final AccessTokenCache testSubject = new AccessTokenCache(Duration.ofMinutes(5L), 2);
+
+        testSubject.getAccessToken("one", () -> "token-1");
+        testSubject.getAccessToken("two", () -> "token-2");
+        testSubject.getAccessToken("one", () -> "token-1");
+        testSubject.getAccessToken("three", () -> "token-3");
+
+        Assert.assertEquals("Wrong size.", 2, testSubject.size());
+        Assert.assertEquals("Wrong eviction count.", 1L, testSubject.getEvictionCount());
+        Assert.assertEquals("Should still be cached.", "token-1", testSubject.getAccessToken("one", () -> "reloaded"));
+        Assert.assertEquals("Should be evicted.", "reloaded", testSubject.getAccessToken("two", () -> "reloaded"));
+    }
+
+    @Test
+    public void doNotCacheFailures() throws Exception {
+        final AccessTokenCache testSubject = new AccessTokenCache(Duration.ofMinutes(5L), 10);
+
+        Assert.assertThrows(
+                "Should propagate missing token.",
+                NoSuchElementException.class,
+                () -> testSubject.getAccessToken("cookie-value", () -> {
+                    throw new NoSuchElementException("No token for key");
+                }));
+        Assert.assertEquals(
+                "Should load after failure.", "token", testSubject.getAccessToken("cookie-value", () -> "token"));
+    }
+
+    @Test
+    public void dropRejectedToken() throws Exception {
+        final AccessTokenCache testSubject = new AccessTokenCache(Duration.ofMinutes(5L), 10);
+        testSubject.getAccessToken("cookie-value", () -> "revoked-token");
+        final AccessTokenCache.TokenSource revokedSource = testSubject.getTokenSource("cookie-value", "revoked-token");
+
+        revokedSource.reject();
+        Assert.assertEquals("Should drop the token.", 0, testSubject.size());
+        Assert.assertEquals(
+                "Should load a new token.", "new-token", testSubject.getAccessToken("cookie-value", () -> "new-token"));
+
+        // A late rejection of the old token leaves its replacement in place.
+        revokedSource.reject();
+        Assert.assertEquals(
+                "Should keep the new token.",
+                "new-token",
+                testSubject.getAccessToken("cookie-value", () -> "reloaded"));
+        Assert.assertEquals("Wrong rejection count.", 1L, testSubject.getRejectionCount());
+    }
+}
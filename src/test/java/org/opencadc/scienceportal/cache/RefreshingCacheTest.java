@@ -0,0 +1,99 @@
+package org.opencadc.scienceportal.cache;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RefreshingCacheTest {
+    @Test
+    public void coalesceConcurrentMisses() throws Exception {
+        final RefreshingCache<String, String> testSubject =
+                new RefreshingCache<>("test", Duration.ofMinutes(1L), Duration.ZERO, 0, Runnable::run);
+        final AtomicInteger loadCount = new AtomicInteger();
+        final CountDownLatch loaderStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoader = new CountDownLatch(1);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            final Future<String> first = executorService.submit(() -> testSubject.get("key", () -> {
+                loadCount.incrementAndGet();
+                loaderStarted.countDown();
+                releaseLoader.await(5L, TimeUnit.SECONDS);
+                return "value";
+            }));
+
+            Assert.assertTrue("Loader never started.", loaderStarted.await(5L, TimeUnit.SECONDS));
+            final Future<String> second = executorService.submit(() -> testSubject.get("key", () -> {
+                loadCount.incrementAndGet();
+                return "other";
+            }));
+
+            // Give the second caller time to join the in-flight load.
+            Thread.sleep(100L);
+            releaseLoader.countDown();
+
+            Assert.assertEquals("Wrong first value.", "value", first.get(5L, TimeUnit.SECONDS));
+            Assert.assertEquals("Wrong second value.", "value", second.get(5L, TimeUnit.SECONDS));
+            Assert.assertEquals("Should load once.", 1, loadCount.get());
+            Assert.assertEquals("Wrong miss count.", 2L, testSubject.getMissCount());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void serveStaleOnRefreshFailure() throws Exception {
+        final RefreshingCache<String, String> testSubject =
+                new RefreshingCache<>("test", Duration.ZERO, Duration.ofMinutes(1L), 0, Runnable::run);
+
+        Assert.assertEquals("Wrong initial value.", "value", testSubject.get("key", () -> "value"));
+        Assert.assertEquals("Should serve stale value.", "value", testSubject.get("key", () -> {
+            throw new IOException("Registry down");
+        }));
+        Assert.assertEquals("Wrong refresh count.", 1L, testSubject.getRefreshCount());
+        Assert.assertEquals("Wrong failure count.", 1L, testSubject.getLoadFailureCount());
+        Assert.assertEquals("Still cached.", "value", testSubject.peek("key"));
+    }
+
+    @Test
+    public void reloadExpired() throws Exception {
+        final RefreshingCache<String, String> testSubject =
+                new RefreshingCache<>("test", Duration.ZERO, Duration.ZERO, 0, Runnable::run);
+
+        Assert.assertEquals("Wrong initial value.", "value", testSubject.get("key", () -> "value"));
+        Assert.assertEquals("Should reload.", "new value", testSubject.get("key", () -> "new value"));
+        Assert.assertEquals("Wrong miss count.", 2L, testSubject.getMissCount());
+
+        Assert.assertThrows(
+                "Should propagate load failure.",
+                IOException.class,
+                () -> testSubject.get("key", () -> {
+                    throw new IOException("Registry down");
+                }));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() throws Exception {
+        final RefreshingCache<String, String> testSubject =
+                new RefreshingCache<>("test", Duration.ofMinutes(1L), Duration.ZERO, 2, Runnable::run);
+
+        testSubject.get("one", () -> "1");
+        Thread.sleep(2L);
+        testSubject.get("two", () -> "2");
+        Thread.sleep(2L);
+        testSubject.get("one", () -> "1");
+        Thread.sleep(2L);
+        testSubject.get("three", () -> "3");
+
+        Assert.assertEquals("Wrong size.", 2, testSubject.size());
+        Assert.assertNull("Least recently used should be evicted.", testSubject.peek("two"));
+        Assert.assertEquals("Wrong eviction count.", 1L, testSubject.getEvictionCount());
+    }
+}
@@ -0,0 +1,73 @@
+package org.opencadc.scienceportal.cache;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SingleFlightTest {
+    @Test
+    public void shareInFlightCall() throws Exception {
+        final SingleFlight<String, String> testSubject = new SingleFlight<>("test");
+        final AtomicInteger callCount = new AtomicInteger();
+        final CountDownLatch callStarted = new CountDownLatch(1);
+        final CountDownLatch releaseCall = new CountDownLatch(1);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            final Future<String> first = executorService.submit(() -> testSubject.execute("user-a url", () -> {
+                callCount.incrementAndGet();
+                callStarted.countDown();
+                releaseCall.await(5L, TimeUnit.SECONDS);
+                return "value-a";
+            }));
+
+            Assert.assertTrue("Call never started.", callStarted.await(5L, TimeUnit.SECONDS));
+            final Future<String> second = executorService.submit(() -> testSubject.execute("user-a url", () -> {
+                callCount.incrementAndGet();
+                return "other";
+            }));
+            final Future<String> otherUser = executorService.submit(() -> testSubject.execute("user-b url", () -> {
+                callCount.incrementAndGet();
+                return "value-b";
+            }));
+
+            Assert.assertEquals("Other user must not share.", "value-b", otherUser.get(5L, TimeUnit.SECONDS));
+
+            // Give the second caller time to join the in-flight call.
+            Thread.sleep(100L);
+            releaseCall.countDown();
+
+            Assert.assertEquals("Wrong first value.", "value-a", first.get(5L, TimeUnit.SECONDS));
+            Assert.assertEquals("Wrong second value.", "value-a", second.get(5L, TimeUnit.SECONDS));
+            Assert.assertEquals("Wrong call count.", 2, callCount.get());
+            Assert.assertEquals("Wrong shared call count.", 1L, testSubject.getSharedCallCount());
+            Assert.assertEquals("Should be nothing in flight.", 0, testSubject.getInFlightCount());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void completedCallsAreNotReused() throws Exception {
+        final SingleFlight<String, String> testSubject = new SingleFlight<>("test");
+
+        try {
+            testSubject.execute("key", () -> {
+                throw new IOException("Upstream down");
+            });
+            Assert.fail("Should throw IOException.");
+        } catch (IOException expected) {
+            Assert.assertEquals("Wrong message.", "Upstream down", expected.getMessage());
+        }
+
+        Assert.assertEquals("Should call again.", "first", testSubject.execute("key", () -> "first"));
+        Assert.assertEquals("Should call again.", "second", testSubject.execute("key", () -> "second"));
+        Assert.assertEquals("Wrong call count.", 3L, testSubject.getCallCount());
+    }
+}
@@ -0,0 +1,79 @@
+package org.opencadc.scienceportal.context;
+
+import ca.nrc.cadc.auth.AuthorizationToken;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.security.auth.Subject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
+
+public class ContextCacheTest {
+    private static final byte[] CONTEXT = "{\"cores\": {\"default\": 1}}".getBytes(StandardCharsets.UTF_8);
+
+    private static Subject tokenSubject(final String token) {
+        final Subject subject = new Subject();
+        subject.getPublicCredentials()
+                .add(new AuthorizationToken("Bearer", token, Collections.singletonList("example.org")));
+        return subject;
+    }
+
+    private static ProxyRequest contextRequest() throws Exception {
+        return new ProxyRequest(ProxyRequest.GET, new URL("https://example.org/skaha/v1/context"));
+    }
+
+    @Test
+    public void shareAcrossUsers() throws Exception {
+        final AtomicInteger fetchCount = new AtomicInteger();
+        final ContextCache testSubject = new ContextCache(Duration.ofMinutes(5L), (request, subject) -> {
+            fetchCount.incrementAndGet();
+            return ContextCacheTest.CONTEXT;
+        });
+
+        Assert.assertArrayEquals(
+                "Wrong context.",
+                ContextCacheTest.CONTEXT,
+                testSubject.getContext(ContextCacheTest.contextRequest(), tokenSubject("alice")));
+        Assert.assertArrayEquals(
+                "Wrong context.",
+                ContextCacheTest.CONTEXT,
+                testSubject.getContext(ContextCacheTest.contextRequest(), tokenSubject("bob")));
+        Assert.assertEquals("Should fetch once.", 1, fetchCount.get());
+        Assert.assertFalse("Should be fresh.", testSubject.isStale(ContextCacheTest.contextRequest()));
+        Assert.assertNotNull("Should have an age.", testSubject.getAge(ContextCacheTest.contextRequest()));
+    }
+
+    @Test
+    public void serveStaleWhenRefreshFails() throws Exception {
+        final AtomicInteger fetchCount = new AtomicInteger();
+        final ContextCache testSubject = new ContextCache(Duration.ZERO, (request, subject) -> {
+            if (fetchCount.incrementAndGet() > 1) {
+                throw new IOException("Upstream down.");
+            }
+            return ContextCacheTest.CONTEXT;
+        });
+
+        testSubject.getContext(ContextCacheTest.contextRequest(), tokenSubject("alice"));
+        Assert.assertArrayEquals(
+                "Should serve last known context.",
+                ContextCacheTest.CONTEXT,
+                testSubject.getContext(ContextCacheTest.contextRequest(), tokenSubject("alice")));
+        Assert.assertTrue("Should be stale.", testSubject.isStale(ContextCacheTest.contextRequest()));
+    }
+
+    @Test
+    public void bypassWithoutCredentials() throws Exception {
+        final ContextCache testSubject = new ContextCache(Duration.ofMinutes(5L), (request, subject) -> {
+            throw new IllegalStateException("Should not fetch.");
+        });
+
+        Assert.assertNull(
+                "Anonymous requests go upstream.",
+                testSubject.getContext(ContextCacheTest.contextRequest(), new Subject()));
+        Assert.assertEquals("Nothing cached.", 0, testSubject.getCache().size());
+    }
+}
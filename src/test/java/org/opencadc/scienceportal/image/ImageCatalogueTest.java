@@ -0,0 +1,130 @@
+package org.opencadc.scienceportal.image;
+
+import ca.nrc.cadc.auth.AuthorizationToken;
+import ca.nrc.cadc.auth.NotAuthenticatedException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.security.auth.Subject;
+import org.json.JSONArray;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
+
+public class ImageCatalogueTest {
+    private static final String PUBLIC_IMAGES =
+            "[{\"id\": \"images.example.org/skaha/notebook:1.0\", \"types\": [\"notebook\"]}]";
+
+    private static Subject tokenSubject(final String token) {
+        final Subject subject = new Subject();
+        subject.getPublicCredentials()
+                .add(new AuthorizationToken("Bearer", token, Collections.singletonList("example.org")));
+        return subject;
+    }
+
+    private static ProxyRequest imageRequest() throws Exception {
+        return new ProxyRequest(ProxyRequest.GET, new URL("https://example.org/skaha/v1/image"));
+    }
+
+    @Test
+    public void sharePublicImages() throws Exception {
+        final AtomicInteger anonymousFetchCount = new AtomicInteger();
+        final AtomicInteger userFetchCount = new AtomicInteger();
+        final ImageCatalogue testSubject =
+                new ImageCatalogue(Duration.ofMinutes(10L), Duration.ofMinutes(1L), (request, subject) -> {
+                    if (subject == null) {
+                        anonymousFetchCount.incrementAndGet();
+                        return ImageCatalogueTest.PUBLIC_IMAGES.getBytes(StandardCharsets.UTF_8);
+                    }
+
+                    userFetchCount.incrementAndGet();
+                    final String token = subject.getPublicCredentials(AuthorizationToken.class)
+                            .iterator()
+                            .next()
+                            .getCredentials();
+                    return ("[{\"id\": \"images.example.org/skaha/notebook:1.0\", \"types\": [\"notebook\"]},"
+                                    + " {\"id\": \"images.example.org/" + token + "/private:1.0\","
+                                    + " \"types\": [\"headless\"]}]")
+                            .getBytes(StandardCharsets.UTF_8);
+                });
+
+        final JSONArray firstUserImages = new JSONArray(new String(
+                testSubject.getImages(ImageCatalogueTest.imageRequest(), tokenSubject("alice")),
+                StandardCharsets.UTF_8));
+        final JSONArray secondUserImages = new JSONArray(new String(
+                testSubject.getImages(ImageCatalogueTest.imageRequest(), tokenSubject("bob")), StandardCharsets.UTF_8));
+        testSubject.getImages(ImageCatalogueTest.imageRequest(), tokenSubject("alice"));
+
+        Assert.assertEquals("Wrong first user count.", 2, firstUserImages.length());
+        Assert.assertEquals(
+                "Wrong private image.",
+                "images.example.org/alice/private:1.0",
+                firstUserImages.getJSONObject(1).getString("id"));
+        Assert.assertEquals(
+                "Wrong second user private image.",
+                "images.example.org/bob/private:1.0",
+                secondUserImages.getJSONObject(1).getString("id"));
+
+        Assert.assertEquals("Public images fetched once.", 1, anonymousFetchCount.get());
+        Assert.assertEquals("Once per user.", 2, userFetchCount.get());
+        Assert.assertEquals(
+                "One private entry per user.", 2, testSubject.getPrivateCache().size());
+    }
+
+    @Test
+    public void allPrivateWhenNotListedAnonymously() throws Exception {
+        final ImageCatalogue testSubject =
+                new ImageCatalogue(Duration.ofMinutes(10L), Duration.ofMinutes(1L), (request, subject) -> {
+                    if (subject == null) {
+                        throw new NotAuthenticatedException("Authentication required.");
+                    }
+                    return ImageCatalogueTest.PUBLIC_IMAGES.getBytes(StandardCharsets.UTF_8);
+                });
+
+        final JSONArray images = new JSONArray(new String(
+                testSubject.getImages(ImageCatalogueTest.imageRequest(), tokenSubject("alice")),
+                StandardCharsets.UTF_8));
+        Assert.assertEquals("Wrong count.", 1, images.length());
+        Assert.assertNull(
+                "Anonymous requests are not cached.",
+                testSubject.getImages(ImageCatalogueTest.imageRequest(), new Subject()));
+    }
+
+    @Test
+    public void mergeAgainstCurrentPublicImages() {
+        final ImageCatalogue.ImageList userImages =
+                ImageCatalogue.ImageList.parse(("[{\"id\": \"images.example.org/skaha/notebook:1.0\"},"
+                                + " {\"id\": \"images.example.org/alice/private:1.0\"}]")
+                        .getBytes(StandardCharsets.UTF_8));
+
+        // The user's private image was since made public.
+        final ImageCatalogue.ImageList laterPublicImages =
+                ImageCatalogue.ImageList.parse(("[{\"id\": \"images.example.org/skaha/notebook:1.0\"},"
+                                + " {\"id\": \"images.example.org/alice/private:1.0\"}]")
+                        .getBytes(StandardCharsets.UTF_8));
+        final JSONArray madePublic = new JSONArray(
+                new String(ImageCatalogue.ImageList.merge(laterPublicImages, userImages), StandardCharsets.UTF_8));
+        Assert.assertEquals("Should list each image once.", 2, madePublic.length());
+
+        // The public notebook image was withdrawn, but the user can still see it.
+        final JSONArray withdrawn = new JSONArray(new String(
+                ImageCatalogue.ImageList.merge(ImageCatalogue.ImageList.EMPTY, userImages), StandardCharsets.UTF_8));
+        Assert.assertEquals("Should keep the user's images.", 2, withdrawn.length());
+        Assert.assertEquals(
+                "Wrong image.",
+                "images.example.org/skaha/notebook:1.0",
+                withdrawn.getJSONObject(0).getString("id"));
+
+        final ImageCatalogue.ImageList publicImages =
+                ImageCatalogue.ImageList.parse(ImageCatalogueTest.PUBLIC_IMAGES.getBytes(StandardCharsets.UTF_8));
+        final ImageCatalogue.ImageList sharedUserImages = ImageCatalogue.ImageList.parse(
+                        ImageCatalogueTest.PUBLIC_IMAGES.getBytes(StandardCharsets.UTF_8))
+                .sharing(publicImages);
+        Assert.assertArrayEquals(
+                "Should list the public images once.",
+                ImageCatalogue.ImageList.merge(publicImages, ImageCatalogue.ImageList.EMPTY),
+                ImageCatalogue.ImageList.merge(publicImages, sharedUserImages));
+    }
+}
@@ -0,0 +1,82 @@
+package org.opencadc.scienceportal.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EndpointMetricsTest {
+    @Test
+    public void recordAndScrape() {
+        final PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        final EndpointMetrics testSubject = new EndpointMetrics(meterRegistry, "session");
+
+        testSubject.recordPhase(EndpointMetrics.Phase.UPSTREAM_TTFB, TimeUnit.MILLISECONDS.toNanos(25L));
+        testSubject.recordBody(TimeUnit.MILLISECONDS.toNanos(5L), 2048L);
+        testSubject.recordStatus(200);
+        testSubject.recordStatus(200);
+        testSubject.recordStatus(404);
+        testSubject.recordStatus(999);
+
+        final Timer ttfbTimer = meterRegistry
+                .get("portal.proxy.phase")
+                .tags("endpoint", "session", "phase", "ttfb")
+                .timer();
+        Assert.assertEquals("Wrong TTFB count.", 1L, ttfbTimer.count());
+        Assert.assertEquals("Wrong TTFB total.", 25.0D, ttfbTimer.totalTime(TimeUnit.MILLISECONDS), 0.001D);
+
+        Assert.assertEquals(
+                "Wrong body bytes.",
+                2048.0D,
+                meterRegistry
+                        .get("portal.upstream.body")
+                        .tag("endpoint", "session")
+                        .counter()
+                        .count(),
+                0.0D);
+        Assert.assertEquals(
+                "Wrong 200 count.",
+                2.0D,
+                meterRegistry
+                        .get("portal.upstream.responses")
+                        .tag("status", "200")
+                        .counter()
+                        .count(),
+                0.0D);
+        Assert.assertEquals(
+                "Wrong out of range count.",
+                1.0D,
+                meterRegistry
+                        .get("portal.upstream.responses")
+                        .tag("status", "other")
+                        .counter()
+                        .count(),
+                0.0D);
+
+        final String scrape = meterRegistry.scrape();
+        Assert.assertTrue(
+                "Missing histogram buckets.",
+                scrape.contains("portal_proxy_phase_seconds_bucket{endpoint=\"session\",phase=\"ttfb\""));
+        Assert.assertTrue(
+                "Missing status counter.",
+                scrape.contains("portal_upstream_responses_total{endpoint=\"session\",status=\"404\",} 1.0"));
+    }
+
+    @Test
+    public void endpointName() {
+        Assert.assertEquals(
+                "Wrong endpoint name.",
+                "session",
+                PortalMetrics.endpointName(org.opencadc.scienceportal.session.GetAction.class));
+        Assert.assertEquals(
+                "Wrong endpoint name.",
+                "image",
+                PortalMetrics.endpointName(org.opencadc.scienceportal.image.GetAction.class));
+        Assert.assertSame(
+                "Endpoint meters should be shared.",
+                PortalMetrics.forEndpoint("context"),
+                PortalMetrics.forEndpoint("context"));
+    }
+}
@@ -0,0 +1,36 @@
+package org.opencadc.scienceportal.metrics;
+
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetricsServletTest {
+    @Test
+    public void allowConfiguredAddresses() {
+        final List<String> loopback = List.of("127.0.0.1", "::1");
+        Assert.assertTrue("Should allow IPv4 loopback.", MetricsServlet.isAllowed("127.0.0.1", loopback));
+        Assert.assertTrue("Should allow IPv6 loopback.", MetricsServlet.isAllowed("0:0:0:0:0:0:0:1", loopback));
+        Assert.assertFalse("Should refuse other clients.", MetricsServlet.isAllowed("192.0.2.10", loopback));
+
+        final List<String> ranges = List.of("10.42.0.0/16", "fd00::/8", "192.0.2.7");
+        Assert.assertTrue("Should allow an address in range.", MetricsServlet.isAllowed("10.42.3.4", ranges));
+        Assert.assertFalse("Should refuse an address out of range.", MetricsServlet.isAllowed("10.43.3.4", ranges));
+        Assert.assertTrue("Should allow an IPv6 address in range.", MetricsServlet.isAllowed("fd12::5", ranges));
+        Assert.assertTrue("Should allow a single address.", MetricsServlet.isAllowed("192.0.2.7", ranges));
+        Assert.assertFalse("Should refuse a neighbour.", MetricsServlet.isAllowed("192.0.2.8", ranges));
+    }
+
+    @Test
+    public void refuseUnparseableEntries() {
+        Assert.assertFalse(
+                "Should not match a host name.", MetricsServlet.isAllowed("127.0.0.1", List.of("localhost")));
+        Assert.assertFalse(
+                "Should not match a bad prefix.", MetricsServlet.isAllowed("127.0.0.1", List.of("127.0.0.0/x")));
+        Assert.assertFalse(
+                "Should not match an oversized prefix.",
+                MetricsServlet.isAllowed("127.0.0.1", List.of("127.0.0.0/33")));
+        Assert.assertTrue(
+                "Should match a zero-length prefix.", MetricsServlet.isAllowed("198.51.100.1", List.of("0.0.0.0/0")));
+        Assert.assertFalse("Should refuse a missing address.", MetricsServlet.isAllowed(null, List.of("0.0.0.0/0")));
+    }
+}
@@ -0,0 +1,42 @@
+package org.opencadc.scienceportal.metrics;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.time.Duration;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opencadc.scienceportal.cache.RefreshingCache;
+
+public class PortalMetricsTest {
+    @Test
+    public void reportCacheAge() throws Exception {
+        final PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        final RefreshingCache<String, String> cache =
+                new RefreshingCache<>("testCache", Duration.ofMinutes(1L), Duration.ofMinutes(1L), 10, Runnable::run);
+        PortalMetrics.bindCache(meterRegistry, cache);
+
+        Assert.assertEquals(
+                "Empty cache has no age.",
+                0.0D,
+                meterRegistry
+                        .get("portal.cache.age")
+                        .tag("cache", "testCache")
+                        .gauge()
+                        .value(),
+                0.0D);
+
+        cache.get("key", () -> "value");
+        Thread.sleep(20L);
+        Assert.assertTrue(
+                "Should report the entry's age.",
+                meterRegistry
+                                .get("portal.cache.age")
+                                .tag("cache", "testCache")
+                                .gauge()
+                                .value()
+                        >= 0.02D);
+        Assert.assertTrue(
+                "Should scrape in seconds.",
+                meterRegistry.scrape().contains("portal_cache_age_seconds{cache=\"testCache\""));
+    }
+}
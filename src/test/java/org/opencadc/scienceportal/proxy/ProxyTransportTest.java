@@ -0,0 +1,230 @@
+package org.opencadc.scienceportal.proxy;
+
+import ca.nrc.cadc.auth.AuthorizationToken;
+import ca.nrc.cadc.auth.NotAuthenticatedException;
+import ca.nrc.cadc.net.ResourceNotFoundException;
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.security.auth.Subject;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opencadc.scienceportal.cache.AccessTokenCache;
+
+public class ProxyTransportTest {
+    private static final byte[] SESSION_LIST = "[{\"id\": \"abc\"}]\n".getBytes(StandardCharsets.UTF_8);
+
+    private final Set<String> clientAddresses = ConcurrentHashMap.newKeySet();
+    private final List<String> authorizationHeaders = Collections.synchronizedList(new ArrayList<>());
+    private HttpServer stubServer;
+
+    @Before
+    public void startStubServer() throws Exception {
+        this.stubServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.stubServer.createContext("/skaha/v1/session", exchange -> {
+            this.clientAddresses.add(exchange.getRemoteAddress().toString());
+            final String authorization = exchange.getRequestHeaders().getFirst("authorization");
+            if (authorization != null) {
+                this.authorizationHeaders.add(authorization);
+            }
+            exchange.getResponseHeaders().add("content-type", "application/json");
+            exchange.sendResponseHeaders(200, ProxyTransportTest.SESSION_LIST.length);
+            exchange.getResponseBody().write(ProxyTransportTest.SESSION_LIST);
+            exchange.close();
+        });
+        this.stubServer.createContext("/skaha/v1/moved", exchange -> {
+            // Another host name for the same server.
+            exchange.getResponseHeaders()
+                    .add(
+                            "location",
+                            "http://localhost:" + this.stubServer.getAddress().getPort() + "/skaha/v1/session");
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        this.stubServer.createContext("/skaha/v1/renamed", exchange -> {
+            exchange.getResponseHeaders().add("location", "session");
+            exchange.sendResponseHeaders(301, -1);
+            exchange.close();
+        });
+        this.stubServer.createContext("/skaha/v1/revoked", exchange -> {
+            exchange.sendResponseHeaders(401, -1);
+            exchange.close();
+        });
+        this.stubServer.createContext("/skaha/v1/missing", exchange -> {
+            final byte[] message = "No such session".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(404, message.length);
+            exchange.getResponseBody().write(message);
+            exchange.close();
+        });
+        this.stubServer.start();
+    }
+
+    @After
+    public void stopStubServer() {
+        this.stubServer.stop(0);
+    }
+
+    private ProxyTransport createTestSubject() {
+        return new ProxyTransport(HttpClient.Version.HTTP_1_1, Duration.ofSeconds(5L), Duration.ofSeconds(5L), 4);
+    }
+
+    private URL stubURL(final String path) throws Exception {
+        return new URL("http://127.0.0.1:" + this.stubServer.getAddress().getPort() + path);
+    }
+
+    @Test
+    public void reuseConnection() throws Exception {
+        final ProxyTransport testSubject = createTestSubject();
+        final ProxyRequest proxyRequest = new ProxyRequest(ProxyRequest.GET, stubURL("/skaha/v1/session"));
+
+        for (int i = 0; i < 5; i++) {
+            try (final ProxyResponse proxyResponse = testSubject.send(proxyRequest, null)) {
+                Assert.assertEquals("Wrong status.", 200, proxyResponse.getStatusCode());
+                Assert.assertArrayEquals(
+                        "Wrong body.",
+                        ProxyTransportTest.SESSION_LIST,
+                        proxyResponse.getInputStream().readAllBytes());
+            }
+        }
+
+        Assert.assertEquals("Connection should be reused.", 1, this.clientAddresses.size());
+    }
+
+    @Test
+    public void sendTokenForMatchingDomain() throws Exception {
+        final ProxyTransport testSubject = createTestSubject();
+        final Subject subject = new Subject();
+        subject.getPublicCredentials()
+                .add(new AuthorizationToken("Bearer", "my-token", Collections.singletonList("127.0.0.1")));
+
+        try (final ProxyResponse proxyResponse =
+                testSubject.send(new ProxyRequest(ProxyRequest.GET, stubURL("/skaha/v1/session")), subject)) {
+            proxyResponse.getInputStream().readAllBytes();
+        }
+
+        final Subject otherDomainSubject = new Subject();
+        otherDomainSubject
+                .getPublicCredentials()
+                .add(new AuthorizationToken("Bearer", "other-token", Collections.singletonList("example.org")));
+
+        try (final ProxyResponse proxyResponse = testSubject.send(
+                new ProxyRequest(ProxyRequest.GET, stubURL("/skaha/v1/session")), otherDomainSubject)) {
+            proxyResponse.getInputStream().readAllBytes();
+        }
+
+        Assert.assertEquals(
+                "Only the matching token should be sent.", List.of("Bearer my-token"), this.authorizationHeaders);
+    }
+
+    @Test
+    public void redirectWithCredentialsForEachHost() throws Exception {
+        final ProxyTransport testSubject = createTestSubject();
+        final Subject subject = new Subject();
+        subject.getPublicCredentials()
+                .add(new AuthorizationToken("Bearer", "my-token", Collections.singletonList("127.0.0.1")));
+
+        try (final ProxyResponse proxyResponse =
+                testSubject.send(new ProxyRequest(ProxyRequest.GET, stubURL("/skaha/v1/moved")), subject)) {
+            Assert.assertEquals("Wrong status.", 200, proxyResponse.getStatusCode());
+            Assert.assertArrayEquals(
+                    "Wrong body.",
+                    ProxyTransportTest.SESSION_LIST,
+                    proxyResponse.getInputStream().readAllBytes());
+        }
+        Assert.assertEquals("Token sent to another host.", List.of(), this.authorizationHeaders);
+
+        final AsyncProxyResponse asyncProxyResponse = testSubject
+                .sendAsync(new ProxyRequest(ProxyRequest.GET, stubURL("/skaha/v1/moved")), subject)
+                .get(5L, TimeUnit.SECONDS);
+        asyncProxyResponse.getBody().subscribe(HttpResponse.BodySubscribers.discarding());
+        asyncProxyResponse.release();
+        Assert.assertEquals("Wrong async status.", 200, asyncProxyResponse.getStatusCode());
+        Assert.assertEquals("Token sent to another host.", List.of(), this.authorizationHeaders);
+
+        try (final ProxyResponse proxyResponse =
+                testSubject.send(new ProxyRequest(ProxyRequest.GET, stubURL("/skaha/v1/renamed")), subject)) {
+            Assert.assertEquals("Wrong status.", 200, proxyResponse.getStatusCode());
+            proxyResponse.getInputStream().readAllBytes();
+        }
+        Assert.assertEquals(
+                "Token should follow on the same host.", List.of("Bearer my-token"), this.authorizationHeaders);
+
+        try (final ProxyResponse proxyResponse = testSubject.send(
+                new ProxyRequest(ProxyRequest.POST, stubURL("/skaha/v1/moved"), Map.of("image", "notebook")),
+                subject)) {
+            Assert.assertEquals("POST should not be redirected.", 302, proxyResponse.getStatusCode());
+        }
+    }
+
+    @Test
+    public void mapNotFound() throws Exception {
+        final ProxyTransport testSubject = createTestSubject();
+        final ResourceNotFoundException exception = Assert.assertThrows(
+                "Should map 404.",
+                ResourceNotFoundException.class,
+                () -> testSubject.send(new ProxyRequest(ProxyRequest.GET, stubURL("/skaha/v1/missing")), null));
+        Assert.assertEquals("Wrong message.", "No such session", exception.getMessage());
+    }
+
+    @Test
+    public void sendAsync() throws Exception {
+        final ProxyTransport testSubject = createTestSubject();
+        final AsyncProxyResponse proxyResponse = testSubject
+                .sendAsync(new ProxyRequest(ProxyRequest.GET, stubURL("/skaha/v1/session")), null)
+                .get(5L, TimeUnit.SECONDS);
+
+        final HttpResponse.BodySubscriber<byte[]> bodySubscriber = HttpResponse.BodySubscribers.ofByteArray();
+        proxyResponse.getBody().subscribe(bodySubscriber);
+        Assert.assertEquals("Wrong status.", 200, proxyResponse.getStatusCode());
+        Assert.assertArrayEquals(
+                "Wrong body.",
+                ProxyTransportTest.SESSION_LIST,
+                bodySubscriber.getBody().toCompletableFuture().get(5L, TimeUnit.SECONDS));
+        proxyResponse.release();
+
+        // Errors are left to the caller to report.
+        final AsyncProxyResponse missingResponse = testSubject
+                .sendAsync(new ProxyRequest(ProxyRequest.GET, stubURL("/skaha/v1/missing")), null)
+                .get(5L, TimeUnit.SECONDS);
+        missingResponse.getBody().subscribe(HttpResponse.BodySubscribers.discarding());
+        Assert.assertEquals("Wrong status.", 404, missingResponse.getStatusCode());
+        missingResponse.release();
+    }
+
+    @Test
+    public void dropRejectedCachedToken() throws Exception {
+        final ProxyTransport testSubject = createTestSubject();
+        final AccessTokenCache accessTokenCache = new AccessTokenCache(Duration.ofMinutes(5L), 10);
+        accessTokenCache.getAccessToken("cookie-value", () -> "revoked-token");
+
+        final Subject subject = new Subject();
+        subject.getPublicCredentials()
+                .add(new AuthorizationToken("Bearer", "revoked-token", Collections.singletonList("127.0.0.1")));
+        subject.getPublicCredentials().add(accessTokenCache.getTokenSource("cookie-value", "revoked-token"));
+
+        try (final ProxyResponse proxyResponse =
+                testSubject.send(new ProxyRequest(ProxyRequest.GET, stubURL("/skaha/v1/session")), subject)) {
+            proxyResponse.getInputStream().readAllBytes();
+        }
+        Assert.assertEquals("Should keep an accepted token.", 1, accessTokenCache.size());
+
+        Assert.assertThrows(
+                "Should map 401.",
+                NotAuthenticatedException.class,
+                () -> testSubject.send(new ProxyRequest(ProxyRequest.GET, stubURL("/skaha/v1/revoked")), subject));
+        Assert.assertEquals("Should drop the refused token.", 0, accessTokenCache.size());
+    }
+}
@@ -1,17 +1,15 @@
 package org.opencadc.scienceportal.session;
 
-import ca.nrc.cadc.net.HttpPost;
-import ca.nrc.cadc.net.HttpRequestProperty;
 import ca.nrc.cadc.rest.SyncInput;
 import ca.nrc.cadc.util.Base64;
 import java.net.URL;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
 
 public class PostActionTest {
     @Test
@@ -103,24 +101,21 @@ public class PostActionTest {
             }
         };
 
-        final HttpPost httpPost = testSubject.createPostRequest(postURL);
+        final ProxyRequest postRequest = testSubject.createPostRequest(postURL);
 
-        final Map<String, Object> postParameters = httpPost.getParameterMap();
+        final Map<String, Object> postParameters = postRequest.getFormParameters();
         Assert.assertEquals("Wrong number of params.", 2, postParameters.size());
         Assert.assertTrue("Wrong param1", postParameters.containsKey("param1"));
         Assert.assertEquals("Wrong value1", "val ue1", postParameters.get("param1"));
         Assert.assertTrue("Wrong param2", postParameters.containsKey("param2"));
         Assert.assertEquals("Wrong value2", "value2", postParameters.get("param2"));
 
-        final List<HttpRequestProperty> postProperties = httpPost.getRequestProperties();
-        Assert.assertEquals(
-                "Wrong auth header",
-                PostAction.SECRET_REQUEST_HEADER_NAME_TO_SKAHA,
-                postProperties.get(0).getProperty());
+        final Map<String, String> postProperties = postRequest.getRequestProperties();
+        Assert.assertEquals("Wrong number of headers", 1, postProperties.size());
         Assert.assertEquals(
                 "Wrong auth header value",
                 Base64.encodeString("username1:secret1"),
-                postProperties.get(0).getValue());
+                postProperties.get(PostAction.SECRET_REQUEST_HEADER_NAME_TO_SKAHA));
 
         Mockito.verify(mockSyncInput, Mockito.times(1)).getParameterNames();
         Mockito.verify(mockSyncInput, Mockito.times(2)).getParameter("param1");
@@ -0,0 +1,58 @@
+package org.opencadc.scienceportal.session;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SessionEventTest {
+    private static Map<String, JSONObject> index(final String sessionListJSON) {
+        return SessionEvent.index(sessionListJSON.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void diff() {
+        final Map<String, JSONObject> previous = SessionEventTest.index("[{\"id\": \"a\", \"status\": \"Pending\"},"
+                + " {\"id\": \"b\", \"status\": \"Running\"}, {\"id\": \"c\", \"status\": \"Running\"}]");
+        final Map<String, JSONObject> current = SessionEventTest.index("[{\"id\": \"a\", \"status\": \"Running\"},"
+                + " {\"id\": \"c\", \"status\": \"Running\"}, {\"id\": \"d\", \"status\": \"Pending\"}]");
+
+        final List<SessionEvent> sessionEvents = SessionEvent.diff(previous, current);
+
+        Assert.assertEquals("Wrong event count.", 3, sessionEvents.size());
+        Assert.assertEquals(
+                "Wrong first event.",
+                SessionEvent.SESSION_REMOVED,
+                sessionEvents.get(0).getName());
+        Assert.assertEquals(
+                "Wrong removed ID.", "b", new JSONObject(sessionEvents.get(0).getData()).getString("id"));
+        Assert.assertEquals(
+                "Wrong second event.",
+                SessionEvent.SESSION_CHANGED,
+                sessionEvents.get(1).getName());
+        Assert.assertEquals(
+                "Wrong status.", "Running", new JSONObject(sessionEvents.get(1).getData()).getString("status"));
+        Assert.assertEquals(
+                "Wrong third event.",
+                SessionEvent.SESSION_ADDED,
+                sessionEvents.get(2).getName());
+        Assert.assertEquals(
+                "Wrong added ID.", "d", new JSONObject(sessionEvents.get(2).getData()).getString("id"));
+
+        Assert.assertTrue(
+                "Should be no changes.", SessionEvent.diff(current, current).isEmpty());
+    }
+
+    @Test
+    public void toServerSentEvent() {
+        final SessionEvent sessionEvent =
+                SessionEvent.sessions(SessionEventTest.index("[\n  {\"id\": \"a\",\n   \"status\": \"Running\"}\n]\n"));
+
+        Assert.assertEquals(
+                "Wrong event.",
+                "event: sessions\ndata: [{\"id\":\"a\",\"status\":\"Running\"}]\n\n",
+                new String(sessionEvent.toServerSentEvent(), StandardCharsets.UTF_8));
+    }
+}
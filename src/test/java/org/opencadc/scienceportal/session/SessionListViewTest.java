@@ -0,0 +1,98 @@
+package org.opencadc.scienceportal.session;
+
+import java.nio.charset.StandardCharsets;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SessionListViewTest {
+    private static final String BASE = "[{\"id\": \"a\", \"status\": \"Pending\", \"name\": \"one\"},"
+            + " {\"id\": \"b\", \"status\": \"Running\", \"name\": \"two\"},"
+            + " {\"id\": \"c\", \"status\": \"Running\", \"name\": \"three\", \"cpuCoresInUse\": \"0.1\"}]";
+    private static final String CURRENT = "[{\"id\": \"a\", \"status\": \"Running\", \"name\": \"one\"},"
+            + " {\"id\": \"c\", \"status\": \"Running\", \"name\": \"three\", \"cpuCoresInUse\": \"0.7\"},"
+            + " {\"id\": \"d\", \"status\": \"Pending\", \"name\": \"four\"}]";
+
+    private static SessionSnapshot snapshot(final String body) {
+        return new SessionSnapshot(body.getBytes(StandardCharsets.UTF_8), "application/json", 0L);
+    }
+
+    private static String render(final SessionListView sessionListView, final String base) {
+        return new String(
+                sessionListView.render(
+                        SessionListViewTest.snapshot(SessionListViewTest.CURRENT),
+                        base == null ? null : SessionListViewTest.snapshot(base)),
+                StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void verbatim() {
+        Assert.assertTrue("No parameters.", new SessionListView(null, " ").isVerbatim());
+        Assert.assertFalse("Fields.", new SessionListView(null, "status").isVerbatim());
+        Assert.assertFalse("Since.", new SessionListView("abc", null).isVerbatim());
+        Assert.assertTrue("View parameter.", SessionListView.isViewParameter("since"));
+        Assert.assertFalse("Upstream parameter.", SessionListView.isViewParameter("view"));
+    }
+
+    @Test
+    public void fields() {
+        final JSONArray sessions =
+                new JSONArray(SessionListViewTest.render(new SessionListView(null, "status, missing"), null));
+
+        Assert.assertEquals("Wrong session count.", 3, sessions.length());
+        Assert.assertEquals("Wrong fields.", 2, sessions.getJSONObject(0).length());
+        Assert.assertEquals(
+                "ID always included.", "a", sessions.getJSONObject(0).getString("id"));
+        Assert.assertEquals(
+                "Wrong status.", "Running", sessions.getJSONObject(0).getString("status"));
+    }
+
+    @Test
+    public void changesSince() {
+        final JSONObject changes =
+                new JSONObject(SessionListViewTest.render(new SessionListView("v1", null), SessionListViewTest.BASE));
+
+        Assert.assertEquals(
+                "Wrong version.",
+                SessionListViewTest.snapshot(SessionListViewTest.CURRENT).getVersion(),
+                changes.getString("version"));
+        Assert.assertFalse("Should be changes only.", changes.getBoolean("full"));
+        Assert.assertEquals(
+                "Wrong removals.", "[\"b\"]", changes.getJSONArray("removed").toString());
+
+        final JSONArray sessions = changes.getJSONArray("sessions");
+        Assert.assertEquals("Wrong change count.", 3, sessions.length());
+        Assert.assertEquals(
+                "Wrong changed session.", "a", sessions.getJSONObject(0).getString("id"));
+        Assert.assertEquals(
+                "Wrong changed session.", "c", sessions.getJSONObject(1).getString("id"));
+        Assert.assertEquals(
+                "Wrong added session.", "d", sessions.getJSONObject(2).getString("id"));
+    }
+
+    @Test
+    public void changesSinceWithFields() {
+        final JSONObject changes = new JSONObject(
+                SessionListViewTest.render(new SessionListView("v1", "status,name"), SessionListViewTest.BASE));
+
+        // Session c only changed in a field that was not asked for.
+        final JSONArray sessions = changes.getJSONArray("sessions");
+        Assert.assertEquals("Wrong change count.", 2, sessions.length());
+        Assert.assertEquals(
+                "Wrong changed session.", "a", sessions.getJSONObject(0).getString("id"));
+        Assert.assertEquals(
+                "Wrong added session.", "d", sessions.getJSONObject(1).getString("id"));
+    }
+
+    @Test
+    public void unknownVersion() {
+        final JSONObject changes =
+                new JSONObject(SessionListViewTest.render(new SessionListView("unknown", null), null));
+
+        Assert.assertTrue("Should be the whole list.", changes.getBoolean("full"));
+        Assert.assertEquals(
+                "Wrong session count.", 3, changes.getJSONArray("sessions").length());
+        Assert.assertTrue("Nothing to remove.", changes.getJSONArray("removed").isEmpty());
+    }
+}
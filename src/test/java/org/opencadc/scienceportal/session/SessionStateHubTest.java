@@ -0,0 +1,278 @@
+package org.opencadc.scienceportal.session;
+
+import ca.nrc.cadc.auth.AuthorizationToken;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.security.auth.Subject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opencadc.scienceportal.proxy.ProxyRequest;
+
+public class SessionStateHubTest {
+    private static Subject tokenSubject(final String token) {
+        final Subject subject = new Subject();
+        subject.getPublicCredentials()
+                .add(new AuthorizationToken("Bearer", token, Collections.singletonList("example.org")));
+        return subject;
+    }
+
+    private static ProxyRequest sessionListRequest() throws Exception {
+        return new ProxyRequest(ProxyRequest.GET, new URL("https://example.org/skaha/v1/session?view=interactive"));
+    }
+
+    @Test
+    public void shareSnapshotBetweenTabs() throws Exception {
+        final AtomicInteger fetchCount = new AtomicInteger();
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final SessionStateHub testSubject = new SessionStateHub(
+                    Duration.ofMinutes(1L), Duration.ofMinutes(1L), scheduler, scheduler, (request, subject) -> {
+                        fetchCount.incrementAndGet();
+                        return new SessionSnapshot(
+                                "[]".getBytes(StandardCharsets.UTF_8), "application/json", System.nanoTime());
+                    });
+
+            for (int tab = 0; tab < 5; tab++) {
+                final SessionSnapshot sessionSnapshot =
+                        testSubject.getSnapshot(SessionStateHubTest.sessionListRequest(), tokenSubject("token-1"));
+                Assert.assertEquals("Wrong body.", "[]", new String(sessionSnapshot.getBody(), StandardCharsets.UTF_8));
+            }
+
+            testSubject.getSnapshot(SessionStateHubTest.sessionListRequest(), tokenSubject("token-2"));
+
+            Assert.assertEquals("Should fetch once per user.", 2, fetchCount.get());
+            Assert.assertEquals("Wrong hit count.", 4L, testSubject.getSnapshotHitCount());
+            Assert.assertEquals("Wrong user count.", 2, testSubject.getActiveUserCount());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void stopPollingWhenIdle() throws Exception {
+        final AtomicInteger fetchCount = new AtomicInteger();
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final SessionStateHub testSubject = new SessionStateHub(
+                    Duration.ofMillis(20L), Duration.ofMillis(100L), scheduler, scheduler, (request, subject) -> {
+                        fetchCount.incrementAndGet();
+                        return new SessionSnapshot(new byte[0], "application/json", System.nanoTime());
+                    });
+
+            testSubject.getSnapshot(SessionStateHubTest.sessionListRequest(), tokenSubject("token-1"));
+            Thread.sleep(500L);
+
+            Assert.assertTrue("Should poll for about two intervals only.", fetchCount.get() <= 4);
+            Assert.assertEquals("Should be discarded when idle.", 0, testSubject.getActiveUserCount());
+
+            final int stoppedCount = fetchCount.get();
+            Thread.sleep(100L);
+            Assert.assertEquals("Should not poll when stopped.", stoppedCount, fetchCount.get());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void keepRecentListsWithoutPolling() throws Exception {
+        final AtomicInteger fetchCount = new AtomicInteger();
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final SessionStateHub testSubject = new SessionStateHub(
+                    Duration.ofMillis(20L), Duration.ofMinutes(1L), scheduler, scheduler, (request, subject) -> {
+                        final String body = "[{\"id\": \"" + fetchCount.incrementAndGet() + "\"}]";
+                        return new SessionSnapshot(
+                                body.getBytes(StandardCharsets.UTF_8), "application/json", System.nanoTime());
+                    });
+
+            final SessionSnapshot first =
+                    testSubject.getSnapshot(SessionStateHubTest.sessionListRequest(), tokenSubject("token-1"));
+            Thread.sleep(300L);
+
+            final int stoppedCount = fetchCount.get();
+            Assert.assertTrue("Should poll for about two intervals only.", stoppedCount <= 4);
+            Assert.assertEquals("Recent lists should be kept.", 1, testSubject.getActiveUserCount());
+            Assert.assertSame(
+                    "Earlier version should be retained.",
+                    first,
+                    testSubject.getRetainedSnapshot(
+                            SessionStateHubTest.sessionListRequest(), tokenSubject("token-1"), first.getVersion()));
+
+            Thread.sleep(100L);
+            Assert.assertEquals("Should not poll while idle.", stoppedCount, fetchCount.get());
+
+            // Older than an interval, so fetched for this request.
+            testSubject.getSnapshot(SessionStateHubTest.sessionListRequest(), tokenSubject("token-1"));
+            Assert.assertEquals("Should fetch a stale list.", stoppedCount + 1, fetchCount.get());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void notifyOnChange() throws Exception {
+        final AtomicInteger fetchCount = new AtomicInteger();
+        final AtomicInteger deliveryCount = new AtomicInteger();
+        final List<String> receivedBodies = new CopyOnWriteArrayList<>();
+        final List<String> fetchThreads = new CopyOnWriteArrayList<>();
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        final ExecutorService pollExecutor =
+                Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "poll"));
+        try {
+            final SessionStateHub testSubject = new SessionStateHub(
+                    Duration.ofMillis(20L), Duration.ofMillis(50L), scheduler, pollExecutor, (request, subject) -> {
+                        fetchThreads.add(Thread.currentThread().getName());
+                        // Changes on the third fetch only.
+                        final String body = fetchCount.incrementAndGet() < 3 ? "[]" : "[{\"id\": \"a\"}]";
+                        return new SessionSnapshot(body.getBytes(StandardCharsets.UTF_8), "application/json", 0L);
+                    });
+
+            final Runnable unsubscribe = testSubject.subscribe(
+                    SessionStateHubTest.sessionListRequest(),
+                    tokenSubject("token-1"),
+                    new SessionStateHub.SnapshotListener() {
+                        @Override
+                        public void onSnapshot(final SessionSnapshot sessionSnapshot) {
+                            deliveryCount.incrementAndGet();
+                            final String body = new String(sessionSnapshot.getBody(), StandardCharsets.UTF_8);
+                            if (receivedBodies.isEmpty()
+                                    || !receivedBodies
+                                            .get(receivedBodies.size() - 1)
+                                            .equals(body)) {
+                                receivedBodies.add(body);
+                            }
+                        }
+
+                        @Override
+                        public void onFailure(final Exception exception) {
+                            Assert.fail("Unexpected failure: " + exception.getMessage());
+                        }
+                    });
+
+            // Well past the idle timeout, but the subscription keeps the poller running.
+            Thread.sleep(300L);
+            Assert.assertEquals("Should still poll.", 1, testSubject.getActiveUserCount());
+            Assert.assertTrue("Unchanged snapshots should not be delivered.", deliveryCount.get() <= 3);
+            Assert.assertEquals("Wrong snapshots.", List.of("[]", "[{\"id\": \"a\"}]"), receivedBodies);
+            // The first fetch is made for the subscription itself.
+            Assert.assertEquals(
+                    "Polls should run on the poll executor.",
+                    Set.of("poll"),
+                    Set.copyOf(fetchThreads.subList(1, fetchThreads.size())));
+
+            unsubscribe.run();
+            Thread.sleep(300L);
+            Assert.assertEquals("Should stop after unsubscribe.", 0, testSubject.getActiveUserCount());
+        } finally {
+            pollExecutor.shutdownNow();
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void invalidateAfterChange() throws Exception {
+        final AtomicReference<String> upstreamBody = new AtomicReference<>("[]");
+        final AtomicInteger fetchCount = new AtomicInteger();
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final SessionStateHub testSubject = new SessionStateHub(
+                    Duration.ofMinutes(1L), Duration.ofMinutes(1L), scheduler, scheduler, (request, subject) -> {
+                        fetchCount.incrementAndGet();
+                        return new SessionSnapshot(
+                                upstreamBody.get().getBytes(StandardCharsets.UTF_8),
+                                "application/json",
+                                System.nanoTime());
+                    });
+
+            testSubject.getSnapshot(SessionStateHubTest.sessionListRequest(), tokenSubject("token-1"));
+            testSubject.getSnapshot(SessionStateHubTest.sessionListRequest(), tokenSubject("token-2"));
+
+            // Launched through the portal.
+            upstreamBody.set("[{\"id\": \"a\"}]");
+            testSubject.invalidate(tokenSubject("token-1"));
+
+            Assert.assertEquals(
+                    "Should fetch after the change.",
+                    "[{\"id\": \"a\"}]",
+                    new String(
+                            testSubject
+                                    .getSnapshot(SessionStateHubTest.sessionListRequest(), tokenSubject("token-1"))
+                                    .getBody(),
+                            StandardCharsets.UTF_8));
+            Assert.assertEquals(
+                    "Other users keep their snapshot.",
+                    "[]",
+                    new String(
+                            testSubject
+                                    .getSnapshot(SessionStateHubTest.sessionListRequest(), tokenSubject("token-2"))
+                                    .getBody(),
+                            StandardCharsets.UTF_8));
+            testSubject.getSnapshot(SessionStateHubTest.sessionListRequest(), tokenSubject("token-1"));
+
+            Assert.assertEquals("Wrong fetch count.", 3, fetchCount.get());
+            Assert.assertEquals("Wrong invalidation count.", 1L, testSubject.getInvalidationCount());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void retainRecentVersions() throws Exception {
+        final AtomicInteger fetchCount = new AtomicInteger();
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final SessionStateHub testSubject = new SessionStateHub(
+                    Duration.ofMinutes(1L), Duration.ofMinutes(1L), scheduler, scheduler, (request, subject) -> {
+                        final String body = "[{\"id\": \"" + fetchCount.incrementAndGet() + "\"}]";
+                        return new SessionSnapshot(
+                                body.getBytes(StandardCharsets.UTF_8), "application/json", System.nanoTime());
+                    });
+
+            final SessionSnapshot first =
+                    testSubject.getSnapshot(SessionStateHubTest.sessionListRequest(), tokenSubject("token-1"));
+            testSubject.invalidate(tokenSubject("token-1"));
+            final SessionSnapshot second =
+                    testSubject.getSnapshot(SessionStateHubTest.sessionListRequest(), tokenSubject("token-1"));
+
+            Assert.assertNotEquals("Should be a new version.", first.getVersion(), second.getVersion());
+            Assert.assertSame(
+                    "Earlier version should be retained.",
+                    first,
+                    testSubject.getRetainedSnapshot(
+                            SessionStateHubTest.sessionListRequest(), tokenSubject("token-1"), first.getVersion()));
+            Assert.assertNull(
+                    "Not retained for other users.",
+                    testSubject.getRetainedSnapshot(
+                            SessionStateHubTest.sessionListRequest(), tokenSubject("token-2"), first.getVersion()));
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void bypassWithoutCredentials() throws Exception {
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final SessionStateHub testSubject = new SessionStateHub(
+                    Duration.ofMinutes(1L), Duration.ofMinutes(1L), scheduler, scheduler, (request, subject) -> {
+                        throw new IllegalStateException("Should not fetch.");
+                    });
+
+            Assert.assertNull(
+                    "Anonymous requests are not shared.",
+                    testSubject.getSnapshot(SessionStateHubTest.sessionListRequest(), new Subject()));
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -1,44 +1,158 @@
+const fs = require('fs');
 const path = require('path');
+const zlib = require('zlib');
 
-module.exports = {
-  devtool: 'source-map',
-  output: {
-    filename: 'react-app.js'
-  },
-  devServer: {
-    static: {
-      directory: path.join(__dirname, 'public'),
+// Gzipped bytes, which is close to what browsers download (see build-assets.js).  The build fails if the scripts loaded
+// with the page, or any one lazily loaded chunk, grow past these.
+const BUDGET = {
+  initialBytes: 300 * 1024,
+  chunkBytes: 150 * 1024
+};
+
+const ENTRYPOINT = 'react-app';
+const REPORT_FILE = path.join(__dirname, 'build', 'reports', 'bundle-size.json');
+
+/**
+ * Writes dist/entrypoints.json, the scripts index.jsp must load for the app in order, and a size report of every
+ * script to build/reports/bundle-size.json.  In production, the build fails, and nothing is emitted, if the report is
+ * over BUDGET.
+ */
+class BundleReportPlugin {
+  constructor(enforceBudget) {
+    this.enforceBudget = enforceBudget;
+  }
+
+  apply(compiler) {
+    const { Compilation, WebpackError, sources } = compiler.webpack;
+
+    compiler.hooks.thisCompilation.tap('BundleReportPlugin', (compilation) => {
+      // After minification, so the sizes are those shipped.
+      compilation.hooks.processAssets.tap(
+          { name: 'BundleReportPlugin', stage: Compilation.PROCESS_ASSETS_STAGE_REPORT },
+          () => {
+            const entryFiles = compilation.entrypoints.get(ENTRYPOINT).getFiles()
+                .filter((file) => file.endsWith('.js'));
+            const entrypoints = JSON.stringify({ [ENTRYPOINT]: entryFiles }, null, 2) + '\n';
+            compilation.emitAsset('entrypoints.json', new sources.RawSource(entrypoints));
+
+            const scripts = compilation.getAssets()
+                .filter((asset) => asset.name.endsWith('.js'))
+                .sort((a, b) => a.name.localeCompare(b.name))
+                .map((asset) => {
+                  const content = asset.source.buffer();
+                  return {
+                    file: asset.name,
+                    initial: entryFiles.includes(asset.name),
+                    bytes: content.length,
+                    gzipBytes: zlib.gzipSync(content, { level: zlib.constants.Z_BEST_COMPRESSION }).length
+                  };
+                });
+            const initialGzipBytes = scripts.filter((script) => script.initial)
+                .reduce((total, script) => total + script.gzipBytes, 0);
+
+            fs.mkdirSync(path.dirname(REPORT_FILE), { recursive: true });
+            fs.writeFileSync(REPORT_FILE, JSON.stringify({
+              mode: compiler.options.mode,
+              budget: BUDGET,
+              initialGzipBytes: initialGzipBytes,
+              scripts: scripts
+            }, null, 2) + '\n');
+
+            if (this.enforceBudget) {
+              const over = scripts.filter((script) => !script.initial && script.gzipBytes > BUDGET.chunkBytes)
+                  .map((script) => script.file + ' is ' + script.gzipBytes + ' bytes gzipped, over '
+                      + BUDGET.chunkBytes);
+              if (initialGzipBytes > BUDGET.initialBytes) {
+                over.push('initial scripts are ' + initialGzipBytes + ' bytes gzipped, over ' + BUDGET.initialBytes);
+              }
+              over.forEach((message) => compilation.errors.push(
+                  new WebpackError('Bundle size budget exceeded: ' + message + '.  See ' + REPORT_FILE)));
+            }
+          });
+    });
+  }
+}
+
+module.exports = (env, argv) => {
+  const production = argv.mode === 'production';
+
+  return {
+    entry: {
+      [ENTRYPOINT]: './src/index.js'
     },
-    compress: true,
-    port: 9000,
-    headers: {
-      "Access-Control-Allow-Origin": "http://localhost:8000",
-      "Access-Control-Allow-Credentials": "true",
-      "Access-Control-Allow-Headers": "Content-Type, Authorization, x-id, Content-Length, X-Requested-With",
-      "Access-Control-Allow-Methods": "GET, POST, PUT, DELETE, OPTIONS"
-    }
-  },
-  module: {
-    rules: [
-      {
-        test: /\.(js|jsx)$/,
-        exclude: /node_modules/,
-        loader: "babel-loader",
-        options: {
-          presets: ['@babel/preset-env', '@babel/preset-react']
+    devtool: 'source-map',
+    mode: production ? 'production' : 'development',
+    output: {
+      path: path.resolve(__dirname, 'src/main/webapp/dist'),
+      filename: '[name].js',
+      // Lazily loaded and vendor chunks, already named for their content.  build-assets.js fingerprints the rest.
+      chunkFilename: 'chunks/[name].[contenthash:10].js',
+      // Resolved from the URL the entry script was loaded from.
+      publicPath: 'auto',
+      // Remove the chunks of earlier builds, but leave what copyDevToDist and build-assets.js put in dist.
+      clean: {
+        keep: (asset) => !asset.startsWith('chunks/')
+      }
+    },
+    optimization: production
+      ? {
+          // Minification (terser) and tree shaking (usedExports, sideEffects) are on by default in production.
+          splitChunks: {
+            chunks: 'all',
+            cacheGroups: {
+              // Changes far less often than the app, so it stays cached across releases.
+              react: {
+                test: /[\\/]node_modules[\\/](react|react-dom|scheduler)[\\/]/,
+                name: 'vendor-react',
+                priority: 20
+              },
+              vendor: {
+                test: /[\\/]node_modules[\\/]/,
+                name: 'vendor',
+                priority: 10
+              }
+            }
+          }
         }
+      : {},
+    // Replaced by the gzip aware budget in BundleReportPlugin.
+    performance: false,
+    plugins: [new BundleReportPlugin(production)],
+    devServer: {
+      static: {
+        directory: path.join(__dirname, 'public'),
       },
-      {
-        test: /\.css$/,
-        use: [
-          'style-loader',
-          'css-loader'
-        ]
+      compress: true,
+      port: 9000,
+      headers: {
+        "Access-Control-Allow-Origin": "http://localhost:8000",
+        "Access-Control-Allow-Credentials": "true",
+        "Access-Control-Allow-Headers": "Content-Type, Authorization, x-id, Content-Length, X-Requested-With",
+        "Access-Control-Allow-Methods": "GET, POST, PUT, DELETE, OPTIONS"
       }
-    ]
+    },
+    module: {
+      rules: [
+        {
+          test: /\.(js|jsx)$/,
+          exclude: /node_modules/,
+          loader: "babel-loader",
+          options: {
+            presets: ['@babel/preset-env', '@babel/preset-react']
+          }
+        },
+        {
+          test: /\.css$/,
+          use: [
+            'style-loader',
+            'css-loader'
+          ]
+        }
+      ]
 
-  },
-  resolve: {
-    extensions: ['.js', '.jsx']
-  }
-};
\ No newline at end of file
+    },
+    resolve: {
+      extensions: ['.js', '.jsx']
+    }
+  };
+};